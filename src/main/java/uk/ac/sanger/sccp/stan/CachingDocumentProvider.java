@@ -0,0 +1,58 @@
+package uk.ac.sanger.sccp.stan;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Document provider that caches parsed and validated query documents by their query text,
+ * so that the same query sent repeatedly by the client is only parsed and validated once.
+ * Documents that fail to parse or validate are not cached.
+ * The cache holds a limited number of entries, evicting those least recently used.
+ * @author dr6
+ */
+public class CachingDocumentProvider implements PreparsedDocumentProvider {
+    private final Cache<String, PreparsedDocumentEntry> cache;
+
+    public CachingDocumentProvider(long maxSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                      Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(loadDocument(executionInput, parseAndValidateFunction));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                              Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return loadDocument(executionInput, parseAndValidateFunction);
+    }
+
+    private PreparsedDocumentEntry loadDocument(ExecutionInput executionInput,
+                                                Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        final String query = executionInput.getQuery();
+        PreparsedDocumentEntry entry = cache.getIfPresent(query);
+        if (entry==null) {
+            entry = parseAndValidateFunction.apply(executionInput);
+            if (!entry.hasErrors()) {
+                cache.put(query, entry);
+            }
+        }
+        return entry;
+    }
+
+    /** The number of documents currently cached */
+    public long size() {
+        return cache.size();
+    }
+}
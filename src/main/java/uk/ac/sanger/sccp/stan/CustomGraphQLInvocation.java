@@ -9,11 +9,15 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.WebRequest;
 import uk.ac.sanger.sccp.stan.config.ApiKeyConfig;
+import uk.ac.sanger.sccp.stan.metrics.RepositoryCallTracker;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
+ * Executes graphql requests, adding the api key details to the context.
+ * The repository calls made while executing each request are tracked by the {@link RepositoryCallTracker}.
+ * Stan's data fetchers run on the calling thread, so the tracking session ends when execution returns.
  * @author dr6
  */
 @Component
@@ -24,11 +28,13 @@ public class CustomGraphQLInvocation implements GraphQLInvocation {
 
     private final GraphQL graphQL;
     private final ApiKeyConfig apiKeyConfig;
+    private final RepositoryCallTracker tracker;
 
     @Autowired
-    public CustomGraphQLInvocation(GraphQL graphQL, ApiKeyConfig apiKeyConfig) {
+    public CustomGraphQLInvocation(GraphQL graphQL, ApiKeyConfig apiKeyConfig, RepositoryCallTracker tracker) {
         this.graphQL = graphQL;
         this.apiKeyConfig = apiKeyConfig;
+        this.tracker = tracker;
     }
 
     @Override
@@ -42,7 +48,17 @@ public class CustomGraphQLInvocation implements GraphQLInvocation {
                 .variables(variables)
                 .graphQLContext(contextMap)
                 .build();
-        return graphQL.executeAsync(executionInput);
+        RepositoryCallTracker.Session session = tracker.start("graphql "
+                + OperationTimingInstrumentation.operationName(invocationData.getOperationName()));
+        CompletableFuture<ExecutionResult> result;
+        try {
+            result = graphQL.executeAsync(executionInput);
+        } catch (RuntimeException | Error e) {
+            tracker.discard(session);
+            throw e;
+        }
+        tracker.stop(session);
+        return result;
     }
 
     private String getHeaderOrVariable(String name, WebRequest request, Map<String, ?> variables) {
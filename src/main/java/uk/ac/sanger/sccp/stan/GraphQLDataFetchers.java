@@ -20,6 +20,8 @@ import uk.ac.sanger.sccp.stan.service.extract.ExtractResultQueryService;
 import uk.ac.sanger.sccp.stan.service.flag.FlagLookupService;
 import uk.ac.sanger.sccp.stan.service.graph.GraphService;
 import uk.ac.sanger.sccp.stan.service.history.HistoryService;
+import uk.ac.sanger.sccp.stan.service.job.Job;
+import uk.ac.sanger.sccp.stan.service.job.JobService;
 import uk.ac.sanger.sccp.stan.service.label.print.LabelPrintService;
 import uk.ac.sanger.sccp.stan.service.operation.AnalyserServiceImp;
 import uk.ac.sanger.sccp.stan.service.operation.RecentOpService;
@@ -90,6 +92,8 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
     final AnalyserScanDataService analyserScanDataService;
     final LabwareNoteService lwNoteService;
     final SlotCopyRecordService slotCopyRecordService;
+    final UserAdminService userAdminService;
+    final JobService jobService;
 
     @Autowired
     public GraphQLDataFetchers(ObjectMapper objectMapper, AuthenticationComponent authComp, UserRepo userRepo,
@@ -115,7 +119,8 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
                                CleanedOutSlotService cleanedOutSlotService,
                                FlagLookupService flagLookupService, MeasurementService measurementService,
                                GraphService graphService, CommentRepo commentRepo,
-                               AnalyserScanDataService analyserScanDataService, LabwareNoteService lwNoteService, SlotCopyRecordService slotCopyRecordService) {
+                               AnalyserScanDataService analyserScanDataService, LabwareNoteService lwNoteService, SlotCopyRecordService slotCopyRecordService,
+                               UserAdminService userAdminService, JobService jobService) {
         super(objectMapper, authComp, userRepo);
         this.sessionConfig = sessionConfig;
         this.versionInfo = versionInfo;
@@ -167,6 +172,8 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         this.analyserScanDataService = analyserScanDataService;
         this.lwNoteService = lwNoteService;
         this.slotCopyRecordService = slotCopyRecordService;
+        this.userAdminService = userAdminService;
+        this.jobService = jobService;
     }
 
     public DataFetcher<User> getUser() {
@@ -321,6 +328,10 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<CursorPage<Work>> getWorksPage() {
+        return dfe -> workService.getWorksPage(arg(dfe, "request", WorkPageRequest.class));
+    }
+
     public DataFetcher<Work> getWork() {
         return dfe -> workRepo.getByWorkNumber(dfe.getArgument("workNumber"));
     }
@@ -340,6 +351,10 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<CursorPage<WorkWithComment>> getWorksWithCommentsPage() {
+        return dfe -> workService.getWorksWithCommentsPage(arg(dfe, "request", WorkPageRequest.class));
+    }
+
     public DataFetcher<SuggestedWorkResponse> getSuggestedWorkForLabwareBarcodes() {
         return dfe -> {
             List<String> barcodes = dfe.getArgument("barcodes");
@@ -396,6 +411,14 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<List<Operation>> findLatestOperations() {
+        return dfe -> {
+            List<String> barcodes = dfe.getArgument("barcodes");
+            String opName = dfe.getArgument("operationType");
+            return recentOpService.findLatestOps(barcodes, opName);
+        };
+    }
+
     public DataFetcher<List<Address>> cleanedOutAddresses() {
         return dfe -> {
             String barcode = dfe.getArgument("barcode");
@@ -423,6 +446,22 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<CursorPage<User>> getUsersPage() {
+        return dfe -> {
+            boolean includeDisabled = argOrFalse(dfe, "includeDisabled");
+            String after = dfe.getArgument("after");
+            Integer pageSize = dfe.getArgument("pageSize");
+            return userAdminService.getUsersPage(includeDisabled, after, pageSize);
+        };
+    }
+
+    public DataFetcher<Job> getJob() {
+        return dfe -> {
+            Integer id = dfe.getArgument("id");
+            return jobService.getJob(id);
+        };
+    }
+
     public DataFetcher<FindResult> find() {
         return dfe -> {
             FindRequest request = arg(dfe, "request", FindRequest.class);
@@ -450,7 +489,8 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         List<String> externalNames = dfe.getArgument("externalName");
         List<String> donorNames = dfe.getArgument("donorName");
         String eventType = dfe.getArgument("eventType");
-        return historyService.getHistory(workNumber, barcode, externalNames, donorNames, eventType);
+        String after = dfe.getArgument("after");
+        return historyService.getHistory(workNumber, barcode, externalNames, donorNames, eventType, after);
     }
 
     public DataFetcher<History> history() {
@@ -479,7 +519,8 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
     public DataFetcher<History> historyForWorkNumber() {
         return dfe -> {
             String workNumber = dfe.getArgument("workNumber");
-            return historyService.getHistoryForWorkNumber(workNumber);
+            String after = dfe.getArgument("after");
+            return historyService.getHistoryForWorkNumber(workNumber, after);
         };
     }
 
@@ -512,6 +553,13 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<List<AnalyserScanData>> analyserScanDataForLabware() {
+        return dfe -> {
+            List<String> barcodes = dfe.getArgument("barcodes");
+            return analyserScanDataService.load(barcodes);
+        };
+    }
+
     public DataFetcher<Set<String>> runNames() {
         return dfe -> {
             String barcode = dfe.getArgument("barcode");
@@ -573,6 +621,14 @@ public class GraphQLDataFetchers extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<List<LabwarePassFails>> getLabwarePassFails() {
+        return dfe -> {
+            List<String> barcodes = dfe.getArgument("barcodes");
+            String opName = dfe.getArgument("operationType");
+            return passFailQueryService.getLabwarePassFails(barcodes, opName);
+        };
+    }
+
     public DataFetcher<ReagentPlate> getReagentPlate() {
         return dfe -> {
             String barcode = dfe.getArgument("barcode");
@@ -20,6 +20,8 @@ import uk.ac.sanger.sccp.stan.service.*;
 import uk.ac.sanger.sccp.stan.service.analysis.RNAAnalysisService;
 import uk.ac.sanger.sccp.stan.service.extract.ExtractService;
 import uk.ac.sanger.sccp.stan.service.flag.FlagLabwareService;
+import uk.ac.sanger.sccp.stan.service.job.Job;
+import uk.ac.sanger.sccp.stan.service.job.JobService;
 import uk.ac.sanger.sccp.stan.service.label.print.LabelPrintService;
 import uk.ac.sanger.sccp.stan.service.operation.*;
 import uk.ac.sanger.sccp.stan.service.operation.confirm.ConfirmOperationService;
@@ -29,7 +31,7 @@ import uk.ac.sanger.sccp.stan.service.register.IRegisterService;
 import uk.ac.sanger.sccp.stan.service.work.WorkService;
 import uk.ac.sanger.sccp.stan.service.work.WorkTypeService;
 
-import java.util.List;
+import java.util.*;
 import java.util.function.BiFunction;
 
 import static java.util.Objects.requireNonNull;
@@ -104,6 +106,7 @@ public class GraphQLMutation extends BaseGraphQLResource {
     final RoiMetricService roiMetricService;
     final UserAdminService userAdminService;
     final SlotCopyRecordService slotCopyRecordService;
+    final JobService jobService;
 
     @Autowired
     public GraphQLMutation(ObjectMapper objectMapper, AuthenticationComponent authComp,
@@ -137,7 +140,8 @@ public class GraphQLMutation extends BaseGraphQLResource {
                            QCLabwareService qcLabwareService, OrientationService orientationService, SSStudyService ssStudyService,
                            ReactivateService reactivateService, LibraryPrepService libraryPrepService,
                            SegmentationService segmentationService, CleanOutService cleanOutService, RoiMetricService roiMetricService,
-                           UserAdminService userAdminService, SlotCopyRecordService slotCopyRecordService) {
+                           UserAdminService userAdminService, SlotCopyRecordService slotCopyRecordService,
+                           JobService jobService) {
         super(objectMapper, authComp, userRepo);
         this.authService = authService;
         this.registerService = registerService;
@@ -202,6 +206,7 @@ public class GraphQLMutation extends BaseGraphQLResource {
         this.roiMetricService = roiMetricService;
         this.userAdminService = userAdminService;
         this.slotCopyRecordService = slotCopyRecordService;
+        this.jobService = jobService;
     }
 
     private void logRequest(String name, User user, Object request) {
@@ -930,6 +935,48 @@ public class GraphQLMutation extends BaseGraphQLResource {
         };
     }
 
+    public DataFetcher<Job> submitHistoryJob() {
+        return dfe -> {
+            User user = checkUser(dfe, User.Role.enduser);
+            String workNumber = dfe.getArgument("workNumber");
+            String barcode = dfe.getArgument("barcode");
+            List<String> externalNames = dfe.getArgument("externalName");
+            List<String> donorNames = dfe.getArgument("donorName");
+            String eventType = dfe.getArgument("eventType");
+            logRequest("SubmitHistoryJob", user, String.format("workNumber: %s, barcode: %s, externalName: %s, donorName: %s, eventType: %s",
+                    repr(workNumber), repr(barcode), externalNames, donorNames, repr(eventType)));
+            return jobService.submitHistory(user, workNumber, barcode, externalNames, donorNames, eventType);
+        };
+    }
+
+    public DataFetcher<Job> submitWorkProgressJob() {
+        return dfe -> {
+            User user = checkUser(dfe, User.Role.enduser);
+            String workNumber = dfe.getArgument("workNumber");
+            List<String> workTypeNames = dfe.getArgument("workTypes");
+            List<Work.Status> statuses = arg(dfe, "statuses", new TypeReference<>() {});
+            List<String> programNames = dfe.getArgument("programs");
+            List<String> requesterNames = dfe.getArgument("requesters");
+            logRequest("SubmitWorkProgressJob", user, String.format("workNumber: %s, workTypes: %s, programs: %s, statuses: %s, requesters: %s",
+                    repr(workNumber), workTypeNames, programNames, statuses, requesterNames));
+            return jobService.submitWorkProgress(user, workNumber, workTypeNames, programNames, statuses, requesterNames);
+        };
+    }
+
+    public DataFetcher<Job> submitReleaseFileJob() {
+        return dfe -> {
+            User user = checkUser(dfe, User.Role.enduser);
+            List<Integer> releaseIds = dfe.getArgument("releaseIds");
+            List<String> groupNames = dfe.getArgument("groups");
+            Set<ReleaseFileOption> options = EnumSet.noneOf(ReleaseFileOption.class);
+            if (groupNames!=null) {
+                groupNames.forEach(name -> options.add(ReleaseFileOption.forParameterName(name)));
+            }
+            logRequest("SubmitReleaseFileJob", user, String.format("releaseIds: %s, options: %s", releaseIds, options));
+            return jobService.submitReleaseFile(user, releaseIds, options);
+        };
+    }
+
     public DataFetcher<User> addUser() {
         return adminAdd(userAdminService::addNormalUser, "AddUser", "username");
     }
@@ -3,19 +3,28 @@ package uk.ac.sanger.sccp.stan;
 import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
 import graphql.execution.AsyncExecutionStrategy;
 import graphql.execution.AsyncSerialExecutionStrategy;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.Instrumentation;
 import graphql.schema.DataFetcher;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
+import uk.ac.sanger.sccp.stan.config.GraphQLConfig;
+import uk.ac.sanger.sccp.stan.metrics.GraphQLMetrics;
+import uk.ac.sanger.sccp.stan.metrics.SqlStatementCounter;
 import uk.ac.sanger.sccp.stan.model.User;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import static graphql.schema.idl.TypeRuntimeWiring.newTypeWiring;
 
@@ -31,14 +40,21 @@ public class GraphQLProvider {
     final GraphQLDataFetchers graphQLDataFetchers;
     final GraphQLMutation graphQLMutation;
     final GraphQLStore graphQLStore;
+    final GraphQLConfig graphQLConfig;
+    final GraphQLMetrics graphQLMetrics;
+    final SqlStatementCounter sqlStatementCounter;
 
     @Autowired
     public GraphQLProvider(Transactor transactor,
-                           GraphQLDataFetchers graphQLDataFetchers, GraphQLMutation graphQLMutation, GraphQLStore graphQLStore) {
+                           GraphQLDataFetchers graphQLDataFetchers, GraphQLMutation graphQLMutation, GraphQLStore graphQLStore,
+                           GraphQLConfig graphQLConfig, GraphQLMetrics graphQLMetrics, SqlStatementCounter sqlStatementCounter) {
         this.transactor = transactor;
         this.graphQLDataFetchers = graphQLDataFetchers;
         this.graphQLMutation = graphQLMutation;
         this.graphQLStore = graphQLStore;
+        this.graphQLConfig = graphQLConfig;
+        this.graphQLMetrics = graphQLMetrics;
+        this.sqlStatementCounter = sqlStatementCounter;
     }
 
     @Bean
@@ -54,9 +70,31 @@ public class GraphQLProvider {
         this.graphQL = GraphQL.newGraphQL(graphQLSchema)
                 .mutationExecutionStrategy(new AsyncSerialExecutionStrategy(new StanExceptionHandler()))
                 .queryExecutionStrategy(new AsyncExecutionStrategy(new StanExceptionHandler()))
+                .preparsedDocumentProvider(new CachingDocumentProvider(graphQLConfig.getDocumentCacheSize()))
+                .instrumentation(buildInstrumentation(graphQLConfig, new OperationTimingInstrumentation(graphQLMetrics,
+                        sqlStatementCounter, graphQLConfig.getSlowOperationMillis(), graphQLConfig.getStatementWarningCount())))
                 .build();
     }
 
+    /**
+     * Creates the instrumentation for timing operations and rejecting queries that exceed the configured limits
+     * @param config the config specifying the limits
+     * @param timingInstrumentation the instrumentation recording metrics
+     * @return the instrumentation to use
+     */
+    static Instrumentation buildInstrumentation(GraphQLConfig config, Instrumentation timingInstrumentation) {
+        List<Instrumentation> instrumentations = new ArrayList<>(3);
+        instrumentations.add(timingInstrumentation);
+        if (config.getMaxQueryDepth() > 0) {
+            instrumentations.add(new MaxQueryDepthInstrumentation(config.getMaxQueryDepth()));
+        }
+        if (config.getMaxQueryComplexity() > 0) {
+            instrumentations.add(new MaxQueryComplexityInstrumentation(config.getMaxQueryComplexity(),
+                    new StanFieldComplexityCalculator(config.getCostlyFieldComplexity())));
+        }
+        return new ChainedInstrumentation(instrumentations);
+    }
+
     private GraphQLSchema buildSchema(String sdl) {
         TypeDefinitionRegistry typeRegistry = new SchemaParser().parse(sdl);
         RuntimeWiring runtimeWiring = buildWiring();
@@ -97,9 +135,11 @@ public class GraphQLProvider {
                         .dataFetcher("samplePositions", graphQLDataFetchers.getSamplePositions())
                         .dataFetcher("workTypes", graphQLDataFetchers.getWorkTypes())
                         .dataFetcher("works", graphQLDataFetchers.getWorks())
+                        .dataFetcher("worksPage", graphQLDataFetchers.getWorksPage())
                         .dataFetcher("work", graphQLDataFetchers.getWork())
                         .dataFetcher("worksCreatedBy", graphQLDataFetchers.getWorksCreatedBy())
                         .dataFetcher("worksWithComments", graphQLDataFetchers.getWorksWithComments())
+                        .dataFetcher("worksWithCommentsPage", graphQLDataFetchers.getWorksWithCommentsPage())
                         .dataFetcher("worksSummary", graphQLDataFetchers.worksSummary())
                         .dataFetcher("listFiles", graphQLDataFetchers.listStanFiles())
                         .dataFetcher("stainTypes", graphQLDataFetchers.getEnabledStainTypes())
@@ -107,6 +147,7 @@ public class GraphQLProvider {
                         .dataFetcher("visiumPermData", graphQLDataFetchers.getVisiumPermData())
                         .dataFetcher("extractResult", graphQLDataFetchers.getExtractResult())
                         .dataFetcher("passFails", graphQLDataFetchers.getPassFails())
+                        .dataFetcher("labwarePassFails", graphQLDataFetchers.getLabwarePassFails())
                         .dataFetcher("reagentPlate", graphQLDataFetchers.getReagentPlate())
                         .dataFetcher("nextReplicateNumbers", graphQLDataFetchers.nextReplicateNumbers())
                         .dataFetcher("labwareOperations", graphQLDataFetchers.getLabwareOperations())
@@ -114,6 +155,7 @@ public class GraphQLProvider {
                         .dataFetcher("suggestedWorkForLabware", graphQLDataFetchers.getSuggestedWorkForLabwareBarcodes())
                         .dataFetcher("suggestedLabwareForWork", graphQLDataFetchers.getSuggestedLabwareForWork())
                         .dataFetcher("findLatestOp", graphQLDataFetchers.findLatestOperation())
+                        .dataFetcher("findLatestOps", graphQLDataFetchers.findLatestOperations())
                         .dataFetcher("cleanedOutAddresses", graphQLDataFetchers.cleanedOutAddresses())
                         .dataFetcher("labwareFlagDetails", graphQLDataFetchers.getFlagDetails())
                         .dataFetcher("measurementValueFromLabwareOrParent", graphQLDataFetchers.getMeasurementValueFromLabwareOrParent())
@@ -121,6 +163,8 @@ public class GraphQLProvider {
                         .dataFetcher("runRois", graphQLDataFetchers.labwareRunRois())
 
                         .dataFetcher("users", graphQLDataFetchers.getUsers())
+                        .dataFetcher("usersPage", graphQLDataFetchers.getUsersPage())
+                        .dataFetcher("job", graphQLDataFetchers.getJob())
                         .dataFetcher("planData", graphQLDataFetchers.getPlanData())
 
                         .dataFetcher("historyForSampleId", graphQLDataFetchers.historyForSampleId())
@@ -133,6 +177,7 @@ public class GraphQLProvider {
                         .dataFetcher("eventTypes", graphQLDataFetchers.eventTypes())
                         .dataFetcher("workProgress", graphQLDataFetchers.workProgress())
                         .dataFetcher("analyserScanData", graphQLDataFetchers.analyserScanData())
+                        .dataFetcher("analyserScanDataForLabware", graphQLDataFetchers.analyserScanDataForLabware())
                         .dataFetcher("runNames", graphQLDataFetchers.runNames())
                         .dataFetcher("labwareBioRiskCodes", graphQLDataFetchers.labwareBioRiskCodes())
                         .dataFetcher("reloadSlotCopy", graphQLDataFetchers.reloadSlotCopy())
@@ -236,6 +281,9 @@ public class GraphQLProvider {
                         .dataFetcher("segmentation", transact(graphQLMutation.segmentation()))
                         .dataFetcher("cleanOut", transact(graphQLMutation.cleanOut()))
                         .dataFetcher("recordSampleMetrics", transact(graphQLMutation.recordSampleMetrics()))
+                        .dataFetcher("submitHistoryJob", graphQLMutation.submitHistoryJob())
+                        .dataFetcher("submitWorkProgressJob", graphQLMutation.submitWorkProgressJob())
+                        .dataFetcher("submitReleaseFileJob", graphQLMutation.submitReleaseFileJob())
                         .dataFetcher("saveSlotCopy", transact(graphQLMutation.saveSlotCopy()))
 
                         .dataFetcher("addUser", transact(graphQLMutation.addUser()))
@@ -0,0 +1,42 @@
+package uk.ac.sanger.sccp.stan;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import uk.ac.sanger.sccp.stan.service.job.Job;
+import uk.ac.sanger.sccp.stan.service.job.JobService;
+
+import static uk.ac.sanger.sccp.utils.tsv.TsvFileConverter.TSV_MEDIA_TYPE;
+
+/**
+ * Controller for downloading the results of completed jobs.
+ * @author dr6
+ */
+@Controller
+public class JobController {
+    private final Logger log = LoggerFactory.getLogger(JobController.class);
+
+    private final JobService jobService;
+
+    @Autowired
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    @ResponseBody
+    public ResponseEntity<Resource> serveResult(@PathVariable int id) {
+        Job job = jobService.getJob(id);
+        Resource resource = jobService.loadResult(job);
+        log.debug("Serving result of job {}", job);
+        return ResponseEntity.ok()
+                .contentType(TSV_MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFilename() + "\"")
+                .body(resource);
+    }
+}
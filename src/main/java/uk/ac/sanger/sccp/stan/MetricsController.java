@@ -0,0 +1,28 @@
+package uk.ac.sanger.sccp.stan;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import uk.ac.sanger.sccp.stan.metrics.GraphQLMetrics;
+
+/**
+ * Controller for delivering metrics in the Prometheus text format.
+ * @author dr6
+ */
+@Controller
+public class MetricsController {
+    public static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final GraphQLMetrics graphQLMetrics;
+
+    @Autowired
+    public MetricsController(GraphQLMetrics graphQLMetrics) {
+        this.graphQLMetrics = graphQLMetrics;
+    }
+
+    @RequestMapping(value="/metrics", method=RequestMethod.GET, produces=PROMETHEUS_CONTENT_TYPE)
+    @ResponseBody
+    public String getMetrics() {
+        return graphQLMetrics.toPrometheus();
+    }
+}
@@ -0,0 +1,97 @@
+package uk.ac.sanger.sccp.stan;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.*;
+import graphql.execution.instrumentation.parameters.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.sanger.sccp.stan.metrics.GraphQLMetrics;
+import uk.ac.sanger.sccp.stan.metrics.SqlStatementCounter;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Instrumentation that records how long each graphql operation takes, how long each non-trivial field
+ * takes to fetch, and how many SQL statements each operation executes.
+ * The results are recorded in {@link GraphQLMetrics}.
+ * Durations are logged at debug level, or as a warning if they exceed the slow-operation threshold
+ * or the statement-count threshold.
+ * <p>
+ * Statements are counted on the thread that executes the operation, which is where Stan's
+ * data fetchers run.
+ * @author dr6
+ */
+public class OperationTimingInstrumentation extends SimplePerformantInstrumentation {
+    private static final Logger log = LoggerFactory.getLogger(OperationTimingInstrumentation.class);
+    /** The name used for operations that the request did not name */
+    public static final String ANONYMOUS = "(anonymous)";
+
+    private final GraphQLMetrics metrics;
+    private final SqlStatementCounter statementCounter;
+    private final long slowOperationMillis;
+    private final int statementWarningCount;
+    private final LongSupplier nanoClock;
+
+    public OperationTimingInstrumentation(GraphQLMetrics metrics, SqlStatementCounter statementCounter,
+                                          long slowOperationMillis, int statementWarningCount) {
+        this(metrics, statementCounter, slowOperationMillis, statementWarningCount, System::nanoTime);
+    }
+
+    OperationTimingInstrumentation(GraphQLMetrics metrics, SqlStatementCounter statementCounter,
+                                   long slowOperationMillis, int statementWarningCount, LongSupplier nanoClock) {
+        this.metrics = metrics;
+        this.statementCounter = statementCounter;
+        this.slowOperationMillis = slowOperationMillis;
+        this.statementWarningCount = statementWarningCount;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        final String operationName = operationName(parameters.getOperation());
+        final long start = nanoClock.getAsLong();
+        final SqlStatementCounter.Count count = statementCounter.start();
+        return SimpleInstrumentationContext.whenCompleted((result, exception) -> {
+            statementCounter.stop(count);
+            recordOperation(operationName, nanoClock.getAsLong() - start, count.get());
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        final String fieldName = parameters.getExecutionStepInfo().getObjectType().getName()
+                + "." + parameters.getField().getName();
+        final long start = nanoClock.getAsLong();
+        return SimpleInstrumentationContext.whenCompleted((result, exception) ->
+                metrics.recordField(fieldName, nanoClock.getAsLong() - start));
+    }
+
+    /**
+     * Records an operation being performed
+     * @param operationName the name of the operation
+     * @param nanos the duration of the operation in nanoseconds
+     * @param statements the number of SQL statements executed
+     */
+    protected void recordOperation(String operationName, long nanos, int statements) {
+        metrics.recordOperation(operationName, nanos, statements);
+        final long millis = nanos / 1_000_000L;
+        if (slowOperationMillis > 0 && millis >= slowOperationMillis
+                || statementWarningCount > 0 && statements >= statementWarningCount) {
+            log.warn("Slow graphql operation {} took {} ms and executed {} SQL statements",
+                    operationName, millis, statements);
+        } else {
+            log.debug("Graphql operation {} took {} ms and executed {} SQL statements",
+                    operationName, millis, statements);
+        }
+    }
+
+    /** Gets the given operation name, or {@link #ANONYMOUS} if it is null or empty */
+    static String operationName(String name) {
+        return (name==null || name.isEmpty() ? ANONYMOUS : name);
+    }
+}
@@ -20,19 +20,26 @@ import static uk.ac.sanger.sccp.utils.BasicUtils.repr;
 @Controller
 public class ReleaseFileController {
     private final ReleaseFileService releaseFileService;
+    private final ReleaseFileStore releaseFileStore;
 
     @Autowired
-    public ReleaseFileController(ReleaseFileService releaseFileService) {
+    public ReleaseFileController(ReleaseFileService releaseFileService, ReleaseFileStore releaseFileStore) {
         this.releaseFileService = releaseFileService;
+        this.releaseFileStore = releaseFileStore;
     }
 
     @RequestMapping(value="/release", method = RequestMethod.GET, produces = "text/tsv")
     @ResponseBody
-    public TsvFile<ReleaseEntry> getReleaseFile(@RequestParam(name="id") List<Integer> ids,
+    public TsvFile<?> getReleaseFile(@RequestParam(name="id") List<Integer> ids,
                                                 @RequestParam(name="groups", required=false) List<String> groupNames,
                                                 @RequestParam(name="type", required=false) String fileType) {
         final String filename = filenameForType(fileType);
-        ReleaseFileContent rfc = releaseFileService.getReleaseFileContent(ids, parseOptions(groupNames));
+        final Set<ReleaseFileOption> options = parseOptions(groupNames);
+        StoredReleaseFile stored = releaseFileStore.load(ids, options);
+        if (stored!=null) {
+            return stored.toTsvFile(filename);
+        }
+        ReleaseFileContent rfc = releaseFileService.getReleaseFileContent(ids, options);
         List<? extends TsvColumn<ReleaseEntry>> columns = releaseFileService.computeColumns(rfc);
         return new TsvFile<>(filename, rfc.getEntries(), columns);
     }
@@ -0,0 +1,36 @@
+package uk.ac.sanger.sccp.stan;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+
+import java.util.Set;
+
+/**
+ * Calculates query complexity, counting each field as 1, except for expensive top-level query fields,
+ * which have a configured extra cost.
+ * @author dr6
+ */
+public class StanFieldComplexityCalculator implements FieldComplexityCalculator {
+    /** Query fields that may load large amounts of data */
+    public static final Set<String> COSTLY_FIELDS = Set.of(
+            "find", "history", "historyGraph", "historyForSampleId", "historyForExternalName",
+            "historyForDonorName", "historyForWorkNumber", "historyForLabwareBarcode",
+            "workProgress", "worksSummary"
+    );
+
+    private final int costlyFieldComplexity;
+
+    public StanFieldComplexityCalculator(int costlyFieldComplexity) {
+        this.costlyFieldComplexity = costlyFieldComplexity;
+    }
+
+    @Override
+    public int calculate(FieldComplexityEnvironment env, int childComplexity) {
+        int cost = 1;
+        if (env.getParentEnvironment()==null && "Query".equals(env.getParentType().getName())
+                && COSTLY_FIELDS.contains(env.getField().getName())) {
+            cost = costlyFieldComplexity;
+        }
+        return cost + childComplexity;
+    }
+}
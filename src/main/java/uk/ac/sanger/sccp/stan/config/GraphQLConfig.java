@@ -0,0 +1,55 @@
+package uk.ac.sanger.sccp.stan.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config for executing graphql requests: document caching, query limits and logging thresholds.
+ * Any limit set to zero or less is disabled.
+ * @author dr6
+ */
+@Configuration
+public class GraphQLConfig {
+    @Value("${stan.graphql.document_cache_size:500}")
+    int documentCacheSize;
+    @Value("${stan.graphql.max_query_depth:20}")
+    int maxQueryDepth;
+    @Value("${stan.graphql.max_query_complexity:5000}")
+    int maxQueryComplexity;
+    @Value("${stan.graphql.costly_field_complexity:100}")
+    int costlyFieldComplexity;
+    @Value("${stan.graphql.slow_operation_ms:2000}")
+    long slowOperationMillis;
+    @Value("${stan.graphql.statement_warning_count:200}")
+    int statementWarningCount;
+
+    /** The maximum number of parsed and validated query documents to cache */
+    public int getDocumentCacheSize() {
+        return this.documentCacheSize;
+    }
+
+    /** The maximum depth of field selections allowed in a query */
+    public int getMaxQueryDepth() {
+        return this.maxQueryDepth;
+    }
+
+    /** The maximum total complexity allowed in a query */
+    public int getMaxQueryComplexity() {
+        return this.maxQueryComplexity;
+    }
+
+    /** The complexity added for each use of an expensive query field (e.g. {@code find} or {@code history}) */
+    public int getCostlyFieldComplexity() {
+        return this.costlyFieldComplexity;
+    }
+
+    /** Operations taking longer than this (in milliseconds) are logged as warnings */
+    public long getSlowOperationMillis() {
+        return this.slowOperationMillis;
+    }
+
+    /** Operations executing at least this many SQL statements are logged as warnings */
+    public int getStatementWarningCount() {
+        return this.statementWarningCount;
+    }
+}
@@ -0,0 +1,43 @@
+package uk.ac.sanger.sccp.stan.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import uk.ac.sanger.sccp.stan.service.job.Job;
+
+/**
+ * Config for running report jobs in the background: how many of each type may run at once,
+ * how many may wait, and how long results are kept.
+ * @author dr6
+ */
+@Configuration
+public class JobConfig {
+    @Value("${stan.jobs.history.concurrency:1}")
+    int historyConcurrency;
+    @Value("${stan.jobs.work_progress.concurrency:1}")
+    int workProgressConcurrency;
+    @Value("${stan.jobs.release_file.concurrency:2}")
+    int releaseFileConcurrency;
+    @Value("${stan.jobs.max_queued:20}")
+    int maxQueued;
+    @Value("${stan.jobs.result_ttl_minutes:60}")
+    int resultTtlMinutes;
+
+    /** The maximum number of jobs of the given type that may run at the same time */
+    public int getConcurrency(Job.Type type) {
+        return switch (type) {
+            case history -> historyConcurrency;
+            case workProgress -> workProgressConcurrency;
+            case releaseFile -> releaseFileConcurrency;
+        };
+    }
+
+    /** The maximum number of jobs of each type that may be waiting to run */
+    public int getMaxQueued() {
+        return this.maxQueued;
+    }
+
+    /** How long (in minutes) the results of a finished job are kept */
+    public int getResultTtlMinutes() {
+        return this.resultTtlMinutes;
+    }
+}
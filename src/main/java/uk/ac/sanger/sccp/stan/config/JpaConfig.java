@@ -0,0 +1,24 @@
+package uk.ac.sanger.sccp.stan.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.loader.BatchFetchStyle;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config for how hibernate loads entities
+ * @author dr6
+ */
+@Configuration
+public class JpaConfig {
+    /**
+     * Pads batch loads (such as the samples in slots) up to the batch size, so that each batch is loaded
+     * in one statement, instead of being split into smaller fixed-size statements.
+     * @return a customizer setting the batch fetch style in the hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchFetchStyleCustomizer() {
+        return props -> props.put(AvailableSettings.BATCH_FETCH_STYLE, BatchFetchStyle.PADDED.name());
+    }
+}
@@ -0,0 +1,37 @@
+package uk.ac.sanger.sccp.stan.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.ac.sanger.sccp.stan.metrics.*;
+
+/**
+ * Config for collecting metrics
+ * @author dr6
+ */
+@Configuration
+public class MetricsConfig {
+    /**
+     * Registers the statement counter with hibernate, so it sees each SQL statement prepared.
+     * @param statementCounter the statement counter
+     * @return a customizer adding the statement inspector to the hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter statementCounter) {
+        return props -> props.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    /**
+     * Adds call tracking to repositories.
+     * The tracker is looked up lazily, so that creating this post processor does not require other beans.
+     * @param trackerProvider provider for the repository call tracker
+     * @return a bean post processor that adds tracking to repositories
+     */
+    @Bean
+    public static RepositoryTrackingPostProcessor repositoryTrackingPostProcessor(
+            ObjectProvider<RepositoryCallTracker> trackerProvider) {
+        return new RepositoryTrackingPostProcessor(trackerProvider);
+    }
+}
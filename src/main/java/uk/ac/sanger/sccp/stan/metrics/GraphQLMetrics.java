@@ -0,0 +1,127 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics for graphql requests: the time taken by each named operation and each non-trivial
+ * field fetch, and the number of SQL statements executed per operation.
+ * The metrics can be written in the Prometheus text exposition format.
+ * <p>
+ * Operation names are chosen by the client, so only a limited number of distinct names are recorded;
+ * operations with any further names are recorded together as {@link #OTHER_OPERATIONS}.
+ * @author dr6
+ */
+@Component
+public class GraphQLMetrics {
+    static final String OPERATION_SECONDS = "stan_graphql_operation_seconds",
+            FIELD_SECONDS = "stan_graphql_field_seconds",
+            OPERATION_STATEMENTS = "stan_graphql_operation_sql_statements";
+    /** The default maximum number of distinct operation names recorded */
+    static final int MAX_OPERATION_NAMES = 500;
+    /** The name under which operations are recorded once the limit of distinct names is reached */
+    public static final String OTHER_OPERATIONS = "(other)";
+
+    private final int maxOperationNames;
+
+    private final Map<String, Summary> operationTimes = new ConcurrentHashMap<>();
+    private final Map<String, Summary> fieldTimes = new ConcurrentHashMap<>();
+    private final Map<String, Summary> operationStatements = new ConcurrentHashMap<>();
+
+    public GraphQLMetrics() {
+        this(MAX_OPERATION_NAMES);
+    }
+
+    GraphQLMetrics(int maxOperationNames) {
+        this.maxOperationNames = maxOperationNames;
+    }
+
+    /**
+     * Records an operation being performed
+     * @param operationName the name of the operation
+     * @param nanos the time taken in nanoseconds
+     * @param statements the number of SQL statements executed
+     */
+    public void recordOperation(String operationName, long nanos, int statements) {
+        operationName = operationKey(operationName);
+        operationTimes.computeIfAbsent(operationName, k -> new Summary()).add(nanos);
+        operationStatements.computeIfAbsent(operationName, k -> new Summary()).add(statements);
+    }
+
+    /**
+     * Gets the name to record an operation under.
+     * Names already recorded are kept; new names are only added while there are fewer than the maximum.
+     * Concurrent operations may exceed the maximum slightly, but not by more than the number of threads.
+     * @param operationName the name of the operation
+     * @return the given name, or {@link #OTHER_OPERATIONS}
+     */
+    private String operationKey(String operationName) {
+        if (operationTimes.containsKey(operationName) || operationTimes.size() < maxOperationNames) {
+            return operationName;
+        }
+        return OTHER_OPERATIONS;
+    }
+
+    /**
+     * Records a field being fetched
+     * @param fieldName the name of the field, including its parent type (e.g. {@code Query.find})
+     * @param nanos the time taken in nanoseconds
+     */
+    public void recordField(String fieldName, long nanos) {
+        fieldTimes.computeIfAbsent(fieldName, k -> new Summary()).add(nanos);
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format
+     * @return a string of the metrics
+     */
+    public String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        writeSummary(sb, OPERATION_SECONDS, "Time taken to execute graphql operations",
+                "operation", operationTimes, 1e-9);
+        writeSummary(sb, FIELD_SECONDS, "Time taken to fetch graphql fields",
+                "field", fieldTimes, 1e-9);
+        writeSummary(sb, OPERATION_STATEMENTS, "SQL statements executed by graphql operations",
+                "operation", operationStatements, 1);
+        return sb.toString();
+    }
+
+    private static void writeSummary(StringBuilder sb, String name, String help, String label,
+                                     Map<String, Summary> summaries, double scale) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" summary\n");
+        Map<String, Summary> sorted = new TreeMap<>(summaries);
+        sorted.forEach((key, summary) -> {
+            String labels = "{" + label + "=\"" + escapeLabel(key) + "\"}";
+            sb.append(name).append("_count").append(labels).append(' ').append(summary.count.sum()).append('\n');
+            sb.append(name).append("_sum").append(labels).append(' ').append(summary.sum.sum() * scale).append('\n');
+        });
+        sb.append("# HELP ").append(name).append("_max ").append(help).append(" (maximum)\n");
+        sb.append("# TYPE ").append(name).append("_max gauge\n");
+        sorted.forEach((key, summary) -> sb.append(name).append("_max{").append(label).append("=\"")
+                .append(escapeLabel(key)).append("\"} ").append(summary.max.get() * scale).append('\n'));
+    }
+
+    /** Escapes a label value for the Prometheus text format */
+    static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /** A running count, total and maximum of recorded values */
+    static class Summary {
+        final LongAdder count = new LongAdder();
+        final LongAdder sum = new LongAdder();
+        final AtomicLong max = new AtomicLong();
+
+        void add(long value) {
+            count.increment();
+            sum.add(value);
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records calls made to repositories during a tracking session (e.g. a web request).
+ * At the end of a session, repository methods called repeatedly (probably N+1 query patterns) and
+ * individual calls that were slow are reported.
+ * <p>
+ * In {@link Mode#LOG LOG} mode, problems are logged as warnings.
+ * In {@link Mode#ASSERT ASSERT} mode (intended for tests), repeated calls cause an {@link AssertionError}
+ * when the session ends.
+ * In {@link Mode#OFF OFF} mode, nothing is recorded.
+ * @author dr6
+ */
+@Component
+public class RepositoryCallTracker {
+    private static final Logger log = LoggerFactory.getLogger(RepositoryCallTracker.class);
+
+    /** How repository calls are tracked */
+    public enum Mode { OFF, LOG, ASSERT }
+
+    private final ThreadLocal<Session> currentSession = new ThreadLocal<>();
+
+    private final Mode mode;
+    private final int repeatThreshold;
+    private final long slowCallMillis;
+
+    public RepositoryCallTracker(@Value("${stan.repo_tracking.mode:LOG}") Mode mode,
+                                 @Value("${stan.repo_tracking.repeat_threshold:50}") int repeatThreshold,
+                                 @Value("${stan.repo_tracking.slow_call_ms:1000}") long slowCallMillis) {
+        this.mode = mode;
+        this.repeatThreshold = repeatThreshold;
+        this.slowCallMillis = slowCallMillis;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Is a session being tracked on the current thread?
+     * @return true if calls on the current thread are being recorded
+     */
+    public boolean isTracking() {
+        return (currentSession.get()!=null);
+    }
+
+    /**
+     * Starts a tracking session on the current thread.
+     * If tracking is off, or a session is already in progress, this returns null.
+     * @param name a description of the session (e.g. a request path)
+     * @return the new session, or null
+     */
+    public Session start(String name) {
+        if (mode==Mode.OFF || currentSession.get()!=null) {
+            return null;
+        }
+        Session session = new Session(name);
+        currentSession.set(session);
+        return session;
+    }
+
+    /**
+     * Ends the given session and reports any problems.
+     * @param session the session returned from {@link #start}; if it is null, nothing happens
+     * @exception AssertionError if the tracker is in assert mode and repeated calls were found
+     */
+    public void stop(Session session) {
+        if (session==null) {
+            return;
+        }
+        if (currentSession.get()==session) {
+            currentSession.remove();
+        }
+        report(session);
+    }
+
+    /**
+     * Ends the given session without reporting it (e.g. because the work failed).
+     * @param session the session returned from {@link #start}; if it is null, nothing happens
+     */
+    public void discard(Session session) {
+        if (session!=null && currentSession.get()==session) {
+            currentSession.remove();
+        }
+    }
+
+    /**
+     * Runs the given code in a tracking session.
+     * @param name a description of the session
+     * @param supplier the code to run
+     * @return the result of the supplier
+     * @param <T> the type of result
+     */
+    public <T> T track(String name, Supplier<T> supplier) {
+        Session session = start(name);
+        T result;
+        try {
+            result = supplier.get();
+        } catch (RuntimeException | Error e) {
+            discard(session);
+            throw e;
+        }
+        stop(session);
+        return result;
+    }
+
+    /**
+     * Records a call to a repository method in the current session, if there is one.
+     * @param methodName the repository and method called (e.g. {@code LabwareRepo.getById})
+     * @param nanos the time the call took in nanoseconds
+     */
+    public void record(String methodName, long nanos) {
+        Session session = currentSession.get();
+        if (session!=null) {
+            session.record(methodName, nanos);
+        }
+    }
+
+    /**
+     * The methods in the given session called at least {@link #repeatThreshold} times
+     * @param session the session
+     * @return the names of the repeatedly called methods
+     */
+    public List<String> findRepeatedCalls(Session session) {
+        if (repeatThreshold <= 0) {
+            return List.of();
+        }
+        return session.calls.entrySet().stream()
+                .filter(e -> e.getValue().count >= repeatThreshold)
+                .map(Map.Entry::getKey)
+                .collect(toList());
+    }
+
+    void report(Session session) {
+        List<String> repeated = findRepeatedCalls(session);
+        for (String methodName : repeated) {
+            CallStats stats = session.calls.get(methodName);
+            log.warn("Probable N+1 query in {}: {} called {} times ({} ms total)",
+                    session.getName(), methodName, stats.count, stats.totalNanos / 1_000_000L);
+        }
+        if (slowCallMillis > 0) {
+            session.calls.forEach((methodName, stats) -> {
+                long maxMillis = stats.maxNanos / 1_000_000L;
+                if (maxMillis >= slowCallMillis) {
+                    log.warn("Slow repository call in {}: {} took {} ms", session.getName(), methodName, maxMillis);
+                }
+            });
+        }
+        if (mode==Mode.ASSERT && !repeated.isEmpty()) {
+            throw new AssertionError("Repeated repository calls in "+session.getName()+": "
+                    +repeated.stream().map(m -> m+" x"+session.calls.get(m).count).collect(toList()));
+        }
+    }
+
+    /** A record of the repository calls made during some unit of work */
+    public static class Session {
+        private final String name;
+        private final Map<String, CallStats> calls = new LinkedHashMap<>();
+
+        Session(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        void record(String methodName, long nanos) {
+            calls.computeIfAbsent(methodName, k -> new CallStats()).add(nanos);
+        }
+
+        /** The number of calls recorded for the given method */
+        public int getCallCount(String methodName) {
+            CallStats stats = calls.get(methodName);
+            return (stats==null ? 0 : stats.count);
+        }
+
+        /** The total number of repository calls recorded */
+        public int getTotalCallCount() {
+            return calls.values().stream().mapToInt(stats -> stats.count).sum();
+        }
+    }
+
+    /** The count and durations of calls to one method */
+    static class CallStats {
+        int count;
+        long totalNanos;
+        long maxNanos;
+
+        void add(long nanos) {
+            ++count;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Filter that tracks the repository calls made while handling each web request.
+ * @see RepositoryCallTracker
+ * @author dr6
+ */
+@Component
+public class RepositoryTrackingFilter extends OncePerRequestFilter {
+    private final RepositoryCallTracker tracker;
+
+    @Autowired
+    public RepositoryTrackingFilter(RepositoryCallTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return (tracker.getMode()==RepositoryCallTracker.Mode.OFF);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RepositoryCallTracker.Session session = tracker.start(request.getMethod()+" "+request.getRequestURI());
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed) {
+                tracker.stop(session);
+            } else {
+                tracker.discard(session);
+            }
+        }
+    }
+}
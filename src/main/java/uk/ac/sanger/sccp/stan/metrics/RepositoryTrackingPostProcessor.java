@@ -0,0 +1,85 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Bean post processor that adds an interceptor to each Spring Data repository,
+ * recording its calls in the {@link RepositoryCallTracker}.
+ * @author dr6
+ */
+public class RepositoryTrackingPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<RepositoryCallTracker> trackerProvider;
+    private volatile RepositoryCallTracker tracker;
+
+    public RepositoryTrackingPostProcessor(ObjectProvider<RepositoryCallTracker> trackerProvider) {
+        this.trackerProvider = trackerProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Repository)) {
+            return bean;
+        }
+        MethodInterceptor interceptor = new TrackingInterceptor(repositoryName(bean));
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(ClassUtils.getDefaultClassLoader());
+    }
+
+    /**
+     * Gets a name for the given repository: the simple name of its own repository interface
+     * @param bean the repository
+     * @return the name of the repository
+     */
+    static String repositoryName(Object bean) {
+        for (Class<?> iface : ClassUtils.getAllInterfaces(bean)) {
+            if (Repository.class.isAssignableFrom(iface) && !iface.getName().startsWith("org.springframework.")) {
+                return iface.getSimpleName();
+            }
+        }
+        return bean.getClass().getSimpleName();
+    }
+
+    private RepositoryCallTracker getTracker() {
+        RepositoryCallTracker t = this.tracker;
+        if (t==null) {
+            t = trackerProvider.getIfAvailable();
+            this.tracker = t;
+        }
+        return t;
+    }
+
+    /** Interceptor recording the time taken by each repository method call */
+    class TrackingInterceptor implements MethodInterceptor {
+        private final String repositoryName;
+
+        TrackingInterceptor(String repositoryName) {
+            this.repositoryName = repositoryName;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            RepositoryCallTracker t = getTracker();
+            if (t==null || !t.isTracking()) {
+                return invocation.proceed();
+            }
+            final long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                t.record(repositoryName+"."+invocation.getMethod().getName(), System.nanoTime() - start);
+            }
+        }
+    }
+}
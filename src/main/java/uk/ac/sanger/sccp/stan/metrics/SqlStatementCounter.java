@@ -0,0 +1,81 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that counts the SQL statements prepared on the current thread
+ * while counting is active, optionally keeping the SQL of each statement.
+ * Statements are not altered.
+ * @author dr6
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+    private final ThreadLocal<Count> currentCount = new ThreadLocal<>();
+
+    /**
+     * Starts counting statements on the current thread.
+     * @return the count, which will be incremented for each statement until {@link #stop} is called
+     */
+    public Count start() {
+        return start(false);
+    }
+
+    /**
+     * Starts counting statements on the current thread.
+     * @param recordStatements whether to keep the SQL of each statement, as well as counting them
+     * @return the count, which will be incremented for each statement until {@link #stop} is called
+     */
+    public Count start(boolean recordStatements) {
+        Count count = new Count(recordStatements ? new ArrayList<>() : null);
+        currentCount.set(count);
+        return count;
+    }
+
+    /**
+     * Stops counting statements on the current thread, if the given count is the one in progress.
+     * @param count the count returned from {@link #start}
+     */
+    public void stop(Count count) {
+        if (currentCount.get()==count) {
+            currentCount.remove();
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Count count = currentCount.get();
+        if (count!=null) {
+            ++count.value;
+            if (count.statements!=null) {
+                count.statements.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    /** A count of statements */
+    public static class Count {
+        private int value;
+        private final List<String> statements;
+
+        Count(List<String> statements) {
+            this.statements = statements;
+        }
+
+        public int get() {
+            return this.value;
+        }
+
+        /**
+         * The SQL of the statements counted, if this count was started to record them
+         * @return the SQL of the statements, in order; empty if statements are not being recorded
+         */
+        public List<String> getStatements() {
+            return (this.statements==null ? List.of() : this.statements);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package uk.ac.sanger.sccp.stan.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.GenerationTime;
 
@@ -17,7 +18,14 @@ import static uk.ac.sanger.sccp.utils.BasicUtils.repr;
  * @author dr6
  */
 @Entity
+@NamedEntityGraph(name = Labware.CONTENTS_GRAPH, attributeNodes = @NamedAttributeNode("slots"))
 public class Labware {
+    /**
+     * Entity graph fetching the slots of labware in the same query as the labware.
+     * The samples in the slots (with their tissues and donors) are then loaded in batches of up to a hundred slots.
+     */
+    public static final String CONTENTS_GRAPH = "Labware.contents";
+
 
     /** The states a piece of labware may be in */
     public enum State {
@@ -36,6 +44,7 @@ public class Labware {
     @OneToMany
     @JoinColumn(name="labware_id")
     @OrderBy("address.row, address.column")
+    @BatchSize(size = 100)
     private List<Slot> slots;
 
     private boolean discarded;
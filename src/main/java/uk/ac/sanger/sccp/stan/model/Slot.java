@@ -1,6 +1,7 @@
 package uk.ac.sanger.sccp.stan.model;
 
 import com.google.common.base.MoreObjects;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.util.*;
@@ -23,6 +24,7 @@ public class Slot {
     private Address address;
     @ManyToMany
     @JoinTable(name = "slot_sample", inverseJoinColumns = @JoinColumn(name="sample_id"))
+    @BatchSize(size = 100)
     private List<Sample> samples;
 
     @Column(table = "block_info", name = "sample_id")
@@ -1,6 +1,7 @@
 package uk.ac.sanger.sccp.stan.model;
 
 import com.google.common.base.MoreObjects;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -11,6 +12,7 @@ import java.util.Objects;
  * @author dr6
  */
 @Entity
+@BatchSize(size = 100)
 public class Tissue {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -7,6 +7,7 @@ import uk.ac.sanger.sccp.stan.model.Slot;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface ActionRepo extends CrudRepository<Action, Integer> {
     List<Action> findAllByDestinationIn(Collection<Slot> destinations);
@@ -14,4 +15,38 @@ public interface ActionRepo extends CrudRepository<Action, Integer> {
     @Query("select distinct a.source.labwareId from Action a " +
             "where a.destination.labwareId IN (?1)")
     List<Integer> findSourceLabwareIdsForDestinationLabwareIds(Collection<Integer> destLabwareIds);
+
+    /**
+     * Finds the ids of the source and destination labware of any action on the given samples
+     * (as its sample or its source sample).
+     * @param sampleIds the ids of samples
+     * @return the ids of labware involved in actions on those samples
+     */
+    @Query(value = "SELECT slot.labware_id FROM action a JOIN slot ON (slot.id=a.source_slot_id) " +
+            "WHERE a.sample_id IN (?1) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN slot ON (slot.id=a.dest_slot_id) " +
+            "WHERE a.sample_id IN (?1) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN slot ON (slot.id=a.source_slot_id) " +
+            "WHERE a.source_sample_id IN (?1) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN slot ON (slot.id=a.dest_slot_id) " +
+            "WHERE a.source_sample_id IN (?1)", nativeQuery = true)
+    Set<Integer> findLabwareIdsForSampleIds(Collection<Integer> sampleIds);
+
+    /**
+     * Finds the ids of the source and destination labware of any action on the given samples
+     * (as its sample or its source sample) in an operation of the given type.
+     * @param opTypeId the id of the operation type
+     * @param sampleIds the ids of samples
+     * @return the ids of labware involved in actions on those samples in operations of the given type
+     */
+    @Query(value = "SELECT slot.labware_id FROM action a JOIN operation op ON (a.operation_id=op.id) " +
+            "JOIN slot ON (slot.id=a.source_slot_id) WHERE op.operation_type_id=?1 AND a.sample_id IN (?2) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN operation op ON (a.operation_id=op.id) " +
+            "JOIN slot ON (slot.id=a.dest_slot_id) WHERE op.operation_type_id=?1 AND a.sample_id IN (?2) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN operation op ON (a.operation_id=op.id) " +
+            "JOIN slot ON (slot.id=a.source_slot_id) WHERE op.operation_type_id=?1 AND a.source_sample_id IN (?2) " +
+            "UNION SELECT slot.labware_id FROM action a JOIN operation op ON (a.operation_id=op.id) " +
+            "JOIN slot ON (slot.id=a.dest_slot_id) WHERE op.operation_type_id=?1 AND a.source_sample_id IN (?2)",
+            nativeQuery = true)
+    Set<Integer> findLabwareIdsForOperationTypeAndSampleIds(int opTypeId, Collection<Integer> sampleIds);
 }
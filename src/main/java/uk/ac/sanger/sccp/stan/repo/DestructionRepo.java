@@ -8,4 +8,8 @@ import java.util.List;
 
 public interface DestructionRepo extends CrudRepository<Destruction, Integer> {
     List<Destruction> findAllByLabwareIdIn(Collection<Integer> labwareIds);
+
+    List<Destruction> findAllByLabwareIdInAndIdGreaterThan(Collection<Integer> labwareIds, int minId);
+
+    List<Destruction> findAllByIdGreaterThan(int minId);
 }
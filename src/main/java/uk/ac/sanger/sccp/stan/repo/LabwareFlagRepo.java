@@ -12,4 +12,8 @@ public interface LabwareFlagRepo extends CrudRepository<LabwareFlag, Integer> {
     List<LabwareFlag> findAllByLabwareIdIn(Collection<Integer> labwareIds);
 
     List<LabwareFlag> findAllByOperationIdIn(Collection<Integer> opIds);
+
+    /** The greatest id of any labware flag, or null if there are none */
+    @Query("select max(lf.id) from LabwareFlag lf")
+    Integer findMaxId();
 }
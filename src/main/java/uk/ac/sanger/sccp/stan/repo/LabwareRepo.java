@@ -1,5 +1,6 @@
 package uk.ac.sanger.sccp.stan.repo;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import uk.ac.sanger.sccp.stan.model.Labware;
@@ -34,6 +35,28 @@ public interface LabwareRepo extends CrudRepository<Labware, Integer> {
 
     List<Labware> findAllByIdIn(Collection<Integer> ids);
 
+    /**
+     * Finds labware by ids, fetching their contents.
+     * The labware and slots are loaded in one query, and the samples (with their tissues and donors)
+     * in batches of up to a hundred slots.
+     * @param ids the ids of the labware
+     * @return the labware found
+     */
+    @EntityGraph(Labware.CONTENTS_GRAPH)
+    @Query("select distinct lw from Labware lw where lw.id in (?1)")
+    List<Labware> findAllWithContentsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Finds labware by barcodes, fetching their contents.
+     * The labware and slots are loaded in one query, and the samples (with their tissues and donors)
+     * in batches of up to a hundred slots.
+     * @param barcodes the barcodes of the labware
+     * @return the labware found
+     */
+    @EntityGraph(Labware.CONTENTS_GRAPH)
+    @Query("select distinct lw from Labware lw where lw.barcode in (?1)")
+    List<Labware> findAllWithContentsByBarcodeIn(Collection<String> barcodes);
+
     /**
      * Gets an exact sequence of labware identified by barcodes.
      * @param barcodes the barcodes to find
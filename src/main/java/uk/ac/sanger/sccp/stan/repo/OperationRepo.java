@@ -16,6 +16,13 @@ public interface OperationRepo extends CrudRepository<Operation, Integer> {
     @Query("select distinct op from Operation op join Action a ON (a.operationId=op.id) where a.sample.id IN (?1)")
     List<Operation> findAllBySampleIdIn(Collection<Integer> sampleIds);
 
+    @Query("select distinct op from Operation op join Action a on (a.operationId=op.id) " +
+            "where op.operationType=?1 and a.sample.id in (?2) and op.id > ?3")
+    List<Operation> findAllByOperationTypeAndSampleIdInAndIdGreaterThan(OperationType opType, Collection<Integer> sampleIds, int minId);
+
+    @Query("select distinct op from Operation op join Action a ON (a.operationId=op.id) where a.sample.id IN (?1) and op.id > ?2")
+    List<Operation> findAllBySampleIdInAndIdGreaterThan(Collection<Integer> sampleIds, int minId);
+
     @Query("select distinct op from Operation op join Action a on (a.operationId=op.id) " +
             "join Slot s on (a.destination=s) " +
             "where op.operationType=?1 and s.labwareId in (?2)")
@@ -26,4 +33,19 @@ public interface OperationRepo extends CrudRepository<Operation, Integer> {
     List<Operation> findAllByOperationTypeAndDestinationSlotIdIn(OperationType opType, Collection<Integer> slotIds);
 
     List<Operation> findAllByOperationType(OperationType opType);
+
+    List<Operation> findAllByOperationTypeAndIdGreaterThan(OperationType opType, int minId);
+
+    /**
+     * The greatest id of any operation on a sample from the same donor as any sample in the given releases.
+     * Release files describe data recorded by such operations, so a new one may change them.
+     * @param releaseIds the ids of releases
+     * @return the greatest operation id, or null if there are none
+     */
+    @Query(value="select max(a.operation_id) from action a join sample s on (a.sample_id=s.id) " +
+            "join tissue t on (s.tissue_id=t.id) " +
+            "where t.donor_id in (select rt.donor_id from labware_release r " +
+            "join snapshot_element se on (se.snapshot_id=r.snapshot_id) join sample rs on (se.sample_id=rs.id) " +
+            "join tissue rt on (rs.tissue_id=rt.id) where r.id in (?1))", nativeQuery=true)
+    Integer findMaxIdForDonorsOfReleases(Collection<Integer> releaseIds);
 }
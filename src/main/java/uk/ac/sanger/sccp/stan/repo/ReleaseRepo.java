@@ -15,6 +15,10 @@ public interface ReleaseRepo extends CrudRepository<Release, Integer> {
 
     List<Release> findAllByLabwareIdIn(Collection<Integer> labwareIds);
 
+    List<Release> findAllByLabwareIdInAndIdGreaterThan(Collection<Integer> labwareIds, int minId);
+
+    List<Release> findAllByIdGreaterThan(int minId);
+
     /**
      * Gets the releases matching the corresponding ids.
      * @param ids the ids to find
@@ -14,6 +14,12 @@ import static uk.ac.sanger.sccp.utils.BasicUtils.coalesce;
  * @author dr6
  */
 public class RepoUtils {
+    /**
+     * The largest number of values to put in one {@code IN} list.
+     * Bigger collections are split into chunks of this size and looked up in separate queries.
+     */
+    public static final int MAX_IN_LIST_SIZE = 1000;
+
     /**
      * Gets the indicated items from the given repo function, in the order matching the values.
      * Throws an exception if any items cannot be found.
@@ -178,4 +184,93 @@ public class RepoUtils {
             String errorText) throws EntityNotFoundException {
         return getMapByField(findBy, values, getField, errorText, UCMap::new, null);
     }
+
+    /**
+     * Finds entities matching the given values, splitting the values into chunks so that no single query
+     * receives more than {@link #MAX_IN_LIST_SIZE} values.
+     * If the values fit in one chunk, they are passed to the function unchanged.
+     * @param <V> the type of values given to look up the entities
+     * @param <E> the type of entity being looked up
+     * @param findBy function to find entities matching the given values
+     * @param values the values to use to look up the entities
+     * @return the results of all the queries, concatenated
+     */
+    public static <V, E> List<E> findAllInChunks(Function<? super Collection<V>, ? extends Iterable<? extends E>> findBy,
+                                                 Collection<V> values) {
+        return findAllInChunks(findBy, values, MAX_IN_LIST_SIZE);
+    }
+
+    /**
+     * Finds entities matching the given values, splitting the values into chunks of at most the given size.
+     * If the values fit in one chunk, they are passed to the function unchanged.
+     * @param <V> the type of values given to look up the entities
+     * @param <E> the type of entity being looked up
+     * @param findBy function to find entities matching the given values
+     * @param values the values to use to look up the entities
+     * @param chunkSize the maximum number of values to pass to the function at once
+     * @return the results of all the queries, concatenated
+     */
+    public static <V, E> List<E> findAllInChunks(Function<? super Collection<V>, ? extends Iterable<? extends E>> findBy,
+                                                 Collection<V> values, int chunkSize) {
+        List<E> results = new ArrayList<>();
+        forEachChunk(values, chunkSize, chunk -> findBy.apply(chunk).forEach(results::add));
+        return results;
+    }
+
+    /**
+     * Finds distinct entities matching the given values, splitting the values into chunks so that no single query
+     * receives more than {@link #MAX_IN_LIST_SIZE} values.
+     * Use this where the same entity may be found from values in different chunks.
+     * @param <V> the type of values given to look up the entities
+     * @param <E> the type of entity being looked up
+     * @param findBy function to find entities matching the given values
+     * @param values the values to use to look up the entities
+     * @return the distinct results of all the queries, in the order they were found
+     */
+    public static <V, E> Set<E> findSetInChunks(Function<? super Collection<V>, ? extends Iterable<? extends E>> findBy,
+                                                Collection<V> values) {
+        Set<E> results = new LinkedHashSet<>();
+        forEachChunk(values, MAX_IN_LIST_SIZE, chunk -> findBy.apply(chunk).forEach(results::add));
+        return results;
+    }
+
+    /**
+     * Looks up a map for the given values, splitting the values into chunks so that no single query
+     * receives more than {@link #MAX_IN_LIST_SIZE} values.
+     * The maps found for each chunk are merged; where keys clash, the later entry is kept.
+     * @param <V> the type of values given to look up the map
+     * @param <K> the type of key in the map
+     * @param <T> the type of value in the map
+     * @param findBy function to look up a map for the given values
+     * @param values the values to look up
+     * @return the merged map
+     */
+    public static <V, K, T> Map<K, T> findMapInChunks(Function<? super Collection<V>, ? extends Map<K, T>> findBy,
+                                                      Collection<V> values) {
+        if (values.size() <= MAX_IN_LIST_SIZE) {
+            return findBy.apply(values);
+        }
+        Map<K, T> results = new HashMap<>();
+        forEachChunk(values, MAX_IN_LIST_SIZE, chunk -> results.putAll(findBy.apply(chunk)));
+        return results;
+    }
+
+    /**
+     * Passes the given values to the given consumer in chunks of at most the given size.
+     * If the values fit in one chunk, they are passed unchanged.
+     * Empty values are passed too, so the behaviour for an empty collection is up to the consumer.
+     */
+    static <V> void forEachChunk(Collection<V> values, int chunkSize, Consumer<? super Collection<V>> consumer) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Invalid chunk size: "+chunkSize);
+        }
+        if (values.size() <= chunkSize) {
+            consumer.accept(values);
+            return;
+        }
+        List<V> list = new ArrayList<>(values);
+        for (int start = 0; start < list.size(); start += chunkSize) {
+            consumer.accept(list.subList(start, Math.min(start + chunkSize, list.size())));
+        }
+    }
 }
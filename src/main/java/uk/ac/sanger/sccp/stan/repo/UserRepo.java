@@ -1,5 +1,6 @@
 package uk.ac.sanger.sccp.stan.repo;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.CrudRepository;
 import uk.ac.sanger.sccp.stan.model.User;
 
@@ -17,4 +18,21 @@ public interface UserRepo extends CrudRepository<User, Integer> {
     }
 
     List<User> findAllByRole(User.Role role);
+
+    /**
+     * Gets users with usernames after the given username, in order of username
+     * @param username the username to start after (use an empty string to start from the beginning)
+     * @param pageable the limit on the number of users to return
+     * @return the matching users
+     */
+    List<User> findAllByUsernameGreaterThanOrderByUsername(String username, Pageable pageable);
+
+    /**
+     * Gets users with usernames after the given username and without the given role, in order of username
+     * @param username the username to start after (use an empty string to start from the beginning)
+     * @param role the role to exclude
+     * @param pageable the limit on the number of users to return
+     * @return the matching users
+     */
+    List<User> findAllByUsernameGreaterThanAndRoleNotOrderByUsername(String username, User.Role role, Pageable pageable);
 }
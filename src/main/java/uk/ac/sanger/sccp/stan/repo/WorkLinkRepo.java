@@ -0,0 +1,98 @@
+package uk.ac.sanger.sccp.stan.repo;
+
+import org.springframework.stereotype.Repository;
+import uk.ac.sanger.sccp.stan.model.Work.SampleSlotId;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.*;
+
+/**
+ * Repo for linking works to operations, releases and samples by inserting rows directly into the
+ * join tables behind {@link uk.ac.sanger.sccp.stan.model.Work Work's} element collections.
+ * Rows that already exist are left as they are, so the existing links never need to be loaded.
+ * Any other error, such as a link to a missing operation, fails the insert.
+ * @author dr6
+ */
+@Repository
+public class WorkLinkRepo {
+    /** The maximum number of rows inserted by a single statement */
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Links each of the given works to each of the given operations
+     * @param workIds the ids of works
+     * @param opIds the ids of operations
+     */
+    public void insertWorkOps(Collection<Integer> workIds, Collection<Integer> opIds) {
+        List<Object[]> rows = new ArrayList<>(workIds.size() * opIds.size());
+        for (Integer workId : workIds) {
+            for (Integer opId : opIds) {
+                rows.add(new Object[] {workId, opId});
+            }
+        }
+        insertIfAbsent("work_op", List.of("work_id", "operation_id"), rows);
+    }
+
+    /**
+     * Links each of the given works to each of the given releases
+     * @param workIds the ids of works
+     * @param releaseIds the ids of releases
+     */
+    public void insertWorkReleases(Collection<Integer> workIds, Collection<Integer> releaseIds) {
+        List<Object[]> rows = new ArrayList<>(workIds.size() * releaseIds.size());
+        for (Integer workId : workIds) {
+            for (Integer releaseId : releaseIds) {
+                rows.add(new Object[] {workId, releaseId});
+            }
+        }
+        insertIfAbsent("work_release", List.of("work_id", "release_id"), rows);
+    }
+
+    /**
+     * Links each of the given works to each of the given samples in slots
+     * @param workIds the ids of works
+     * @param ssIds the sample and slot ids
+     */
+    public void insertWorkSamples(Collection<Integer> workIds, Collection<SampleSlotId> ssIds) {
+        List<Object[]> rows = new ArrayList<>(workIds.size() * ssIds.size());
+        for (Integer workId : workIds) {
+            for (SampleSlotId ssId : ssIds) {
+                rows.add(new Object[] {workId, ssId.getSampleId(), ssId.getSlotId()});
+            }
+        }
+        insertIfAbsent("work_sample", List.of("work_id", "sample_id", "slot_id"), rows);
+    }
+
+    /**
+     * Inserts the given rows into a table, leaving rows that already exist unchanged.
+     * Only duplicate keys are tolerated: unlike {@code INSERT IGNORE}, a foreign key violation
+     * or any other error causes an exception.
+     * The rows are inserted using multi-row statements of up to {@link #MAX_ROWS_PER_STATEMENT} rows.
+     * @param table the name of the table
+     * @param columns the names of the columns; the first must be part of the table's key
+     * @param rows the values for each row
+     */
+    void insertIfAbsent(String table, List<String> columns, List<Object[]> rows) {
+        final int numColumns = columns.size();
+        final String rowPlaceholder = "(" + String.join(",", Collections.nCopies(numColumns, "?")) + ")";
+        final String prefix = "INSERT INTO " + table + " (" + String.join(",", columns) + ") VALUES ";
+        final String suffix = " ON DUPLICATE KEY UPDATE " + columns.get(0) + "=" + columns.get(0);
+        for (int start = 0; start < rows.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<Object[]> chunk = rows.subList(start, Math.min(rows.size(), start + MAX_ROWS_PER_STATEMENT));
+            String sql = prefix + String.join(",", Collections.nCopies(chunk.size(), rowPlaceholder)) + suffix;
+            Query query = entityManager.createNativeQuery(sql);
+            int paramIndex = 0;
+            for (Object[] row : chunk) {
+                for (Object value : row) {
+                    query.setParameter(++paramIndex, value);
+                }
+            }
+            query.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package uk.ac.sanger.sccp.stan.repo;
+
+import org.springframework.stereotype.Repository;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.request.WorkPageRequest;
+import uk.ac.sanger.sccp.stan.request.WorkPageRequest.SortField;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Repo for finding works with combinations of filters, all applied in a single query.
+ * Pages of works may be found using keyset pagination.
+ * @author dr6
+ */
+@Repository
+public class WorkQueryRepo {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Finds works matching the filters in the given request, sorted as requested, following the given key.
+     * The cursor in the request is ignored; the decoded key should be passed instead.
+     * @param request the specification of filters and sorting
+     * @param afterKey the sort key of the last work of the previous page, or null to start from the beginning
+     * @param limit the maximum number of works to return
+     * @return the matching works
+     * @exception IllegalArgumentException if the key cannot be interpreted for the requested sort field
+     */
+    public List<Work> findPage(WorkPageRequest request, String afterKey, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Work> query = cb.createQuery(Work.class);
+        Root<Work> root = query.from(Work.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (request.getStatuses()!=null) {
+            predicates.add(root.get("status").in(request.getStatuses()));
+        }
+        if (request.getWorkTypes()!=null) {
+            predicates.add(root.get("workType").get("name").in(request.getWorkTypes()));
+        }
+        if (request.getPrograms()!=null) {
+            predicates.add(root.get("program").get("name").in(request.getPrograms()));
+        }
+        if (request.getRequesters()!=null) {
+            predicates.add(root.get("workRequester").get("username").in(request.getRequesters()));
+        }
+        final boolean desc = request.isDescending();
+        if (request.getSortBy()==SortField.workNumber) {
+            Path<String> key = root.get("workNumber");
+            if (afterKey!=null) {
+                predicates.add(desc ? cb.lessThan(key, afterKey) : cb.greaterThan(key, afterKey));
+            }
+            query.orderBy(desc ? cb.desc(key) : cb.asc(key));
+        } else {
+            Path<Integer> key = root.get("id");
+            if (afterKey!=null) {
+                int id = parseId(afterKey);
+                predicates.add(desc ? cb.lessThan(key, id) : cb.greaterThan(key, id));
+            }
+            query.orderBy(desc ? cb.desc(key) : cb.asc(key));
+        }
+        query.select(root).where(predicates.toArray(Predicate[]::new));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Finds works matching all the given filters.
+     * A null argument means that field is not filtered.
+     * An empty collection matches no works.
+     * @param workNumber the work number to find, or null
+     * @param workTypes the work types to include, or null
+     * @param programs the programs to include, or null
+     * @param statuses the work statuses to include, or null
+     * @param requesters the work requesters to include, or null
+     * @return the works matching all the given filters, in id order
+     */
+    public List<Work> findAllMatching(String workNumber, Collection<WorkType> workTypes, Collection<Program> programs,
+                                      Collection<Work.Status> statuses, Collection<ReleaseRecipient> requesters) {
+        if (Stream.of(workTypes, programs, statuses, requesters).anyMatch(c -> c!=null && c.isEmpty())) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Work> query = cb.createQuery(Work.class);
+        Root<Work> root = query.from(Work.class);
+        List<Predicate> predicates = new ArrayList<>();
+        if (workNumber!=null) {
+            predicates.add(cb.equal(root.get("workNumber"), workNumber));
+        }
+        if (statuses!=null) {
+            predicates.add(root.get("status").in(statuses));
+        }
+        if (workTypes!=null) {
+            predicates.add(root.get("workType").in(workTypes));
+        }
+        if (programs!=null) {
+            predicates.add(root.get("program").in(programs));
+        }
+        if (requesters!=null) {
+            predicates.add(root.get("workRequester").in(requesters));
+        }
+        query.select(root).where(predicates.toArray(Predicate[]::new)).orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private static int parseId(String key) {
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor for sorting by id.");
+        }
+    }
+}
@@ -134,12 +134,99 @@ public interface WorkRepo extends CrudRepository<Work, Integer> {
             "   JOIN work ON (wo.work_id=work.id)", nativeQuery = true)
     Integer findLatestWorkIdForLabwareId(Integer labwareId);
 
+    @Query(value = "SELECT latest_op.labware_id, MAX(work.id)" +
+            " FROM (" +
+            "   SELECT slot.labware_id, op.id AS op_id," +
+            "     ROW_NUMBER() OVER (PARTITION BY slot.labware_id ORDER BY op.performed DESC, op.id DESC) AS rn" +
+            "   FROM operation op" +
+            "     JOIN action a ON (a.operation_id=op.id)" +
+            "     JOIN slot ON (a.dest_slot_id=slot.id)" +
+            "     JOIN work_op wo ON (wo.operation_id=op.id)" +
+            "   WHERE slot.labware_id IN (?1)" +
+            " ) AS latest_op" +
+            "   JOIN work_op wo ON (wo.operation_id=latest_op.op_id)" +
+            "   JOIN work ON (wo.work_id=work.id)" +
+            " WHERE latest_op.rn=1 AND work.status='active'" +
+            " GROUP BY latest_op.labware_id", nativeQuery = true)
+    List<Object[]> _latestActiveWorkIdsForLabwareIds(Collection<Integer> labwareIds);
+
+    @Query(value = "SELECT latest_op.labware_id, MAX(work.id)" +
+            " FROM (" +
+            "   SELECT slot.labware_id, op.id AS op_id," +
+            "     ROW_NUMBER() OVER (PARTITION BY slot.labware_id ORDER BY op.performed DESC, op.id DESC) AS rn" +
+            "   FROM operation op" +
+            "     JOIN action a ON (a.operation_id=op.id)" +
+            "     JOIN slot ON (a.dest_slot_id=slot.id)" +
+            "     JOIN work_op wo ON (wo.operation_id=op.id)" +
+            "   WHERE slot.labware_id IN (?1)" +
+            " ) AS latest_op" +
+            "   JOIN work_op wo ON (wo.operation_id=latest_op.op_id)" +
+            "   JOIN work ON (wo.work_id=work.id)" +
+            " WHERE latest_op.rn=1" +
+            " GROUP BY latest_op.labware_id", nativeQuery = true)
+    List<Object[]> _latestWorkIdsForLabwareIds(Collection<Integer> labwareIds);
+
+    /**
+     * For each of the given labware, finds the work (if any) linked to the latest operation into that labware
+     * that has any linked work, as {@link #findLatestActiveWorkIdForLabwareId} does for one labware id.
+     * The work ids for all the labware are found in a single query.
+     * @param labwareIds the ids of labware
+     * @return a map from labware id to the id of its latest active work; labware without such work are omitted
+     */
+    default Map<Integer, Integer> findLatestActiveWorkIdsForLabwareIds(Collection<Integer> labwareIds) {
+        return labwareIds.isEmpty() ? Map.of() : toIntMap(_latestActiveWorkIdsForLabwareIds(labwareIds));
+    }
+
+    /**
+     * For each of the given labware, finds the work (if any) linked to the latest operation into that labware
+     * that has any linked work, as {@link #findLatestWorkIdForLabwareId} does for one labware id.
+     * The work ids for all the labware are found in a single query.
+     * @param labwareIds the ids of labware
+     * @return a map from labware id to the id of its latest work; labware without such work are omitted
+     */
+    default Map<Integer, Integer> findLatestWorkIdsForLabwareIds(Collection<Integer> labwareIds) {
+        return labwareIds.isEmpty() ? Map.of() : toIntMap(_latestWorkIdsForLabwareIds(labwareIds));
+    }
+
+    private static Map<Integer, Integer> toIntMap(List<Object[]> rows) {
+        Map<Integer, Integer> map = new HashMap<>(rows.size());
+        for (Object[] row : rows) {
+            map.put((Integer) row[0], (Integer) row[1]);
+        }
+        return map;
+    }
+
     @Query(value="SELECT DISTINCT ws.work_id " +
             "FROM slot " +
             "JOIN work_sample ws ON (ws.slot_id=slot.id) " +
             "WHERE slot.labware_id=?1", nativeQuery = true)
     List<Integer> findWorkIdsForLabwareId(Integer labwareId);
 
+    @Query(value="SELECT DISTINCT slot.labware_id, work.work_number " +
+            "FROM slot " +
+            "JOIN work_sample ws ON (ws.slot_id=slot.id) " +
+            "JOIN work ON (ws.work_id=work.id) " +
+            "WHERE slot.labware_id IN (?1)", nativeQuery = true)
+    List<Object[]> _labwareIdWorkNumbersForLabwareIds(Collection<Integer> labwareIds);
+
+    /**
+     * Gets the work numbers linked to samples in each of the specified labware
+     * @param labwareIds the ids of labware
+     * @return a map from each given labware id to the set of work numbers linked to it
+     */
+    default Map<Integer, Set<String>> findWorkNumbersForLabwareIds(Collection<Integer> labwareIds) {
+        if (labwareIds.isEmpty()) {
+            return Map.of();
+        }
+        final Map<Integer, Set<String>> lwWork = labwareIds.stream()
+                .distinct()
+                .collect(toMap(Function.identity(), x -> new LinkedHashSet<>()));
+        for (Object[] lwIdWorkNumber : _labwareIdWorkNumbersForLabwareIds(lwWork.keySet())) {
+            lwWork.get((Integer) lwIdWorkNumber[0]).add((String) lwIdWorkNumber[1]);
+        }
+        return lwWork;
+    }
+
     /**
      * Gets set of work numbers based on sample and slot id
      * @param sampleId id of sample to search
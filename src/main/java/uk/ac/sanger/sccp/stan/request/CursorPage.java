@@ -0,0 +1,116 @@
+package uk.ac.sanger.sccp.stan.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+import static uk.ac.sanger.sccp.utils.BasicUtils.describe;
+
+/**
+ * A page of results from a keyset-paginated query, along with a cursor to get the following page.
+ * The cursor is an opaque string encoding the sort key of the last item in the page.
+ * @param <E> the type of item in the page
+ * @author dr6
+ */
+public class CursorPage<E> {
+    public static final int DEFAULT_PAGE_SIZE = 50, MAX_PAGE_SIZE = 500;
+
+    private final List<E> items;
+    private final String nextCursor;
+
+    public CursorPage(List<E> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Makes a page from the results of a query that asked for one more item than the page size.
+     * If the extra item was found, it is dropped and the cursor is set from the last item in the page.
+     * @param fetched the items found, up to {@code pageSize+1}
+     * @param pageSize the size of the page
+     * @param keyFunction function to get the sort key from an item
+     * @return a page of the items
+     * @param <E> the type of item
+     */
+    public static <E> CursorPage<E> of(List<E> fetched, int pageSize, Function<? super E, ?> keyFunction) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<E> items = fetched.subList(0, pageSize);
+        return new CursorPage<>(items, encodeCursor(String.valueOf(keyFunction.apply(items.getLast()))));
+    }
+
+    /** The items in this page */
+    public List<E> getItems() {
+        return this.items;
+    }
+
+    /** The cursor to get the following page; null if there are no more pages */
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    /**
+     * Works out the page size for a query
+     * @param requested the requested page size, or null for the default
+     * @return the page size to use
+     * @exception IllegalArgumentException if the requested page size is less than 1
+     */
+    public static int pageSize(Integer requested) {
+        if (requested==null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Encodes a sort key as a cursor
+     * @param key the sort key
+     * @return an opaque string representing the key
+     */
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor to the sort key it represents
+     * @param cursor a cursor from a previous page, or null
+     * @return the sort key represented by the cursor, or null if the cursor is null
+     * @exception IllegalArgumentException if the cursor is invalid
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor==null) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: "+cursor);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CursorPage<?> that = (CursorPage<?>) o;
+        return (Objects.equals(this.items, that.items)
+                && Objects.equals(this.nextCursor, that.nextCursor));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(items, nextCursor);
+    }
+
+    @Override
+    public String toString() {
+        return describe(this)
+                .add("items", items)
+                .add("nextCursor", nextCursor)
+                .toString();
+    }
+}
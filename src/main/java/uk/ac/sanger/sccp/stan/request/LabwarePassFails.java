@@ -0,0 +1,65 @@
+package uk.ac.sanger.sccp.stan.request;
+
+import java.util.List;
+import java.util.Objects;
+
+import static uk.ac.sanger.sccp.utils.BasicUtils.describe;
+import static uk.ac.sanger.sccp.utils.BasicUtils.nullToEmpty;
+
+/**
+ * The operations with pass/fail results recorded on a particular item of labware.
+ * @author dr6
+ */
+public class LabwarePassFails {
+    private String barcode;
+    private List<OpPassFail> passFails = List.of();
+
+    // Deserialisation constructor
+    public LabwarePassFails() {}
+
+    public LabwarePassFails(String barcode, List<OpPassFail> passFails) {
+        setBarcode(barcode);
+        setPassFails(passFails);
+    }
+
+    /** The barcode of the labware. */
+    public String getBarcode() {
+        return this.barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    /** The operations and the pass/fails recorded in them on the labware. */
+    public List<OpPassFail> getPassFails() {
+        return this.passFails;
+    }
+
+    public void setPassFails(List<OpPassFail> passFails) {
+        this.passFails = nullToEmpty(passFails);
+    }
+
+    @Override
+    public String toString() {
+        return describe(this)
+                .addRepr("barcode", barcode)
+                .add("passFails", passFails)
+                .toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != this.getClass()) return false;
+        LabwarePassFails that = (LabwarePassFails) o;
+        return (Objects.equals(this.barcode, that.barcode)
+                && Objects.equals(this.passFails, that.passFails)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(barcode, passFails);
+    }
+}
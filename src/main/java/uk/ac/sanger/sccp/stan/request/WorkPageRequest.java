@@ -0,0 +1,156 @@
+package uk.ac.sanger.sccp.stan.request;
+
+import uk.ac.sanger.sccp.stan.model.Work;
+import uk.ac.sanger.sccp.utils.BasicUtils;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A request for a page of works, with optional filters and sorting.
+ * Each filter may be null, indicating that the works are not filtered by that field.
+ * @author dr6
+ */
+public class WorkPageRequest {
+    /** The fields works may be sorted by */
+    public enum SortField {
+        /** The order works were created */
+        id,
+        /** The work number */
+        workNumber,
+    }
+
+    private List<Work.Status> statuses;
+    private List<String> workTypes;
+    private List<String> programs;
+    private List<String> requesters;
+    private SortField sortBy = SortField.id;
+    private boolean descending;
+    private String after;
+    private Integer pageSize;
+
+    // deserialisation constructor
+    public WorkPageRequest() {}
+
+    public WorkPageRequest(List<Work.Status> statuses, List<String> workTypes, List<String> programs,
+                           List<String> requesters, SortField sortBy, boolean descending, String after,
+                           Integer pageSize) {
+        this.statuses = statuses;
+        this.workTypes = workTypes;
+        this.programs = programs;
+        this.requesters = requesters;
+        setSortBy(sortBy);
+        this.descending = descending;
+        this.after = after;
+        this.pageSize = pageSize;
+    }
+
+    /** The statuses of works to include */
+    public List<Work.Status> getStatuses() {
+        return this.statuses;
+    }
+
+    public void setStatuses(List<Work.Status> statuses) {
+        this.statuses = statuses;
+    }
+
+    /** The names of work types to include */
+    public List<String> getWorkTypes() {
+        return this.workTypes;
+    }
+
+    public void setWorkTypes(List<String> workTypes) {
+        this.workTypes = workTypes;
+    }
+
+    /** The names of programs to include */
+    public List<String> getPrograms() {
+        return this.programs;
+    }
+
+    public void setPrograms(List<String> programs) {
+        this.programs = programs;
+    }
+
+    /** The usernames of work requesters to include */
+    public List<String> getRequesters() {
+        return this.requesters;
+    }
+
+    public void setRequesters(List<String> requesters) {
+        this.requesters = requesters;
+    }
+
+    /** The field to sort works by */
+    public SortField getSortBy() {
+        return this.sortBy;
+    }
+
+    /** Sets the field to sort works by; null means the default ({@link SortField#id id}) */
+    public void setSortBy(SortField sortBy) {
+        this.sortBy = (sortBy==null ? SortField.id : sortBy);
+    }
+
+    /** Should the works be sorted in descending order? */
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    /** The cursor returned with the previous page, or null to get the first page */
+    public String getAfter() {
+        return this.after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    /** The maximum number of works to return, or null for the default */
+    public Integer getPageSize() {
+        return this.pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WorkPageRequest that = (WorkPageRequest) o;
+        return (this.descending == that.descending
+                && Objects.equals(this.statuses, that.statuses)
+                && Objects.equals(this.workTypes, that.workTypes)
+                && Objects.equals(this.programs, that.programs)
+                && Objects.equals(this.requesters, that.requesters)
+                && this.sortBy == that.sortBy
+                && Objects.equals(this.after, that.after)
+                && Objects.equals(this.pageSize, that.pageSize));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statuses, workTypes, programs, requesters, sortBy, descending, after, pageSize);
+    }
+
+    @Override
+    public String toString() {
+        return BasicUtils.describe(this)
+                .add("statuses", statuses)
+                .add("workTypes", workTypes)
+                .add("programs", programs)
+                .add("requesters", requesters)
+                .add("sortBy", sortBy)
+                .add("descending", descending)
+                .add("after", after)
+                .add("pageSize", pageSize)
+                .reprStringValues()
+                .omitNullValues()
+                .toString();
+    }
+}
@@ -14,6 +14,7 @@ public class History {
     private List<Sample> samples;
     private List<Labware> labware;
     private Map<LabwareFlag.Priority, List<String>> flagPriorityBarcodes;
+    private String cursor;
 
     public History(List<HistoryEntry> entries, List<Sample> samples, List<Labware> labware,
                    Map<LabwareFlag.Priority, List<String>> flagPriorityBarcodes) {
@@ -63,6 +64,18 @@ public class History {
         this.flagPriorityBarcodes = nullToEmpty(flagPriorityBarcodes);
     }
 
+    /**
+     * A cursor that can be given in a later request to get only events newer than those in this history.
+     * May be null if this history was not requested with cursor support.
+     */
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
     /**
      * Gets flagged barcodes as a list pairing up a priority with a list of barcodes
      * @return a list of {@code FlagBarcodes} objects
@@ -99,6 +112,7 @@ public class History {
                 .add("samples", samples)
                 .add("labware", labware)
                 .add("flagPriorityBarcodes", flagPriorityBarcodes)
+                .add("cursor", cursor)
                 .toString();
     }
 }
@@ -0,0 +1,201 @@
+package uk.ac.sanger.sccp.stan.request.history;
+
+import uk.ac.sanger.sccp.stan.request.CursorPage;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A position in history, recording for operations, releases and destructions which events have already been seen.
+ * A history requested after a cursor only includes events newer than the cursor.
+ * Ids are used rather than timestamps, since operations may be recorded with a time in the past.
+ * <p>
+ * Ids are allocated when rows are inserted, not when they are committed, so an event with a lower id
+ * may appear after one with a higher id. So the cursor does not simply record the highest id seen:
+ * it records a floor {@link #MARGIN} ids behind the highest id seen, and the ids above the floor that
+ * have already been seen. Events above the floor that have not been seen are still included.
+ * @author dr6
+ */
+public record HistoryCursor(Mark ops, Mark releases, Mark destructions) {
+    /** How far behind the highest id seen the floor of a cursor is kept */
+    public static final int MARGIN = 100;
+
+    /** The cursor before any events */
+    public static final HistoryCursor START = new HistoryCursor(Mark.START, Mark.START, Mark.START);
+
+    public HistoryCursor {
+        requireNonNull(ops, "ops is null");
+        requireNonNull(releases, "releases is null");
+        requireNonNull(destructions, "destructions is null");
+    }
+
+    /**
+     * A cursor with the given floors and nothing seen above them
+     * @param opId the id of operations to load after
+     * @param releaseId the id of releases to load after
+     * @param destructionId the id of destructions to load after
+     */
+    public HistoryCursor(int opId, int releaseId, int destructionId) {
+        this(new Mark(opId, Set.of()), new Mark(releaseId, Set.of()), new Mark(destructionId, Set.of()));
+    }
+
+    /** The id of operations to load after */
+    public int opId() {
+        return ops.floor();
+    }
+
+    /** The id of releases to load after */
+    public int releaseId() {
+        return releases.floor();
+    }
+
+    /** The id of destructions to load after */
+    public int destructionId() {
+        return destructions.floor();
+    }
+
+    /**
+     * Is the given entry new since this cursor?
+     * @param entry the history entry
+     * @param releaseType the event type of release entries
+     * @param destructionType the event type of destruction entries
+     * @return false if the entry has already been seen; otherwise true
+     */
+    public boolean isNew(HistoryEntry entry, String releaseType, String destructionType) {
+        if (entry.getOperation()!=null) {
+            return ops.isNew(entry.getEventId());
+        }
+        if (releaseType.equals(entry.getType())) {
+            return releases.isNew(entry.getEventId());
+        }
+        if (destructionType.equals(entry.getType())) {
+            return destructions.isNew(entry.getEventId());
+        }
+        return true;
+    }
+
+    /**
+     * Gets the cursor following this one and the given entries
+     * @param entries the history entries
+     * @param releaseType the event type of release entries
+     * @param destructionType the event type of destruction entries
+     * @return a cursor at or after this cursor and all the given entries
+     */
+    public HistoryCursor advance(Collection<HistoryEntry> entries, String releaseType, String destructionType) {
+        List<Integer> opIds = new ArrayList<>(), releaseIds = new ArrayList<>(), destructionIds = new ArrayList<>();
+        for (HistoryEntry entry : entries) {
+            if (entry.getOperation()!=null) {
+                opIds.add(entry.getEventId());
+            } else if (releaseType.equals(entry.getType())) {
+                releaseIds.add(entry.getEventId());
+            } else if (destructionType.equals(entry.getType())) {
+                destructionIds.add(entry.getEventId());
+            }
+        }
+        return new HistoryCursor(ops.advance(opIds), releases.advance(releaseIds), destructions.advance(destructionIds));
+    }
+
+    /**
+     * Encodes this cursor as an opaque string
+     * @return a string representing this cursor
+     */
+    public String encode() {
+        return CursorPage.encodeCursor(ops.encode() + "." + releases.encode() + "." + destructions.encode());
+    }
+
+    /**
+     * Decodes a cursor from a string given by {@link #encode}
+     * @param cursor the encoded cursor, or null
+     * @return the decoded cursor, or null if the given string is null
+     * @exception IllegalArgumentException if the string is not a valid cursor
+     */
+    public static HistoryCursor decode(String cursor) {
+        String key = CursorPage.decodeCursor(cursor);
+        if (key==null) {
+            return null;
+        }
+        String[] parts = key.split("\\.", -1);
+        if (parts.length!=3) {
+            throw new IllegalArgumentException("Invalid cursor: "+cursor);
+        }
+        try {
+            return new HistoryCursor(Mark.decode(parts[0]), Mark.decode(parts[1]), Mark.decode(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: "+cursor);
+        }
+    }
+
+    /**
+     * The position of a cursor for one kind of event: the id of events to load after,
+     * and the ids above that which have already been seen.
+     */
+    public record Mark(int floor, Set<Integer> seen) {
+        /** The mark before any events */
+        public static final Mark START = new Mark(0, Set.of());
+
+        public Mark {
+            seen = Set.copyOf(seen);
+        }
+
+        /**
+         * Is the given id new since this mark?
+         * @param id the id of an event
+         * @return true if the id is above the floor and has not been seen
+         */
+        public boolean isNew(int id) {
+            return (id > floor && !seen.contains(id));
+        }
+
+        /**
+         * Gets the mark following this one and the given ids.
+         * The floor is kept {@link #MARGIN} behind the highest id seen, and never goes backwards.
+         * @param ids the ids of events seen
+         * @return the new mark
+         */
+        public Mark advance(Collection<Integer> ids) {
+            if (ids.isEmpty()) {
+                return this;
+            }
+            int maxId = floor;
+            for (Integer id : seen) {
+                maxId = Math.max(maxId, id);
+            }
+            for (Integer id : ids) {
+                maxId = Math.max(maxId, id);
+            }
+            final int newFloor = Math.max(floor, maxId - MARGIN);
+            Set<Integer> newSeen = new HashSet<>();
+            for (Integer id : seen) {
+                if (id > newFloor) {
+                    newSeen.add(id);
+                }
+            }
+            for (Integer id : ids) {
+                if (id > newFloor) {
+                    newSeen.add(id);
+                }
+            }
+            return new Mark(newFloor, newSeen);
+        }
+
+        String encode() {
+            return floor + (seen.isEmpty() ? "" : ":" + seen.stream().sorted().map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+
+        static Mark decode(String string) {
+            int colon = string.indexOf(':');
+            if (colon < 0) {
+                return new Mark(Integer.parseInt(string), Set.of());
+            }
+            int floor = Integer.parseInt(string.substring(0, colon));
+            Set<Integer> seen = new HashSet<>();
+            for (String part : string.substring(colon+1).split(",")) {
+                seen.add(Integer.parseInt(part));
+            }
+            return new Mark(floor, seen);
+        }
+    }
+}
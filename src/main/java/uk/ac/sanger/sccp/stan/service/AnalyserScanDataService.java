@@ -3,6 +3,8 @@ package uk.ac.sanger.sccp.stan.service;
 import uk.ac.sanger.sccp.stan.request.AnalyserScanData;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Service dealing with AnalyserScanData
@@ -16,4 +18,13 @@ public interface AnalyserScanDataService {
      * @exception EntityNotFoundException the labware barcode is not recognised
      */
     AnalyserScanData load(String barcode) throws EntityNotFoundException;
+
+    /**
+     * Loads data for the labware with each of the given barcodes.
+     * The data for all the labware is loaded using a fixed number of queries.
+     * @param barcodes labware barcodes
+     * @return the data for the specified labware, in the order the barcodes were given, omitting repeats
+     * @exception EntityNotFoundException any of the labware barcodes are not recognised
+     */
+    List<AnalyserScanData> load(Collection<String> barcodes) throws EntityNotFoundException;
 }
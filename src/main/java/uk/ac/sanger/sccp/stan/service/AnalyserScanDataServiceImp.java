@@ -5,10 +5,13 @@ import org.springframework.stereotype.Service;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
 import uk.ac.sanger.sccp.stan.request.AnalyserScanData;
+import uk.ac.sanger.sccp.utils.UCMap;
 
 import javax.persistence.EntityNotFoundException;
-import java.util.List;
+import java.util.*;
 
+import static java.util.stream.Collectors.toSet;
+import static uk.ac.sanger.sccp.utils.BasicUtils.distinctUCSerial;
 import static uk.ac.sanger.sccp.utils.BasicUtils.stream;
 
 /**
@@ -22,6 +25,8 @@ public class AnalyserScanDataServiceImp implements AnalyserScanDataService {
     private final OperationRepo opRepo;
     private final OperationTypeRepo opTypeRepo;
 
+    static final String CELL_SEGMENTATION_OP_NAME = "Cell segmentation";
+
     @Autowired
     public AnalyserScanDataServiceImp(LabwareRepo lwRepo, WorkRepo workRepo, LabwareProbeRepo probeRepo,
                                       OperationRepo opRepo, OperationTypeRepo opTypeRepo) {
@@ -37,6 +42,63 @@ public class AnalyserScanDataServiceImp implements AnalyserScanDataService {
         return load(lwRepo.getByBarcode(barcode));
     }
 
+    @Override
+    public List<AnalyserScanData> load(Collection<String> barcodes) throws EntityNotFoundException {
+        List<String> distinctBarcodes = barcodes.stream().filter(distinctUCSerial()).toList();
+        if (distinctBarcodes.isEmpty()) {
+            return List.of();
+        }
+        UCMap<Labware> lwMap = lwRepo.getMapByBarcodeIn(distinctBarcodes);
+        List<Labware> labware = distinctBarcodes.stream().map(lwMap::get).toList();
+        return loadAll(labware);
+    }
+
+    /** Loads the data for each of the given labware, using one query for each kind of information */
+    public List<AnalyserScanData> loadAll(List<Labware> labware) {
+        Set<Integer> labwareIds = labware.stream().map(Labware::getId).collect(toSet());
+        Map<Integer, Set<String>> lwWorkNumbers = workRepo.findWorkNumbersForLabwareIds(labwareIds);
+        Map<Integer, Set<String>> lwProbes = loadProbesForLabwareIds(labwareIds);
+        Set<Integer> segmentedLabwareIds = loadCellSegmentedLabwareIds(labwareIds);
+        return labware.stream()
+                .map(lw -> {
+                    AnalyserScanData data = new AnalyserScanData();
+                    data.setBarcode(lw.getBarcode());
+                    data.setWorkNumbers(List.copyOf(lwWorkNumbers.getOrDefault(lw.getId(), Set.of())));
+                    data.setProbes(List.copyOf(lwProbes.getOrDefault(lw.getId(), Set.of())));
+                    data.setCellSegmentationRecorded(segmentedLabwareIds.contains(lw.getId()));
+                    return data;
+                })
+                .toList();
+    }
+
+    /** Loads the names of probes recorded on each of the given labware */
+    public Map<Integer, Set<String>> loadProbesForLabwareIds(Collection<Integer> labwareIds) {
+        List<LabwareProbe> probes = probeRepo.findAllByLabwareIdIn(labwareIds);
+        if (probes.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Set<String>> lwProbes = new HashMap<>();
+        for (LabwareProbe probe : probes) {
+            lwProbes.computeIfAbsent(probe.getLabwareId(), k -> new LinkedHashSet<>())
+                    .add(probe.getProbePanel().getName());
+        }
+        return lwProbes;
+    }
+
+    /** Which of the given labware have had cell segmentation recorded? */
+    public Set<Integer> loadCellSegmentedLabwareIds(Collection<Integer> labwareIds) {
+        OperationType opType = opTypeRepo.getByName(CELL_SEGMENTATION_OP_NAME);
+        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationLabwareIdIn(opType, labwareIds);
+        if (ops.isEmpty()) {
+            return Set.of();
+        }
+        return ops.stream()
+                .flatMap(op -> op.getActions().stream())
+                .map(a -> a.getDestination().getLabwareId())
+                .filter(labwareIds::contains)
+                .collect(toSet());
+    }
+
     /** Loads the data for the given labware */
     public AnalyserScanData load(Labware lw) {
         AnalyserScanData data = new AnalyserScanData();
@@ -72,7 +134,7 @@ public class AnalyserScanDataServiceImp implements AnalyserScanDataService {
 
     /** Has cell segmentation been recorded on the given labware? */
     public boolean loadCellSegmentationRecorded(Labware lw) {
-        OperationType opType = opTypeRepo.getByName("Cell segmentation");
+        OperationType opType = opTypeRepo.getByName(CELL_SEGMENTATION_OP_NAME);
         List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationLabwareIdIn(opType, List.of(lw.getId()));
         return !ops.isEmpty();
     }
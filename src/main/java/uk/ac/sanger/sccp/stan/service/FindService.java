@@ -11,11 +11,11 @@ import uk.ac.sanger.sccp.stan.request.FindResult;
 import uk.ac.sanger.sccp.stan.request.FindResult.FindEntry;
 import uk.ac.sanger.sccp.stan.request.FindResult.LabwareLocation;
 import uk.ac.sanger.sccp.stan.service.store.StoreService;
+import uk.ac.sanger.sccp.utils.WildcardMatcher;
 
 import java.time.LocalDate;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.*;
@@ -192,7 +192,7 @@ public class FindService {
         List<Integer> slotIds = work.getSampleSlotIds().stream().map(Work.SampleSlotId::getSlotId).collect(toList());
         List<Slot> slots = slotRepo.findAllByIdIn(slotIds);
         Set<Integer> labwareIds = slots.stream().map(Slot::getLabwareId).collect(toSet());
-        List<Labware> labware = labwareRepo.findAllByIdIn(labwareIds);
+        List<Labware> labware = labwareRepo.findAllWithContentsByIdIn(labwareIds);
 
         return labware.stream().flatMap(lw -> lw.getSlots().stream()
                 .flatMap(slot -> slot.getSamples().stream())
@@ -255,17 +255,10 @@ public class FindService {
         }
         final List<String> externalNames = request.getTissueExternalNames();
         if (externalNames!=null) {
-            if (externalNames.size()==1 && externalNames.getFirst().indexOf('*') < 0) {
-                String externalName = externalNames.getFirst();
-                predicate = andPredicate(predicate,
-                        ls -> externalName.equalsIgnoreCase(ls.getSample().getTissue().getExternalName())
-                );
-            } else {
-                final Pattern pattern = makeWildcardPattern(externalNames);
-                predicate = andPredicate(predicate,
-                        ls -> pattern.matcher(ls.getSample().getTissue().getExternalName()).matches()
-                );
-            }
+            final WildcardMatcher matcher = WildcardMatcher.of(externalNames);
+            predicate = andPredicate(predicate,
+                    ls -> matcher.test(ls.getSample().getTissue().getExternalName())
+            );
         }
         final String tissueTypeName = request.getTissueTypeName();
         if (tissueTypeName!=null) {
@@ -143,7 +143,7 @@ public class LabwareService {
         Set<Integer> labwareIds = slots.stream()
                 .map(Slot::getLabwareId)
                 .collect(toSet());
-        return labwareRepo.findAllByIdIn(labwareIds);
+        return labwareRepo.findAllWithContentsByIdIn(labwareIds);
     }
 
     /**
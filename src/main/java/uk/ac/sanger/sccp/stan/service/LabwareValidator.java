@@ -190,8 +190,20 @@ public class LabwareValidator {
      * @return the found labware
      */
     public List<Labware> loadLabware(LabwareRepo lwRepo, Collection<String> barcodes) {
+        return loadLabwareUsing(lwRepo::findByBarcodeIn, barcodes);
+    }
+
+    /**
+     * Loads the labware from the given barcodes using the given lookup function.
+     * The labware are stored inside this validator object for validation.
+     * If any barcodes are unmatched, an error will be added.
+     * @param lookup function to look up labware from barcodes
+     * @param barcodes the barcodes to look up
+     * @return the found labware
+     */
+    public List<Labware> loadLabwareUsing(Function<Collection<String>, List<Labware>> lookup, Collection<String> barcodes) {
         givenBarcodes = barcodes;
-        List<Labware> labware = lwRepo.findByBarcodeIn(barcodes);
+        List<Labware> labware = lookup.apply(barcodes);
         this.labware = labware;
         if (labware.size() < barcodes.size()) {
             Set<String> foundBarcodes = labware.stream()
@@ -3,13 +3,15 @@ package uk.ac.sanger.sccp.stan.service;
 import org.springframework.stereotype.Service;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
+import uk.ac.sanger.sccp.stan.request.LabwarePassFails;
 import uk.ac.sanger.sccp.stan.request.OpPassFail;
 import uk.ac.sanger.sccp.stan.request.OpPassFail.SlotPassFail;
 import uk.ac.sanger.sccp.utils.BasicUtils;
+import uk.ac.sanger.sccp.utils.UCMap;
 
 import java.util.*;
 
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.*;
 
 /**
  * A service for looking up operations with pass/fail results
@@ -50,6 +52,58 @@ public class PassFailQueryService {
                 .collect(toList());
     }
 
+    /**
+     * Gets the operation/pass/fails for multiple items of labware and an op type.
+     * The ops, results and comments for all the labware are each loaded in a single query.
+     * The barcodes must be valid labware barcodes. The operation type must exist.
+     * @param barcodes the barcodes of existing labware
+     * @param operationName the name of an operation type
+     * @return the operations of the given type recorded on each specified item of labware,
+     *  along with the results for those operations, in the order the barcodes were given
+     */
+    public List<LabwarePassFails> getLabwarePassFails(Collection<String> barcodes, String operationName) {
+        List<String> distinctBarcodes = barcodes.stream()
+                .filter(BasicUtils.distinctUCSerial())
+                .collect(toList());
+        UCMap<Labware> lwMap = lwRepo.getMapByBarcodeIn(distinctBarcodes);
+        OperationType opType = opTypeRepo.getByName(operationName);
+        List<Integer> labwareIds = lwMap.values().stream().map(Labware::getId).collect(toList());
+        List<Operation> ops = (labwareIds.isEmpty() ? List.of()
+                : opRepo.findAllByOperationTypeAndDestinationLabwareIdIn(opType, labwareIds));
+        Map<Integer, List<ResultOp>> opResults;
+        Map<Integer, List<OperationComment>> opComments;
+        if (ops.isEmpty()) {
+            opResults = Map.of();
+            opComments = Map.of();
+        } else {
+            Set<Integer> opIds = ops.stream().map(Operation::getId).collect(toSet());
+            opResults = resultOpRepo.findAllByOperationIdIn(opIds).stream()
+                    .collect(groupingBy(ResultOp::getOperationId));
+            opComments = opCommentRepo.findAllByOperationIdIn(opIds).stream()
+                    .collect(groupingBy(OperationComment::getOperationId));
+        }
+        Map<Integer, List<Operation>> labwareOps = new HashMap<>(lwMap.size());
+        for (Operation op : ops) {
+            op.getActions().stream()
+                    .map(a -> a.getDestination().getLabwareId())
+                    .distinct()
+                    .forEach(lwId -> labwareOps.computeIfAbsent(lwId, k -> new ArrayList<>()).add(op));
+        }
+        return distinctBarcodes.stream()
+                .map(bc -> {
+                    Labware lw = lwMap.get(bc);
+                    Map<Integer, Slot> slotMap = lw.getSlots().stream().collect(BasicUtils.inMap(Slot::getId));
+                    List<OpPassFail> opfs = labwareOps.getOrDefault(lw.getId(), List.of()).stream()
+                            .sorted(Comparator.comparing(Operation::getPerformed).thenComparing(Operation::getId))
+                            .map(op -> new OpPassFail(op, compileSlotPassFails(slotMap,
+                                    opResults.getOrDefault(op.getId(), List.of()),
+                                    makeCommentMap(slotMap, opComments.getOrDefault(op.getId(), List.of())))))
+                            .collect(toList());
+                    return new LabwarePassFails(lw.getBarcode(), opfs);
+                })
+                .collect(toList());
+    }
+
     /**
      * Gets the results in each slot for the given op in the given labware.
      * The results are grouped by slot and result; and list the sample ids they apply to.
@@ -66,7 +120,19 @@ public class PassFailQueryService {
         Map<Integer, Slot> slotMap = lw.getSlots().stream()
                 .collect(BasicUtils.inMap(Slot::getId));
         var commentMap = getCommentMap(slotMap, opId);
+        return compileSlotPassFails(slotMap, ros, commentMap);
+    }
 
+    /**
+     * Groups the given results by slot and result, listing the sample ids they apply to.
+     * Results in slots not included in the slot map are omitted.
+     * @param slotMap the slots of the labware, mapped from their ids
+     * @param ros the results recorded in an operation
+     * @param commentMap the comments recorded in the operation
+     * @return the results for each slot
+     */
+    public List<SlotPassFail> compileSlotPassFails(Map<Integer, Slot> slotMap, Collection<ResultOp> ros,
+                                                   Map<AddressSampleId, Set<String>> commentMap) {
         Map<SlotPassFail, Set<Integer>> spfMap = new HashMap<>();
 
         for (ResultOp ro : ros) {
@@ -95,8 +161,20 @@ public class PassFailQueryService {
      * @return a map from address and sample id to the set of comments for that combination
      */
     public Map<AddressSampleId, Set<String>> getCommentMap(Map<Integer, Slot> slotIdMap, Integer opId) {
+        return makeCommentMap(slotIdMap, opCommentRepo.findAllByOperationIdIn(List.of(opId)));
+    }
+
+    /**
+     * Maps the given operation comments from address and sample id to the distinct comment texts.
+     * Comments in slots not included in the slot map are omitted.
+     * @param slotIdMap a map of slots from their ids
+     * @param opComs the comments recorded in an operation
+     * @return a map from address and sample id to the set of comments for that combination
+     */
+    public Map<AddressSampleId, Set<String>> makeCommentMap(Map<Integer, Slot> slotIdMap,
+                                                            Collection<OperationComment> opComs) {
         Map<AddressSampleId, Set<String>> map = new HashMap<>();
-        for (OperationComment opCom : opCommentRepo.findAllByOperationIdIn(List.of(opId))) {
+        for (OperationComment opCom : opComs) {
             Slot slot = slotIdMap.get(opCom.getSlotId());
             if (slot != null) {
                 map.computeIfAbsent(new AddressSampleId(slot.getAddress(), opCom.getSampleId()), k -> new LinkedHashSet<>())
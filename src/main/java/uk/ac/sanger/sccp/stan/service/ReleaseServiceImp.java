@@ -10,6 +10,7 @@ import uk.ac.sanger.sccp.stan.repo.*;
 import uk.ac.sanger.sccp.stan.request.ReleaseRequest;
 import uk.ac.sanger.sccp.stan.request.ReleaseRequest.ReleaseLabware;
 import uk.ac.sanger.sccp.stan.request.ReleaseResult;
+import uk.ac.sanger.sccp.stan.service.releasefile.ReleaseFileStore;
 import uk.ac.sanger.sccp.stan.service.store.StoreService;
 import uk.ac.sanger.sccp.stan.service.work.WorkService;
 import uk.ac.sanger.sccp.utils.UCMap;
@@ -38,12 +39,14 @@ public class ReleaseServiceImp implements ReleaseService {
     private final SnapshotService snapshotService;
     private final EmailService emailService;
     private final WorkService workService;
+    private final ReleaseFileStore releaseFileStore;
 
     @Autowired
     public ReleaseServiceImp(StanConfig stanConfig, Transactor transactor, EntityManager entityManager,
                              ReleaseDestinationRepo destinationRepo, ReleaseRecipientRepo recipientRepo,
                              LabwareRepo labwareRepo, StoreService storeService, ReleaseRepo releaseRepo,
-                             SnapshotService snapshotService, EmailService emailService, WorkService workService) {
+                             SnapshotService snapshotService, EmailService emailService, WorkService workService,
+                             ReleaseFileStore releaseFileStore) {
         this.stanConfig = stanConfig;
         this.transactor = transactor;
         this.entityManager = entityManager;
@@ -55,6 +58,7 @@ public class ReleaseServiceImp implements ReleaseService {
         this.snapshotService = snapshotService;
         this.emailService = emailService;
         this.workService = workService;
+        this.releaseFileStore = releaseFileStore;
     }
 
     @Override
@@ -88,6 +92,9 @@ public class ReleaseServiceImp implements ReleaseService {
         // Perform the release inside a transaction
         List<Release> releases = transactRelease(user, recipient, otherRecs, destination, labware, locations, workMap);
 
+        // Generate the release file in the background now the releases are committed
+        releaseFileStore.submit(releases.stream().map(Release::getId).collect(toList()), options);
+
         // Unstore the labware after the transaction
         storeService.discardStorage(user, barcodes);
 
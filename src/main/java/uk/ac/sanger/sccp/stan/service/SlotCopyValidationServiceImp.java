@@ -58,6 +58,7 @@ public class SlotCopyValidationServiceImp implements SlotCopyValidationService {
             return;
         }
         ValidationHelper val = valHelperFactory.getHelper();
+        prefetchLabware(val, data);
         if (data.opType==null) {
             data.opType = val.checkOpType(request.getOperationType());
         }
@@ -119,6 +120,31 @@ public class SlotCopyValidationServiceImp implements SlotCopyValidationService {
         return lwTypes;
     }
 
+    /**
+     * Prefetches the source and destination labware that still need to be loaded,
+     * so they are loaded together in a single query.
+     * @param val validation helper
+     * @param data the data for the request
+     */
+    public void prefetchLabware(ValidationHelper val, Data data) {
+        List<SlotCopyDestination> scds = data.request.getDestinations();
+        Set<String> barcodes = new HashSet<>();
+        if (data.destLabware==null) {
+            scds.stream().map(SlotCopyDestination::getBarcode)
+                    .filter(bc -> !nullOrEmpty(bc))
+                    .forEach(barcodes::add);
+        }
+        if (data.sourceLabware==null) {
+            scds.stream().flatMap(scd -> scd.getContents().stream())
+                    .map(SlotCopyContent::getSourceBarcode)
+                    .filter(bc -> !nullOrEmpty(bc))
+                    .forEach(barcodes::add);
+        }
+        if (!barcodes.isEmpty()) {
+            val.prefetchLabware(barcodes);
+        }
+    }
+
     /**
      * Loads labware specified as existing labware to put further samples into
      * @param val validation helper that checks and accumulates problems
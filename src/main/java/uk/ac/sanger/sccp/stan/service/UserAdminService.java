@@ -2,12 +2,15 @@ package uk.ac.sanger.sccp.stan.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import uk.ac.sanger.sccp.stan.model.User;
 import uk.ac.sanger.sccp.stan.repo.UserRepo;
+import uk.ac.sanger.sccp.stan.request.CursorPage;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
 
 import static java.util.Objects.requireNonNull;
 import static uk.ac.sanger.sccp.utils.BasicUtils.trimAndRequire;
@@ -96,4 +99,24 @@ public class UserAdminService {
         user.setRole(role);
         return userRepo.save(user);
     }
+
+    /**
+     * Gets a page of users, in order of username.
+     * @param includeDisabled whether to include disabled users
+     * @param after the cursor returned with the previous page, or null to get the first page
+     * @param pageSize the maximum number of users to return, or null for the default
+     * @return a page of users, with a cursor for the following page if there are more
+     * @exception IllegalArgumentException if the page size or cursor is invalid
+     */
+    public CursorPage<User> getUsersPage(boolean includeDisabled, String after, Integer pageSize) {
+        final int size = CursorPage.pageSize(pageSize);
+        String afterUsername = CursorPage.decodeCursor(after);
+        if (afterUsername==null) {
+            afterUsername = "";
+        }
+        PageRequest limit = PageRequest.of(0, size+1);
+        List<User> users = (includeDisabled ? userRepo.findAllByUsernameGreaterThanOrderByUsername(afterUsername, limit)
+                : userRepo.findAllByUsernameGreaterThanAndRoleNotOrderByUsername(afterUsername, User.Role.disabled, limit));
+        return CursorPage.of(users, size, User::getUsername);
+    }
 }
@@ -14,7 +14,6 @@ import uk.ac.sanger.sccp.utils.*;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -26,6 +25,7 @@ import static java.util.stream.Collectors.toSet;
 @Service
 public class WorkProgressServiceImp implements WorkProgressService {
     private final WorkRepo workRepo;
+    private final WorkQueryRepo workQueryRepo;
     private final WorkTypeRepo workTypeRepo;
     private final ProgramRepo programRepo;
     private final OperationRepo opRepo;
@@ -43,10 +43,11 @@ public class WorkProgressServiceImp implements WorkProgressService {
     private final Set<String> releaseLabwareTypes = Set.of("96 well plate");
 
     @Autowired
-    public WorkProgressServiceImp(WorkRepo workRepo, WorkTypeRepo workTypeRepo, ProgramRepo programRepo, OperationRepo opRepo,
+    public WorkProgressServiceImp(WorkRepo workRepo, WorkQueryRepo workQueryRepo, WorkTypeRepo workTypeRepo, ProgramRepo programRepo, OperationRepo opRepo,
                                   LabwareRepo lwRepo, ReleaseRepo releaseRepo, StainTypeRepo stainTypeRepo, ReleaseRecipientRepo recipientRepo,
                                   WorkEventService workEventService) {
         this.workRepo = workRepo;
+        this.workQueryRepo = workQueryRepo;
         this.workTypeRepo = workTypeRepo;
         this.programRepo = programRepo;
         this.opRepo = opRepo;
@@ -60,7 +61,6 @@ public class WorkProgressServiceImp implements WorkProgressService {
     @Override
     public List<WorkProgress> getProgress(String workNumber, List<String> workTypeNames, List<String> programNames,
                                           List<Status> statuses, List<String> requesterNames) {
-        Work singleWork = (workNumber==null ? null : workRepo.getByWorkNumber(workNumber));
         Set<WorkType> workTypes;
         if (workTypeNames==null) {
             workTypes = null;
@@ -89,16 +89,10 @@ public class WorkProgressServiceImp implements WorkProgressService {
             return List.of();
         }
 
-        StreamerFilter<Work> ws = new StreamerFilter<>();
-        if (singleWork!=null) {
-            ws.setSource(() -> List.of(singleWork));
-        }
-        ws.addFilter(workTypes, Work::getWorkType, workRepo::findAllByWorkTypeIn);
-        ws.addFilter(programs, Work::getProgram, workRepo::findAllByProgramIn);
-        ws.addFilter(requesters, Work::getWorkRequester, workRepo::findAllByWorkRequesterIn);
-        ws.addFilter(statuses, Work::getStatus, workRepo::findAllByStatusIn);
-        if (!ws.hasSource()) {
-            ws.setSource((Supplier<? extends Iterable<Work>>) workRepo::findAll);
+        List<Work> works = workQueryRepo.findAllMatching(workNumber, workTypes, programs, statuses, requesters);
+        if (works.isEmpty() && workNumber!=null) {
+            // Check whether the work number exists, so an unknown work number is reported as an error
+            workRepo.getByWorkNumber(workNumber);
         }
 
         EntityNameFilter<OperationType> opTypeFilter = new EntityNameFilter<>(includedOpTypes);
@@ -108,7 +102,7 @@ public class WorkProgressServiceImp implements WorkProgressService {
 
         final Map<Integer, Labware> labwareIdToLabware = new HashMap<>();
 
-        return ws.filterStream()
+        return works.stream()
                 .map(work -> getProgressForWork(work, opTypeFilter, stainTypeFilter, labwareTypeFilter,
                         releaseLabwareTypeFilter, labwareIdToLabware, labwareTypeToStainMap))
                 .collect(toList());
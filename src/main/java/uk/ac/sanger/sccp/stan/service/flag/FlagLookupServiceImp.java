@@ -20,6 +20,7 @@ import java.util.*;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
+import static uk.ac.sanger.sccp.stan.repo.RepoUtils.findAllInChunks;
 import static uk.ac.sanger.sccp.utils.BasicUtils.nullOrEmpty;
 
 /**
@@ -82,7 +83,7 @@ public class FlagLookupServiceImp implements FlagLookupService {
     @NotNull
     Map<SlotSample, List<LabwareFlag>> loadDirectFlags(Collection<SlotSample> slotSamples) {
         Set<Integer> labwareIds = slotSamples.stream().map(ss -> ss.slot().getLabwareId()).collect(toSet());
-        List<LabwareFlag> flags = flagRepo.findAllByLabwareIdIn(labwareIds);
+        List<LabwareFlag> flags = findAllInChunks(flagRepo::findAllByLabwareIdIn, labwareIds);
         if (flags.isEmpty()) {
             return Map.of();
         }
@@ -171,7 +172,7 @@ public class FlagLookupServiceImp implements FlagLookupService {
         Ancestry ancestry = ancestoriser.findAncestry(slotSamples);
         Set<SlotSample> ancestorSS = ancestry.keySet();
         Set<Integer> labwareIds = ancestorSS.stream().map(ss -> ss.slot().getLabwareId()).collect(toSet());
-        List<LabwareFlag> flags = flagRepo.findAllByLabwareIdIn(labwareIds);
+        List<LabwareFlag> flags = findAllInChunks(flagRepo::findAllByLabwareIdIn, labwareIds);
         if (flags.isEmpty()) {
             return null;
         }
@@ -203,7 +204,7 @@ public class FlagLookupServiceImp implements FlagLookupService {
         Ancestry ancestry = ancestoriser.findAncestry(slotSamples);
         Set<SlotSample> ancestorSs = ancestry.keySet();
         Set<Integer> labwareIds = ancestorSs.stream().map(ss -> ss.slot().getLabwareId()).collect(toSet());
-        List<LabwareFlag> flags = flagRepo.findAllByLabwareIdIn(labwareIds);
+        List<LabwareFlag> flags = findAllInChunks(flagRepo::findAllByLabwareIdIn, labwareIds);
         if (flags.isEmpty()) {
             return labware.stream().map(lw -> new LabwareFlagged(lw, null)).toList();
         }
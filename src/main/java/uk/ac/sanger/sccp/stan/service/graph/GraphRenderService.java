@@ -5,8 +5,6 @@ import uk.ac.sanger.sccp.stan.request.GraphSVG;
 import uk.ac.sanger.sccp.stan.request.history.HistoryGraph;
 import uk.ac.sanger.sccp.stan.service.graph.render.*;
 
-import java.io.*;
-
 /**
  * Service to render a history graph to SVG
  * @author dr6
@@ -32,6 +30,16 @@ public class GraphRenderService {
         return new SVGDraw(fontSize==null ? 16 : fontSize);
     }
 
+    /**
+     * Makes a streaming SVG draw object
+     * @param out the destination for the SVG
+     * @param fontSize the font size, or null for the default
+     * @return a new streaming SVG draw object
+     */
+    public StreamingSVGDraw makeStreamingSVGDraw(Appendable out, Integer fontSize) {
+        return new StreamingSVGDraw(out, fontSize==null ? 16 : fontSize);
+    }
+
     /**
      * Makes a coord space object
      * @return a new coord space object
@@ -46,18 +54,15 @@ public class GraphRenderService {
      * @return a new object containing SVG data
      */
     public GraphSVG toSVG(HistoryGraph graph, float zoom, Integer fontSize) {
-        try (SVGDraw draw = makeSVGDraw(fontSize)) {
+        StringBuilder sb = new StringBuilder();
+        try (StreamingSVGDraw draw = makeStreamingSVGDraw(sb, fontSize)) {
             CoordSpace coords = makeCoordSpace();
             coords.setZoom(zoom);
             GraphRenderer renderer = makeRenderer(draw, coords, graph);
-            renderer.render();
             Bounds bounds = renderer.getExportBounds(draw.getFontHeight(Draw.FontStyle.PLAIN));
-            try (ByteArrayOutputStream os = new ByteArrayOutputStream(); PrintStream ps = new PrintStream(os)) {
-                draw.write(ps, bounds.x(), bounds.y(), bounds.width(), bounds.height());
-                return new GraphSVG(os.toString());
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
+            draw.start(bounds.x(), bounds.y(), bounds.width(), bounds.height());
+            renderer.render();
         }
+        return new GraphSVG(sb.toString());
     }
 }
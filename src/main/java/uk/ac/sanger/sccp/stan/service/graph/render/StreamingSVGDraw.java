@@ -0,0 +1,287 @@
+package uk.ac.sanger.sccp.stan.service.graph.render;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * SVG-based {@link Draw} implementation that writes each element directly to its output
+ * as it is drawn, instead of accumulating the document in memory like {@link SVGDraw}.
+ * <p>
+ * Because the document header includes the view box, the bounds must be known before drawing begins:
+ * call {@link #start} before adding any elements, and {@link #close} afterwards to complete the document.
+ * <p>
+ * Element styles are not written inline. Each distinct combination of fill, outline and stroke
+ * is assigned a CSS class the first time it is used, and the style sheet describing those classes
+ * is written at the end of the document.
+ * @author dr6
+ */
+public class StreamingSVGDraw implements Draw {
+    private final Output output;
+    private final String clipId;
+
+    /**
+     * Creates a draw object writing to the given appendable.
+     * @param out the destination for the SVG
+     * @param fontHeight the font height for strings
+     */
+    public StreamingSVGDraw(Appendable out, int fontHeight) {
+        this.output = new Output(out, fontHeight);
+        this.clipId = null;
+    }
+
+    /**
+     * Creates a draw object writing UTF-8 encoded SVG to the given stream.
+     * The stream is flushed, but not closed, when this draw object is closed.
+     * @param out the destination for the SVG
+     * @param fontHeight the font height for strings
+     */
+    public StreamingSVGDraw(OutputStream out, int fontHeight) {
+        this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), fontHeight);
+    }
+
+    private StreamingSVGDraw(Output output, String clipId) {
+        this.output = output;
+        this.clipId = clipId;
+    }
+
+    /**
+     * Writes the start of the SVG document, using the given bounds for the view box.
+     * @param boundsX the minimum x of the area to show
+     * @param boundsY the minimum y of the area to show
+     * @param boundsW the width of the area to show
+     * @param boundsH the height of the area to show
+     * @exception IllegalStateException if the document has already been started
+     */
+    public void start(int boundsX, int boundsY, int boundsW, int boundsH) {
+        output.start(boundsX, boundsY, boundsW, boundsH);
+    }
+
+    @Override
+    public void addLine(int colour, DrawStroke stroke, int x0, int y0, int x1, int y1) {
+        output.element("line")
+                .attr("x1", x0).attr("y1", y0).attr("x2", x1).attr("y2", y1)
+                .styleAttrs(clipId, 0, colour, stroke, null)
+                .append(" />\n");
+    }
+
+    @Override
+    public void addRect(int fill, int outline, DrawStroke stroke, int x, int y, int w, int h) {
+        output.element("rect")
+                .attr("x", x).attr("y", y).attr("width", w).attr("height", h)
+                .styleAttrs(clipId, fill, outline, stroke, null)
+                .append(" />\n");
+    }
+
+    @Override
+    public void addCircle(int fill, int outline, int cx, int cy, int radius) {
+        output.element("circle")
+                .attr("cx", cx).attr("cy", cy).attr("r", radius)
+                .styleAttrs(clipId, fill, outline, null, null)
+                .append(" />\n");
+    }
+
+    @Override
+    public void addString(int colour, FontStyle fontStyle, String string, int x, int y) {
+        output.element("text")
+                .attr("x", x).attr("y", y)
+                .styleAttrs(clipId, colour, 0, null, fontStyle==null ? FontStyle.PLAIN : fontStyle)
+                .append('>').text(string).append("</text>\n");
+    }
+
+    @Override
+    public int getFontHeight(FontStyle fontStyle) {
+        return output.fontHeight;
+    }
+
+    @Override
+    public Draw withClip(int x, int y, int w, int h) {
+        return new StreamingSVGDraw(output, output.clipPath(x, y, w, h));
+    }
+
+    /**
+     * If this is the top level draw object, writes the style sheet and the end of the SVG document,
+     * and flushes the output if it is flushable.
+     * Closing a draw object returned from {@link #withClip} has no effect.
+     */
+    @Override
+    public void close() {
+        if (clipId==null) {
+            output.finish();
+        }
+    }
+
+    /**
+     * A combination of drawing attributes that is represented by a single CSS class.
+     */
+    record Style(int fill, int outline, DrawStroke stroke, FontStyle fontStyle) {}
+
+    /**
+     * The state shared between a top level draw object and its clipped draw objects.
+     */
+    private static class Output {
+        private final Appendable out;
+        private final int fontHeight;
+        private final Map<Style, String> styleClasses = new LinkedHashMap<>();
+        private final Map<Integer, String> colourStrings = new HashMap<>();
+        private int numClips;
+        private boolean started, finished;
+
+        Output(Appendable out, int fontHeight) {
+            this.out = out;
+            this.fontHeight = fontHeight;
+        }
+
+        void start(int boundsX, int boundsY, int boundsW, int boundsH) {
+            if (started) {
+                throw new IllegalStateException("SVG document already started.");
+            }
+            started = true;
+            final int margin = 2;
+            final int w = boundsW + 2*margin;
+            final int h = boundsH + 2*margin;
+            append("<svg xmlns=\"http://www.w3.org/2000/svg\"")
+                    .attr("width", w).attr("height", h)
+                    .append(" viewBox=\"").append(boundsX - margin).append(' ').append(boundsY - margin)
+                    .append(' ').append(w).append(' ').append(h).append("\" >\n");
+        }
+
+        Output element(String name) {
+            if (!started) {
+                throw new IllegalStateException("SVG document not started.");
+            }
+            if (finished) {
+                throw new IllegalStateException("SVG document already finished.");
+            }
+            return append("  <").append(name);
+        }
+
+        String clipPath(int x, int y, int w, int h) {
+            String id = "clip"+(numClips++);
+            element("clipPath").attr("id", id).append(">\n    <rect")
+                    .attr("x", x).attr("y", y).attr("width", w).attr("height", h)
+                    .append(" stroke=\"none\" fill=\"none\"/>\n  </clipPath>\n");
+            return id;
+        }
+
+        Output styleAttrs(String clipId, int fill, int outline, DrawStroke stroke, FontStyle fontStyle) {
+            if (outline==0) {
+                stroke = null;
+            }
+            String className = styleClasses.computeIfAbsent(new Style(fill, outline, stroke, fontStyle),
+                    k -> "s"+styleClasses.size());
+            attr("class", className);
+            if (clipId!=null) {
+                append(" clip-path=\"url(#").append(clipId).append(")\"");
+            }
+            return this;
+        }
+
+        void finish() {
+            if (finished) {
+                return;
+            }
+            if (!started) {
+                throw new IllegalStateException("SVG document not started.");
+            }
+            if (!styleClasses.isEmpty()) {
+                append("  <style>\n");
+                styleClasses.forEach(this::writeStyleRule);
+                append("  </style>\n");
+            }
+            append("</svg>\n");
+            finished = true;
+            if (out instanceof Flushable) {
+                try {
+                    ((Flushable) out).flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void writeStyleRule(Style style, String className) {
+            append("    .").append(className).append(" { stroke: ");
+            if (style.outline()!=0) {
+                append(colourString(style.outline())).append("; ");
+                DrawStroke stroke = style.stroke();
+                if (stroke!=null) {
+                    append("stroke-width: ").append(stroke.getWidth()).append("; ");
+                    int[] dashes = stroke.getDashArray();
+                    if (dashes.length > 0) {
+                        append("stroke-dasharray:");
+                        for (int dash : dashes) {
+                            append(' ').append(dash);
+                        }
+                        append("; ");
+                    }
+                }
+            } else {
+                append("none; ");
+            }
+            append("fill: ").append(style.fill()==0 ? "none" : colourString(style.fill())).append("; ");
+            if (style.fontStyle()!=null) {
+                append("font-size: ").append(fontHeight).append("px; ");
+                if (style.fontStyle()==FontStyle.BOLD) {
+                    append("font-weight: bold; ");
+                }
+            }
+            append("}\n");
+        }
+
+        private String colourString(int argb) {
+            return colourStrings.computeIfAbsent(argb, StreamingSVGDraw::colourString);
+        }
+
+        Output attr(String name, int value) {
+            return append(' ').append(name).append("=\"").append(value).append('"');
+        }
+
+        Output attr(String name, String value) {
+            return append(' ').append(name).append("=\"").append(value).append('"');
+        }
+
+        Output text(String string) {
+            for (int i = 0; i < string.length(); ++i) {
+                char ch = string.charAt(i);
+                switch (ch) {
+                    case '&' -> append("&amp;");
+                    case '<' -> append("&lt;");
+                    case '>' -> append("&gt;");
+                    case '×' -> append("&times;");
+                    default -> append(ch);
+                }
+            }
+            return this;
+        }
+
+        Output append(int value) {
+            return append(Integer.toString(value));
+        }
+
+        Output append(char ch) {
+            try {
+                out.append(ch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        Output append(CharSequence cs) {
+            try {
+                out.append(cs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+    }
+
+    static String colourString(int argb) {
+        if ((argb&0xff000000)==0xff000000) {
+            return String.format("rgb(%s,%s,%s)", (argb>>>16)&0xff, (argb>>>8)&0xff, argb&0xff);
+        }
+        return String.format("rgba(%s,%s,%s,%.2f)", (argb>>>16)&0xff, (argb>>>8)&0xff, argb&0xff, ((argb>>>24)&0xff)/255f);
+    }
+}
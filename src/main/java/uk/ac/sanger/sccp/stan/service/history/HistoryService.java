@@ -45,6 +45,15 @@ public interface HistoryService {
      */
     History getHistoryForWorkNumber(String workNumber);
 
+    /**
+     * Gets the history for a work number, including only events after the given cursor
+     * @param workNumber a valid work number
+     * @param after a cursor from a previously returned history, or null to get all events
+     * @return the history of events for that work number, with a cursor for the next request
+     * @exception IllegalArgumentException if the cursor is invalid
+     */
+    History getHistoryForWorkNumber(String workNumber, String after);
+
     /**
      * Gets the applicable history
      * @param workNumber the specific work number (if any) to look up, or null
@@ -56,6 +65,18 @@ public interface HistoryService {
      */
     History getHistory(String workNumber, String barcode, List<String> externalNames, List<String> donorNames, String eventType);
 
+    /**
+     * Gets the applicable history, including only events after the given cursor.
+     * The arguments are as for {@link #getHistory(String, String, List, List, String)}.
+     * Events are ordered by their database ids rather than their recorded times,
+     * since an operation may be recorded with a time in the past.
+     * @param after a cursor from a previously returned history, or null to get all events
+     * @return the history for the specified identifier(s), with a cursor for the next request
+     * @exception IllegalArgumentException if the cursor is invalid
+     */
+    History getHistory(String workNumber, String barcode, List<String> externalNames, List<String> donorNames,
+                       String eventType, String after);
+
     /**
      * Gets a list of the different event types used in history
      * @return the different event types
@@ -8,11 +8,13 @@ import uk.ac.sanger.sccp.stan.repo.*;
 import uk.ac.sanger.sccp.stan.request.LabwareFlagged;
 import uk.ac.sanger.sccp.stan.request.SamplePositionResult;
 import uk.ac.sanger.sccp.stan.request.history.History;
+import uk.ac.sanger.sccp.stan.request.history.HistoryCursor;
 import uk.ac.sanger.sccp.stan.request.history.HistoryEntry;
 import uk.ac.sanger.sccp.stan.service.SlotRegionService;
 import uk.ac.sanger.sccp.stan.service.flag.FlagLookupService;
 import uk.ac.sanger.sccp.stan.service.history.ReagentActionDetailService.ReagentActionDetail;
 import uk.ac.sanger.sccp.utils.BasicUtils;
+import uk.ac.sanger.sccp.utils.WildcardMatcher;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.*;
@@ -24,6 +26,7 @@ import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.*;
+import static uk.ac.sanger.sccp.stan.repo.RepoUtils.*;
 import static uk.ac.sanger.sccp.utils.BasicUtils.*;
 
 /**
@@ -36,6 +39,7 @@ public class HistoryServiceImp implements HistoryService {
     static final Pattern SIZE_BP_PTN = Pattern.compile("^(Average|Main peak) size$", Pattern.CASE_INSENSITIVE);
 
     private final OperationRepo opRepo;
+    private final ActionRepo actionRepo;
     private final OperationTypeRepo opTypeRepo;
     private final LabwareRepo lwRepo;
     private final SampleRepo sampleRepo;
@@ -60,7 +64,7 @@ public class HistoryServiceImp implements HistoryService {
     private final FlagLookupService flagLookupService;
 
     @Autowired
-    public HistoryServiceImp(OperationRepo opRepo, OperationTypeRepo opTypeRepo, LabwareRepo lwRepo, SampleRepo sampleRepo, TissueRepo tissueRepo,
+    public HistoryServiceImp(OperationRepo opRepo, ActionRepo actionRepo, OperationTypeRepo opTypeRepo, LabwareRepo lwRepo, SampleRepo sampleRepo, TissueRepo tissueRepo,
                              DonorRepo donorRepo, ReleaseRepo releaseRepo,
                              DestructionRepo destructionRepo, OperationCommentRepo opCommentRepo, RoiRepo roiRepo,
                              SnapshotRepo snapshotRepo, WorkRepo workRepo, MeasurementRepo measurementRepo,
@@ -69,6 +73,7 @@ public class HistoryServiceImp implements HistoryService {
                              ReagentActionDetailService reagentActionDetailService,
                              SlotRegionService slotRegionService, FlagLookupService flagLookupService) {
         this.opRepo = opRepo;
+        this.actionRepo = actionRepo;
         this.opTypeRepo = opTypeRepo;
         this.lwRepo = lwRepo;
         this.sampleRepo = sampleRepo;
@@ -103,19 +108,48 @@ public class HistoryServiceImp implements HistoryService {
 
     @Override
     public History getHistory(String workNumber, String barcode, List<String> externalNames, List<String> donorNames, String eventType) {
+        return getHistory(workNumber, barcode, externalNames, donorNames, eventType, null);
+    }
+
+    @Override
+    public History getHistory(String workNumber, String barcode, List<String> externalNames, List<String> donorNames,
+                              String eventType, String after) {
+        HistoryCursor cursor = HistoryCursor.decode(after);
+        History history;
         if (donorNames==null && externalNames==null && barcode==null) {
             if (workNumber==null && eventType!=null) {
-                return getHistoryForEventType(eventType);
+                history = getHistoryForEventType(eventType, cursor);
+            } else {
+                history = getHistoryForWorkNumber(workNumber, eventTypeFilter(eventType), cursor);
             }
-            return getHistoryForWorkNumber(workNumber, eventTypeFilter(eventType));
-        }
-        List<Sample> samples;
-        if (barcode!=null) {
-            samples = samplesForBarcode(barcode, externalNames, donorNames);
         } else {
-            samples = samplesForTissues(externalNames, donorNames);
+            List<Sample> samples;
+            if (barcode!=null) {
+                samples = samplesForBarcode(barcode, externalNames, donorNames);
+            } else {
+                samples = samplesForTissues(externalNames, donorNames);
+            }
+            history = getHistoryForSamples(samples, workNumber, eventTypeFilter(eventType), cursor);
         }
-        return getHistoryForSamples(samples, workNumber, eventTypeFilter(eventType));
+        return withCursor(history, cursor);
+    }
+
+    /**
+     * Removes entries already seen before the given cursor from the given history,
+     * and sets the cursor in the history to follow the given cursor and the history's entries
+     * @param history the history
+     * @param after the cursor the history was loaded after, or null
+     * @return the given history
+     */
+    public History withCursor(History history, HistoryCursor after) {
+        if (after!=null) {
+            history.setEntries(history.getEntries().stream()
+                    .filter(entry -> after.isNew(entry, RELEASE_EVENT_TYPE, DESTRUCTION_EVENT_TYPE))
+                    .collect(toList()));
+        }
+        HistoryCursor next = (after==null ? HistoryCursor.START : after).advance(history.getEntries(), RELEASE_EVENT_TYPE, DESTRUCTION_EVENT_TYPE);
+        history.setCursor(next.encode());
+        return history;
     }
 
     /**
@@ -125,13 +159,24 @@ public class HistoryServiceImp implements HistoryService {
      * @return the history comprising the event type
      */
     public History getHistoryForEventType(String eventType) {
+        return getHistoryForEventType(eventType, null);
+    }
+
+    /**
+     * Gets history with the given event type, including only events after the given cursor.
+     * This method loads flagged barcodes.
+     * @param eventType a string identifying an event type
+     * @param after the cursor to load events after, or null to load all events
+     * @return the history comprising the event type
+     */
+    public History getHistoryForEventType(String eventType, HistoryCursor after) {
         History history;
         if (eventType.equalsIgnoreCase(RELEASE_EVENT_TYPE)) {
-            history = getHistoryOfReleases();
+            history = getHistoryOfReleases(after);
         } else if (eventType.equalsIgnoreCase(DESTRUCTION_EVENT_TYPE)) {
-            history = getHistoryOfDestructions();
+            history = getHistoryOfDestructions(after);
         } else {
-            history = getHistoryForOpType(opTypeRepo.getByName(eventType));
+            history = getHistoryForOpType(opTypeRepo.getByName(eventType), after);
         }
         history.setFlagPriorityBarcodes(loadFlaggedBarcodes(history.getLabware()));
         return history;
@@ -142,7 +187,17 @@ public class HistoryServiceImp implements HistoryService {
      * @return a history of releases
      */
     public History getHistoryOfReleases() {
-        List<Release> releases = asList(releaseRepo.findAll());
+        return getHistoryOfReleases(null);
+    }
+
+    /**
+     * Gets a history listing releases after the given cursor and nothing else.
+     * @param after the cursor to load releases after, or null to load all releases
+     * @return a history of releases
+     */
+    public History getHistoryOfReleases(HistoryCursor after) {
+        List<Release> releases = (after==null ? asList(releaseRepo.findAll())
+                : releaseRepo.findAllByIdGreaterThan(after.releaseId()));
         if (releases.isEmpty()) {
             return new History();
         }
@@ -158,7 +213,17 @@ public class HistoryServiceImp implements HistoryService {
      * @return a history of destructions
      */
     public History getHistoryOfDestructions() {
-        List<Destruction> destructions = asList(destructionRepo.findAll());
+        return getHistoryOfDestructions(null);
+    }
+
+    /**
+     * Gets a history listing destructions after the given cursor and nothing else.
+     * @param after the cursor to load destructions after, or null to load all destructions
+     * @return a history of destructions
+     */
+    public History getHistoryOfDestructions(HistoryCursor after) {
+        List<Destruction> destructions = (after==null ? asList(destructionRepo.findAll())
+                : destructionRepo.findAllByIdGreaterThan(after.destructionId()));
         if (destructions.isEmpty()) {
             return new History();
         }
@@ -175,14 +240,25 @@ public class HistoryServiceImp implements HistoryService {
      * @return a history of operations of the given type
      */
     public History getHistoryForOpType(@NotNull OperationType opType) {
-        List<Operation> ops = opRepo.findAllByOperationType(opType);
+        return getHistoryForOpType(opType, null);
+    }
+
+    /**
+     * Gets a history listing operations of the given type after the given cursor.
+     * @param opType the type of operation to list
+     * @param after the cursor to load operations after, or null to load all operations
+     * @return a history of operations of the given type
+     */
+    public History getHistoryForOpType(@NotNull OperationType opType, HistoryCursor after) {
+        List<Operation> ops = (after==null ? opRepo.findAllByOperationType(opType)
+                : opRepo.findAllByOperationTypeAndIdGreaterThan(opType, after.opId()));
         if (ops.isEmpty()) {
             return new History();
         }
 
         Set<Integer> labwareIds = labwareIdsFromOps(ops);
 
-        List<Labware> labware = lwRepo.findAllByIdIn(labwareIds);
+        List<Labware> labware = lwRepo.findAllWithContentsByIdIn(labwareIds);
         List<HistoryEntry> entries = createEntriesForOps(ops, null, labware, null, null);
         List<Sample> samples = referencedSamples(entries, labware);
         entries.sort(Comparator.comparing(HistoryEntry::getTime));
@@ -274,12 +350,8 @@ public class HistoryServiceImp implements HistoryService {
         if (externalNames.isEmpty()) {
             return t -> false; // can't possibly match an empty list
         }
-        if (externalNames.size() == 1 && externalNames.getFirst().indexOf('*') < 0) {
-            String xn = externalNames.getFirst();
-            return t -> t.getExternalName().equalsIgnoreCase(xn);
-        }
-        Pattern p = BasicUtils.makeWildcardPattern(externalNames);
-        return t -> p.matcher(t.getExternalName()).matches();
+        WildcardMatcher matcher = WildcardMatcher.of(externalNames);
+        return t -> matcher.test(t.getExternalName());
     }
 
     public Predicate<Tissue> donorNameTissuePredicate(List<String> donorNames) {
@@ -336,10 +408,31 @@ public class HistoryServiceImp implements HistoryService {
         return getHistoryForWorkNumber(workNumber, EventTypeFilter.NO_FILTER);
     }
 
+    @Override
+    public History getHistoryForWorkNumber(String workNumber, String after) {
+        HistoryCursor cursor = HistoryCursor.decode(after);
+        return withCursor(getHistoryForWorkNumber(workNumber, EventTypeFilter.NO_FILTER, cursor), cursor);
+    }
+
     public History getHistoryForWorkNumber(String workNumber, @NotNull EventTypeFilter etFilter) {
+        return getHistoryForWorkNumber(workNumber, etFilter, null);
+    }
+
+    /**
+     * Gets the history for a work number, including only events after the given cursor
+     * @param workNumber a valid work number
+     * @param etFilter filter on the type of events to include
+     * @param after the cursor to load events after, or null to load all events
+     * @return the history of events for the work number
+     */
+    public History getHistoryForWorkNumber(String workNumber, @NotNull EventTypeFilter etFilter, HistoryCursor after) {
         Work work = workRepo.getByWorkNumber(workNumber);
         Set<Integer> opIds = etFilter.ops ? work.getOperationIds() : Set.of();
         Set<Integer> releaseIds = etFilter.releases ? work.getReleaseIds() : Set.of();
+        if (after!=null) {
+            opIds = opIds.stream().filter(id -> id > after.opId()).collect(toSet());
+            releaseIds = releaseIds.stream().filter(id -> id > after.releaseId()).collect(toSet());
+        }
         if (opIds.isEmpty() && releaseIds.isEmpty()) {
             return new History();
         }
@@ -355,7 +448,7 @@ public class HistoryServiceImp implements HistoryService {
         }
         List<Release> releases = releaseIds.isEmpty() ? List.of() : releaseRepo.findAllByIdIn(releaseIds);
         Set<Integer> labwareIds = labwareIdsFromOps(ops);
-        List<Labware> opLabware = lwRepo.findAllByIdIn(labwareIds);
+        List<Labware> opLabware = lwRepo.findAllWithContentsByIdIn(labwareIds);
         List<HistoryEntry> opEntries = createEntriesForOps(ops, null, opLabware, null, work.getWorkNumber());
         final List<HistoryEntry> releaseEntries = createEntriesForReleases(releases, null, null, work.getWorkNumber());
         final List<HistoryEntry> entries = BasicUtils.concat(opEntries, releaseEntries);
@@ -441,36 +534,77 @@ public class HistoryServiceImp implements HistoryService {
      * @return the history involving those samples
      */
     public History getHistoryForSamples(List<Sample> samples, String requiredWorkNumber, @NotNull EventTypeFilter etFilter) {
+        return getHistoryForSamples(samples, requiredWorkNumber, etFilter, null);
+    }
+
+    /**
+     * Gets the history for the specifically supplied samples, including only events after the given cursor.
+     * This method loads flagged barcodes.
+     * @param samples the samples to get the history for
+     * @param requiredWorkNumber the required work number (if any)
+     * @param etFilter a filter for event types
+     * @param after the cursor to load events after, or null to load all events
+     * @return the history involving those samples
+     */
+    public History getHistoryForSamples(List<Sample> samples, String requiredWorkNumber,
+                                        @NotNull EventTypeFilter etFilter, HistoryCursor after) {
         if (nullOrEmpty(samples)) {
             return new History();
         }
 
         Set<Integer> sampleIds = samples.stream().map(Sample::getId).collect(toSet());
 
+        // The same operation may be found from samples in different chunks
         List<Operation> ops;
         if (etFilter.opType!=null) {
-            ops = opRepo.findAllByOperationTypeAndSampleIdIn(etFilter.opType, sampleIds);
+            ops = new ArrayList<>(findSetInChunks(after==null
+                    ? ids -> opRepo.findAllByOperationTypeAndSampleIdIn(etFilter.opType, ids)
+                    : ids -> opRepo.findAllByOperationTypeAndSampleIdInAndIdGreaterThan(etFilter.opType, ids, after.opId()),
+                    sampleIds));
         } else if (etFilter.ops) {
-            ops = opRepo.findAllBySampleIdIn(sampleIds);
+            ops = new ArrayList<>(findSetInChunks(after==null
+                    ? opRepo::findAllBySampleIdIn
+                    : ids -> opRepo.findAllBySampleIdInAndIdGreaterThan(ids, after.opId()),
+                    sampleIds));
         } else {
             ops = List.of();
         }
 
         Set<Integer> labwareIds;
 
-        if (!ops.isEmpty()) {
+        if (after!=null) {
+            // Older ops are not loaded, so the labware is found from the actions of all the ops on the samples
+            labwareIds = loadLabwareIdsForSampleIds(sampleIds, etFilter);
+            if (labwareIds.isEmpty()) {
+                labwareIds = findSetInChunks(lwRepo::findAllLabwareIdsContainingSampleIds, sampleIds);
+            }
+        } else if (!ops.isEmpty()) {
             labwareIds = loadLabwareIdsForOpsAndSampleIds(ops, sampleIds);
         } else {
-            labwareIds = lwRepo.findAllLabwareIdsContainingSampleIds(sampleIds);
+            labwareIds = findSetInChunks(lwRepo::findAllLabwareIdsContainingSampleIds, sampleIds);
+        }
+        List<Labware> labware = findAllInChunks(lwRepo::findAllWithContentsByIdIn, labwareIds);
+        List<Destruction> destructions;
+        if (!etFilter.destructions) {
+            destructions = List.of();
+        } else if (after==null) {
+            destructions = findAllInChunks(destructionRepo::findAllByLabwareIdIn, labwareIds);
+        } else {
+            destructions = findAllInChunks(ids -> destructionRepo.findAllByLabwareIdInAndIdGreaterThan(ids, after.destructionId()), labwareIds);
+        }
+        List<Release> releases;
+        if (!etFilter.releases) {
+            releases = List.of();
+        } else if (after==null) {
+            releases = findAllInChunks(releaseRepo::findAllByLabwareIdIn, labwareIds);
+        } else {
+            releases = findAllInChunks(ids -> releaseRepo.findAllByLabwareIdInAndIdGreaterThan(ids, after.releaseId()), labwareIds);
         }
-        List<Labware> labware = lwRepo.findAllByIdIn(labwareIds);
-        List<Destruction> destructions = etFilter.destructions ? destructionRepo.findAllByLabwareIdIn(labwareIds) : List.of();
-        List<Release> releases = etFilter.releases ? releaseRepo.findAllByLabwareIdIn(labwareIds) : List.of();
 
         Set<Integer> opIds = ops.stream().map(Operation::getId).collect(toSet());
-        Map<Integer, Set<String>> opWork = workRepo.findWorkNumbersForOpIds(opIds);
+        Map<Integer, Set<String>> opWork = findMapInChunks(workRepo::findWorkNumbersForOpIds, opIds);
         List<Integer> releaseIds = releases.stream().map(Release::getId).collect(toList());
-        Map<Integer, String> releaseWork = workRepo.findWorkNumbersForReleaseIds(releaseIds);
+        Map<Integer, String> releaseWork = findMapInChunks(workRepo::findWorkNumbersForReleaseIds, releaseIds);
 
         if (requiredWorkNumber!=null) {
             final String wnUpper = requiredWorkNumber.toUpperCase();
@@ -494,6 +628,25 @@ public class HistoryServiceImp implements HistoryService {
     }
 
 
+    /**
+     * Gets the ids of labware involved in any operations included by the filter on the given samples,
+     * without loading the operations.
+     * This is the same labware as {@link #loadLabwareIdsForOpsAndSampleIds} finds from all those operations.
+     * @param sampleIds the ids of relevant samples
+     * @param etFilter filter on the type of events to include
+     * @return the labware ids referenced in operations related to the sample ids
+     */
+    public Set<Integer> loadLabwareIdsForSampleIds(Set<Integer> sampleIds, @NotNull EventTypeFilter etFilter) {
+        if (etFilter.opType!=null) {
+            return findSetInChunks(ids -> actionRepo.findLabwareIdsForOperationTypeAndSampleIds(etFilter.opType.getId(), ids),
+                    sampleIds);
+        }
+        if (etFilter.ops) {
+            return findSetInChunks(actionRepo::findLabwareIdsForSampleIds, sampleIds);
+        }
+        return Set.of();
+    }
+
     /**
      * Gets labware ids from the given operations that are linked to the given sample ids.
      * @param ops the operations
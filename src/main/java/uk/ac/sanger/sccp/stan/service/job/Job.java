@@ -0,0 +1,126 @@
+package uk.ac.sanger.sccp.stan.service.job;
+
+import uk.ac.sanger.sccp.utils.BasicUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A report request running in the background.
+ * The status and times are updated by the thread running the job, and read by requests polling it.
+ * @author dr6
+ */
+public class Job {
+    /** The kinds of report a job can produce */
+    public enum Type {
+        history,
+        workProgress,
+        releaseFile,
+    }
+
+    /** The stages of a job */
+    public enum Status {
+        queued,
+        running,
+        completed,
+        failed,
+    }
+
+    private final int id;
+    private final Type type;
+    private final String username;
+    private final LocalDateTime submitted;
+    private final String filename;
+    private volatile Status status = Status.queued;
+    private volatile LocalDateTime started;
+    private volatile LocalDateTime finished;
+    private volatile String error;
+    private volatile Path resultPath;
+
+    public Job(int id, Type type, String username, LocalDateTime submitted, String filename) {
+        this.id = id;
+        this.type = requireNonNull(type, "Job type is null.");
+        this.username = username;
+        this.submitted = requireNonNull(submitted, "Submitted time is null.");
+        this.filename = requireNonNull(filename, "Filename is null.");
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    /** The username of the user who submitted the job */
+    public String getUsername() {
+        return this.username;
+    }
+
+    public LocalDateTime getSubmitted() {
+        return this.submitted;
+    }
+
+    /** The name of the file delivered when the result is downloaded */
+    public String getFilename() {
+        return this.filename;
+    }
+
+    public Status getStatus() {
+        return this.status;
+    }
+
+    public LocalDateTime getStarted() {
+        return this.started;
+    }
+
+    public LocalDateTime getFinished() {
+        return this.finished;
+    }
+
+    /** The error message, if the job failed */
+    public String getError() {
+        return this.error;
+    }
+
+    /** The path where the result is saved, once the job has completed */
+    public Path getResultPath() {
+        return this.resultPath;
+    }
+
+    /** The url to download the result from, once the job has completed */
+    public String getResultUrl() {
+        return (this.status==Status.completed ? "jobs/"+this.id+"/result" : null);
+    }
+
+    void markStarted(LocalDateTime time) {
+        this.started = time;
+        this.status = Status.running;
+    }
+
+    void markCompleted(LocalDateTime time, Path resultPath) {
+        this.resultPath = resultPath;
+        this.finished = time;
+        this.status = Status.completed;
+    }
+
+    void markFailed(LocalDateTime time, String error) {
+        this.error = error;
+        this.finished = time;
+        this.status = Status.failed;
+    }
+
+    @Override
+    public String toString() {
+        return BasicUtils.describe(this)
+                .add("id", id)
+                .add("type", type)
+                .add("status", status)
+                .add("username", username)
+                .reprStringValues()
+                .toString();
+    }
+}
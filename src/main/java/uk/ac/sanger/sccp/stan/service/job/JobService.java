@@ -0,0 +1,64 @@
+package uk.ac.sanger.sccp.stan.service.job;
+
+import org.springframework.core.io.Resource;
+import uk.ac.sanger.sccp.stan.model.ReleaseFileOption;
+import uk.ac.sanger.sccp.stan.model.User;
+import uk.ac.sanger.sccp.stan.model.Work;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service for running reports as jobs in the background.
+ * Each job type has its own limit of how many jobs may run at once and how many may wait,
+ * so heavy reports cannot starve interactive requests.
+ * The result of a completed job is saved as a tsv file and kept for a limited time.
+ * @author dr6
+ */
+public interface JobService {
+    /**
+     * Submits a job to get history matching the given criteria.
+     * The arguments are as for {@link uk.ac.sanger.sccp.stan.service.history.HistoryService#getHistory}.
+     * @return the submitted job
+     * @exception IllegalStateException if too many history jobs are already waiting
+     */
+    Job submitHistory(User user, String workNumber, String barcode, List<String> externalNames,
+                      List<String> donorNames, String eventType);
+
+    /**
+     * Submits a job to get work progress matching the given criteria.
+     * The arguments are as for {@link uk.ac.sanger.sccp.stan.service.WorkProgressService#getProgress}.
+     * @return the submitted job
+     * @exception IllegalStateException if too many work progress jobs are already waiting
+     */
+    Job submitWorkProgress(User user, String workNumber, List<String> workTypeNames, List<String> programNames,
+                           List<Work.Status> statuses, List<String> requesterNames);
+
+    /**
+     * Submits a job to generate a release file
+     * @param user the user submitting the job
+     * @param releaseIds the ids of the releases
+     * @param options the options for the release file
+     * @return the submitted job
+     * @exception IllegalArgumentException if no release ids are given
+     * @exception IllegalStateException if too many release file jobs are already waiting
+     */
+    Job submitReleaseFile(User user, List<Integer> releaseIds, Set<ReleaseFileOption> options);
+
+    /**
+     * Gets the job with the given id
+     * @param id the id of the job
+     * @return the job
+     * @exception javax.persistence.EntityNotFoundException if there is no such job, or it has expired
+     */
+    Job getJob(int id);
+
+    /**
+     * Loads the result of the given completed job
+     * @param job the job
+     * @return a resource for the saved result
+     * @exception IllegalStateException if the job is not completed
+     * @exception java.io.UncheckedIOException if the result cannot be opened
+     */
+    Resource loadResult(Job job);
+}
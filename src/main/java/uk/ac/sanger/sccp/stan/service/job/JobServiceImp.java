@@ -0,0 +1,332 @@
+package uk.ac.sanger.sccp.stan.service.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.stereotype.Service;
+import uk.ac.sanger.sccp.stan.Transactor;
+import uk.ac.sanger.sccp.stan.config.JobConfig;
+import uk.ac.sanger.sccp.stan.config.StanFileConfig;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.request.WorkProgress;
+import uk.ac.sanger.sccp.stan.request.WorkProgress.WorkProgressTimestamp;
+import uk.ac.sanger.sccp.stan.request.history.History;
+import uk.ac.sanger.sccp.stan.request.history.HistoryEntry;
+import uk.ac.sanger.sccp.stan.service.WorkProgressService;
+import uk.ac.sanger.sccp.stan.service.history.HistoryService;
+import uk.ac.sanger.sccp.stan.service.releasefile.ReleaseFileContent;
+import uk.ac.sanger.sccp.stan.service.releasefile.ReleaseFileService;
+import uk.ac.sanger.sccp.utils.tsv.*;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.nio.file.*;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toMap;
+import static uk.ac.sanger.sccp.utils.BasicUtils.nullOrEmpty;
+
+/**
+ * @author dr6
+ */
+@Service
+public class JobServiceImp implements JobService {
+    private static final Logger log = LoggerFactory.getLogger(JobServiceImp.class);
+
+    /** The subdirectory of the file store directory where job results are saved */
+    static final String SUBDIRECTORY = "job_results";
+
+    private final JobConfig jobConfig;
+    private final StanFileConfig fileConfig;
+    private final Clock clock;
+    private final Transactor transactor;
+    private final HistoryService historyService;
+    private final WorkProgressService workProgressService;
+    private final ReleaseFileService releaseFileService;
+    private final Map<Job.Type, Executor> executors;
+
+    private final AtomicInteger idCounter = new AtomicInteger();
+    private final Map<Integer, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JobServiceImp(JobConfig jobConfig, StanFileConfig fileConfig, Clock clock, Transactor transactor,
+                         HistoryService historyService, WorkProgressService workProgressService,
+                         ReleaseFileService releaseFileService) {
+        this(jobConfig, fileConfig, clock, transactor, historyService, workProgressService, releaseFileService,
+                createExecutors(jobConfig));
+    }
+
+    JobServiceImp(JobConfig jobConfig, StanFileConfig fileConfig, Clock clock, Transactor transactor,
+                  HistoryService historyService, WorkProgressService workProgressService,
+                  ReleaseFileService releaseFileService, Map<Job.Type, Executor> executors) {
+        this.jobConfig = jobConfig;
+        this.fileConfig = fileConfig;
+        this.clock = clock;
+        this.transactor = transactor;
+        this.historyService = historyService;
+        this.workProgressService = workProgressService;
+        this.releaseFileService = releaseFileService;
+        this.executors = executors;
+    }
+
+    /**
+     * Creates an executor for each job type, with the configured number of threads and a bounded queue
+     * @param config the job config
+     * @return a map of job type to executor
+     */
+    static Map<Job.Type, Executor> createExecutors(JobConfig config) {
+        Map<Job.Type, Executor> executors = new EnumMap<>(Job.Type.class);
+        for (Job.Type type : Job.Type.values()) {
+            final int numThreads = Math.max(1, config.getConcurrency(type));
+            final AtomicInteger threadCounter = new AtomicInteger();
+            executors.put(type, new ThreadPoolExecutor(numThreads, numThreads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, config.getMaxQueued())), runnable -> {
+                Thread thread = new Thread(runnable, "job-" + type + "-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+        return executors;
+    }
+
+    @Override
+    public Job submitHistory(User user, String workNumber, String barcode, List<String> externalNames,
+                             List<String> donorNames, String eventType) {
+        return submit(user, Job.Type.history, "history.tsv", () -> {
+            History history = historyService.getHistory(workNumber, barcode, externalNames, donorNames, eventType);
+            return historyFile(history);
+        });
+    }
+
+    @Override
+    public Job submitWorkProgress(User user, String workNumber, List<String> workTypeNames, List<String> programNames,
+                                  List<Work.Status> statuses, List<String> requesterNames) {
+        return submit(user, Job.Type.workProgress, "work_progress.tsv", () -> workProgressFile(
+                workProgressService.getProgress(workNumber, workTypeNames, programNames, statuses, requesterNames)
+        ));
+    }
+
+    @Override
+    public Job submitReleaseFile(User user, List<Integer> releaseIds, Set<ReleaseFileOption> options) {
+        if (nullOrEmpty(releaseIds)) {
+            throw new IllegalArgumentException("No release ids specified.");
+        }
+        return submit(user, Job.Type.releaseFile, "releases.tsv", () -> {
+            ReleaseFileContent rfc = releaseFileService.getReleaseFileContent(releaseIds, options);
+            return new TsvFile<>("releases.tsv", rfc.getEntries(), releaseFileService.computeColumns(rfc));
+        });
+    }
+
+    @Override
+    public Job getJob(int id) {
+        purgeExpired();
+        Job job = jobs.get(id);
+        if (job==null) {
+            throw new EntityNotFoundException("Unknown job id: "+id);
+        }
+        return job;
+    }
+
+    @Override
+    public Resource loadResult(Job job) {
+        if (job.getStatus()!=Job.Status.completed) {
+            throw new IllegalStateException("Job "+job.getId()+" is "+job.getStatus()+".");
+        }
+        try {
+            return new UrlResource(job.getResultPath().toUri());
+        } catch (MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a job and queues it on the executor for its type
+     * @param user the user submitting the job
+     * @param type the type of job
+     * @param filename the name of the file delivered as the result
+     * @param report function to produce the report; called inside a transaction in the job's thread
+     * @return the new job
+     * @exception IllegalStateException if the executor for the job type rejects the job
+     */
+    public Job submit(User user, Job.Type type, String filename, Supplier<TsvFile<?>> report) {
+        purgeExpired();
+        Job job = new Job(idCounter.incrementAndGet(), type, user==null ? null : user.getUsername(), now(), filename);
+        jobs.put(job.getId(), job);
+        try {
+            executors.get(type).execute(() -> run(job, report));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Too many "+type+" jobs are waiting. Try again later.");
+        }
+        log.info("Submitted job {}", job);
+        return job;
+    }
+
+    /**
+     * Runs the given job, saving its result and updating its status
+     * @param job the job to run
+     * @param report function to produce the report
+     */
+    public void run(Job job, Supplier<TsvFile<?>> report) {
+        job.markStarted(now());
+        final Path path = resultPath(job);
+        try {
+            Files.createDirectories(path.getParent());
+            // The report is written inside the transaction, since its columns may load lazy fields
+            transactor.transact("Job "+job.getId(), () -> {
+                write(report.get(), path);
+                return null;
+            });
+            job.markCompleted(now(), path);
+        } catch (IOException | RuntimeException e) {
+            log.error("Job "+job.getId()+" failed", e);
+            String message = (e instanceof UncheckedIOException ? e.getCause() : e).getMessage();
+            job.markFailed(now(), message==null ? e.getClass().getSimpleName() : message);
+            deleteResult(path);
+        }
+    }
+
+    /**
+     * Removes finished jobs whose results have expired, and deletes their results
+     */
+    public void purgeExpired() {
+        final LocalDateTime cutoff = now().minusMinutes(jobConfig.getResultTtlMinutes());
+        Iterator<Job> iter = jobs.values().iterator();
+        while (iter.hasNext()) {
+            Job job = iter.next();
+            if (job.getFinished()!=null && job.getFinished().isBefore(cutoff)) {
+                iter.remove();
+                if (job.getResultPath()!=null) {
+                    deleteResult(job.getResultPath());
+                }
+            }
+        }
+    }
+
+    /**
+     * The path where the result of the given job is saved
+     * @param job the job
+     * @return the path of the job's result file
+     */
+    public Path resultPath(Job job) {
+        return Paths.get(fileConfig.getRoot(), fileConfig.getDir(), SUBDIRECTORY,
+                "job" + job.getId() + "_" + job.getType() + ".tsv");
+    }
+
+    private static void write(TsvFile<?> file, Path path) {
+        try (TsvWriter writer = new TsvWriter(Files.newOutputStream(path))) {
+            writer.write(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteResult(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.error("Failed to delete job result "+path, e);
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    /**
+     * Tabulates the given history, one row per event
+     * @param history the history
+     * @return a file of the history entries
+     */
+    public TsvFile<HistoryEntry> historyFile(History history) {
+        final Map<Integer, Labware> labware = history.getLabware().stream()
+                .collect(toMap(Labware::getId, Function.identity(), (a, b) -> a));
+        final Map<Integer, Sample> samples = history.getSamples().stream()
+                .collect(toMap(Sample::getId, Function.identity(), (a, b) -> a));
+        final Function<HistoryEntry, Sample> sampleFn = e -> (e.getSampleId()==null ? null : samples.get(e.getSampleId()));
+        final Function<HistoryEntry, Tissue> tissueFn = e -> {
+            Sample sample = sampleFn.apply(e);
+            return (sample==null ? null : sample.getTissue());
+        };
+        List<FunctionColumn<HistoryEntry>> columns = List.of(
+                new FunctionColumn<>("Event id", HistoryEntry::getEventId),
+                new FunctionColumn<>("Type", HistoryEntry::getType),
+                new FunctionColumn<>("Time", HistoryEntry::getTime),
+                new FunctionColumn<>("Source barcode", e -> barcode(labware.get(e.getSourceLabwareId()))),
+                new FunctionColumn<>("Destination barcode", e -> barcode(labware.get(e.getDestinationLabwareId()))),
+                new FunctionColumn<>("External name", e -> {
+                    Tissue tissue = tissueFn.apply(e);
+                    return (tissue==null ? null : tissue.getExternalName());
+                }),
+                new FunctionColumn<>("Donor name", e -> {
+                    Tissue tissue = tissueFn.apply(e);
+                    return (tissue==null ? null : tissue.getDonor().getDonorName());
+                }),
+                new FunctionColumn<>("Section", e -> {
+                    Sample sample = sampleFn.apply(e);
+                    return (sample==null ? null : sample.getSection());
+                }),
+                new FunctionColumn<>("Address", HistoryEntry::getAddress),
+                new FunctionColumn<>("Region", HistoryEntry::getRegion),
+                new FunctionColumn<>("Username", HistoryEntry::getUsername),
+                new FunctionColumn<>("Work number", HistoryEntry::getWorkNumber),
+                new FunctionColumn<>("Details", e -> String.join("; ", e.getDetails()))
+        );
+        return new TsvFile<>("history.tsv", history.getEntries(), columns);
+    }
+
+    /**
+     * Tabulates the given work progress, one row per work.
+     * There is a column for each type of timestamp.
+     * @param progress the work progress
+     * @return a file of the work progress
+     */
+    public TsvFile<WorkProgress> workProgressFile(List<WorkProgress> progress) {
+        List<FunctionColumn<WorkProgress>> columns = new ArrayList<>(List.of(
+                new FunctionColumn<>("Work number", wp -> wp.getWork().getWorkNumber()),
+                new FunctionColumn<>("Work type", wp -> {
+                    WorkType workType = wp.getWork().getWorkType();
+                    return (workType==null ? null : workType.getName());
+                }),
+                new FunctionColumn<>("Status", wp -> wp.getWork().getStatus()),
+                new FunctionColumn<>("Program", wp -> {
+                    Program program = wp.getWork().getProgram();
+                    return (program==null ? null : program.getName());
+                }),
+                new FunctionColumn<>("Requester", wp -> {
+                    ReleaseRecipient requester = wp.getWork().getWorkRequester();
+                    return (requester==null ? null : requester.getUsername());
+                }),
+                new FunctionColumn<>("Most recent operation", WorkProgress::getMostRecentOperation),
+                new FunctionColumn<>("Comment", WorkProgress::getWorkComment)
+        ));
+        LinkedHashSet<String> timestampTypes = new LinkedHashSet<>();
+        for (WorkProgress wp : progress) {
+            if (wp.getTimestamps()!=null) {
+                wp.getTimestamps().forEach(ts -> timestampTypes.add(ts.getType()));
+            }
+        }
+        for (String tsType : timestampTypes) {
+            columns.add(new FunctionColumn<>(tsType, wp -> wp.getTimestamps()==null ? null : wp.getTimestamps().stream()
+                    .filter(ts -> tsType.equals(ts.getType()))
+                    .map(WorkProgressTimestamp::getTimestamp)
+                    .findFirst()
+                    .orElse(null)));
+        }
+        return new TsvFile<>("work_progress.tsv", progress, columns);
+    }
+
+    private static String barcode(Labware lw) {
+        return (lw==null ? null : lw.getBarcode());
+    }
+}
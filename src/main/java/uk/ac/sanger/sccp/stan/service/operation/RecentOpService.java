@@ -3,6 +3,7 @@ package uk.ac.sanger.sccp.stan.service.operation;
 import uk.ac.sanger.sccp.stan.model.Operation;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
 
 /**
  * Service for looking up recent ops
@@ -16,4 +17,15 @@ public interface RecentOpService {
      * @exception EntityNotFoundException if the barcode or op name is not recognised
      */
     Operation findLatestOp(String barcode, String opName);
+
+    /**
+     * Gets the latest op (if any) of the given type whose destination was each of the specified barcodes.
+     * The ops for all the labware are loaded in a single query.
+     * @param barcodes labware barcodes
+     * @param opName name of op type
+     * @return the latest operation found for each barcode, in the order the barcodes were given,
+     *   with null for barcodes where no operation was found
+     * @exception EntityNotFoundException if any barcode or the op name is not recognised
+     */
+    List<Operation> findLatestOps(List<String> barcodes, String opName);
 }
@@ -4,9 +4,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
+import uk.ac.sanger.sccp.utils.UCMap;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+
+import static uk.ac.sanger.sccp.utils.BasicUtils.distinctUCSerial;
 
 /**
  * @author dr6
@@ -35,4 +37,26 @@ public class RecentOpServiceImp implements RecentOpService {
                 .max(OP_COMPARATOR)
                 .orElse(null);
     }
+
+    @Override
+    public List<Operation> findLatestOps(List<String> barcodes, String opName) {
+        if (barcodes.isEmpty()) {
+            return List.of();
+        }
+        UCMap<Labware> lwMap = lwRepo.getMapByBarcodeIn(barcodes.stream().filter(distinctUCSerial()).toList());
+        OperationType opType = opTypeRepo.getByName(opName);
+        Set<Integer> labwareIds = new HashSet<>(lwMap.size());
+        lwMap.values().forEach(lw -> labwareIds.add(lw.getId()));
+        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationLabwareIdIn(opType, labwareIds);
+        Map<Integer, Operation> latestOps = new HashMap<>(labwareIds.size());
+        for (Operation op : ops) {
+            for (Action ac : op.getActions()) {
+                latestOps.merge(ac.getDestination().getLabwareId(), op,
+                        (a, b) -> OP_COMPARATOR.compare(a, b) >= 0 ? a : b);
+            }
+        }
+        return barcodes.stream()
+                .map(bc -> latestOps.get(lwMap.get(bc).getId()))
+                .toList();
+    }
 }
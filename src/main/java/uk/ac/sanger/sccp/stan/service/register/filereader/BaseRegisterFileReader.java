@@ -60,6 +60,42 @@ public abstract class BaseRegisterFileReader<RequestType, ColumnType extends Enu
                 .map(row -> readRow(problems, columnIndex, row))
                 .filter(map -> !map.isEmpty())
                 .collect(toList());
+        return createRequestFromRows(problems, rows);
+    }
+
+    /**
+     * Reads the request from the given rows in a single pass, without random access to the sheet.
+     * This allows rows to be read from a streaming source as they are parsed.
+     * The heading row must appear in the given rows, before the data rows.
+     * @param sheetRows the rows of the sheet, in order
+     * @return the request read from the rows
+     * @exception ValidationException the request is invalid
+     */
+    public RequestType readRows(Iterable<Row> sheetRows) {
+        final Collection<String> problems = new LinkedHashSet<>();
+        Map<ColumnType, Integer> columnIndex = null;
+        List<Map<ColumnType, Object>> rows = new ArrayList<>();
+        for (Row row : sheetRows) {
+            final int rowNum = row.getRowNum();
+            if (rowNum==headingRowIndex) {
+                columnIndex = indexColumns(problems, row);
+                if (!problems.isEmpty()) {
+                    throw new ValidationException("The file contents are invalid.", problems);
+                }
+            } else if (rowNum >= dataRowIndex && columnIndex!=null) {
+                Map<ColumnType, Object> map = readRow(problems, columnIndex, row);
+                if (!map.isEmpty()) {
+                    rows.add(map);
+                }
+            }
+        }
+        if (columnIndex==null) {
+            problems.add("Column headings not found.");
+        }
+        return createRequestFromRows(problems, rows);
+    }
+
+    private RequestType createRequestFromRows(Collection<String> problems, List<Map<ColumnType, Object>> rows) {
         if (problems.isEmpty() && rows.isEmpty()) {
             problems.add("No registrations requested.");
         }
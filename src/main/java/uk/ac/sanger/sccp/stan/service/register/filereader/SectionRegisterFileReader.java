@@ -7,7 +7,6 @@ import uk.ac.sanger.sccp.stan.service.ValidationException;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -93,12 +92,7 @@ public interface SectionRegisterFileReader extends MultipartFileReader<SectionRe
      * */
     @Override
     default SectionRegisterRequest read(MultipartFile multipartFile) throws IOException, ValidationException {
-        try (Workbook wb = WorkbookFactory.create(multipartFile.getInputStream())) {
-            if (SHEET_INDEX < 0 || SHEET_INDEX >= wb.getNumberOfSheets()) {
-                throw new ValidationException(List.of("Workbook does not have a worksheet at index "+SHEET_INDEX));
-            }
-            return read(wb.getSheetAt(SHEET_INDEX));
-        }
+        return SheetReading.read(multipartFile.getInputStream(), SHEET_INDEX, this::read, this::readRows);
     }
 
     /**
@@ -109,4 +103,12 @@ public interface SectionRegisterFileReader extends MultipartFileReader<SectionRe
      */
     SectionRegisterRequest read(Sheet sheet) throws ValidationException;
 
+    /**
+     * Reads the registration request from the rows of an Excel sheet, in a single pass.
+     * @param rows the rows of the worksheet, in order
+     * @return a request read from the rows
+     * @exception ValidationException the request is invalid
+     */
+    SectionRegisterRequest readRows(Iterable<Row> rows) throws ValidationException;
+
 }
@@ -0,0 +1,63 @@
+package uk.ac.sanger.sccp.stan.service.register.filereader;
+
+import com.github.pjfanning.xlsx.StreamingReader;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.*;
+import uk.ac.sanger.sccp.stan.service.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper for reading a worksheet from an uploaded Excel file.
+ * <p>
+ * Xlsx files are parsed with a streaming (SAX-based) reader, so rows are read one at a time
+ * as the sheet is parsed, rather than loading the whole workbook into memory first.
+ * Other formats (i.e. old-style xls files) are loaded as a complete workbook.
+ * @author dr6
+ */
+class SheetReading {
+    /** The number of rows the streaming reader holds in memory at once */
+    static final int ROW_CACHE_SIZE = 100;
+    /** The size of the buffer used by the streaming reader */
+    static final int BUFFER_SIZE = 4096;
+
+    private SheetReading() {}
+
+    /**
+     * Reads the indicated worksheet from the given stream.
+     * @param in the input stream containing Excel data
+     * @param sheetIndex the index of the worksheet to read
+     * @param sheetReader function to read a complete sheet, if the file cannot be streamed
+     * @param rowReader function to read the rows of the sheet in order, as they are parsed
+     * @return the result of reading the sheet
+     * @param <R> the type of result
+     * @exception IOException the file cannot be read
+     * @exception ValidationException the workbook does not contain the indicated sheet, or the reader found problems
+     */
+    static <R> R read(InputStream in, int sheetIndex, Function<Sheet, R> sheetReader,
+                      Function<Iterable<Row>, R> rowReader) throws IOException, ValidationException {
+        InputStream is = FileMagic.prepareToCheckMagic(in);
+        if (FileMagic.valueOf(is)==FileMagic.OOXML) {
+            try (Workbook wb = StreamingReader.builder()
+                    .rowCacheSize(ROW_CACHE_SIZE)
+                    .bufferSize(BUFFER_SIZE)
+                    .open(is)) {
+                checkSheetIndex(wb, sheetIndex);
+                return rowReader.apply(wb.getSheetAt(sheetIndex));
+            }
+        }
+        try (Workbook wb = WorkbookFactory.create(is)) {
+            checkSheetIndex(wb, sheetIndex);
+            return sheetReader.apply(wb.getSheetAt(sheetIndex));
+        }
+    }
+
+    private static void checkSheetIndex(Workbook wb, int sheetIndex) {
+        if (sheetIndex < 0 || sheetIndex >= wb.getNumberOfSheets()) {
+            throw new ValidationException(List.of("Workbook does not have a worksheet at index "+sheetIndex));
+        }
+    }
+}
@@ -54,18 +54,17 @@ public class Ancestoriser {
                     continue;
                 }
                 Set<SlotSample> values = new TreeSet<>();
-                ancestry.put(slotSample, values);
                 List<Action> slotActions = destSlotIdActions.get(slotSample.slot.getId());
-                if (slotActions==null) {
-                    continue;
-                }
-                for (Action action : slotActions) {
-                    if (action.getSample().equals(slotSample.sample)) {
-                        SlotSample sourceSlotSample = new SlotSample(action.getSource(), action.getSourceSample());
-                        newSlotSamples.add(sourceSlotSample);
-                        values.add(sourceSlotSample);
+                if (slotActions!=null) {
+                    for (Action action : slotActions) {
+                        if (action.getSample().equals(slotSample.sample)) {
+                            SlotSample sourceSlotSample = new SlotSample(action.getSource(), action.getSourceSample());
+                            newSlotSamples.add(sourceSlotSample);
+                            values.add(sourceSlotSample);
+                        }
                     }
                 }
+                ancestry.put(slotSample, values);
             }
             newSlotSamples.removeAll(done);
         }
@@ -76,9 +75,27 @@ public class Ancestoriser {
      * A representation of the ancestry of samples (through slots and other samples).
      * It is modelled something like a map with a slot-sample key mapping to the set
      * of slot-samples that are its direct sources.
+     * <p>
+     * Internally each slot-sample is interned to a dense int id, and the sources are stored as
+     * int arrays. Before the first query after any change, the sources are compacted into a single
+     * adjacency array indexed by offsets, so that traversals only touch primitive arrays.
+     * Queries reuse scratch arrays, so an ancestry should not be queried by multiple threads at once.
      */
     public static class Ancestry {
-        private final Map<SlotSample, Set<SlotSample>> map = new HashMap<>();
+        private static final int[] NO_IDS = new int[0];
+
+        private final Map<SlotSample, Integer> index = new HashMap<>();
+        private SlotSample[] nodes = new SlotSample[16];
+        private int numNodes;
+        /** Which nodes are keys (i.e. have had their sources specified) */
+        private final BitSet keys = new BitSet();
+        /** The sources of each key node while the ancestry is being modified; null once compacted */
+        private int[][] pendingSources = new int[16][];
+        /** Sources of node {@code i} are {@code sources[offsets[i]]} to {@code sources[offsets[i+1]-1]} */
+        private int[] offsets, sources;
+
+        private int[] queue = NO_IDS, marks = NO_IDS;
+        private int epoch;
 
         /**
          * Gets the sources for the given destination slot-sample.
@@ -87,7 +104,12 @@ public class Ancestoriser {
          * @return the sources of the given slot-sample
          */
         public Set<SlotSample> get(SlotSample key) {
-            return map.getOrDefault(key, Set.of());
+            Integer id = index.get(key);
+            if (id==null || !keys.get(id)) {
+                return Set.of();
+            }
+            compact();
+            return new IdSet(Arrays.copyOfRange(sources, offsets[id], offsets[id+1]));
         }
 
         /**
@@ -96,26 +118,19 @@ public class Ancestoriser {
          * @return the roots of the given slot-sample in this ancestry
          */
         public Set<SlotSample> getRoots(SlotSample branch) {
-            Set<SlotSample> newBranches = Set.of(branch);
-            Set<SlotSample> roots = new HashSet<>();
-            Set<SlotSample> done = new HashSet<>();
-            while (!newBranches.isEmpty()) {
-                Set<SlotSample> currentBranches = newBranches;
-                newBranches = new HashSet<>();
-                for (SlotSample ss : currentBranches) {
-                    if (!done.add(ss)) {
-                        continue;
-                    }
-                    Set<SlotSample> parents = map.get(ss);
-                    if (parents==null || parents.isEmpty()) {
-                        roots.add(ss);
-                    } else {
-                        newBranches.addAll(parents);
-                    }
+            Integer id = index.get(branch);
+            if (id==null) {
+                return Set.of(branch);
+            }
+            int size = traverse(id);
+            int numRoots = 0;
+            for (int i = 0; i < size; ++i) {
+                int node = queue[i];
+                if (offsets[node]==offsets[node+1]) {
+                    queue[numRoots++] = node;
                 }
-                newBranches.removeAll(done);
             }
-            return roots;
+            return new IdSet(Arrays.copyOf(queue, numRoots));
         }
 
         /**
@@ -126,24 +141,12 @@ public class Ancestoriser {
          * @return the ancestors of the given slot-sample (including itself)
          */
         public Set<SlotSample> ancestors(SlotSample last) {
-            Set<SlotSample> ancestors = new LinkedHashSet<>();
-            Set<SlotSample> current = new LinkedHashSet<>();
-            current.add(last);
-            while (!current.isEmpty()) {
-                Set<SlotSample> old = current;
-                current = new LinkedHashSet<>();
-                for (SlotSample ss : old) {
-                    if (!ancestors.add(ss)) {
-                        continue;
-                    }
-                    Set<SlotSample> nextSs = map.get(ss);
-                    if (nextSs!=null) {
-                        current.addAll(nextSs);
-                    }
-                }
-                current.removeAll(ancestors);
+            Integer id = index.get(last);
+            if (id==null) {
+                return Set.of(last);
             }
-            return ancestors;
+            int size = traverse(id);
+            return new IdSet(Arrays.copyOf(queue, size));
         }
 
         /**
@@ -151,17 +154,161 @@ public class Ancestoriser {
          * @return the set of key slot-samples
          */
         public Set<SlotSample> keySet() {
-            return map.keySet();
+            return new IdSet(keys.stream().toArray());
         }
 
         /**
          * Sets the sources for the given slot-sample key.
+         * The sources are copied, so later changes to the given set are not reflected in this ancestry.
          * @param key the slot-sample
          * @param values the sources for the given key slot-sample
          * @return the previous value associated with the key
          */
         public Set<SlotSample> put(SlotSample key, Set<SlotSample> values) {
-            return map.put(key, values);
+            Set<SlotSample> old = (index.containsKey(key) && keys.get(index.get(key)) ? get(key) : null);
+            int id = intern(key);
+            int[] sourceIds = new int[values.size()];
+            int n = 0;
+            for (SlotSample value : values) {
+                sourceIds[n++] = intern(value);
+            }
+            expand();
+            pendingSources[id] = sourceIds;
+            keys.set(id);
+            return old;
+        }
+
+        /**
+         * Breadth-first traversal of the sources of the given node, most recent generation first.
+         * The visited nodes (including the given node) are left in {@link #queue}.
+         * @param start the id of the node to start from
+         * @return the number of nodes visited
+         */
+        private int traverse(int start) {
+            compact();
+            if (++epoch==0) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+            queue[0] = start;
+            marks[start] = epoch;
+            int size = 1;
+            for (int head = 0; head < size; ++head) {
+                int node = queue[head];
+                for (int e = offsets[node]; e < offsets[node+1]; ++e) {
+                    int source = sources[e];
+                    if (marks[source]!=epoch) {
+                        marks[source] = epoch;
+                        queue[size++] = source;
+                    }
+                }
+            }
+            return size;
+        }
+
+        /** Gets the id for the given slot-sample, adding a new node if necessary */
+        private int intern(SlotSample ss) {
+            Integer id = index.get(ss);
+            if (id!=null) {
+                return id;
+            }
+            if (numNodes==nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2*numNodes);
+            }
+            nodes[numNodes] = ss;
+            index.put(ss, numNodes);
+            return numNodes++;
+        }
+
+        /** Packs the pending sources into the offsets and sources arrays, if there are any pending changes */
+        private void compact() {
+            if (pendingSources==null) {
+                return;
+            }
+            int numEdges = 0;
+            for (int i = 0; i < numNodes; ++i) {
+                if (pendingSources[i]!=null) {
+                    numEdges += pendingSources[i].length;
+                }
+            }
+            offsets = new int[numNodes+1];
+            sources = new int[numEdges];
+            int e = 0;
+            for (int i = 0; i < numNodes; ++i) {
+                offsets[i] = e;
+                int[] nodeSources = pendingSources[i];
+                if (nodeSources!=null) {
+                    System.arraycopy(nodeSources, 0, sources, e, nodeSources.length);
+                    e += nodeSources.length;
+                }
+            }
+            offsets[numNodes] = e;
+            pendingSources = null;
+            queue = new int[numNodes];
+            marks = new int[numNodes];
+            epoch = 0;
+        }
+
+        /** Unpacks the compacted sources so that they can be modified */
+        private void expand() {
+            if (pendingSources==null) {
+                int numCompacted = offsets.length - 1;
+                pendingSources = new int[Math.max(nodes.length, 16)][];
+                for (int i = 0; i < numCompacted; ++i) {
+                    if (keys.get(i)) {
+                        pendingSources[i] = Arrays.copyOfRange(sources, offsets[i], offsets[i+1]);
+                    }
+                }
+            } else if (pendingSources.length < nodes.length) {
+                pendingSources = Arrays.copyOf(pendingSources, nodes.length);
+            }
+        }
+
+        /** An ordered, unmodifiable set of slot-samples backed by an array of ids */
+        private class IdSet extends AbstractSet<SlotSample> {
+            private final int[] ids;
+
+            IdSet(int[] ids) {
+                this.ids = ids;
+            }
+
+            @Override
+            public Iterator<SlotSample> iterator() {
+                return new Iterator<>() {
+                    int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return (next < ids.length);
+                    }
+
+                    @Override
+                    public SlotSample next() {
+                        if (next >= ids.length) {
+                            throw new NoSuchElementException();
+                        }
+                        return nodes[ids[next++]];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                Integer id = index.get(o);
+                if (id!=null) {
+                    for (int i : ids) {
+                        if (i==id) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
         }
     }
 
@@ -101,6 +101,35 @@ public enum ReleaseColumn implements TsvColumn<ReleaseEntry> {
         return this.mode;
     }
 
+    /**
+     * The loader (if any) that must be run to fill in this column.
+     * Columns that come directly from the release, labware or sample need no loader.
+     * @return the loader this column depends on, or null
+     */
+    public ReleaseFileLoader getLoader() {
+        return switch (this) {
+            case Flag_description -> ReleaseFileLoader.FLAGS;
+            case Section_position_in_slot -> ReleaseFileLoader.SAMPLE_POSITIONS;
+            case Section_thickness, Tissue_coverage, Permeabilisation_time, Cq_value,
+                 Number_of_amplification_cycles, Visium_concentration, Visium_concentration_type
+                    -> ReleaseFileLoader.MEASUREMENTS;
+            case Date_sectioned -> ReleaseFileLoader.SECTION_DATE;
+            case Section_comment -> ReleaseFileLoader.SECTION_COMMENTS;
+            case Last_section_number -> ReleaseFileLoader.LAST_SECTION;
+            case Solution_currently_in -> ReleaseFileLoader.SOLUTIONS;
+            case Source_barcode, Source_address -> ReleaseFileLoader.SOURCES;
+            case Stain_type, Stain_QC_comment, Bond_barcode, RNAscope_plex, IHC_plex -> ReleaseFileLoader.STAINS;
+            case Visium_barcode -> ReleaseFileLoader.VISIUM_BARCODES;
+            case Dual_index_plate_type, Dual_index_plate_name -> ReleaseFileLoader.REAGENT_SOURCES;
+            case Probe_hybridisation_start, Xenium_plex_number, Xenium_probe_panel, Xenium_probe_lot,
+                 Probe_hybridisation_end, Probe_comments, Xenium_decoding_reagent_A_lot,
+                 Xenium_decoding_reagent_B_lot, Xenium_run_name, Xenium_cassette_position, Xenium_ROI,
+                 Xenium_start, Xenium_completion, Xenium_comments
+                    -> ReleaseFileLoader.XENIUM;
+            default -> null;
+        };
+    }
+
     @Override
     public String get(ReleaseEntry entry) {
         Object value = function.apply(entry);
@@ -119,6 +148,25 @@ public enum ReleaseColumn implements TsvColumn<ReleaseEntry> {
         return Arrays.stream(values()).filter(rc -> rc.include(modes, options)).collect(toList());
     }
 
+    /**
+     * Gets the loaders needed to fill in the given columns
+     * @param columns the columns to be included in a release file
+     * @return the loaders that the columns depend on
+     */
+    public static Set<ReleaseFileLoader> loadersFor(@NotNull Collection<? extends TsvColumn<ReleaseEntry>> columns) {
+        Set<ReleaseFileLoader> loaders = EnumSet.noneOf(ReleaseFileLoader.class);
+        for (TsvColumn<ReleaseEntry> column : columns) {
+            if (column instanceof ReleaseColumn rc) {
+                if (rc.getLoader()!=null) {
+                    loaders.add(rc.getLoader());
+                }
+            } else if (column instanceof TagDataColumn) {
+                loaders.add(TagDataColumn.LOADER);
+            }
+        }
+        return loaders;
+    }
+
     public boolean modeFilter(Collection<ReleaseFileMode> modes) {
         return (this.mode==null || modes.contains(this.mode));
     }
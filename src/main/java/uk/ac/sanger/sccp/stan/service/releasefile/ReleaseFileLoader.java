@@ -0,0 +1,34 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+/**
+ * The groups of information that {@link ReleaseFileService} can load into release entries.
+ * Each {@link ReleaseColumn} declares the loaders it depends on, so that
+ * only the information needed for the requested columns is loaded.
+ * @author dr6
+ */
+public enum ReleaseFileLoader {
+    LAST_SECTION(false),
+    SOURCES(true),
+    MEASUREMENTS(true),
+    SECTION_DATE(true),
+    STAINS(true),
+    REAGENT_SOURCES(false),
+    SAMPLE_POSITIONS(false),
+    SECTION_COMMENTS(false),
+    SOLUTIONS(false),
+    VISIUM_BARCODES(true),
+    XENIUM(false),
+    FLAGS(false),
+    ;
+
+    private final boolean needsAncestry;
+
+    ReleaseFileLoader(boolean needsAncestry) {
+        this.needsAncestry = needsAncestry;
+    }
+
+    /** Does this loader need the ancestry of the released samples? */
+    public boolean needsAncestry() {
+        return this.needsAncestry;
+    }
+}
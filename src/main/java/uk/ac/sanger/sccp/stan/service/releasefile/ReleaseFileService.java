@@ -25,6 +25,7 @@ import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.*;
+import static uk.ac.sanger.sccp.stan.repo.RepoUtils.*;
 import static uk.ac.sanger.sccp.utils.BasicUtils.*;
 
 /**
@@ -112,30 +113,68 @@ public class ReleaseFileService {
                 .flatMap(r -> toReleaseEntries(r, samples, snapshots, detail))
                 .collect(toList());
 
-        loadLastSection(entries);
-        Ancestry ancestry = findAncestry(entries);
-        Set<Integer> slotIds = entries.stream()
-                .map(ReleaseEntry::getSlot)
-                .map(s -> s==null ? null : s.getId())
-                .filter(Objects::nonNull)
-                .collect(toSet());
-        loadSources(entries, ancestry, modes);
-        loadMeasurements(entries, ancestry);
-        loadSectionDate(entries, ancestry);
-        loadStains(entries, ancestry);
-        loadReagentSources(entries);
-        loadSamplePositions(entries);
-        loadSectionComments(entries);
-        loadSolutions(entries);
-        if (options.contains(ReleaseFileOption.Visium)) {
+        final Set<ReleaseFileLoader> plan = loadingPlan(modes, options);
+        Ancestry ancestry = (plan.stream().anyMatch(ReleaseFileLoader::needsAncestry) ? findAncestry(entries) : null);
+        if (plan.contains(ReleaseFileLoader.LAST_SECTION)) {
+            loadLastSection(entries);
+        }
+        if (plan.contains(ReleaseFileLoader.SOURCES)) {
+            loadSources(entries, ancestry, modes);
+        }
+        if (plan.contains(ReleaseFileLoader.MEASUREMENTS)) {
+            loadMeasurements(entries, ancestry);
+        }
+        if (plan.contains(ReleaseFileLoader.SECTION_DATE)) {
+            loadSectionDate(entries, ancestry);
+        }
+        if (plan.contains(ReleaseFileLoader.STAINS)) {
+            loadStains(entries, ancestry);
+        }
+        if (plan.contains(ReleaseFileLoader.REAGENT_SOURCES)) {
+            loadReagentSources(entries);
+        }
+        if (plan.contains(ReleaseFileLoader.SAMPLE_POSITIONS)) {
+            loadSamplePositions(entries);
+        }
+        if (plan.contains(ReleaseFileLoader.SECTION_COMMENTS)) {
+            loadSectionComments(entries);
+        }
+        if (plan.contains(ReleaseFileLoader.SOLUTIONS)) {
+            loadSolutions(entries);
+        }
+        if (plan.contains(ReleaseFileLoader.VISIUM_BARCODES)) {
             loadVisiumBarcodes(entries, ancestry);
         }
-
-        loadXeniumFields(entries, slotIds);
-        loadFlags(entries);
+        if (plan.contains(ReleaseFileLoader.XENIUM)) {
+            Set<Integer> slotIds = entries.stream()
+                    .map(ReleaseEntry::getSlot)
+                    .map(s -> s==null ? null : s.getId())
+                    .filter(Objects::nonNull)
+                    .collect(toSet());
+            loadXeniumFields(entries, slotIds);
+        }
+        if (plan.contains(ReleaseFileLoader.FLAGS)) {
+            loadFlags(entries);
+        }
         return new ReleaseFileContent(modes, entries, options);
     }
 
+    /**
+     * Works out which loaders need to be run to fill in the columns for the given modes and options.
+     * @param modes the modes of the release file
+     * @param options the options selected for the release file
+     * @return the loaders needed for the release file
+     */
+    public Set<ReleaseFileLoader> loadingPlan(Collection<ReleaseFileMode> modes, Collection<ReleaseFileOption> options) {
+        List<ReleaseColumn> columns = ReleaseColumn.forModesAndOptions(modes, options);
+        Set<ReleaseFileLoader> plan = ReleaseColumn.loadersFor(columns);
+        if (columns.contains(ReleaseColumn.Dual_index_plate_name)) {
+            // tag data columns are added after the dual index plate name column
+            plan.add(TagDataColumn.LOADER);
+        }
+        return plan;
+    }
+
     /**
      * What level of detail should be included about storage locations?
      * <ul>
@@ -554,7 +593,7 @@ public class ReleaseFileService {
     public void loadSectionDate(Collection<ReleaseEntry> entries, Ancestry ancestry) {
         Set<Integer> slotIds = ancestry.keySet().stream().map(SlotSample::slotId).collect(toSet());
         OperationType opType = opTypeRepo.getByName("Section");
-        List<Operation> sectionOps = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> sectionOps = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (!sectionOps.isEmpty()) {
             Map<Integer, Operation> labwareSectionOp = labwareIdToOp(sectionOps);
             Map<ReleaseEntry, Operation> entrySectionOp = findEntryOps(entries, labwareSectionOp, ancestry);
@@ -642,7 +681,7 @@ public class ReleaseFileService {
      */
     public void loadProbeHybridisation(Collection<ReleaseEntry> entries, Set<Integer> slotIds) {
         OperationType opType = opTypeRepo.getByName("Probe hybridisation Xenium");
-        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> ops = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (ops.isEmpty()) {
             return;
         }
@@ -690,7 +729,7 @@ public class ReleaseFileService {
      */
     public void loadProbeHybridisationQC(Collection<ReleaseEntry> entries, Set<Integer> slotIds) {
         OperationType opType = opTypeRepo.getByName("Probe hybridisation QC");
-        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> ops = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (ops.isEmpty()) {
             return;
         }
@@ -721,7 +760,7 @@ public class ReleaseFileService {
      */
     public void loadXeniumAnalyser(Collection<ReleaseEntry> entries, Set<Integer> slotIds) {
         OperationType opType = opTypeRepo.getByName("Xenium analyser");
-        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> ops = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (ops.isEmpty()) {
             return;
         }
@@ -774,7 +813,7 @@ public class ReleaseFileService {
      */
     public void loadXeniumQC(Collection<ReleaseEntry> entries, Set<Integer> slotIds) {
         OperationType opType = opTypeRepo.getByName("Xenium analyser QC");
-        List<Operation> ops = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> ops = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (ops.isEmpty()) {
             return;
         }
@@ -862,7 +901,7 @@ public class ReleaseFileService {
     public void loadStains(Collection<ReleaseEntry> entries, Ancestry ancestry) {
         Set<Integer> slotIds = ancestry.keySet().stream().map(SlotSample::slotId).collect(toSet());
         OperationType opType = opTypeRepo.getByName("Stain");
-        List<Operation> stainOps = opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, slotIds);
+        List<Operation> stainOps = new ArrayList<>(findSetInChunks(ids -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(opType, ids), slotIds));
         if (stainOps.isEmpty()) {
             return;
         }
@@ -964,7 +1003,7 @@ public class ReleaseFileService {
      */
     public void loadMeasurements(Collection<ReleaseEntry> entries, Ancestry ancestry) {
         Set<Integer> slotIds = ancestry.keySet().stream().map(SlotSample::slotId).collect(toSet());
-        List<Measurement> measurements = measurementRepo.findAllBySlotIdIn(slotIds);
+        List<Measurement> measurements = findAllInChunks(measurementRepo::findAllBySlotIdIn, slotIds);
         Map<Integer, List<Measurement>> slotIdToThickness = new HashMap<>();
         Map<Integer, List<Measurement>> slotIdToCoverage = new HashMap<>();
         Map<Integer, List<Measurement>> slotIdToCq = new HashMap<>();
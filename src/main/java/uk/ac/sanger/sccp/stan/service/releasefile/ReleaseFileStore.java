@@ -0,0 +1,289 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import uk.ac.sanger.sccp.stan.Transactor;
+import uk.ac.sanger.sccp.stan.config.StanFileConfig;
+import uk.ac.sanger.sccp.stan.config.VersionInfo;
+import uk.ac.sanger.sccp.stan.model.ReleaseFileOption;
+import uk.ac.sanger.sccp.stan.repo.LabwareFlagRepo;
+import uk.ac.sanger.sccp.stan.repo.OperationRepo;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Precomputes release files and saves them in the file store, so that they can be delivered
+ * without being regenerated every time they are requested.
+ * <p>
+ * The labware and samples in a release are pinned by its snapshot, but much of what is rendered about them is not:
+ * the flag descriptions describe the flags currently on the labware and its ancestors,
+ * other columns describe operations recorded on the samples and their ancestors,
+ * and edits to tissue details (such as adding an external identifier) are recorded as operations on their samples.
+ * Flags and operations are only ever added, so a saved file records the greatest flag id, and the greatest id of
+ * any operation on a sample from the same donors, when it was generated; it is not used
+ * (and is regenerated in the background) once either of those has changed.
+ * <p>
+ * The key of a saved file includes {@link #FORMAT_VERSION} and the application version,
+ * so files saved by a different version of the application (which may have different columns) are not used.
+ * Saved files are deleted when they are older than the retention period.
+ * @author dr6
+ */
+@Service
+public class ReleaseFileStore {
+    private static final Logger log = LoggerFactory.getLogger(ReleaseFileStore.class);
+
+    /** The subdirectory of the file store directory where release files are saved */
+    static final String SUBDIRECTORY = "release_files";
+    /** The version of the saved content. Change this if the content of release files changes. */
+    static final int FORMAT_VERSION = 3;
+
+    private final StanFileConfig config;
+    private final Transactor transactor;
+    private final ReleaseFileService releaseFileService;
+    private final LabwareFlagRepo flagRepo;
+    private final OperationRepo opRepo;
+    private final String appVersion;
+    private final int retentionDays;
+    private final Executor executor;
+    /** The keys of release files waiting to be generated */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ReleaseFileStore(StanFileConfig config, Transactor transactor, ReleaseFileService releaseFileService,
+                            LabwareFlagRepo flagRepo, OperationRepo opRepo, VersionInfo versionInfo,
+                            @Value("${stan.release_files.retention_days:30}") int retentionDays) {
+        this(config, transactor, releaseFileService, flagRepo, opRepo, appVersion(versionInfo), retentionDays,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "release-file-store");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    ReleaseFileStore(StanFileConfig config, Transactor transactor, ReleaseFileService releaseFileService,
+                     LabwareFlagRepo flagRepo, OperationRepo opRepo, String appVersion, int retentionDays,
+                     Executor executor) {
+        this.config = config;
+        this.transactor = transactor;
+        this.releaseFileService = releaseFileService;
+        this.flagRepo = flagRepo;
+        this.opRepo = opRepo;
+        this.appVersion = appVersion;
+        this.retentionDays = retentionDays;
+        this.executor = executor;
+    }
+
+    /**
+     * Identifies the running version of the application: the git commit if it is known, or else the version
+     * @param versionInfo the version info
+     * @return a string identifying the version; empty if it is unknown
+     */
+    static String appVersion(VersionInfo versionInfo) {
+        if (versionInfo.getCommit()!=null && !versionInfo.getCommit().isEmpty()) {
+            return versionInfo.getCommit();
+        }
+        return Objects.requireNonNullElse(versionInfo.getVersion(), "");
+    }
+
+    /**
+     * Schedules the release file for the given releases and options to be generated and saved in the background.
+     * Does nothing if the same file is already waiting to be generated.
+     * Failures, including failing to schedule the task, are logged and not thrown,
+     * since the release file can still be generated when it is requested.
+     * @param releaseIds the ids of releases
+     * @param options the options for the release file
+     */
+    public void submit(Collection<Integer> releaseIds, Set<ReleaseFileOption> options) {
+        final List<Integer> ids = List.copyOf(releaseIds);
+        final Set<ReleaseFileOption> opts = (options.isEmpty() ? EnumSet.noneOf(ReleaseFileOption.class) : EnumSet.copyOf(options));
+        final String key = key(ids, opts);
+        if (!pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store(ids, opts);
+                } catch (RuntimeException | IOException e) {
+                    log.error("Failed to precompute release file for releases "+ids, e);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.remove(key);
+            log.error("Failed to schedule precomputing the release file for releases "+ids, e);
+        }
+    }
+
+    /**
+     * Generates the release file for the given releases and options and saves it.
+     * The file is written to a temporary file and then moved into place, so a partly written
+     * file is never read.
+     * @param releaseIds the ids of releases
+     * @param options the options for the release file
+     * @exception IOException if the file could not be written
+     */
+    public void store(Collection<Integer> releaseIds, Set<ReleaseFileOption> options) throws IOException {
+        final String key = key(releaseIds, options);
+        StoredReleaseFile content = transactor.transact("Precompute release file", () -> {
+            // Read before the content is loaded, so flags or operations added meanwhile make the file out of date
+            final int flagWatermark = flagWatermark();
+            final int opWatermark = opWatermark(releaseIds);
+            ReleaseFileContent rfc = releaseFileService.getReleaseFileContent(releaseIds, options);
+            return StoredReleaseFile.tabulate(key, flagWatermark, opWatermark, rfc.getEntries(),
+                    releaseFileService.computeColumns(rfc));
+        });
+        Path path = path(key);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), "release", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                content.write(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Loads the saved release file for the given releases and options, if there is one.
+     * If the saved file is out of date because flags or operations have been added since it was generated,
+     * it is not returned, and it is regenerated in the background.
+     * @param releaseIds the ids of releases
+     * @param options the options for the release file
+     * @return the saved release file, or null if no matching up-to-date file could be loaded
+     */
+    public StoredReleaseFile load(Collection<Integer> releaseIds, Set<ReleaseFileOption> options) {
+        final String key = key(releaseIds, options);
+        Path path = path(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        StoredReleaseFile content;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            content = StoredReleaseFile.read(in);
+        } catch (IOException e) {
+            log.error("Failed to read stored release file "+path, e);
+            return null;
+        }
+        if (!key.equals(content.getKey())) {
+            return null;
+        }
+        if (content.getFlagWatermark()!=flagWatermark() || content.getOpWatermark()!=opWatermark(releaseIds)) {
+            log.debug("Stored release file for releases {} is out of date", releaseIds);
+            submit(releaseIds, options);
+            return null;
+        }
+        return content;
+    }
+
+    /**
+     * The greatest labware flag id, or zero if there are no flags
+     * @return the greatest flag id
+     */
+    int flagWatermark() {
+        Integer maxId = flagRepo.findMaxId();
+        return (maxId==null ? 0 : maxId);
+    }
+
+    /**
+     * The greatest id of any operation on a sample from the same donor as any sample in the given releases,
+     * or zero if there are none
+     * @param releaseIds the ids of releases
+     * @return the greatest relevant operation id
+     */
+    int opWatermark(Collection<Integer> releaseIds) {
+        Integer maxId = opRepo.findMaxIdForDonorsOfReleases(releaseIds);
+        return (maxId==null ? 0 : maxId);
+    }
+
+    /**
+     * Deletes saved release files older than the retention period, triggered on a schedule.
+     */
+    @Scheduled(cron = "${stan.release_files.purge_schedule:0 30 2 * * *}")
+    public void scheduledPurge() {
+        purgeExpired(Instant.now());
+    }
+
+    /**
+     * Deletes saved release files that were last modified before the retention period up to the given time.
+     * @param now the current time
+     * @return the number of files deleted
+     */
+    int purgeExpired(Instant now) {
+        Path dir = Paths.get(config.getRoot(), config.getDir(), SUBDIRECTORY);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        final Instant cutoff = now.minus(Duration.ofDays(retentionDays));
+        int deleted = 0;
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir)) {
+            for (Path path : paths) {
+                try {
+                    if (Files.isRegularFile(path) && Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                        Files.delete(path);
+                        ++deleted;
+                    }
+                } catch (IOException e) {
+                    log.error("Failed to delete stored release file "+path, e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to list stored release files in "+dir, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} stored release files older than {} days", deleted, retentionDays);
+        }
+        return deleted;
+    }
+
+    /**
+     * The key identifying a release file: the format and application versions,
+     * the sorted distinct release ids and the sorted options.
+     * @param releaseIds the ids of releases
+     * @param options the options for the release file
+     * @return a string key for the release file
+     */
+    public String key(Collection<Integer> releaseIds, Collection<ReleaseFileOption> options) {
+        String joinedIds = releaseIds.stream().distinct().sorted().map(String::valueOf).collect(joining(","));
+        String joinedOptions = options.stream().sorted().map(ReleaseFileOption::getQueryParamName).collect(joining(","));
+        return FORMAT_VERSION + "|" + appVersion + "|" + joinedIds + "|" + joinedOptions;
+    }
+
+    /**
+     * The path where the release file with the given key is saved.
+     * The filename is a hash of the key, since the key may be too long to be a filename.
+     * @param key the key of the release file
+     * @return the path to the saved release file
+     */
+    public Path path(String key) {
+        return Paths.get(config.getRoot(), config.getDir(), SUBDIRECTORY, sha256(key) + ".rel");
+    }
+
+    private static String sha256(String string) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(string.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
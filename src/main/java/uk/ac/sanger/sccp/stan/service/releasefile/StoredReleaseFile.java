@@ -0,0 +1,181 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+import uk.ac.sanger.sccp.utils.tsv.TsvColumn;
+import uk.ac.sanger.sccp.utils.tsv.TsvFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The tabulated content of a release file: its column headings and the string values in each row.
+ * This is what is saved when a release file is precomputed.
+ * It also records the greatest labware flag id and the greatest relevant operation id when it was generated,
+ * so that it can be recognised as out of date if flags or operations are added later.
+ * @author dr6
+ */
+public class StoredReleaseFile {
+    /** Identifies the start of a stored release file */
+    private static final int MAGIC = 0x53524633;
+
+    private final String key;
+    private final int flagWatermark;
+    private final int opWatermark;
+    private final List<String> headings;
+    private final List<String[]> rows;
+
+    public StoredReleaseFile(String key, int flagWatermark, int opWatermark, List<String> headings, List<String[]> rows) {
+        this.key = requireNonNull(key, "Key is null.");
+        this.flagWatermark = flagWatermark;
+        this.opWatermark = opWatermark;
+        this.headings = requireNonNull(headings, "Headings are null.");
+        this.rows = requireNonNull(rows, "Rows are null.");
+    }
+
+    /**
+     * Tabulates the given entries using the given columns
+     * @param key the key identifying the release file
+     * @param flagWatermark the greatest labware flag id when the entries were loaded
+     * @param opWatermark the greatest relevant operation id when the entries were loaded
+     * @param entries the release entries
+     * @param columns the columns of the release file
+     * @return the tabulated release file
+     */
+    public static StoredReleaseFile tabulate(String key, int flagWatermark, int opWatermark, List<ReleaseEntry> entries,
+                                             List<? extends TsvColumn<ReleaseEntry>> columns) {
+        List<String> headings = columns.stream().map(Object::toString).toList();
+        List<String[]> rows = new ArrayList<>(entries.size());
+        for (ReleaseEntry entry : entries) {
+            String[] row = new String[columns.size()];
+            for (int i = 0; i < row.length; ++i) {
+                row[i] = columns.get(i).get(entry);
+            }
+            rows.add(row);
+        }
+        return new StoredReleaseFile(key, flagWatermark, opWatermark, headings, rows);
+    }
+
+    /** The key identifying the release ids and options this file was generated for */
+    public String getKey() {
+        return this.key;
+    }
+
+    /** The greatest labware flag id when this file was generated; zero if there were no flags */
+    public int getFlagWatermark() {
+        return this.flagWatermark;
+    }
+
+    /** The greatest relevant operation id when this file was generated; zero if there were none */
+    public int getOpWatermark() {
+        return this.opWatermark;
+    }
+
+    public List<String> getHeadings() {
+        return this.headings;
+    }
+
+    public List<String[]> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * Gets this content as a file that can be delivered in the same way as a live release file
+     * @param filename the name of the file
+     * @return a file of the stored rows
+     */
+    public TsvFile<String[]> toTsvFile(String filename) {
+        List<IndexColumn> columns = IntStream.range(0, headings.size())
+                .mapToObj(i -> new IndexColumn(headings.get(i), i))
+                .toList();
+        return new TsvFile<>(filename, rows, columns);
+    }
+
+    /**
+     * Writes this content to the given stream
+     * @param out the stream to write to
+     * @exception IOException if the stream throws an exception
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        writeString(out, key);
+        out.writeInt(flagWatermark);
+        out.writeInt(opWatermark);
+        out.writeInt(headings.size());
+        for (String heading : headings) {
+            writeString(out, heading);
+        }
+        out.writeInt(rows.size());
+        for (String[] row : rows) {
+            for (String value : row) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    /**
+     * Reads content previously written by {@link #write}
+     * @param in the stream to read from
+     * @return the content read
+     * @exception IOException if the stream throws an exception or does not contain a stored release file
+     */
+    public static StoredReleaseFile read(DataInputStream in) throws IOException {
+        if (in.readInt()!=MAGIC) {
+            throw new IOException("Not a stored release file.");
+        }
+        String key = readString(in);
+        final int flagWatermark = in.readInt();
+        final int opWatermark = in.readInt();
+        final int numColumns = in.readInt();
+        List<String> headings = new ArrayList<>(numColumns);
+        for (int i = 0; i < numColumns; ++i) {
+            headings.add(readString(in));
+        }
+        final int numRows = in.readInt();
+        List<String[]> rows = new ArrayList<>(numRows);
+        for (int r = 0; r < numRows; ++r) {
+            String[] row = new String[numColumns];
+            for (int i = 0; i < numColumns; ++i) {
+                row[i] = readString(in);
+            }
+            rows.add(row);
+        }
+        return new StoredReleaseFile(key, flagWatermark, opWatermark, headings, rows);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value==null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** A column taking the value at a fixed index in each row */
+    private record IndexColumn(String heading, int index) implements TsvColumn<String[]> {
+        @Override
+        public String get(String[] row) {
+            return row[index];
+        }
+
+        @Override
+        public String toString() {
+            return this.heading;
+        }
+    }
+}
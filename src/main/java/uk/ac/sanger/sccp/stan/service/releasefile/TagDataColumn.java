@@ -9,6 +9,9 @@ import static java.util.Objects.requireNonNull;
  * @author dr6
  */
 public class TagDataColumn implements TsvColumn<ReleaseEntry> {
+    /** The loader that fills in tag data */
+    public static final ReleaseFileLoader LOADER = ReleaseFileLoader.REAGENT_SOURCES;
+
     private final String heading;
 
     public TagDataColumn(String heading) {
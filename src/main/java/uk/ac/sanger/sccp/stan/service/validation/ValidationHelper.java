@@ -20,6 +20,14 @@ public interface ValidationHelper {
      */
     Set<String> getProblems();
 
+    /**
+     * Loads in advance labware referenced by a request, in one query.
+     * Subsequent labware checks in this helper look up the prefetched labware instead of querying for it again,
+     * so labware that is checked in several parts (such as sources and destinations) is loaded together.
+     * @param barcodes the barcodes of labware to load
+     */
+    void prefetchLabware(Collection<String> barcodes);
+
     /**
      * Loads and checks the op type.
      * @param opName the name of the operation type to load
@@ -10,6 +10,7 @@ import uk.ac.sanger.sccp.utils.UCMap;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -29,6 +30,8 @@ public class ValidationHelperImp implements ValidationHelper {
 
     private final Set<String> problems = new LinkedHashSet<>();
 
+    private EntityCache<String, Labware> labwareCache;
+
     public ValidationHelperImp(LabwareValidatorFactory lwValFactory,
                                OperationTypeRepo opTypeRepo, LabwareRepo lwRepo, EquipmentRepo equipmentRepo,
                                WorkService workService, CommentValidationService commentValidationService) {
@@ -45,6 +48,14 @@ public class ValidationHelperImp implements ValidationHelper {
         return this.problems;
     }
 
+    @Override
+    public void prefetchLabware(Collection<String> barcodes) {
+        if (labwareCache==null) {
+            labwareCache = new EntityCache<>(new UCMap<>(), Labware::getBarcode, lwRepo::findByBarcodeIn);
+        }
+        labwareCache.load(barcodes);
+    }
+
     @Override
     public OperationType checkOpType(String opName, Collection<OperationTypeFlag> expectedFlags,
                                      Collection<OperationTypeFlag> expectedNotFlags,
@@ -82,7 +93,7 @@ public class ValidationHelperImp implements ValidationHelper {
             }
         }
         LabwareValidator val = lwValFactory.getValidator();
-        val.loadLabware(lwRepo, barcodes);
+        loadLabware(val, barcodes);
         val.validateSources();
         problems.addAll(val.getErrors());
         return UCMap.from(val.getLabware(), Labware::getBarcode);
@@ -95,7 +106,7 @@ public class ValidationHelperImp implements ValidationHelper {
             return null;
         }
         LabwareValidator val = lwValFactory.getValidator();
-        List<Labware> lws = val.loadLabware(lwRepo, List.of(barcode));
+        List<Labware> lws = loadLabware(val, List.of(barcode));
         val.validateActiveDestinations();
         problems.addAll(val.getErrors());
         return (lws.isEmpty() ? null : lws.getFirst());
@@ -108,13 +119,26 @@ public class ValidationHelperImp implements ValidationHelper {
             return new UCMap<>(0);
         }
         LabwareValidator val = lwValFactory.getValidator();
-        List<Labware> lws = val.loadLabware(lwRepo, barcodes);
+        List<Labware> lws = loadLabware(val, barcodes);
         val.validateActiveDestinations();
         val.setUniqueRequired(true);
         problems.addAll(val.getErrors());
         return UCMap.from(lws, Labware::getBarcode);
     }
 
+    /**
+     * Loads labware into the given validator, using prefetched labware if available
+     * @param val the labware validator
+     * @param barcodes the barcodes to load
+     * @return the loaded labware
+     */
+    private List<Labware> loadLabware(LabwareValidator val, Collection<String> barcodes) {
+        if (labwareCache==null) {
+            return val.loadLabware(lwRepo, barcodes);
+        }
+        return val.loadLabwareUsing(labwareCache::getAll, barcodes);
+    }
+
     @Override
     public UCMap<Work> checkWork(Collection<String> workNumbers) {
         return workService.validateUsableWorks(this.problems, workNumbers);
@@ -174,4 +198,58 @@ public class ValidationHelperImp implements ValidationHelper {
     public void addProblem(String problem) {
         this.problems.add(problem);
     }
+
+    /**
+     * Entities loaded in advance, mapped from their keys.
+     * Keys that were looked up but not found are recorded, so they are not looked up again.
+     * @param <K> the type of key
+     * @param <E> the type of entity
+     */
+    static class EntityCache<K, E> {
+        private final Map<K, E> entities;
+        private final Function<? super E, ? extends K> keyFunction;
+        private final Function<? super List<K>, ? extends Collection<E>> lookup;
+
+        EntityCache(Map<K, E> entities, Function<? super E, ? extends K> keyFunction,
+                    Function<? super List<K>, ? extends Collection<E>> lookup) {
+            this.entities = entities;
+            this.keyFunction = keyFunction;
+            this.lookup = lookup;
+        }
+
+        /**
+         * Looks up any of the given keys that have not already been looked up, in a single call to the lookup function.
+         * @param keys the keys to look up
+         */
+        void load(Collection<? extends K> keys) {
+            List<K> toLoad = keys.stream()
+                    .filter(key -> key!=null && !entities.containsKey(key))
+                    .distinct()
+                    .collect(toList());
+            if (toLoad.isEmpty()) {
+                return;
+            }
+            for (E entity : lookup.apply(toLoad)) {
+                entities.put(keyFunction.apply(entity), entity);
+            }
+            for (K key : toLoad) {
+                entities.putIfAbsent(key, null);
+            }
+        }
+
+        /**
+         * Gets the distinct entities found for the given keys, looking up any that have not already been looked up
+         * @param keys the keys of the entities
+         * @return a list of the entities found
+         */
+        List<E> getAll(Collection<? extends K> keys) {
+            load(keys);
+            return keys.stream()
+                    .filter(Objects::nonNull)
+                    .map(entities::get)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(toList());
+        }
+    }
 }
@@ -2,8 +2,7 @@ package uk.ac.sanger.sccp.stan.service.work;
 
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.model.Work.Status;
-import uk.ac.sanger.sccp.stan.request.SuggestedWorkResponse;
-import uk.ac.sanger.sccp.stan.request.WorkWithComment;
+import uk.ac.sanger.sccp.stan.request.*;
 import uk.ac.sanger.sccp.utils.UCMap;
 
 import java.util.*;
@@ -196,6 +195,24 @@ public interface WorkService {
      */
     List<WorkWithComment> getWorksWithComments(Collection<Work.Status> workStatuses);
 
+    /**
+     * Gets a page of works matching the filters in the given request.
+     * Works are sorted as specified in the request, and start after the cursor given in the request (if any).
+     * @param request the specification of the filters, sorting and page
+     * @return a page of works, with a cursor for the following page if there are more
+     * @exception IllegalArgumentException if the page size or cursor is invalid
+     */
+    CursorPage<Work> getWorksPage(WorkPageRequest request);
+
+    /**
+     * Gets a page of works along with the comment about their status, if any.
+     * @param request the specification of the filters, sorting and page
+     * @return a page of WorkWithComment objects, with a cursor for the following page if there are more
+     * @exception IllegalArgumentException if the page size or cursor is invalid
+     * @see #getWorksPage
+     */
+    CursorPage<WorkWithComment> getWorksWithCommentsPage(WorkPageRequest request);
+
     /**
      * Gets the suggested works for the indicated labware.
      * For each barcode, gives the latest (if any) active work that the labware was used in.
@@ -1,5 +1,6 @@
 package uk.ac.sanger.sccp.stan.service.work;
 
+import org.hibernate.Hibernate;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -20,6 +21,7 @@ import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static uk.ac.sanger.sccp.utils.BasicUtils.*;
@@ -31,6 +33,8 @@ public class WorkServiceImp implements WorkService {
     private final CostCodeRepo costCodeRepo;
     private final WorkTypeRepo workTypeRepo;
     private final WorkRepo workRepo;
+    private final WorkQueryRepo workQueryRepo;
+    private final WorkLinkRepo workLinkRepo;
     private final LabwareRepo lwRepo;
     private final OmeroProjectRepo omeroProjectRepo;
     private final DnapStudyRepo dnapStudyRepo;
@@ -41,7 +45,8 @@ public class WorkServiceImp implements WorkService {
 
     @Autowired
     public WorkServiceImp(ProjectRepo projectRepo, ProgramRepo programRepo, CostCodeRepo costCodeRepo,
-                          WorkTypeRepo workTypeRepo, WorkRepo workRepo, LabwareRepo lwRepo, OmeroProjectRepo omeroProjectRepo,
+                          WorkTypeRepo workTypeRepo, WorkRepo workRepo, WorkQueryRepo workQueryRepo, WorkLinkRepo workLinkRepo,
+                          LabwareRepo lwRepo, OmeroProjectRepo omeroProjectRepo,
                           DnapStudyRepo dnapStudyRepo, ReleaseRecipientRepo recipientRepo, WorkEventRepo workEventRepo, WorkEventService workEventService,
                           @Qualifier("workPriorityValidator") Validator<String> priorityValidator) {
         this.projectRepo = projectRepo;
@@ -49,6 +54,8 @@ public class WorkServiceImp implements WorkService {
         this.costCodeRepo = costCodeRepo;
         this.workTypeRepo = workTypeRepo;
         this.workRepo = workRepo;
+        this.workQueryRepo = workQueryRepo;
+        this.workLinkRepo = workLinkRepo;
         this.lwRepo = lwRepo;
         this.omeroProjectRepo = omeroProjectRepo;
         this.dnapStudyRepo = dnapStudyRepo;
@@ -268,16 +275,17 @@ public class WorkServiceImp implements WorkService {
         if (!work.isUsable()) {
             throw new IllegalArgumentException(work.getWorkNumber()+" cannot be used because it is "+ work.getStatus()+".");
         }
-        Set<Integer> opIds = work.getOperationIds();
-        Set<SampleSlotId> ssIds = work.getSampleSlotIds();
-        for (Operation op : operations) {
-            opIds.add(op.getId());
-            for (Action action : op.getActions()) {
-                SampleSlotId ssId = new SampleSlotId(action.getSample().getId(), action.getDestination().getId());
-                ssIds.add(ssId);
-            }
+        Set<Integer> opIds = operations.stream().map(Operation::getId).collect(toSet());
+        Set<SampleSlotId> ssIds = actionSampleSlotIds(operations);
+        if (isLoaded(work.getOperationIds()) || isLoaded(work.getSampleSlotIds())) {
+            work.getOperationIds().addAll(opIds);
+            work.getSampleSlotIds().addAll(ssIds);
+            return workRepo.save(work);
         }
-        return workRepo.save(work);
+        List<Integer> workIds = List.of(work.getId());
+        workLinkRepo.insertWorkOps(workIds, opIds);
+        workLinkRepo.insertWorkSamples(workIds, ssIds);
+        return work;
     }
 
     @Override
@@ -305,8 +313,8 @@ public class WorkServiceImp implements WorkService {
         if (!work.isUsable()) {
             throw new IllegalArgumentException("Work "+work.getWorkNumber()+" is not usable because it is "+work.getStatus().name()+".");
         }
-        Set<Integer> releaseIds = work.getReleaseIds();
-        Set<SampleSlotId> ssIds = work.getSampleSlotIds();
+        Set<Integer> releaseIds = new LinkedHashSet<>(releases.size());
+        Set<SampleSlotId> ssIds = new LinkedHashSet<>();
         for (Release release : releases) {
             releaseIds.add(release.getId());
             for (Slot slot : release.getLabware().getSlots()) {
@@ -315,7 +323,15 @@ public class WorkServiceImp implements WorkService {
                 }
             }
         }
-        return workRepo.save(work);
+        if (isLoaded(work.getReleaseIds()) || isLoaded(work.getSampleSlotIds())) {
+            work.getReleaseIds().addAll(releaseIds);
+            work.getSampleSlotIds().addAll(ssIds);
+            return workRepo.save(work);
+        }
+        List<Integer> workIds = List.of(work.getId());
+        workLinkRepo.insertWorkReleases(workIds, releaseIds);
+        workLinkRepo.insertWorkSamples(workIds, ssIds);
+        return work;
     }
 
     @Override
@@ -335,17 +351,39 @@ public class WorkServiceImp implements WorkService {
             throw new IllegalArgumentException("Specified work cannot be used because it is not active: "+inactiveWorkNumbers);
         }
         Set<Integer> opIds = operations.stream().map(Operation::getId).collect(toSet());
-        Set<SampleSlotId> ssIds = operations.stream()
-                .flatMap(op -> op.getActions().stream()
-                        .map(a -> new SampleSlotId(a.getSample().getId(), a.getDestination().getId())))
-                .collect(toSet());
+        Set<SampleSlotId> ssIds = actionSampleSlotIds(operations);
 
-        for (Work work : works) {
-            work.getOperationIds().addAll(opIds);
-            work.getSampleSlotIds().addAll(ssIds);
+        if (works.stream().anyMatch(work -> isLoaded(work.getOperationIds()) || isLoaded(work.getSampleSlotIds()))) {
+            for (Work work : works) {
+                work.getOperationIds().addAll(opIds);
+                work.getSampleSlotIds().addAll(ssIds);
+            }
+            workRepo.saveAll(works);
+            return;
         }
+        List<Integer> workIds = works.stream().map(Work::getId).toList();
+        workLinkRepo.insertWorkOps(workIds, opIds);
+        workLinkRepo.insertWorkSamples(workIds, ssIds);
+    }
+
+    /** Gets the sample and destination slot ids of the actions in the given operations */
+    static Set<SampleSlotId> actionSampleSlotIds(Collection<Operation> operations) {
+        return operations.stream()
+                .flatMap(op -> op.getActions().stream()
+                        .map(a -> new SampleSlotId(a.getSample().getId(), a.getDestination().getId())))
+                .collect(toCollection(LinkedHashSet::new));
+    }
 
-        workRepo.saveAll(works);
+    /**
+     * Is the given collection already loaded?
+     * If a work's element collection has not been loaded, new links can be inserted directly into the
+     * database without loading it. If it is already loaded, it must be updated in place instead, so that
+     * it does not become inconsistent with the database.
+     * @param collection a collection from a work
+     * @return true if the collection is loaded (or is not a lazy persistent collection)
+     */
+    boolean isLoaded(Collection<?> collection) {
+        return Hibernate.isInitialized(collection);
     }
 
     @Override
@@ -449,6 +487,31 @@ public class WorkServiceImp implements WorkService {
     @Override
     public List<WorkWithComment> getWorksWithComments(Collection<Status> statuses) {
         Iterable<Work> works = (statuses==null ? workRepo.findAll() : workRepo.findAllByStatusIn(statuses));
+        return withComments(works);
+    }
+
+    @Override
+    public CursorPage<Work> getWorksPage(WorkPageRequest request) {
+        final int pageSize = CursorPage.pageSize(request.getPageSize());
+        String afterKey = CursorPage.decodeCursor(request.getAfter());
+        List<Work> works = workQueryRepo.findPage(request, afterKey, pageSize+1);
+        Function<Work, ?> keyFunction = (request.getSortBy()==WorkPageRequest.SortField.workNumber
+                ? Work::getWorkNumber : Work::getId);
+        return CursorPage.of(works, pageSize, keyFunction);
+    }
+
+    @Override
+    public CursorPage<WorkWithComment> getWorksWithCommentsPage(WorkPageRequest request) {
+        CursorPage<Work> page = getWorksPage(request);
+        return new CursorPage<>(withComments(page.getItems()), page.getNextCursor());
+    }
+
+    /**
+     * Wraps the given works with the comments (if any) explaining their statuses
+     * @param works the works
+     * @return a list of WorkWithComment objects each of which may or may not include a comment
+     */
+    public List<WorkWithComment> withComments(Iterable<Work> works) {
         List<WorkWithComment> wcs = stream(works)
                 .map(WorkWithComment::new)
                 .collect(toList());
@@ -467,19 +530,16 @@ public class WorkServiceImp implements WorkService {
     @Override
     public SuggestedWorkResponse suggestWorkForLabwareBarcodes(Collection<String> barcodes, boolean includeInactive) {
         Set<Labware> labware = new HashSet<>(lwRepo.getByBarcodeIn(barcodes));
+        Set<Integer> labwareIds = labware.stream().map(Labware::getId).collect(toSet());
+        Map<Integer, Integer> lwWorkIds = (includeInactive ? workRepo.findLatestWorkIdsForLabwareIds(labwareIds)
+                : workRepo.findLatestActiveWorkIdsForLabwareIds(labwareIds));
         Map<String, Integer> barcodeWorkIds = new HashMap<>(labware.size());
-        Set<Integer> workIds = new HashSet<>();
-        Function<Integer, Integer> workIdFn = (includeInactive ? workRepo::findLatestWorkIdForLabwareId
-                : workRepo::findLatestActiveWorkIdForLabwareId);
         for (Labware lw : labware) {
-            Integer workId = workIdFn.apply(lw.getId());
-            barcodeWorkIds.put(lw.getBarcode(), workId);
-            if (workId!=null) {
-                workIds.add(workId);
-            }
+            barcodeWorkIds.put(lw.getBarcode(), lwWorkIds.get(lw.getId()));
         }
-        Map<Integer, Work> workIdMap = BasicUtils.stream(workRepo.findAllById(workIds))
-                .collect(BasicUtils.inMap(Work::getId));
+        Set<Integer> workIds = new HashSet<>(lwWorkIds.values());
+        Map<Integer, Work> workIdMap = (workIds.isEmpty() ? Map.of()
+                : BasicUtils.stream(workRepo.findAllById(workIds)).collect(BasicUtils.inMap(Work::getId)));
         List<SuggestedWork> suggestedWorks = barcodeWorkIds.entrySet().stream()
                 .map(e -> new SuggestedWork(e.getKey(), e.getValue()==null ? null : workIdMap.get(e.getValue()).getWorkNumber()))
                 .collect(toList());
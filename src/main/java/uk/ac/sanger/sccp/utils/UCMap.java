@@ -7,24 +7,42 @@ import java.util.*;
 import java.util.function.*;
 import java.util.stream.Collector;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * A map with upper case strings for keys.
  * Keys are converted to upper case when they are put into the map.
- * Keys are converted to upper case when they are being looked up in the map.
+ * Keys are looked up in the map ignoring case.
+ * <p>
+ * Lookups of ASCII keys hash and compare the key in place, ignoring case, without creating an upper case copy.
+ * Keys containing other characters are upper cased (in the root locale) before they are looked up.
+ * The hash table follows the layout of {@link HashMap}, so entries are iterated in the same order
+ * as they would be in a {@code HashMap} of the upper case keys.
  * @author dr6
  */
-public class UCMap<V> implements Map<String, V> {
-    private final Map<String, V> inner;
+public class UCMap<V> extends AbstractMap<String, V> {
+    private static final int DEFAULT_CAPACITY = 16, MAX_CAPACITY = 1<<30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private Node<V>[] table;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    private Set<String> keySet;
+    private Collection<V> values;
+    private Set<Entry<String, V>> entrySet;
 
-    /** Creates a new UCMap backed by a hashmap with the given initial capacity */
+    /** Creates a new UCMap with the given initial capacity */
     public UCMap(int initialCapacity) {
-        inner = new HashMap<>(initialCapacity);
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal initial capacity: "+initialCapacity);
+        }
+        this.threshold = tableSizeFor(initialCapacity);
     }
 
-    /** Creates a new UCMap backed by a hashmap of the default capacity */
-    public UCMap() {
-        inner = new HashMap<>();
-    }
+    /** Creates a new UCMap of the default capacity */
+    public UCMap() {}
 
     /** Creates a new UCMap containing the contents of the given map */
     public UCMap(Map<String, V> contents) {
@@ -34,38 +52,60 @@ public class UCMap<V> implements Map<String, V> {
 
     @Override
     public int size() {
-        return inner.size();
+        return size;
     }
 
     @Override
     public boolean isEmpty() {
-        return inner.isEmpty();
+        return (size==0);
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return inner.containsKey(upcase(key));
+        return (getNode(key)!=null);
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return inner.containsValue(value);
+        if (table!=null && size > 0) {
+            for (Node<V> node : table) {
+                for (; node!=null; node = node.next) {
+                    if (Objects.equals(node.value, value)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     @Override
     public V get(Object key) {
-        return inner.get(upcase(key));
+        Node<V> node = getNode(key);
+        return (node==null ? null : node.value);
     }
 
     @Nullable
     @Override
     public V put(String key, V value) {
-        return inner.put(upcase(key), value);
+        Node<V> node = getNode(key);
+        if (node!=null) {
+            V oldValue = node.value;
+            node.value = value;
+            return oldValue;
+        }
+        addNode(upcase(key), value);
+        return null;
     }
 
     @Override
     public V remove(Object key) {
-        return inner.remove(upcase(key));
+        Node<V> node = getNode(key);
+        if (node==null) {
+            return null;
+        }
+        removeNode(node);
+        return node.value;
     }
 
     @Override
@@ -77,112 +117,642 @@ public class UCMap<V> implements Map<String, V> {
 
     @Override
     public void clear() {
-        inner.clear();
+        if (table!=null && size > 0) {
+            ++modCount;
+            size = 0;
+            Arrays.fill(table, null);
+        }
     }
 
     @NotNull
     @Override
     public Set<String> keySet() {
-        return inner.keySet();
+        Set<String> ks = keySet;
+        if (ks==null) {
+            keySet = ks = new KeySet();
+        }
+        return ks;
     }
 
     @NotNull
     @Override
     public Collection<V> values() {
-        return inner.values();
+        Collection<V> vs = values;
+        if (vs==null) {
+            values = vs = new Values();
+        }
+        return vs;
     }
 
     @NotNull
     @Override
     public Set<Entry<String, V>> entrySet() {
-        return inner.entrySet();
+        Set<Entry<String, V>> es = entrySet;
+        if (es==null) {
+            entrySet = es = new EntrySet();
+        }
+        return es;
     }
 
     @Override
     public V getOrDefault(Object key, V defaultValue) {
-        return inner.getOrDefault(upcase(key), defaultValue);
+        Node<V> node = getNode(key);
+        return (node==null ? defaultValue : node.value);
     }
 
     @Override
     public void forEach(BiConsumer<? super String, ? super V> action) {
-        inner.forEach(action);
+        requireNonNull(action);
+        if (table!=null && size > 0) {
+            int mc = modCount;
+            for (Node<V> node : table) {
+                for (; node!=null; node = node.next) {
+                    action.accept(node.key, node.value);
+                }
+            }
+            if (mc!=modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
     }
 
     @Override
     public void replaceAll(BiFunction<? super String, ? super V, ? extends V> function) {
-        inner.replaceAll(function);
+        requireNonNull(function);
+        if (table!=null && size > 0) {
+            int mc = modCount;
+            for (Node<V> node : table) {
+                for (; node!=null; node = node.next) {
+                    node.value = function.apply(node.key, node.value);
+                }
+            }
+            if (mc!=modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
     }
 
     @Nullable
     @Override
     public V putIfAbsent(String key, V value) {
-        return inner.putIfAbsent(upcase(key), value);
+        Node<V> node = getNode(key);
+        if (node==null) {
+            addNode(upcase(key), value);
+            return null;
+        }
+        V oldValue = node.value;
+        if (oldValue==null) {
+            node.value = value;
+        }
+        return oldValue;
     }
 
     @Override
     public boolean remove(Object key, Object value) {
-        return inner.remove(upcase(key), value);
+        Node<V> node = getNode(key);
+        if (node!=null && Objects.equals(node.value, value)) {
+            removeNode(node);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean replace(String key, V oldValue, V newValue) {
-        return inner.replace(upcase(key), oldValue, newValue);
+        Node<V> node = getNode(key);
+        if (node!=null && Objects.equals(node.value, oldValue)) {
+            node.value = newValue;
+            return true;
+        }
+        return false;
     }
 
     @Nullable
     @Override
     public V replace(String key, V value) {
-        return inner.replace(upcase(key), value);
+        Node<V> node = getNode(key);
+        if (node==null) {
+            return null;
+        }
+        V oldValue = node.value;
+        node.value = value;
+        return oldValue;
     }
 
     @Override
     public V computeIfAbsent(String key, @NotNull Function<? super String, ? extends V> mappingFunction) {
-        return inner.computeIfAbsent(upcase(key), mappingFunction);
+        requireNonNull(mappingFunction);
+        Node<V> node = getNode(key);
+        if (node!=null && node.value!=null) {
+            return node.value;
+        }
+        String ucKey = (node!=null ? node.key : upcase(key));
+        int mc = modCount;
+        V value = mappingFunction.apply(ucKey);
+        if (mc!=modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value!=null) {
+            if (node!=null) {
+                node.value = value;
+            } else {
+                addNode(ucKey, value);
+            }
+        }
+        return value;
     }
 
     @Override
     public V computeIfPresent(String key, @NotNull BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
-        return inner.computeIfPresent(upcase(key), remappingFunction);
+        requireNonNull(remappingFunction);
+        Node<V> node = getNode(key);
+        if (node==null || node.value==null) {
+            return null;
+        }
+        int mc = modCount;
+        V value = remappingFunction.apply(node.key, node.value);
+        if (mc!=modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value==null) {
+            removeNode(node);
+        } else {
+            node.value = value;
+        }
+        return value;
     }
 
     @Override
     public V compute(String key, @NotNull BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
-        return inner.compute(upcase(key), remappingFunction);
+        requireNonNull(remappingFunction);
+        Node<V> node = getNode(key);
+        String ucKey = (node!=null ? node.key : upcase(key));
+        int mc = modCount;
+        V value = remappingFunction.apply(ucKey, node==null ? null : node.value);
+        if (mc!=modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (node!=null) {
+            if (value==null) {
+                removeNode(node);
+            } else {
+                node.value = value;
+            }
+        } else if (value!=null) {
+            addNode(ucKey, value);
+        }
+        return value;
     }
 
     @Override
     public V merge(String key, @NotNull V value, @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
-        return inner.merge(upcase(key), value, remappingFunction);
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        return (obj==this || obj instanceof Map && this.inner.equals(obj));
+        requireNonNull(value);
+        requireNonNull(remappingFunction);
+        Node<V> node = getNode(key);
+        if (node==null) {
+            addNode(upcase(key), value);
+            return value;
+        }
+        if (node.value==null) {
+            node.value = value;
+            return value;
+        }
+        int mc = modCount;
+        V newValue = remappingFunction.apply(node.value, value);
+        if (mc!=modCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (newValue==null) {
+            removeNode(node);
+        } else {
+            node.value = newValue;
+        }
+        return newValue;
     }
 
     @Override
-    public int hashCode() {
-        return inner.hashCode();
+    public String toString() {
+        return "UCMap("+super.toString()+")";
     }
 
     /**
-     * Converts a given key to upper case. If it's not a string,
-     * returns the key.
+     * Converts a given key to upper case.
+     * Returns the given string if it is already upper case.
      * @param key the key to upcase
      * @return the upcased key
-     * @param <K> the type of the key, typically a string
      */
-    private static <K> K upcase(K key) {
-        if (key instanceof String) {
-            //noinspection unchecked
-            key = (K) ((String) key).toUpperCase();
+    static String upcase(String key) {
+        if (key==null) {
+            return null;
+        }
+        for (int i = 0; i < key.length(); ++i) {
+            char ch = key.charAt(i);
+            if (ch >= 0x80 || ch >= 'a' && ch <= 'z') {
+                return key.toUpperCase(Locale.ROOT);
+            }
         }
         return key;
     }
 
-    @Override
-    public String toString() {
-        return "UCMap("+inner+")";
+    /**
+     * Gets the node for the given key, ignoring case.
+     * Keys that are entirely ASCII are hashed and compared without being copied.
+     * @param key the key to look up
+     * @return the node for the key, or null if there is none
+     */
+    private Node<V> getNode(Object key) {
+        if (table==null || size==0) {
+            return null;
+        }
+        if (key==null) {
+            return findNode(0, null, true);
+        }
+        if (!(key instanceof String sk)) {
+            return null;
+        }
+        // Hash the key as if it were upper case, noting whether it has any lower case letters
+        int h = 0;
+        boolean upper = true;
+        for (int i = 0; i < sk.length(); ++i) {
+            char ch = sk.charAt(i);
+            if (ch >= 0x80) {
+                String ucKey = sk.toUpperCase(Locale.ROOT);
+                return findNode(ucKey.hashCode(), ucKey, true);
+            }
+            if (ch >= 'a' && ch <= 'z') {
+                upper = false;
+                ch -= ('a' - 'A');
+            }
+            h = 31 * h + ch;
+        }
+        return findNode(h, sk, upper);
+    }
+
+    /**
+     * Finds the node for the given key in the table
+     * @param h the hash code of the upper case key
+     * @param key the key to find
+     * @param upper whether the key is already upper case
+     * @return the node for the key, or null if there is none
+     */
+    private Node<V> findNode(int h, String key, boolean upper) {
+        int hash = spread(h);
+        for (Node<V> node = table[hash & (table.length-1)]; node!=null; node = node.next) {
+            if (node.hash==hash && (upper ? Objects.equals(node.key, key) : upperMatches(node.key, key))) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a new node to the table.
+     * @param ucKey the upper case key, not already in the map
+     * @param value the value for the key
+     */
+    private void addNode(String ucKey, V value) {
+        if (table==null) {
+            resize();
+        }
+        int hash = spread(ucKey==null ? 0 : ucKey.hashCode());
+        int index = hash & (table.length-1);
+        Node<V> added = new Node<>(hash, ucKey, value);
+        Node<V> node = table[index];
+        if (node==null) {
+            table[index] = added;
+        } else {
+            while (node.next!=null) {
+                node = node.next;
+            }
+            node.next = added;
+        }
+        ++modCount;
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    /**
+     * Unlinks the given node from the table.
+     * @param target a node in the table
+     */
+    private void removeNode(Node<V> target) {
+        int index = target.hash & (table.length-1);
+        Node<V> prev = null;
+        for (Node<V> node = table[index]; node!=null; prev = node, node = node.next) {
+            if (node==target) {
+                if (prev==null) {
+                    table[index] = node.next;
+                } else {
+                    prev.next = node.next;
+                }
+                ++modCount;
+                --size;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates or doubles the table, in the same way as {@code HashMap}.
+     * Nodes keep their relative order within each bucket.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        Node<V>[] oldTable = table;
+        int oldCap = (oldTable==null ? 0 : oldTable.length);
+        int newCap, newThr = 0;
+        if (oldCap > 0) {
+            if (oldCap >= MAX_CAPACITY) {
+                threshold = Integer.MAX_VALUE;
+                return;
+            }
+            newCap = oldCap << 1;
+            if (newCap < MAX_CAPACITY && oldCap >= DEFAULT_CAPACITY) {
+                newThr = threshold << 1;
+            }
+        } else if (threshold > 0) {
+            newCap = threshold;
+        } else {
+            newCap = DEFAULT_CAPACITY;
+            newThr = (int) (DEFAULT_CAPACITY * LOAD_FACTOR);
+        }
+        if (newThr==0) {
+            float ft = newCap * LOAD_FACTOR;
+            newThr = (newCap < MAX_CAPACITY && ft < MAX_CAPACITY ? (int) ft : Integer.MAX_VALUE);
+        }
+        threshold = newThr;
+        Node<V>[] newTable = (Node<V>[]) new Node[newCap];
+        table = newTable;
+        if (oldTable==null) {
+            return;
+        }
+        for (int i = 0; i < oldCap; ++i) {
+            Node<V> loHead = null, loTail = null, hiHead = null, hiTail = null;
+            for (Node<V> node = oldTable[i], next; node!=null; node = next) {
+                next = node.next;
+                node.next = null;
+                if ((node.hash & oldCap)==0) {
+                    if (loTail==null) {
+                        loHead = node;
+                    } else {
+                        loTail.next = node;
+                    }
+                    loTail = node;
+                } else {
+                    if (hiTail==null) {
+                        hiHead = node;
+                    } else {
+                        hiTail.next = node;
+                    }
+                    hiTail = node;
+                }
+            }
+            newTable[i] = loHead;
+            newTable[i + oldCap] = hiHead;
+        }
+    }
+
+    /** Upper cases an ASCII letter; leaves any other character unchanged */
+    private static char asciiUpper(char ch) {
+        return (ch >= 'a' && ch <= 'z' ? (char) (ch - ('a' - 'A')) : ch);
+    }
+
+    /**
+     * Does the given key match the given upper case key, if its ASCII letters were upper case?
+     * @param ucKey an upper case key in the map
+     * @param key the ASCII key being looked up
+     */
+    private static boolean upperMatches(String ucKey, String key) {
+        if (ucKey==null || ucKey.length()!=key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); ++i) {
+            if (ucKey.charAt(i)!=asciiUpper(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Spreads the higher bits of the hash downwards, as {@code HashMap} does */
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /** The table size for the given capacity: the next power of two */
+    private static int tableSizeFor(int cap) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(cap - 1);
+        return (n < 0) ? 1 : (n >= MAX_CAPACITY) ? MAX_CAPACITY : n + 1;
+    }
+
+    /** An entry in the map */
+    private static final class Node<V> implements Entry<String, V> {
+        final int hash;
+        final String key;
+        V value;
+        Node<V> next;
+
+        Node(int hash, String key, V value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public V getValue() {
+            return this.value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o==this || o instanceof Entry<?, ?> e
+                    && Objects.equals(this.key, e.getKey()) && Objects.equals(this.value, e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /** Iterates over the nodes in the table */
+    private abstract class NodeIterator<E> implements Iterator<E> {
+        private Node<V> next, current;
+        private int index, expectedModCount;
+
+        NodeIterator() {
+            expectedModCount = modCount;
+            if (table!=null && size > 0) {
+                advance();
+            }
+        }
+
+        private void advance() {
+            while (next==null && index < table.length) {
+                next = table[index++];
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return (next!=null);
+        }
+
+        Node<V> nextNode() {
+            if (modCount!=expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            Node<V> node = next;
+            if (node==null) {
+                throw new NoSuchElementException();
+            }
+            current = node;
+            next = node.next;
+            advance();
+            return node;
+        }
+
+        @Override
+        public void remove() {
+            if (current==null) {
+                throw new IllegalStateException();
+            }
+            if (modCount!=expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeNode(current);
+            current = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    private final class KeySet extends AbstractSet<String> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            UCMap.this.clear();
+        }
+
+        @NotNull
+        @Override
+        public Iterator<String> iterator() {
+            return new NodeIterator<>() {
+                @Override
+                public String next() {
+                    return nextNode().key;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node<V> node = getNode(o);
+            if (node==null) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            UCMap.this.clear();
+        }
+
+        @NotNull
+        @Override
+        public Iterator<V> iterator() {
+            return new NodeIterator<>() {
+                @Override
+                public V next() {
+                    return nextNode().value;
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            UCMap.this.clear();
+        }
+
+        @NotNull
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new NodeIterator<>() {
+                @Override
+                public Entry<String, V> next() {
+                    return nextNode();
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) {
+                return false;
+            }
+            Node<V> node = getNode(e.getKey());
+            return (node!=null && node.equals(e));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry<?, ?> e)) {
+                return false;
+            }
+            Node<V> node = getNode(e.getKey());
+            if (node==null || !node.equals(e)) {
+                return false;
+            }
+            removeNode(node);
+            return true;
+        }
     }
 
     /**
@@ -0,0 +1,109 @@
+package uk.ac.sanger.sccp.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * A case-insensitive matcher for strings containing <tt>*</tt> as a wildcard.
+ * <p>
+ * Simple forms ({@code abc}, {@code abc*}, {@code *abc}, {@code *abc*}, {@code ab*c}) are matched
+ * with plain string comparisons; anything more complicated falls back to a regular expression.
+ * Matchers are cached (up to a fixed number) by the list of wildcard strings they were made from,
+ * so repeated searches with the same terms do not need to recompile them.
+ * @author dr6
+ */
+public class WildcardMatcher implements Predicate<String> {
+    /** The maximum number of matchers kept in the cache */
+    static final int MAX_CACHE_SIZE = 256;
+
+    private static final Cache<List<String>, WildcardMatcher> cache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHE_SIZE)
+            .build();
+
+    private final Predicate<String>[] options;
+
+    private WildcardMatcher(Predicate<String>[] options) {
+        this.options = options;
+    }
+
+    /**
+     * Gets a matcher that matches strings matching any of the given wildcard strings.
+     * @param wildcardStrings strings that may contain <tt>*</tt> as a wildcard
+     * @return a matcher for the given wildcard strings
+     */
+    public static WildcardMatcher of(Collection<String> wildcardStrings) {
+        return cache.asMap().computeIfAbsent(List.copyOf(wildcardStrings), WildcardMatcher::compile);
+    }
+
+    /**
+     * Gets a matcher that matches strings matching the given wildcard string.
+     * @param wildcardString a string that may contain <tt>*</tt> as a wildcard
+     * @return a matcher for the given wildcard string
+     */
+    public static WildcardMatcher of(String wildcardString) {
+        return of(List.of(wildcardString));
+    }
+
+    /**
+     * Does the given string match any of the wildcard strings for this matcher?
+     * @param string the string to test
+     * @return true if the string matches; false if it does not (or is null)
+     */
+    @Override
+    public boolean test(String string) {
+        if (string==null) {
+            return false;
+        }
+        for (Predicate<String> option : options) {
+            if (option.test(string)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static WildcardMatcher compile(List<String> wildcardStrings) {
+        @SuppressWarnings("unchecked")
+        Predicate<String>[] options = wildcardStrings.stream()
+                .map(WildcardMatcher::compileOption)
+                .toArray(Predicate[]::new);
+        return new WildcardMatcher(options);
+    }
+
+    /**
+     * Creates a predicate to match a single wildcard string.
+     * @param wildcardString the wildcard string
+     * @return a predicate matching strings to the wildcard string
+     */
+    static Predicate<String> compileOption(String wildcardString) {
+        if (wildcardString.indexOf('*') < 0) {
+            return s -> s.equalsIgnoreCase(wildcardString);
+        }
+        String[] parts = wildcardString.split("\\*+", -1);
+        if (parts.length==2) {
+            final String prefix = parts[0], suffix = parts[1];
+            if (prefix.isEmpty() && suffix.isEmpty()) {
+                return s -> true;
+            }
+            if (suffix.isEmpty()) {
+                return s -> StringUtils.startsWithIgnoreCase(s, prefix);
+            }
+            if (prefix.isEmpty()) {
+                return s -> StringUtils.endsWithIgnoreCase(s, suffix);
+            }
+            final int minLength = prefix.length() + suffix.length();
+            return s -> (s.length() >= minLength && StringUtils.startsWithIgnoreCase(s, prefix)
+                    && StringUtils.endsWithIgnoreCase(s, suffix));
+        }
+        if (parts.length==3 && parts[0].isEmpty() && parts[2].isEmpty()) {
+            final String sub = parts[1];
+            return s -> StringUtils.indexIgnoreCase(s, sub, 0) >= 0;
+        }
+        Pattern pattern = BasicUtils.makeWildcardPattern(wildcardString);
+        return s -> pattern.matcher(s).matches();
+    }
+}
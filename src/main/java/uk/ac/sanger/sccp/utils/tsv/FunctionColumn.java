@@ -0,0 +1,30 @@
+package uk.ac.sanger.sccp.utils.tsv;
+
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A column with a given heading that gets its value from each row using a function.
+ * @author dr6
+ */
+public class FunctionColumn<R> implements TsvColumn<R> {
+    private final String heading;
+    private final Function<? super R, ?> function;
+
+    public FunctionColumn(String heading, Function<? super R, ?> function) {
+        this.heading = requireNonNull(heading, "Column heading is null.");
+        this.function = requireNonNull(function, "Column function is null.");
+    }
+
+    @Override
+    public String get(R entry) {
+        Object value = function.apply(entry);
+        return (value==null ? null : value.toString());
+    }
+
+    @Override
+    public String toString() {
+        return this.heading;
+    }
+}
@@ -7,6 +7,7 @@ import uk.ac.sanger.sccp.utils.BasicUtils;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author dr6
@@ -34,7 +35,7 @@ public class TsvFileConverter extends AbstractHttpMessageConverter<TsvFile<?>> {
     @Override
     protected void writeInternal(TsvFile<?> rel, HttpOutputMessage output) throws IOException, HttpMessageNotWritableException {
         boolean useTsv = BasicUtils.endsWithIgnoreCase(rel.getFilename(), "tsv");
-        output.getHeaders().setContentType(useTsv ? TSV_MEDIA_TYPE : XLSX_MEDIA_TYPE);
+        output.getHeaders().setContentType(useTsv ? new MediaType(TSV_MEDIA_TYPE, StandardCharsets.UTF_8) : XLSX_MEDIA_TYPE);
         output.getHeaders().set("Content-Disposition", "attachment; filename=\"" + rel.getFilename() + "\"");
         OutputStream out = output.getBody();
         try (TableFileWriter writer = useTsv ? new TsvWriter(out) : new XlsxWriter(out)) {
@@ -2,7 +2,6 @@ package uk.ac.sanger.sccp.utils.tsv;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -11,86 +10,200 @@ import java.util.List;
  * Any value containing the separator (e.g. {@code \t}) will be quoted using the specified
  * quote-character (e.g. {@code "}), and quotes will be escaped with a quote escape character
  * (by default {@code "} is escaped to {@code ""}).
+ * <p>
+ * Text is encoded as UTF-8 into an internal buffer, which is written to the underlying stream
+ * in large chunks, so the stream does not need to be buffered.
  * @author dr6
  */
 public class TsvWriter implements TableFileWriter {
+    /** The default size of the byte buffer */
+    public static final int DEFAULT_BUFFER_SIZE = 1<<16;
+    /** Replacement byte for characters that cannot be encoded (i.e. unpaired surrogates) */
+    private static final byte REPLACEMENT = '?';
+
     private final char separator;
     private final char quote;
     private final char quoteEscape;
     private final char newline;
 
     private final OutputStream out;
+    private final byte[] buffer;
+    private int pos;
 
     public TsvWriter(OutputStream out) {
         this(out, '\t', '"', '"', '\n');
     }
 
     public TsvWriter(OutputStream out, char separator, char quote, char quoteEscape, char newline) {
+        this(out, separator, quote, quoteEscape, newline, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TsvWriter(OutputStream out, char separator, char quote, char quoteEscape, char newline, int bufferSize) {
+        if (bufferSize < 4) {
+            throw new IllegalArgumentException("Buffer size too small: "+bufferSize);
+        }
         this.out = out;
         this.separator = separator;
         this.quote = quote;
         this.quoteEscape = quoteEscape;
         this.newline = newline;
+        this.buffer = new byte[bufferSize];
     }
 
     @Override
     public <C, V> void write(TsvData<C, V> data) throws IOException {
         final List<? extends C> columns = data.getColumns();
-        writeLn(columns.stream().map(Object::toString).iterator());
+        final int numColumns = columns.size();
+        if (numColumns==0) {
+            return;
+        }
+        for (int j = 0; j < numColumns; ++j) {
+            writeCell(j, columns.get(j).toString());
+        }
+        writeChar(newline);
         final int numRows = data.getNumRows();
         for (int i = 0; i < numRows; ++i) {
-            final int row = i;
-            writeLn(columns.stream()
-                    .map(column -> data.getValue(row, column))
-                    .map(this::valueToString).iterator());
+            for (int j = 0; j < numColumns; ++j) {
+                writeCell(j, valueToString(data.getValue(i, columns.get(j))));
+            }
+            writeChar(newline);
         }
+        flush();
     }
 
     protected String valueToString(Object value) {
         return (value==null ? null : value.toString());
     }
 
-    private void writeLn(Iterator<String> iter) throws IOException {
-        if (!iter.hasNext()) {
-            return;
-        }
-        write(iter.next());
-        while (iter.hasNext()) {
-            if (separator!=0) {
-                write(separator);
-            }
-            write(iter.next());
+    private void writeCell(int index, String value) throws IOException {
+        if (index > 0 && separator!=0) {
+            writeChar(separator);
         }
-        out.write(newline);
+        writeValue(value);
     }
 
-    private void write(String value) throws IOException {
-        if (value==null) {
+    private void writeValue(String value) throws IOException {
+        if (value==null || value.isEmpty()) {
             return; // omit null
         }
-        boolean addQuotes = (quote!=0 && (separator!=0 && value.indexOf(separator) >= 0
-                                        || quoteEscape!=0 && value.indexOf(quote) >= 0));
+        final int firstQuote = (quoteEscape!=0 ? value.indexOf(quote) : -1);
+        boolean addQuotes = (quote!=0 && (firstQuote >= 0 || separator!=0 && value.indexOf(separator) >= 0));
         if (addQuotes) {
-            out.write(quote);
+            writeChar(quote);
         }
-        int len = value.length();
-        for (int i = 0; i < len; ++i) {
-            write(value.charAt(i));
+        if (firstQuote < 0) {
+            // Fast path: nothing inside the value needs escaping
+            writeString(value, 0, value.length());
+        } else {
+            int start = 0;
+            for (int q = firstQuote; q >= 0; q = value.indexOf(quote, start)) {
+                writeString(value, start, q);
+                writeChar(quoteEscape);
+                writeChar(quote);
+                start = q + 1;
+            }
+            writeString(value, start, value.length());
         }
         if (addQuotes) {
-            out.write(quote);
+            writeChar(quote);
         }
     }
 
-    private void write(char ch) throws IOException {
-        if (ch==quote && quoteEscape!=0) {
-            out.write(quoteEscape);
+    /**
+     * Encodes the specified part of the given string as UTF-8 into the buffer
+     * @param string the string to encode
+     * @param start the index of the first character to encode
+     * @param end the index after the last character to encode
+     */
+    private void writeString(String string, int start, int end) throws IOException {
+        final byte[] buf = this.buffer;
+        int i = start;
+        while (i < end) {
+            // Encode a run of ASCII characters directly, up to the space left in the buffer
+            int limit = Math.min(end, i + buf.length - pos);
+            int p = pos;
+            char ch;
+            while (i < limit && (ch = string.charAt(i)) < 0x80) {
+                buf[p++] = (byte) ch;
+                ++i;
+            }
+            pos = p;
+            if (i >= end) {
+                break;
+            }
+            if (i==limit) {
+                flushBuffer();
+                continue;
+            }
+            ch = string.charAt(i);
+            if (Character.isHighSurrogate(ch) && i+1 < end && Character.isLowSurrogate(string.charAt(i+1))) {
+                writeCodePoint(Character.toCodePoint(ch, string.charAt(i+1)));
+                i += 2;
+            } else {
+                writeChar(ch);
+                ++i;
+            }
         }
-        out.write(ch);
+    }
+
+    /** Encodes a single (non-surrogate-pair) character into the buffer */
+    private void writeChar(char ch) throws IOException {
+        if (ch < 0x80) {
+            ensureSpace(1);
+            buffer[pos++] = (byte) ch;
+        } else if (Character.isSurrogate(ch)) {
+            ensureSpace(1);
+            buffer[pos++] = REPLACEMENT;
+        } else {
+            writeCodePoint(ch);
+        }
+    }
+
+    /** Encodes a non-ASCII code point into the buffer */
+    private void writeCodePoint(int cp) throws IOException {
+        ensureSpace(4);
+        final byte[] buf = this.buffer;
+        if (cp < 0x800) {
+            buf[pos++] = (byte) (0xc0 | (cp >> 6));
+        } else if (cp < 0x10000) {
+            buf[pos++] = (byte) (0xe0 | (cp >> 12));
+            buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+        } else {
+            buf[pos++] = (byte) (0xf0 | (cp >> 18));
+            buf[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+            buf[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+        }
+        buf[pos++] = (byte) (0x80 | (cp & 0x3f));
+    }
+
+    private void ensureSpace(int numBytes) throws IOException {
+        if (pos + numBytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+
+    /**
+     * Writes any buffered content to the underlying stream, and flushes it.
+     * @exception IOException if the underlying stream throws an exception
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
     }
 
     @Override
     public void close() throws IOException {
-        out.close();
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
     }
 }
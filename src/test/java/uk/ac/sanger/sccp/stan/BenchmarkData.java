@@ -0,0 +1,119 @@
+package uk.ac.sanger.sccp.stan;
+
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.request.history.History;
+import uk.ac.sanger.sccp.stan.request.history.HistoryEntry;
+import uk.ac.sanger.sccp.stan.service.releasefile.Ancestoriser.Ancestry;
+import uk.ac.sanger.sccp.stan.service.releasefile.Ancestoriser.SlotSample;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Synthetic data generators for benchmarks.
+ * Data is generated deterministically (using fixed seeds), so results are comparable between runs.
+ * @author dr6
+ */
+public class BenchmarkData {
+    private BenchmarkData() {}
+
+    /**
+     * A generated lineage
+     * @param ancestry the ancestry linking each slot-sample to its sources
+     * @param leaves the slot-samples in the final generation
+     */
+    public record Lineage(Ancestry ancestry, List<SlotSample> leaves) {}
+
+    /**
+     * Generates a deep lineage: {@code depth} generations of labware, each with {@code width} slot-samples.
+     * Each slot-sample derives from the slot-sample in the same position in the previous generation;
+     * every third one also derives from its neighbour, so the ancestry is a graph rather than a set of chains.
+     * @param depth the number of generations
+     * @param width the number of slot-samples in each generation
+     * @return the generated lineage
+     */
+    public static Lineage deepLineage(int depth, int width) {
+        LabwareType lt = EntityFactory.makeLabwareType(1, width);
+        Sample[] samples = EntityFactory.makeSamples(width);
+        Ancestry ancestry = new Ancestry();
+        List<SlotSample> previous = null;
+        for (int g = 0; g < depth; ++g) {
+            Labware lw = EntityFactory.makeLabware(lt, samples);
+            List<SlotSample> current = SlotSample.stream(lw).toList();
+            for (int i = 0; i < width; ++i) {
+                Set<SlotSample> sources = new TreeSet<>();
+                if (previous!=null) {
+                    sources.add(previous.get(i));
+                    if (i % 3 == 0) {
+                        sources.add(previous.get((i + 1) % width));
+                    }
+                }
+                ancestry.put(current.get(i), sources);
+            }
+            previous = current;
+        }
+        return new Lineage(ancestry, previous);
+    }
+
+    /**
+     * Generates a large plate with a distinct sample in every slot.
+     * @param numRows the number of rows in the plate
+     * @param numColumns the number of columns in the plate
+     * @return the new labware
+     */
+    public static Labware largePlate(int numRows, int numColumns) {
+        LabwareType lt = EntityFactory.makeLabwareType(numRows, numColumns);
+        return EntityFactory.makeLabware(lt, EntityFactory.makeSamples(numRows * numColumns));
+    }
+
+    /**
+     * Generates a history of {@code numLineages} separate lineages, each a chain of {@code depth} operations
+     * from one labware to the next, with a release event on the last labware.
+     * @param numLineages the number of separate lineages
+     * @param depth the number of operations in each lineage
+     * @return the generated history
+     */
+    public static History history(int numLineages, int depth) {
+        OperationType opType = EntityFactory.makeOperationType("Section", null);
+        LabwareType lt = EntityFactory.getTubeType();
+        Sample[] samples = EntityFactory.makeSamples(numLineages);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<HistoryEntry> entries = new ArrayList<>(numLineages * (depth + 1));
+        List<Labware> labware = new ArrayList<>(numLineages * (depth + 1));
+        int eventId = 0;
+        for (int l = 0; l < numLineages; ++l) {
+            Sample sample = samples[l];
+            Labware source = EntityFactory.makeLabware(lt, sample);
+            labware.add(source);
+            for (int d = 0; d < depth; ++d) {
+                Labware dest = EntityFactory.makeLabware(lt, sample);
+                labware.add(dest);
+                Operation op = EntityFactory.makeOpForLabware(opType, List.of(source), List.of(dest));
+                HistoryEntry entry = new HistoryEntry(op.getId(), opType.getName(), time.plusMinutes(d * 60L + l),
+                        source.getId(), dest.getId(), sample.getId(), "user1", "SGP"+(l % 20));
+                entry.setOperation(op);
+                entries.add(entry);
+                source = dest;
+            }
+            entries.add(new HistoryEntry(++eventId, "Release", time.plusMinutes(depth * 60L + l),
+                    source.getId(), source.getId(), null, "user1", null));
+        }
+        return new History(entries, Arrays.asList(samples), labware);
+    }
+
+    /**
+     * Generates strings by adding numbers to the given prefix, in mixed case.
+     * @param prefix the prefix for the strings
+     * @param number the number of strings to generate
+     * @return a list of distinct strings
+     */
+    public static List<String> strings(String prefix, int number) {
+        Random random = new Random(number);
+        List<String> strings = new ArrayList<>(number);
+        for (int i = 0; i < number; ++i) {
+            String s = prefix + i;
+            strings.add(random.nextBoolean() ? s.toLowerCase() : s.toUpperCase());
+        }
+        return strings;
+    }
+}
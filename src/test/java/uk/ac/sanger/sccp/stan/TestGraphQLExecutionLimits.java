@@ -0,0 +1,136 @@
+package uk.ac.sanger.sccp.stan;
+
+import graphql.*;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import uk.ac.sanger.sccp.stan.config.GraphQLConfig;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link CachingDocumentProvider}, {@link StanFieldComplexityCalculator}
+ * and the instrumentation from {@link GraphQLProvider#buildInstrumentation}
+ * @author dr6
+ */
+public class TestGraphQLExecutionLimits {
+    private static final String SDL = "type Query { node: Node  find: Node }\n"
+            + "type Node { name: String  child: Node }";
+
+    private GraphQLSchema schema;
+    private GraphQLConfig mockConfig;
+
+    @BeforeEach
+    void setup() {
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type(TypeRuntimeWiring.newTypeWiring("Query")
+                        .dataFetcher("node", dfe -> Map.of("name", "alpha"))
+                        .dataFetcher("find", dfe -> Map.of("name", "beta")))
+                .build();
+        schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        mockConfig = mock(GraphQLConfig.class);
+        when(mockConfig.getMaxQueryDepth()).thenReturn(3);
+        when(mockConfig.getMaxQueryComplexity()).thenReturn(20);
+        when(mockConfig.getCostlyFieldComplexity()).thenReturn(10);
+        when(mockConfig.getSlowOperationMillis()).thenReturn(1000L);
+    }
+
+    private GraphQL buildGraphQL(CachingDocumentProvider provider) {
+        return GraphQL.newGraphQL(schema)
+                .preparsedDocumentProvider(provider)
+                .instrumentation(GraphQLProvider.buildInstrumentation(mockConfig,
+                        SimplePerformantInstrumentation.INSTANCE))
+                .build();
+    }
+
+    private PreparsedDocumentEntry parseAndValidate(ExecutionInput input) {
+        ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema, input);
+        return (result.isFailure() ? new PreparsedDocumentEntry(result.getErrors())
+                : new PreparsedDocumentEntry(result.getDocument()));
+    }
+
+    @Test
+    public void testDocumentCache() {
+        CachingDocumentProvider provider = new CachingDocumentProvider(2);
+        AtomicInteger parseCount = new AtomicInteger();
+        Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+            parseCount.incrementAndGet();
+            return parseAndValidate(input);
+        };
+        ExecutionInput input = ExecutionInput.newExecutionInput("{ node { name } }").build();
+        PreparsedDocumentEntry entry = provider.getDocumentAsync(input, parse).join();
+        assertFalse(entry.hasErrors());
+        assertSame(entry, provider.getDocumentAsync(ExecutionInput.newExecutionInput("{ node { name } }").build(), parse).join());
+        assertEquals(1, parseCount.get());
+
+        provider.getDocumentAsync(ExecutionInput.newExecutionInput("{ find { name } }").build(), parse).join();
+        provider.getDocumentAsync(ExecutionInput.newExecutionInput("{ node { child { name } } }").build(), parse).join();
+        assertEquals(3, parseCount.get());
+        assertThat(provider.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testInvalidDocumentsNotCached() {
+        CachingDocumentProvider provider = new CachingDocumentProvider(10);
+        AtomicInteger parseCount = new AtomicInteger();
+        Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+            parseCount.incrementAndGet();
+            return parseAndValidate(input);
+        };
+        for (int i = 0; i < 2; ++i) {
+            PreparsedDocumentEntry entry = provider.getDocumentAsync(
+                    ExecutionInput.newExecutionInput("{ node { nonsense } }").build(), parse).join();
+            assertTrue(entry.hasErrors());
+        }
+        assertEquals(2, parseCount.get());
+        assertEquals(0, provider.size());
+    }
+
+    @Test
+    public void testCachedQueryExecutes() {
+        GraphQL graphQL = buildGraphQL(new CachingDocumentProvider(10));
+        for (int i = 0; i < 2; ++i) {
+            ExecutionResult result = graphQL.execute("{ node { name } }");
+            assertThat(result.getErrors()).isEmpty();
+            assertEquals(Map.of("node", Map.of("name", "alpha")), result.getData());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'{ node { child { name } } }', true",
+            "'{ node { child { child { name } } } }', false",
+            "'{ find { name } }', true",
+            "'{ a: find { name } b: find { name } }', false",
+    })
+    public void testQueryLimits(String query, boolean allowed) {
+        ExecutionResult result = buildGraphQL(new CachingDocumentProvider(10)).execute(query);
+        if (allowed) {
+            assertThat(result.getErrors()).isEmpty();
+        } else {
+            assertThat(result.getErrors()).hasSize(1);
+            assertThat(result.getErrors().get(0).getMessage()).containsIgnoringCase("maximum query");
+        }
+    }
+
+    @Test
+    public void testLimitsDisabled() {
+        when(mockConfig.getMaxQueryDepth()).thenReturn(0);
+        when(mockConfig.getMaxQueryComplexity()).thenReturn(0);
+        ExecutionResult result = buildGraphQL(new CachingDocumentProvider(10))
+                .execute("{ a: find { child { child { name } } } b: find { name } }");
+        assertThat(result.getErrors()).isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package uk.ac.sanger.sccp.stan;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.ac.sanger.sccp.stan.metrics.GraphQLMetrics;
+import uk.ac.sanger.sccp.stan.metrics.SqlStatementCounter;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link OperationTimingInstrumentation}
+ * @author dr6
+ */
+public class TestOperationTimingInstrumentation {
+    private static final String SDL = "type Query { node: Node }\n"
+            + "type Node { name: String  child: Node }";
+
+    private GraphQLMetrics mockMetrics;
+    private SqlStatementCounter statementCounter;
+    private AtomicLong clock;
+    private GraphQL graphQL;
+
+    @BeforeEach
+    void setup() {
+        mockMetrics = mock(GraphQLMetrics.class);
+        statementCounter = new SqlStatementCounter();
+        clock = new AtomicLong();
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type(TypeRuntimeWiring.newTypeWiring("Query")
+                        .dataFetcher("node", dfe -> {
+                            statementCounter.inspect("select * from node");
+                            statementCounter.inspect("select * from child");
+                            clock.addAndGet(3_000_000L);
+                            return Map.of("name", "alpha", "child", Map.of("name", "beta"));
+                        }))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        OperationTimingInstrumentation instrumentation = new OperationTimingInstrumentation(mockMetrics,
+                statementCounter, 1000L, 100, clock::get);
+        graphQL = GraphQL.newGraphQL(schema).instrumentation(instrumentation).build();
+    }
+
+    @Test
+    public void testNamedOperation() {
+        ExecutionResult result = graphQL.execute(ExecutionInput.newExecutionInput("query GetNode { node { name child { name } } }")
+                .operationName("GetNode").build());
+        assertThat(result.getErrors()).isEmpty();
+        verify(mockMetrics).recordOperation("GetNode", 3_000_000L, 2);
+        verify(mockMetrics).recordField("Query.node", 3_000_000L);
+        // Trivial property fetchers are not timed
+        verify(mockMetrics, times(1)).recordField(anyString(), anyLong());
+    }
+
+    @Test
+    public void testAnonymousOperation() {
+        ExecutionResult result = graphQL.execute("{ node { name } }");
+        assertThat(result.getErrors()).isEmpty();
+        verify(mockMetrics).recordOperation(OperationTimingInstrumentation.ANONYMOUS, 3_000_000L, 2);
+    }
+}
@@ -0,0 +1,83 @@
+package uk.ac.sanger.sccp.stan.integrationtest;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.*;
+import graphql.spring.web.servlet.GraphQLInvocationData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+import uk.ac.sanger.sccp.stan.CustomGraphQLInvocation;
+import uk.ac.sanger.sccp.stan.config.ApiKeyConfig;
+import uk.ac.sanger.sccp.stan.metrics.RepositoryCallTracker;
+import uk.ac.sanger.sccp.stan.metrics.RepositoryCallTracker.Mode;
+import uk.ac.sanger.sccp.stan.repo.LabwareRepo;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that repository calls made while executing graphql are tracked,
+ * so that an N+1 query fails in the test profile
+ * @author dr6
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class TestRepositoryCallTracking {
+    private static final String SDL = "type Query { lookups(count: Int!): Int }";
+
+    @Autowired
+    private LabwareRepo labwareRepo;
+    @Autowired
+    private ApiKeyConfig apiKeyConfig;
+    @Autowired
+    private RepositoryCallTracker tracker;
+
+    private CustomGraphQLInvocation invocation;
+
+    @BeforeEach
+    void setup() {
+        // A query that looks up labware one at a time, as an N+1 data fetcher would
+        RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+                .type(TypeRuntimeWiring.newTypeWiring("Query")
+                        .dataFetcher("lookups", dfe -> {
+                            int count = dfe.getArgument("count");
+                            for (int id = 1; id <= count; ++id) {
+                                labwareRepo.findById(id);
+                            }
+                            return count;
+                        }))
+                .build();
+        GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring);
+        invocation = new CustomGraphQLInvocation(GraphQL.newGraphQL(schema).build(), apiKeyConfig, tracker);
+    }
+
+    private ExecutionResult invoke(int count) {
+        GraphQLInvocationData data = new GraphQLInvocationData("query Lookups { lookups(count: "+count+") }",
+                "Lookups", Map.of());
+        return invocation.invoke(data, new ServletWebRequest(new MockHttpServletRequest())).join();
+    }
+
+    @Test
+    public void testFewCallsPass() {
+        assertEquals(Mode.ASSERT, tracker.getMode());
+        ExecutionResult result = invoke(3);
+        assertThat(result.getErrors()).isEmpty();
+        assertEquals(Map.of("lookups", 3), result.getData());
+        assertFalse(tracker.isTracking());
+    }
+
+    @Test
+    public void testNPlusOneFails() {
+        AssertionError error = assertThrows(AssertionError.class, () -> invoke(60));
+        assertThat(error.getMessage()).contains("graphql Lookups").contains("findById x60");
+        assertFalse(tracker.isTracking());
+    }
+}
@@ -0,0 +1,398 @@
+package uk.ac.sanger.sccp.stan.loadtest;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Populates a (local, disposable) Stan database with a large synthetic dataset, for load testing.
+ * <p>
+ * Each generated lineage is a tissue block that is registered, sectioned onto new labware, and then
+ * transferred {@code depth-1} more times (with a stain after every second transfer), all linked to a work.
+ * A fraction of the final labware is released. Ids are assigned here (above the existing maximum in each table)
+ * so that rows can be written with JDBC batch inserts.
+ * Reference data (species, labware type, operation types etc.) is reused if it exists, or created if not.
+ * <p>
+ * Usage: {@code DatasetGenerator jdbcUrl username password [lineages] [depth] [works] [summaryFile]}
+ * <br>Add {@code rewriteBatchedStatements=true} to the jdbc url for much faster inserts.
+ * The summary file lists some of the generated barcodes, work numbers, external names and release ids,
+ * for use by {@link LoadHarness}.
+ * @author dr6
+ */
+public class DatasetGenerator {
+    static final int BATCH_SIZE = 1000;
+    static final int COMMIT_INTERVAL = 2000;
+    static final int SUMMARY_SIZE = 200;
+    public static final String BARCODE_PREFIX = "STAN-LT", WORK_PREFIX = "SGPL", EXT_PREFIX = "LT-EXT-", DONOR_PREFIX = "LTDONOR";
+
+    private final Connection con;
+    private final int numLineages, depth, numWorks, releaseInterval;
+    private final LocalDateTime baseTime = LocalDateTime.of(2022, 1, 1, 9, 0);
+
+    private final Map<String, Integer> nextIds = new HashMap<>();
+    private final Map<String, BatchInserter> inserters = new LinkedHashMap<>();
+    private final Map<String, List<String>> summary = new LinkedHashMap<>();
+
+    private int speciesId, tissueTypeId, spatialLocationId, mediumId, fixativeId, hmdmcId, tissueBsId, sectionBsId,
+            labwareTypeId, userId, workTypeId, projectId, programId, costCodeId, destinationId, recipientId,
+            registerOpTypeId, sectionOpTypeId, transferOpTypeId, stainOpTypeId;
+    private int[] workIds;
+
+    public DatasetGenerator(Connection con, int numLineages, int depth, int numWorks, int releaseInterval) {
+        this.con = con;
+        this.numLineages = numLineages;
+        this.depth = Math.max(depth, 1);
+        this.numWorks = Math.max(numWorks, 1);
+        this.releaseInterval = releaseInterval;
+    }
+
+    /**
+     * Generates the dataset
+     * @exception SQLException a problem occurred writing to the database
+     */
+    public void generate() throws SQLException {
+        con.setAutoCommit(false);
+        loadReferenceData();
+        con.commit();
+        createWorks();
+        con.commit();
+        for (int l = 0; l < numLineages; ++l) {
+            createLineage(l);
+            if (anyFull()) {
+                flushAll();
+            }
+            if ((l + 1) % COMMIT_INTERVAL == 0) {
+                flushAll();
+                con.commit();
+                System.out.printf("Created %d/%d lineages%n", l+1, numLineages);
+            }
+        }
+        flushAll();
+        con.commit();
+        for (BatchInserter inserter : inserters.values()) {
+            inserter.close();
+        }
+    }
+
+    /** Finds or creates the reference data used by the generated entities */
+    void loadReferenceData() throws SQLException {
+        speciesId = findOrInsert("species", "name", "Human", "INSERT INTO species (name) VALUES (?)", "Human");
+        tissueTypeId = findOrInsert("tissue_type", "name", "Load test tissue",
+                "INSERT INTO tissue_type (name, code) VALUES (?,?)", "Load test tissue", "LTT");
+        spatialLocationId = findOrInsert("spatial_location", "tissue_type_id", tissueTypeId,
+                "INSERT INTO spatial_location (tissue_type_id, name, code) VALUES (?,?,?)", tissueTypeId, "Unknown", 0);
+        mediumId = findOrInsert("medium", "name", "None", "INSERT INTO medium (name) VALUES (?)", "None");
+        fixativeId = findOrInsert("fixative", "name", "None", "INSERT INTO fixative (name) VALUES (?)", "None");
+        hmdmcId = findOrInsert("hmdmc", "hmdmc", "00/000", "INSERT INTO hmdmc (hmdmc) VALUES (?)", "00/000");
+        tissueBsId = findOrInsert("bio_state", "name", "Tissue", "INSERT INTO bio_state (name) VALUES (?)", "Tissue");
+        sectionBsId = tissueBsId;
+        labwareTypeId = findOrInsert("labware_type", "name", "Tube",
+                "INSERT INTO labware_type (name, num_rows, num_columns) VALUES (?,?,?)", "Tube", 1, 1);
+        userId = findOrInsert("user", "username", "loadtest",
+                "INSERT INTO user (username, role) VALUES (?,?)", "loadtest", "normal");
+        workTypeId = findOrInsert("work_type", "name", "Load test",
+                "INSERT INTO work_type (name) VALUES (?)", "Load test");
+        projectId = findOrInsert("project", "name", "Load test",
+                "INSERT INTO project (name) VALUES (?)", "Load test");
+        programId = findOrInsert("program", "name", "Load test",
+                "INSERT INTO program (name) VALUES (?)", "Load test");
+        costCodeId = findOrInsert("cost_code", "code", "S9999",
+                "INSERT INTO cost_code (code) VALUES (?)", "S9999");
+        destinationId = findOrInsert("release_destination", "name", "Load test",
+                "INSERT INTO release_destination (name) VALUES (?)", "Load test");
+        recipientId = findOrInsert("release_recipient", "username", "loadtest",
+                "INSERT INTO release_recipient (username) VALUES (?)", "loadtest");
+        registerOpTypeId = findOrInsert("operation_type", "name", "Register",
+                "INSERT INTO operation_type (name) VALUES (?)", "Register");
+        sectionOpTypeId = findOrInsert("operation_type", "name", "Section",
+                "INSERT INTO operation_type (name) VALUES (?)", "Section");
+        transferOpTypeId = findOrInsert("operation_type", "name", "Transfer",
+                "INSERT INTO operation_type (name) VALUES (?)", "Transfer");
+        stainOpTypeId = findOrInsert("operation_type", "name", "Stain",
+                "INSERT INTO operation_type (name) VALUES (?)", "Stain");
+    }
+
+    /** Creates the works that lineages are linked to */
+    void createWorks() throws SQLException {
+        BatchInserter works = inserter("work", "id", "work_number", "work_type_id", "project_id", "program_id",
+                "cost_code_id", "status");
+        workIds = new int[numWorks];
+        for (int i = 0; i < numWorks; ++i) {
+            int id = nextId("work");
+            workIds[i] = id;
+            String workNumber = WORK_PREFIX + id;
+            works.add(id, workNumber, workTypeId, projectId, programId, costCodeId, "active");
+            addSummary("workNumbers", workNumber);
+            if (works.isFull()) {
+                works.flush();
+            }
+        }
+        works.flush();
+    }
+
+    /**
+     * Creates one lineage: a registered block, sectioned and transferred through new labware
+     * @param index the index of the lineage
+     */
+    void createLineage(int index) throws SQLException {
+        LocalDateTime time = baseTime.plusMinutes(index);
+        int workId = workIds[index % numWorks];
+        int donorId;
+        if (index % 10 == 0 || !nextIds.containsKey("donor")) {
+            donorId = nextId("donor");
+            inserter("donor", "id", "donor_name", "life_stage", "species_id")
+                    .add(donorId, DONOR_PREFIX + donorId, "adult", speciesId);
+        } else {
+            donorId = nextIds.get("donor") - 1;
+        }
+        int tissueId = nextId("tissue");
+        String externalName = EXT_PREFIX + tissueId;
+        inserter("tissue", "id", "external_name", "replicate", "medium_id", "spatial_location_id", "hmdmc_id",
+                "donor_id", "fixative_id")
+                .add(tissueId, externalName, 1, mediumId, spatialLocationId, hmdmcId, donorId, fixativeId);
+        int sampleId = newSample(null, tissueId, tissueBsId);
+
+        int[] lwSlot = newLabware(sampleId, false);
+        int opId = newOp(registerOpTypeId, time, workId);
+        newAction(opId, sampleId, sampleId, lwSlot[1], lwSlot[1]);
+
+        for (int d = 1; d <= depth; ++d) {
+            time = time.plusHours(1);
+            final boolean release = (d==depth && releaseInterval > 0 && index % releaseInterval == 0);
+            int sourceSlotId = lwSlot[1];
+            int sourceSampleId = sampleId;
+            int opTypeId;
+            if (d==1) {
+                sampleId = newSample(1 + index % 20, tissueId, sectionBsId);
+                opTypeId = sectionOpTypeId;
+            } else {
+                opTypeId = transferOpTypeId;
+            }
+            lwSlot = newLabware(sampleId, release);
+            opId = newOp(opTypeId, time, workId);
+            newAction(opId, sampleId, sourceSampleId, sourceSlotId, lwSlot[1]);
+            if (d==1) {
+                inserter("work_sample", "work_id", "sample_id", "slot_id").add(workId, sampleId, lwSlot[1]);
+                inserter("measurement", "id", "name", "value", "sample_id", "operation_id", "slot_id")
+                        .add(nextId("measurement"), "Thickness", "10", sampleId, opId, lwSlot[1]);
+            } else if (d % 2 == 0) {
+                int stainOpId = newOp(stainOpTypeId, time.plusMinutes(30), workId);
+                newAction(stainOpId, sampleId, sampleId, lwSlot[1], lwSlot[1]);
+            }
+            if (release) {
+                createRelease(lwSlot[0], lwSlot[1], sampleId, time.plusMinutes(45));
+            }
+        }
+        if (index % Math.max(1, numLineages / SUMMARY_SIZE) == 0) {
+            addSummary("externalNames", externalName);
+            addSummary("barcodes", BARCODE_PREFIX + lwSlot[0]);
+        }
+    }
+
+    private int newSample(Integer section, int tissueId, int bsId) throws SQLException {
+        int id = nextId("sample");
+        inserter("sample", "id", "section", "tissue_id", "bio_state_id").add(id, section, tissueId, bsId);
+        return id;
+    }
+
+    /** Creates labware with one slot containing the given sample; returns the labware id and slot id */
+    private int[] newLabware(int sampleId, boolean released) throws SQLException {
+        int lwId = nextId("labware");
+        inserter("labware", "id", "barcode", "labware_type_id", "released")
+                .add(lwId, BARCODE_PREFIX + lwId, labwareTypeId, released);
+        int slotId = nextId("slot");
+        inserter("slot", "id", "row_index", "col_index", "labware_id").add(slotId, 1, 1, lwId);
+        inserter("slot_sample", "slot_id", "sample_id").add(slotId, sampleId);
+        return new int[] { lwId, slotId };
+    }
+
+    private int newOp(int opTypeId, LocalDateTime time, int workId) throws SQLException {
+        int opId = nextId("operation");
+        inserter("operation", "id", "performed", "operation_type_id", "user_id")
+                .add(opId, Timestamp.valueOf(time), opTypeId, userId);
+        inserter("work_op", "work_id", "operation_id").add(workId, opId);
+        return opId;
+    }
+
+    private void newAction(int opId, int sampleId, int sourceSampleId, int sourceSlotId, int destSlotId) throws SQLException {
+        inserter("action", "id", "operation_id", "sample_id", "source_sample_id", "source_slot_id", "dest_slot_id")
+                .add(nextId("action"), opId, sampleId, sourceSampleId, sourceSlotId, destSlotId);
+    }
+
+    private void createRelease(int lwId, int slotId, int sampleId, LocalDateTime time) throws SQLException {
+        int snapshotId = nextId("snapshot");
+        inserter("snapshot", "id", "labware_id").add(snapshotId, lwId);
+        inserter("snapshot_element", "id", "snapshot_id", "slot_id", "sample_id")
+                .add(nextId("snapshot_element"), snapshotId, slotId, sampleId);
+        int releaseId = nextId("labware_release");
+        inserter("labware_release", "id", "released", "user_id", "labware_id", "destination_id", "recipient_id",
+                "snapshot_id")
+                .add(releaseId, Timestamp.valueOf(time), userId, lwId, destinationId, recipientId, snapshotId);
+        if (summary.getOrDefault("releaseIds", List.of()).size() < SUMMARY_SIZE) {
+            addSummary("releaseIds", String.valueOf(releaseId));
+        }
+    }
+
+    /**
+     * Gets the next id to use in the given table, starting after the largest existing id
+     * @param table the name of the table
+     * @return the next id
+     */
+    int nextId(String table) throws SQLException {
+        Integer id = nextIds.get(table);
+        if (id==null) {
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id),0) FROM `"+table+"`")) {
+                rs.next();
+                id = rs.getInt(1) + 1;
+            }
+        }
+        nextIds.put(table, id+1);
+        return id;
+    }
+
+    /**
+     * Gets the id of the first row in a table with the given value, or inserts a new row if there is none
+     * @param table the table
+     * @param column the column to look up
+     * @param value the value to look up
+     * @param insertSql the sql to insert a new row
+     * @param insertParams the parameters for the insert sql
+     * @return the id of the found or inserted row
+     */
+    int findOrInsert(String table, String column, Object value, String insertSql, Object... insertParams) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT MIN(id) FROM `"+table+"` WHERE `"+column+"`=?")) {
+            ps.setObject(1, value);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getObject(1)!=null) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < insertParams.length; ++i) {
+                ps.setObject(i+1, insertParams[i]);
+            }
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private BatchInserter inserter(String table, String... columns) throws SQLException {
+        BatchInserter inserter = inserters.get(table);
+        if (inserter==null) {
+            inserter = new BatchInserter(con, table, columns);
+            inserters.put(table, inserter);
+        }
+        return inserter;
+    }
+
+    /**
+     * Do any of the inserters have a full batch?
+     * Inserters never flush on their own, because a table's rows may refer to rows still pending in another table.
+     */
+    private boolean anyFull() {
+        for (BatchInserter inserter : inserters.values()) {
+            if (inserter.isFull()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Flushes all the inserters, in the order they were created (so referenced rows are written first) */
+    private void flushAll() throws SQLException {
+        for (BatchInserter inserter : inserters.values()) {
+            inserter.flush();
+        }
+    }
+
+    private void addSummary(String key, String value) {
+        List<String> values = summary.computeIfAbsent(key, k -> new ArrayList<>());
+        if (values.size() < SUMMARY_SIZE) {
+            values.add(value);
+        }
+    }
+
+    /**
+     * Writes a summary of some of the generated data as a properties file
+     * @param out the stream to write to
+     */
+    public void writeSummary(OutputStream out) throws IOException {
+        Properties props = new Properties();
+        summary.forEach((key, values) -> props.setProperty(key, String.join(",", values)));
+        props.store(new OutputStreamWriter(out, StandardCharsets.UTF_8), "Load test dataset");
+    }
+
+    /** Helper to insert rows into a table in batches. Rows are only written when the inserter is flushed. */
+    static class BatchInserter implements AutoCloseable {
+        private final PreparedStatement ps;
+        private final int numColumns;
+        private int pending;
+
+        BatchInserter(Connection con, String table, String... columns) throws SQLException {
+            this.numColumns = columns.length;
+            String sql = "INSERT INTO `"+table+"` (`"+String.join("`,`", columns)+"`) VALUES ("
+                    + String.join(",", Collections.nCopies(columns.length, "?")) + ")";
+            this.ps = con.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            if (values.length!=numColumns) {
+                throw new IllegalArgumentException("Expected "+numColumns+" values but got "+values.length);
+            }
+            for (int i = 0; i < values.length; ++i) {
+                ps.setObject(i+1, values[i]);
+            }
+            ps.addBatch();
+            ++pending;
+        }
+
+        /** Has this inserter accumulated a full batch? */
+        boolean isFull() {
+            return (pending >= BATCH_SIZE);
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                ps.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                ps.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: DatasetGenerator jdbcUrl username password [lineages] [depth] [works] [summaryFile]");
+            System.exit(1);
+        }
+        int numLineages = (args.length > 3 ? Integer.parseInt(args[3]) : 50_000);
+        int depth = (args.length > 4 ? Integer.parseInt(args[4]) : 5);
+        int numWorks = (args.length > 5 ? Integer.parseInt(args[5]) : 20_000);
+        String summaryFile = (args.length > 6 ? args[6] : "target/loadtest-dataset.properties");
+        try (Connection con = DriverManager.getConnection(args[0], args[1], args[2])) {
+            DatasetGenerator generator = new DatasetGenerator(con, numLineages, depth, numWorks, 2);
+            long start = System.currentTimeMillis();
+            generator.generate();
+            System.out.printf("Generated %d lineages in %d s%n", numLineages, (System.currentTimeMillis()-start)/1000);
+            try (OutputStream out = new FileOutputStream(summaryFile)) {
+                generator.writeSummary(out);
+            }
+            System.out.println("Wrote summary to "+summaryFile);
+        }
+    }
+}
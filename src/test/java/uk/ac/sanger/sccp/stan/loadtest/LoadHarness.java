@@ -0,0 +1,211 @@
+package uk.ac.sanger.sccp.stan.loadtest;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Replays common read-heavy requests against a running Stan server and reports latency percentiles
+ * for each scenario.
+ * The values used in the requests (work numbers, barcodes etc.) are taken from the summary file written by
+ * {@link DatasetGenerator}.
+ * <p>
+ * Usage: {@code LoadHarness baseUrl summaryFile [iterations] [concurrency]}
+ * @author dr6
+ */
+public class LoadHarness {
+    /**
+     * A kind of request to replay.
+     * @param name the name of the scenario, used in the report
+     * @param valuesKey the key in the summary file for the values to use
+     * @param query the graphql query (taking a {@code $value} variable), or null if this is not a graphql scenario
+     * @param path the path to get (with the value appended), if this is not a graphql scenario
+     */
+    public record Scenario(String name, String valuesKey, String query, String path) {
+        static Scenario graphql(String name, String valuesKey, String resourceName) throws IOException {
+            String query = Resources.toString(Resources.getResource("loadtest/"+resourceName), Charsets.UTF_8);
+            return new Scenario(name, valuesKey, query, null);
+        }
+
+        static Scenario get(String name, String valuesKey, String path) {
+            return new Scenario(name, valuesKey, null, path);
+        }
+    }
+
+    /**
+     * The results of running a scenario.
+     * @param name the name of the scenario
+     * @param nanos the duration of each request, sorted
+     * @param errors the number of requests that failed
+     */
+    public record Result(String name, long[] nanos, int errors) {
+        public long percentile(double p) {
+            return LoadHarness.percentile(nanos, p);
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Properties values;
+    private final int iterations, concurrency;
+
+    public LoadHarness(String baseUrl, Properties values, int iterations, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.values = values;
+        this.iterations = iterations;
+        this.concurrency = concurrency;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    /** The scenarios replayed by default */
+    public static List<Scenario> defaultScenarios() throws IOException {
+        return List.of(
+                Scenario.graphql("history (work)", "workNumbers", "history_work.graphql"),
+                Scenario.graphql("history (barcode)", "barcodes", "history_barcode.graphql"),
+                Scenario.graphql("find (external name)", "externalNames", "find_external_name.graphql"),
+                Scenario.graphql("workProgress", "workNumbers", "workprogress.graphql"),
+                Scenario.get("release file", "releaseIds", "/release?id=")
+        );
+    }
+
+    /**
+     * Runs the given scenario the configured number of times
+     * @param scenario the scenario to run
+     * @return the result of running the scenario
+     * @exception InterruptedException the thread was interrupted
+     */
+    public Result run(Scenario scenario) throws InterruptedException {
+        String[] scenarioValues = values.getProperty(scenario.valuesKey(), "").split(",");
+        if (scenarioValues.length==0 || scenarioValues[0].isEmpty()) {
+            throw new IllegalArgumentException("No values found for "+scenario.valuesKey());
+        }
+        long[] nanos = new long[iterations];
+        int[] errors = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(iterations);
+            for (int i = 0; i < iterations; ++i) {
+                final int index = i;
+                final String value = scenarioValues[i % scenarioValues.length];
+                tasks.add(() -> {
+                    long start = System.nanoTime();
+                    boolean ok = send(scenario, value);
+                    nanos[index] = System.nanoTime() - start;
+                    if (!ok) {
+                        synchronized (errors) {
+                            ++errors[0];
+                        }
+                    }
+                    return null;
+                });
+            }
+            executor.invokeAll(tasks);
+        } finally {
+            executor.shutdown();
+        }
+        Arrays.sort(nanos);
+        return new Result(scenario.name(), nanos, errors[0]);
+    }
+
+    /**
+     * Sends one request for a scenario
+     * @param scenario the scenario
+     * @param value the value to use in the request
+     * @return true if the request succeeded; false if it failed
+     */
+    boolean send(Scenario scenario, String value) {
+        try {
+            HttpResponse<String> response = client.send(toRequest(scenario, value), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode()!=200) {
+                return false;
+            }
+            return (scenario.query()==null || !new JSONObject(response.body()).has("errors"));
+        } catch (IOException | JSONException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Builds the http request for a scenario using the given value */
+    HttpRequest toRequest(Scenario scenario, String value) throws JSONException {
+        if (scenario.query()==null) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + scenario.path()
+                            + URLEncoder.encode(value, StandardCharsets.UTF_8)))
+                    .GET()
+                    .build();
+        }
+        JSONObject body = new JSONObject();
+        body.put("query", scenario.query());
+        body.put("variables", new JSONObject().put("value", value));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/graphql"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    /**
+     * Gets the nearest-rank percentile from a sorted array
+     * @param sorted sorted values
+     * @param p the percentile (0-100)
+     * @return the value at the given percentile; or zero if the array is empty
+     */
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length==0) {
+            return 0L;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+
+    /**
+     * Describes the results as a table, with durations in milliseconds
+     * @param results the results to describe
+     * @return a string containing a line for each result
+     */
+    static String report(Collection<Result> results) {
+        String header = String.format("%-24s %8s %8s %10s %10s %10s %10s%n",
+                "scenario", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        return header + results.stream()
+                .map(r -> String.format("%-24s %8d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                        r.name(), r.nanos().length, r.errors(), millis(r.percentile(50)),
+                        millis(r.percentile(90)), millis(r.percentile(99)), millis(r.percentile(100))))
+                .collect(Collectors.joining());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: LoadHarness baseUrl summaryFile [iterations] [concurrency]");
+            System.exit(1);
+        }
+        Properties values = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(args[1]), StandardCharsets.UTF_8)) {
+            values.load(in);
+        }
+        int iterations = (args.length > 2 ? Integer.parseInt(args[2]) : 200);
+        int concurrency = (args.length > 3 ? Integer.parseInt(args[3]) : 8);
+        LoadHarness harness = new LoadHarness(args[0], values, iterations, concurrency);
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : defaultScenarios()) {
+            System.out.println("Running "+scenario.name());
+            results.add(harness.run(scenario));
+        }
+        System.out.print(report(results));
+    }
+}
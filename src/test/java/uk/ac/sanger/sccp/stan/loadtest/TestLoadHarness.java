@@ -0,0 +1,50 @@
+package uk.ac.sanger.sccp.stan.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests {@link LoadHarness}
+ * @author dr6
+ */
+public class TestLoadHarness {
+    @ParameterizedTest
+    @CsvSource({"50,5", "90,9", "99,10", "100,10", "1,1", "0,1", "55,6"})
+    public void testPercentile(double p, long expected) {
+        long[] values = {1,2,3,4,5,6,7,8,9,10};
+        assertEquals(expected, LoadHarness.percentile(values, p));
+    }
+
+    @Test
+    public void testPercentile_empty() {
+        assertEquals(0L, LoadHarness.percentile(new long[0], 50));
+    }
+
+    @Test
+    public void testReport() {
+        LoadHarness.Result result = new LoadHarness.Result("alpha", new long[] {1_000_000L, 2_000_000L, 4_500_000L}, 1);
+        String report = LoadHarness.report(List.of(result));
+        String[] lines = report.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).contains("scenario", "p50 ms", "p99 ms");
+        assertThat(lines[1].trim().split("\\s+")).containsExactly("alpha", "3", "1", "2.0", "4.5", "4.5", "4.5");
+    }
+
+    @Test
+    public void testDefaultScenarios() throws Exception {
+        List<LoadHarness.Scenario> scenarios = LoadHarness.defaultScenarios();
+        assertThat(scenarios).isNotEmpty();
+        for (var scenario : scenarios) {
+            assertThat(scenario.query()!=null || scenario.path()!=null).isTrue();
+            if (scenario.query()!=null) {
+                assertThat(scenario.query()).contains("$value");
+            }
+        }
+    }
+}
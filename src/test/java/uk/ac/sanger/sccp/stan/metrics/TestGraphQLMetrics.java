@@ -0,0 +1,93 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests {@link GraphQLMetrics} and {@link SqlStatementCounter}
+ * @author dr6
+ */
+public class TestGraphQLMetrics {
+    @Test
+    public void testToPrometheus() {
+        GraphQLMetrics metrics = new GraphQLMetrics();
+        metrics.recordOperation("Find", 2_000_000_000L, 5);
+        metrics.recordOperation("Find", 1_000_000_000L, 3);
+        metrics.recordOperation("Alpha", 500_000_000L, 0);
+        metrics.recordField("Query.find", 1_500_000_000L);
+
+        String[] lines = metrics.toPrometheus().split("\n");
+        assertThat(lines).contains(
+                "# TYPE stan_graphql_operation_seconds summary",
+                "stan_graphql_operation_seconds_count{operation=\"Alpha\"} 1",
+                "stan_graphql_operation_seconds_count{operation=\"Find\"} 2",
+                "stan_graphql_operation_seconds_sum{operation=\"Find\"} 3.0",
+                "stan_graphql_operation_seconds_max{operation=\"Find\"} 2.0",
+                "stan_graphql_field_seconds_count{field=\"Query.find\"} 1",
+                "stan_graphql_field_seconds_sum{field=\"Query.find\"} 1.5",
+                "stan_graphql_operation_sql_statements_count{operation=\"Find\"} 2",
+                "stan_graphql_operation_sql_statements_sum{operation=\"Find\"} 8.0",
+                "stan_graphql_operation_sql_statements_max{operation=\"Find\"} 5.0"
+        );
+        // Operations are listed in alphabetical order
+        assertThat(lines).containsSubsequence(
+                "stan_graphql_operation_seconds_count{operation=\"Alpha\"} 1",
+                "stan_graphql_operation_seconds_count{operation=\"Find\"} 2"
+        );
+    }
+
+    @Test
+    public void testOperationNameLimit() {
+        GraphQLMetrics metrics = new GraphQLMetrics(2);
+        metrics.recordOperation("Alpha", 1_000_000_000L, 1);
+        metrics.recordOperation("Beta", 1_000_000_000L, 1);
+        metrics.recordOperation("Gamma", 1_000_000_000L, 1);
+        metrics.recordOperation("Delta", 1_000_000_000L, 1);
+        metrics.recordOperation("Alpha", 1_000_000_000L, 1);
+
+        String[] lines = metrics.toPrometheus().split("\n");
+        assertThat(lines).contains(
+                "stan_graphql_operation_seconds_count{operation=\"Alpha\"} 2",
+                "stan_graphql_operation_seconds_count{operation=\"Beta\"} 1",
+                "stan_graphql_operation_seconds_count{operation=\"(other)\"} 2",
+                "stan_graphql_operation_sql_statements_count{operation=\"(other)\"} 2"
+        );
+        assertThat(lines).noneMatch(line -> line.contains("Gamma") || line.contains("Delta"));
+    }
+
+    @Test
+    public void testEscapeLabel() {
+        assertEquals("a\\\"b\\\\c\\nd", GraphQLMetrics.escapeLabel("a\"b\\c\nd"));
+    }
+
+    @Test
+    public void testStatementCounter() {
+        SqlStatementCounter counter = new SqlStatementCounter();
+        assertEquals("select 1", counter.inspect("select 1")); // not counting
+        SqlStatementCounter.Count count = counter.start();
+        assertEquals("select 2", counter.inspect("select 2"));
+        counter.inspect("select 3");
+        counter.stop(count);
+        counter.inspect("select 4");
+        assertEquals(2, count.get());
+        assertThat(count.getStatements()).isEmpty();
+        assertNull(counter.inspect(null));
+    }
+
+    @Test
+    public void testStatementCounterRecording() {
+        SqlStatementCounter counter = new SqlStatementCounter();
+        SqlStatementCounter.Count count = counter.start(true);
+        counter.inspect("select 1");
+        counter.inspect("select 2");
+        counter.stop(count);
+        counter.inspect("select 3");
+        assertEquals(2, count.get());
+        assertEquals(List.of("select 1", "select 2"), count.getStatements());
+    }
+}
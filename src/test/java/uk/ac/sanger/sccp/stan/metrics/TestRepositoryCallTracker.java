@@ -0,0 +1,149 @@
+package uk.ac.sanger.sccp.stan.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.repository.Repository;
+import uk.ac.sanger.sccp.stan.metrics.RepositoryCallTracker.Mode;
+import uk.ac.sanger.sccp.stan.metrics.RepositoryCallTracker.Session;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link RepositoryCallTracker} and {@link RepositoryTrackingPostProcessor}
+ * @author dr6
+ */
+public class TestRepositoryCallTracker {
+    /** A repository for testing */
+    interface ThingRepo extends Repository<String, Integer> {
+        String getName(int id);
+        default List<String> getNames(List<Integer> ids) {
+            return ids.stream().map(this::getName).toList();
+        }
+    }
+
+    private static RepositoryCallTracker tracker(Mode mode) {
+        return new RepositoryCallTracker(mode, 3, 1000L);
+    }
+
+    @Test
+    public void testSession() {
+        RepositoryCallTracker tracker = tracker(Mode.LOG);
+        assertFalse(tracker.isTracking());
+        tracker.record("ThingRepo.getName", 10L); // ignored: no session
+        Session session = tracker.start("request");
+        assertNotNull(session);
+        assertTrue(tracker.isTracking());
+        assertNull(tracker.start("nested"));
+        tracker.record("ThingRepo.getName", 10L);
+        tracker.record("ThingRepo.getName", 20L);
+        tracker.record("ThingRepo.findAll", 5L);
+        tracker.stop(session);
+        assertFalse(tracker.isTracking());
+        assertEquals(2, session.getCallCount("ThingRepo.getName"));
+        assertEquals(1, session.getCallCount("ThingRepo.findAll"));
+        assertEquals(0, session.getCallCount("ThingRepo.save"));
+        assertEquals(3, session.getTotalCallCount());
+        assertThat(tracker.findRepeatedCalls(session)).isEmpty();
+    }
+
+    @Test
+    public void testOff() {
+        RepositoryCallTracker tracker = tracker(Mode.OFF);
+        assertNull(tracker.start("request"));
+        assertFalse(tracker.isTracking());
+        assertEquals("A", tracker.track("request", () -> "A"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans={false, true})
+    public void testRepeatedCalls(boolean assertMode) {
+        RepositoryCallTracker tracker = tracker(assertMode ? Mode.ASSERT : Mode.LOG);
+        Runnable work = () -> {
+            for (int i = 0; i < 3; ++i) {
+                tracker.record("ThingRepo.getName", 10L);
+            }
+            tracker.record("ThingRepo.findAll", 10L);
+        };
+        if (assertMode) {
+            AssertionError error = assertThrows(AssertionError.class, () -> tracker.track("request", () -> {
+                work.run();
+                return null;
+            }));
+            assertThat(error).hasMessage("Repeated repository calls in request: [ThingRepo.getName x3]");
+        } else {
+            tracker.track("request", () -> {
+                work.run();
+                return null;
+            });
+        }
+        assertFalse(tracker.isTracking());
+    }
+
+    @Test
+    public void testTrackFailure() {
+        RepositoryCallTracker tracker = tracker(Mode.ASSERT);
+        assertThrows(IllegalArgumentException.class, () -> tracker.track("request", () -> {
+            for (int i = 0; i < 5; ++i) {
+                tracker.record("ThingRepo.getName", 10L);
+            }
+            throw new IllegalArgumentException("Bad");
+        }));
+        assertFalse(tracker.isTracking());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans={false, true})
+    public void testPostProcessor(boolean advised) {
+        RepositoryCallTracker tracker = tracker(Mode.LOG);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RepositoryCallTracker> trackerProvider = mock(ObjectProvider.class);
+        when(trackerProvider.getIfAvailable()).thenReturn(tracker);
+        RepositoryTrackingPostProcessor postProcessor = new RepositoryTrackingPostProcessor(trackerProvider);
+
+        ThingRepo target = id -> "Thing "+id;
+        ThingRepo repo;
+        if (advised) {
+            ProxyFactory pf = new ProxyFactory(target);
+            pf.addInterface(ThingRepo.class);
+            repo = (ThingRepo) pf.getProxy();
+        } else {
+            repo = target;
+        }
+        ThingRepo processed = (ThingRepo) postProcessor.postProcessAfterInitialization(repo, "thingRepo");
+        if (advised) {
+            assertSame(repo, processed);
+        }
+        assertTrue(processed instanceof Advised);
+        assertEquals("Thing 1", processed.getName(1)); // not tracking
+
+        Session session = tracker.start("request");
+        assertEquals(List.of("Thing 2", "Thing 3"), processed.getNames(List.of(2, 3)));
+        tracker.stop(session);
+        assertEquals(1, session.getCallCount("ThingRepo.getNames"));
+        assertEquals(1, session.getTotalCallCount());
+    }
+
+    @Test
+    public void testPostProcessorIgnoresOtherBeans() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RepositoryCallTracker> trackerProvider = mock(ObjectProvider.class);
+        RepositoryTrackingPostProcessor postProcessor = new RepositoryTrackingPostProcessor(trackerProvider);
+        Object bean = "Alpha";
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "alpha"));
+    }
+
+    @Test
+    public void testRepositoryName() {
+        ThingRepo repo = id -> null;
+        assertEquals("ThingRepo", RepositoryTrackingPostProcessor.repositoryName(repo));
+    }
+}
@@ -49,4 +49,40 @@ public class TestActionRepo {
         assertThat(actionRepo.findAllByDestinationIn(List.of(slot1))).isEmpty();
         assertThat(actionRepo.findAllByDestinationIn(List.of(slot2))).containsOnly(action);
     }
+
+    @Transactional
+    @Test
+    public void testFindLabwareIdsForSampleIds() {
+        User user = entityCreator.createUser("user1");
+        Donor donor = entityCreator.createDonor("DONOR1");
+        Tissue tissue = entityCreator.createTissue(donor, "TISSUE1");
+        Sample block = entityCreator.createSample(tissue, null);
+        Sample section = entityCreator.createSample(tissue, 1);
+        Sample other = entityCreator.createSample(tissue, 2);
+
+        LabwareType lt = entityCreator.createLabwareType("lwtype", 1, 1);
+        Labware blockLw = entityCreator.createLabware("STAN-01", lt, block);
+        Labware sectionLw = entityCreator.createLabware("STAN-02", lt, section);
+        Labware emptiedLw = entityCreator.createLabware("STAN-03", lt);
+        Labware otherLw = entityCreator.createLabware("STAN-04", lt, other);
+        OperationType sectionType = entityCreator.createOpType("Slice", null);
+        OperationType moveType = entityCreator.createOpType("Shift", null);
+        Operation sectionOp = opRepo.save(new Operation(null, sectionType, null, null, user));
+        actionRepo.save(new Action(null, sectionOp.getId(), blockLw.getFirstSlot(), emptiedLw.getFirstSlot(), section, block));
+        Operation moveOp = opRepo.save(new Operation(null, moveType, null, null, user));
+        actionRepo.save(new Action(null, moveOp.getId(), emptiedLw.getFirstSlot(), sectionLw.getFirstSlot(), section, section));
+        Operation otherOp = opRepo.save(new Operation(null, moveType, null, null, user));
+        actionRepo.save(new Action(null, otherOp.getId(), otherLw.getFirstSlot(), otherLw.getFirstSlot(), other, other));
+
+        assertThat(actionRepo.findLabwareIdsForSampleIds(List.of(section.getId())))
+                .containsExactlyInAnyOrder(blockLw.getId(), emptiedLw.getId(), sectionLw.getId());
+        assertThat(actionRepo.findLabwareIdsForSampleIds(List.of(block.getId())))
+                .containsExactlyInAnyOrder(blockLw.getId(), emptiedLw.getId());
+        assertThat(actionRepo.findLabwareIdsForSampleIds(List.of(-1))).isEmpty();
+
+        assertThat(actionRepo.findLabwareIdsForOperationTypeAndSampleIds(moveType.getId(), List.of(section.getId())))
+                .containsExactlyInAnyOrder(emptiedLw.getId(), sectionLw.getId());
+        assertThat(actionRepo.findLabwareIdsForOperationTypeAndSampleIds(sectionType.getId(), List.of(block.getId(), other.getId())))
+                .containsExactlyInAnyOrder(blockLw.getId(), emptiedLw.getId());
+    }
 }
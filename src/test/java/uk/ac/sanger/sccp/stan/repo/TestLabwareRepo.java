@@ -6,14 +6,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import uk.ac.sanger.sccp.stan.EntityCreator;
+import uk.ac.sanger.sccp.stan.metrics.SqlStatementCounter;
 import uk.ac.sanger.sccp.stan.model.*;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -35,6 +36,10 @@ public class TestLabwareRepo {
     LabwareTypeRepo labwareTypeRepo;
     @Autowired
     EntityCreator entityCreator;
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    SqlStatementCounter statementCounter;
 
     @Test
     @Transactional
@@ -117,4 +122,76 @@ public class TestLabwareRepo {
         assertThat(labwareRepo.findAllLabwareIdsContainingSampleIds(List.of(sampleIds[1]))).containsExactlyInAnyOrder(lwIds[1], lwIds[2]);
         assertThat(labwareRepo.findAllLabwareIdsContainingSampleIds(List.of(sampleIds[0], sampleIds[1]))).containsExactlyInAnyOrder(lwIds[0], lwIds[1], lwIds[2]);
     }
+
+    @Test
+    @Transactional
+    public void testFindAllWithContents() {
+        Sample sample1 = entityCreator.createSample(null, null);
+        Sample sample2 = entityCreator.createSample(sample1.getTissue(), null, sample1.getBioState());
+        LabwareType lt = entityCreator.createLabwareType("lt2x1", 2, 1);
+        Labware lw1 = entityCreator.createLabware("STAN-0", lt, sample1, sample2);
+        Labware lw2 = entityCreator.createLabware("STAN-1", lt, sample2);
+
+        List<Labware> found = labwareRepo.findAllWithContentsByIdIn(List.of(lw1.getId(), lw2.getId(), -100));
+        assertThat(found).containsExactlyInAnyOrder(lw1, lw2);
+        Labware foundLw1 = found.stream().filter(lw -> lw.getId().equals(lw1.getId())).findAny().orElseThrow();
+        assertThat(foundLw1.getSlots()).hasSize(2);
+        assertThat(foundLw1.getFirstSlot().getSamples()).containsExactly(sample1);
+
+        assertThat(labwareRepo.findAllWithContentsByBarcodeIn(List.of("STAN-1", "STAN-404"))).containsExactly(lw2);
+        assertThat(labwareRepo.findAllWithContentsByIdIn(List.of(-100))).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllWithContents_statementCount() {
+        LabwareType lt = entityCreator.createLabwareType("lt2x1", 2, 1);
+        List<Integer> fewIds = createLabwareWithContents("STAN-A", lt, 2);
+        List<Integer> manyIds = createLabwareWithContents("STAN-B", lt, 12);
+        entityManager.flush();
+
+        int fewStatements = countStatementsToLoadContents(fewIds);
+        int manyStatements = countStatementsToLoadContents(manyIds);
+        // Labware with slots, samples, tissues and donors
+        assertThat(fewStatements).isBetween(1, 4);
+        assertEquals(fewStatements, manyStatements);
+    }
+
+    /**
+     * Creates labware each containing two samples from a tissue with its own donor
+     * @return the ids of the new labware
+     */
+    private List<Integer> createLabwareWithContents(String prefix, LabwareType lt, int number) {
+        List<Integer> labwareIds = new ArrayList<>(number);
+        for (int i = 0; i < number; ++i) {
+            Donor donor = entityCreator.createDonor(prefix+"-DONOR"+i);
+            Tissue tissue = entityCreator.createTissue(donor, prefix+"-EXT"+i);
+            Sample sample1 = entityCreator.createSample(tissue, 1);
+            Sample sample2 = entityCreator.createSample(tissue, 2);
+            labwareIds.add(entityCreator.createLabware(prefix+i, lt, sample1, sample2).getId());
+        }
+        return labwareIds;
+    }
+
+    /**
+     * Counts the statements executed to load the given labware with its contents, from an empty persistence context
+     */
+    private int countStatementsToLoadContents(List<Integer> labwareIds) {
+        entityManager.clear();
+        SqlStatementCounter.Count count = statementCounter.start();
+        try {
+            List<Labware> labware = labwareRepo.findAllWithContentsByIdIn(labwareIds);
+            assertThat(labware).hasSize(labwareIds.size());
+            for (Labware lw : labware) {
+                for (Slot slot : lw.getSlots()) {
+                    for (Sample sample : slot.getSamples()) {
+                        assertNotNull(sample.getTissue().getDonor().getDonorName());
+                    }
+                }
+            }
+        } finally {
+            statementCounter.stop(count);
+        }
+        return count.get();
+    }
 }
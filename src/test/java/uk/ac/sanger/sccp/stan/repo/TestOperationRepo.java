@@ -16,6 +16,8 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Tests {@link OperationRepo}
@@ -30,6 +32,8 @@ public class TestOperationRepo {
     @Autowired
     ActionRepo actionRepo;
     @Autowired
+    ReleaseRepo releaseRepo;
+    @Autowired
     EntityCreator entityCreator;
     @Autowired
     EntityManager entityManager;
@@ -107,6 +111,28 @@ public class TestOperationRepo {
         assertThat(foundOps).containsExactlyInAnyOrder(ops[0], ops[1]);
     }
 
+    @Test
+    @Transactional
+    public void testFindMaxIdForDonorsOfReleases() {
+        setUpOps();
+        ReleaseDestination dest = entityCreator.createReleaseDestination("Moon");
+        ReleaseRecipient rec = entityCreator.createReleaseRecipient("jeff");
+        Release release1 = releaseRepo.save(new Release(lws[0], user, dest, rec, entityCreator.createSnapshot(lws[0]).getId()));
+
+        Donor donor2 = entityCreator.createDonor("DONOR2");
+        Sample otherSample = entityCreator.createSample(entityCreator.createTissue(donor2, "TISSUE2"), 1);
+        Labware otherLw = entityCreator.createLabware("STAN-B0", lws[0].getLabwareType(), otherSample);
+        Release release2 = releaseRepo.save(new Release(otherLw, user, dest, rec, entityCreator.createSnapshot(otherLw).getId()));
+        assertNull(opRepo.findMaxIdForDonorsOfReleases(List.of(release2.getId())));
+
+        Operation otherOp = makeOp(opType1, otherLw);
+        // ops[3] is on a different sample from the same donor as the released sample
+        assertEquals(ops[3].getId(), opRepo.findMaxIdForDonorsOfReleases(List.of(release1.getId())));
+        assertEquals(otherOp.getId(), opRepo.findMaxIdForDonorsOfReleases(List.of(release2.getId())));
+        assertEquals(otherOp.getId(), opRepo.findMaxIdForDonorsOfReleases(List.of(release1.getId(), release2.getId())));
+        assertNull(opRepo.findMaxIdForDonorsOfReleases(List.of(-1)));
+    }
+
     private Operation makeOp(OperationType opType, Labware... labware) {
         if (user==null) {
             user = entityCreator.createUser("user1");
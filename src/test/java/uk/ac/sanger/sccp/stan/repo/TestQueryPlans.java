@@ -0,0 +1,449 @@
+package uk.ac.sanger.sccp.stan.repo;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.sanger.sccp.stan.loadtest.DatasetGenerator;
+import uk.ac.sanger.sccp.stan.metrics.SqlStatementCounter;
+import uk.ac.sanger.sccp.stan.model.*;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.lang.reflect.Method;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the query plans of repository queries against tables that grow large.
+ * Every native select query in this package is explained, along with the SQL that Hibernate generates for hot
+ * JPQL and derived queries (captured by the {@link SqlStatementCounter}).
+ * Before the checks, a synthetic dataset is written by the {@link DatasetGenerator}, so that MySQL chooses
+ * indexes as it would for a real volume of data; the generated rows are deleted afterwards.
+ * A query fails if it scans a whole large table without using an index, or if it sorts a whole large table.
+ * Large tables the generator does not populate are only checked for having a usable index,
+ * since the plan for an empty table is not representative.
+ * @author dr6
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+public class TestQueryPlans {
+    /** Tables that grow with use, so should not be scanned in full */
+    private static final Set<String> LARGE_TABLES = Set.of(
+            "action", "destruction", "labware", "labware_flag", "labware_note", "labware_release", "measurement",
+            "operation", "operation_comment", "result_op", "roi", "sample", "sample_bio_risk", "slot", "slot_sample",
+            "snapshot_element", "stain", "tissue", "work_event", "work_op", "work_release", "work_sample"
+    );
+
+    /**
+     * The tables written by the dataset generator, in an order their rows can be deleted.
+     * The generated rows are those whose column has a value above the previous largest id in the id table.
+     */
+    private static final List<GeneratedTable> GENERATED_TABLES = List.of(
+            new GeneratedTable("labware_release"), new GeneratedTable("snapshot_element"),
+            new GeneratedTable("snapshot"), new GeneratedTable("measurement"),
+            new GeneratedTable("work_sample", "sample_id", "sample"), new GeneratedTable("action"),
+            new GeneratedTable("work_op", "operation_id", "operation"), new GeneratedTable("operation"),
+            new GeneratedTable("slot_sample", "slot_id", "slot"), new GeneratedTable("slot"),
+            new GeneratedTable("labware"), new GeneratedTable("sample"), new GeneratedTable("tissue"),
+            new GeneratedTable("donor"), new GeneratedTable("work"), new GeneratedTable("operation_type"),
+            new GeneratedTable("release_recipient"), new GeneratedTable("release_destination"),
+            new GeneratedTable("cost_code"), new GeneratedTable("program"), new GeneratedTable("project"),
+            new GeneratedTable("work_type"), new GeneratedTable("user"), new GeneratedTable("labware_type"),
+            new GeneratedTable("bio_state"), new GeneratedTable("hmdmc"), new GeneratedTable("fixative"),
+            new GeneratedTable("medium"), new GeneratedTable("spatial_location"), new GeneratedTable("tissue_type"),
+            new GeneratedTable("species")
+    );
+
+    private static final Pattern PARAM_PTN = Pattern.compile("\\?(\\d*)");
+    /** A table in a from or join clause, optionally followed by an alias */
+    private static final Pattern TABLE_ALIAS_PTN = Pattern.compile(
+            "\\b(?:from|join)\\s+`?(\\w+)`?(?:\\s+(?:as\\s+)?`?(\\w+)`?)?", Pattern.CASE_INSENSITIVE);
+    /** Words that may follow a table name but are not aliases */
+    private static final Set<String> NOT_ALIASES = Set.of(
+            "where", "on", "using", "join", "left", "right", "inner", "outer", "cross", "straight_join", "natural",
+            "group", "order", "limit", "having", "union", "for", "lock", "window"
+    );
+
+    /** The largest id in each table before the dataset was generated */
+    private static final Map<String, Integer> watermarks = new HashMap<>();
+    /** The large tables that contain data */
+    private static final Set<String> populatedTables = new HashSet<>();
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private SqlStatementCounter statementCounter;
+
+    @Autowired
+    private OperationRepo opRepo;
+    @Autowired
+    private OperationTypeRepo opTypeRepo;
+    @Autowired
+    private ActionRepo actionRepo;
+    @Autowired
+    private ReleaseRepo releaseRepo;
+    @Autowired
+    private DestructionRepo destructionRepo;
+    @Autowired
+    private LabwareFlagRepo flagRepo;
+    @Autowired
+    private MeasurementRepo measurementRepo;
+    @Autowired
+    private SampleRepo sampleRepo;
+    @Autowired
+    private SlotRepo slotRepo;
+    @Autowired
+    private LabwareRepo lwRepo;
+    @Autowired
+    private TissueRepo tissueRepo;
+
+    @BeforeAll
+    static void generateDataset(@Autowired DataSourceProperties dsProps) throws SQLException {
+        try (Connection con = connect(dsProps)) {
+            try (Statement st = con.createStatement()) {
+                for (GeneratedTable gt : GENERATED_TABLES) {
+                    if (gt.idTable().equals(gt.name())) {
+                        try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id),0) FROM `"+gt.name()+"`")) {
+                            rs.next();
+                            watermarks.put(gt.name(), rs.getInt(1));
+                        }
+                    }
+                }
+            }
+            new DatasetGenerator(con, 2000, 4, 100, 2).generate();
+            con.setAutoCommit(true);
+            try (Statement st = con.createStatement()) {
+                for (String table : LARGE_TABLES) {
+                    st.execute("ANALYZE TABLE `"+table+"`");
+                    try (ResultSet rs = st.executeQuery("SELECT EXISTS (SELECT 1 FROM `"+table+"`)")) {
+                        rs.next();
+                        if (rs.getBoolean(1)) {
+                            populatedTables.add(table);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @AfterAll
+    static void deleteDataset(@Autowired DataSourceProperties dsProps) throws SQLException {
+        try (Connection con = connect(dsProps); Statement st = con.createStatement()) {
+            for (GeneratedTable gt : GENERATED_TABLES) {
+                Integer watermark = watermarks.get(gt.idTable());
+                if (watermark!=null) {
+                    st.executeUpdate("DELETE FROM `"+gt.name()+"` WHERE `"+gt.column()+"` > "+watermark);
+                }
+            }
+        }
+    }
+
+    private static Connection connect(DataSourceProperties dsProps) throws SQLException {
+        String url = dsProps.getUrl();
+        url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        return DriverManager.getConnection(url, dsProps.getUsername(), dsProps.getPassword());
+    }
+
+    @Test
+    @Transactional
+    public void testNativeQueryPlans() {
+        List<String> problems = new ArrayList<>();
+        int numExplained = 0;
+        for (Class<?> repoClass : repoInterfaces()) {
+            for (Method method : repoClass.getDeclaredMethods()) {
+                Query query = method.getAnnotation(Query.class);
+                if (query==null || !query.nativeQuery() || !query.value().trim().toLowerCase().startsWith("select")) {
+                    continue;
+                }
+                String sql = bindParameters(query.value(), method.getParameterTypes());
+                String name = repoClass.getSimpleName() + "." + method.getName();
+                problems.addAll(explain(name, sql));
+                ++numExplained;
+            }
+        }
+        assertThat(numExplained).isPositive();
+        assertThat(problems).isEmpty();
+    }
+
+    /**
+     * Explains the SQL Hibernate generates for hot JPQL and derived queries, including any statements
+     * it uses to load their results
+     */
+    @Test
+    @Transactional
+    public void testHotQueryPlans() {
+        List<Integer> sampleIds = generatedIds("sample"), slotIds = generatedIds("slot"),
+                labwareIds = generatedIds("labware"), tissueIds = generatedIds("tissue");
+        OperationType section = opTypeRepo.getByName("Section");
+        List<Slot> slots = slotIds.stream().map(id -> entityManager.getReference(Slot.class, id)).toList();
+        List<Sample> samples = sampleIds.stream().map(id -> entityManager.getReference(Sample.class, id)).toList();
+        String externalName = DatasetGenerator.EXT_PREFIX + tissueIds.get(0);
+
+        Map<String, HotQuery> queries = new LinkedHashMap<>();
+        queries.put("OperationRepo.findAllBySampleIdIn",
+                new HotQuery(() -> opRepo.findAllBySampleIdIn(sampleIds), sampleIds));
+        queries.put("OperationRepo.findAllBySampleIdInAndIdGreaterThan",
+                new HotQuery(() -> opRepo.findAllBySampleIdInAndIdGreaterThan(sampleIds, 1), sampleIds, 1));
+        queries.put("OperationRepo.findAllByOperationTypeAndDestinationSlotIdIn",
+                new HotQuery(() -> opRepo.findAllByOperationTypeAndDestinationSlotIdIn(section, slotIds),
+                        section.getId(), slotIds));
+        queries.put("OperationRepo.findAllByOperationTypeAndDestinationLabwareIdIn",
+                new HotQuery(() -> opRepo.findAllByOperationTypeAndDestinationLabwareIdIn(section, labwareIds),
+                        section.getId(), labwareIds));
+        queries.put("ActionRepo.findAllByDestinationIn",
+                new HotQuery(() -> actionRepo.findAllByDestinationIn(slots), slotIds));
+        queries.put("ReleaseRepo.findAllByLabwareIdIn",
+                new HotQuery(() -> releaseRepo.findAllByLabwareIdIn(labwareIds), labwareIds));
+        queries.put("DestructionRepo.findAllByLabwareIdIn",
+                new HotQuery(() -> destructionRepo.findAllByLabwareIdIn(labwareIds), labwareIds));
+        queries.put("LabwareFlagRepo.findAllByLabwareIdIn",
+                new HotQuery(() -> flagRepo.findAllByLabwareIdIn(labwareIds), labwareIds));
+        queries.put("MeasurementRepo.findAllBySlotIdIn",
+                new HotQuery(() -> measurementRepo.findAllBySlotIdIn(slotIds), slotIds));
+        queries.put("SampleRepo.findAllByTissueIdIn",
+                new HotQuery(() -> sampleRepo.findAllByTissueIdIn(tissueIds), tissueIds));
+        queries.put("SlotRepo.findDistinctBySamplesIn",
+                new HotQuery(() -> slotRepo.findDistinctBySamplesIn(samples), sampleIds));
+        queries.put("LabwareRepo.findAllByIdIn",
+                new HotQuery(() -> lwRepo.findAllByIdIn(labwareIds), labwareIds));
+        queries.put("LabwareRepo.findByExternalBarcodeIn",
+                new HotQuery(() -> lwRepo.findByExternalBarcodeIn(List.of("X", "Y")), List.of("X", "Y")));
+        queries.put("TissueRepo.getAllByExternalName",
+                new HotQuery(() -> tissueRepo.getAllByExternalName(externalName), externalName));
+
+        List<String> problems = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            List<String> statements = captureSelects(query.call());
+            assertThat(statements).as(name).isNotEmpty();
+            for (String sql : statements) {
+                problems.addAll(explain(name, bindValues(sql, query.values())));
+            }
+        });
+        assertThat(problems).isEmpty();
+    }
+
+    /**
+     * Checks that the checks find problems in a query on an unindexed column of an aliased table
+     */
+    @Test
+    @Transactional
+    public void testUnindexedAliasedQueryFails() {
+        String sql = "select op.* from operation op where op.performed > '2020-01-01' order by op.performed";
+        assertThat(explain(sql, sql)).containsExactly(sql+": full scan of operation with no index used",
+                sql+": filesort of all of operation");
+        sql = "select s.* from sample s where s.section=1";
+        assertThat(explain(sql, sql)).containsExactly(sql+": full scan of sample with no index used");
+    }
+
+    @Test
+    public void testTableAliases() {
+        assertThat(tableAliases("select distinct op.* from operation op join action a on (a.operation_id=op.id) " +
+                "left join `slot` as s on (a.dest_slot_id=s.id) join sample where op.id in (1,2)"))
+                .containsExactlyInAnyOrderEntriesOf(Map.of("op", "operation", "a", "action", "s", "slot"));
+        assertThat(tableAliases("select * from labware_flag where labware_id in (1,2,3)")).isEmpty();
+    }
+
+    @Test
+    public void testBindValues() {
+        assertEquals("select * from x where a in ('1','2','3') and b='X' and c in ('1','2')",
+                bindValues("select * from x where a in (?,?,?) and b=? and c in (?,?)", List.of(List.of(1,2,3), "X")));
+    }
+
+    /**
+     * The ids of the first few rows generated in the given table
+     * @param table the name of the table
+     * @return the ids of some generated rows
+     */
+    private static List<Integer> generatedIds(String table) {
+        int watermark = watermarks.get(table);
+        return List.of(watermark+1, watermark+2, watermark+3);
+    }
+
+    /**
+     * Runs the given code and gets the select statements it prepares
+     * @param call the code to run
+     * @return the SQL of the select statements
+     */
+    private List<String> captureSelects(Runnable call) {
+        entityManager.clear();
+        SqlStatementCounter.Count count = statementCounter.start(true);
+        try {
+            call.run();
+        } finally {
+            statementCounter.stop(count);
+        }
+        return count.getStatements().stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .toList();
+    }
+
+    /**
+     * Finds all the repository interfaces in this package
+     * @return the repository interfaces
+     */
+    private static List<Class<?>> repoInterfaces() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                return beanDefinition.getMetadata().isInterface();
+            }
+        };
+        scanner.addIncludeFilter(new AssignableTypeFilter(Repository.class));
+        List<Class<?>> classes = new ArrayList<>();
+        for (BeanDefinition bd : scanner.findCandidateComponents(LabwareRepo.class.getPackageName())) {
+            try {
+                classes.add(Class.forName(bd.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Replaces the parameter placeholders in the given query with literal values of a suitable type
+     * @param sql the query
+     * @param paramTypes the types of the parameters of the repository method
+     * @return the query with literal values
+     */
+    private static String bindParameters(String sql, Class<?>[] paramTypes) {
+        Matcher m = PARAM_PTN.matcher(sql);
+        StringBuilder sb = new StringBuilder();
+        int nextIndex = 0;
+        while (m.find()) {
+            int index = (m.group(1).isEmpty() ? nextIndex : Integer.parseInt(m.group(1)) - 1);
+            nextIndex = index + 1;
+            Class<?> type = paramTypes[index];
+            String literal;
+            if (Collection.class.isAssignableFrom(type)) {
+                literal = "1,2,3";
+            } else if (type==String.class) {
+                literal = "'X'";
+            } else {
+                literal = "1";
+            }
+            m.appendReplacement(sb, literal);
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Replaces the parameter placeholders in the given generated SQL with the given values as literals.
+     * The values are used in order (with collections expanded), repeating from the start if there are
+     * more placeholders than values, as there are for padded batch loads.
+     * Quoted literals are used, since MySQL can compare them to numeric or string columns using an index.
+     * @param sql the generated SQL
+     * @param values the values to bind
+     * @return the SQL with literal values
+     */
+    static String bindValues(String sql, List<?> values) {
+        List<String> literals = new ArrayList<>();
+        for (Object value : values) {
+            if (value instanceof Collection<?> col) {
+                col.forEach(v -> literals.add("'" + v + "'"));
+            } else {
+                literals.add("'" + value + "'");
+            }
+        }
+        Matcher m = PARAM_PTN.matcher(sql);
+        StringBuilder sb = new StringBuilder();
+        int index = 0;
+        while (m.find()) {
+            m.appendReplacement(sb, Matcher.quoteReplacement(literals.get(index % literals.size())));
+            ++index;
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Explains the given query and describes any problems with its plan
+     * @param name the name of the query, for problem descriptions
+     * @param sql the query to explain
+     * @return descriptions of problems found
+     */
+    private List<String> explain(String name, String sql) {
+        Map<String, String> aliases = tableAliases(sql);
+        List<PlanRow> rows = entityManager.unwrap(Session.class).doReturningWork(con -> {
+            List<PlanRow> planRows = new ArrayList<>();
+            try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    planRows.add(new PlanRow(rs.getString("table"), rs.getString("type"),
+                            rs.getString("possible_keys"), rs.getString("key"), rs.getString("Extra")));
+                }
+            }
+            return planRows;
+        });
+        List<String> problems = new ArrayList<>();
+        for (PlanRow row : rows) {
+            // The plan gives the alias of a table, if it has one
+            String table = (row.table()==null ? null : aliases.getOrDefault(row.table().toLowerCase(), row.table().toLowerCase()));
+            if (table==null || !LARGE_TABLES.contains(table)) {
+                continue;
+            }
+            boolean wholeTable = ("ALL".equals(row.type()) || "index".equals(row.type()));
+            if (!populatedTables.contains(table)) {
+                if (wholeTable && row.possibleKeys()==null) {
+                    problems.add(name + ": full scan of " + table + " with no usable index");
+                }
+                continue;
+            }
+            if ("ALL".equals(row.type()) && row.key()==null) {
+                problems.add(name + ": full scan of " + table + " with no index used");
+            }
+            if (wholeTable && row.extra()!=null && row.extra().contains("Using filesort")) {
+                problems.add(name + ": filesort of all of " + table);
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Finds the aliases given to tables in the from and join clauses of the given query
+     * @param sql the query
+     * @return a map from lower case alias to lower case table name
+     */
+    static Map<String, String> tableAliases(String sql) {
+        Map<String, String> aliases = new HashMap<>();
+        Matcher m = TABLE_ALIAS_PTN.matcher(sql);
+        while (m.find()) {
+            String alias = m.group(2);
+            if (alias!=null && !NOT_ALIASES.contains(alias.toLowerCase())) {
+                aliases.put(alias.toLowerCase(), m.group(1).toLowerCase());
+            }
+        }
+        return aliases;
+    }
+
+    /** The parts of a row of a query plan that are checked */
+    record PlanRow(String table, String type, String possibleKeys, String key, String extra) {}
+
+    /** A call to a repository, and the values it passes to its query */
+    record HotQuery(Runnable call, List<?> values) {
+        HotQuery(Runnable call, Object... values) {
+            this(call, List.of(values));
+        }
+    }
+
+    /** A table written by the dataset generator */
+    record GeneratedTable(String name, String column, String idTable) {
+        GeneratedTable(String name) {
+            this(name, "id", name);
+        }
+    }
+}
@@ -8,10 +8,13 @@ import uk.ac.sanger.sccp.utils.UCMap;
 import javax.persistence.EntityNotFoundException;
 import java.util.*;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -104,4 +107,61 @@ public class TestRepoUtils {
     private static <A, B> Function<A, B> mockFunction() {
         return mock(Function.class);
     }
+
+    @Test
+    public void testFindAllInChunks() {
+        List<Collection<Integer>> calls = new ArrayList<>();
+        Function<Collection<Integer>, List<String>> findBy = numbers -> {
+            calls.add(new ArrayList<>(numbers));
+            return numbers.stream().map(Object::toString).toList();
+        };
+        List<Integer> values = List.of(1, 2, 3, 4, 5, 6, 7);
+        assertThat(RepoUtils.findAllInChunks(findBy, values, 3)).containsExactly("1", "2", "3", "4", "5", "6", "7");
+        assertThat(calls).containsExactly(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7));
+
+        calls.clear();
+        assertThat(RepoUtils.findAllInChunks(findBy, values, 7)).hasSize(7);
+        assertThat(calls).containsExactly(values);
+
+        assertThrows(IllegalArgumentException.class, () -> RepoUtils.findAllInChunks(findBy, values, 0));
+    }
+
+    @Test
+    public void testFindAllInChunks_small() {
+        Set<Integer> values = Set.of(1, 2);
+        List<Collection<Integer>> calls = new ArrayList<>();
+        Function<Collection<Integer>, List<String>> findBy = numbers -> {
+            calls.add(numbers);
+            return List.of("A");
+        };
+        assertThat(RepoUtils.findAllInChunks(findBy, values)).containsExactly("A");
+        assertThat(calls).hasSize(1);
+        assertSame(values, calls.getFirst());
+    }
+
+    @Test
+    public void testFindSetInChunks() {
+        List<Integer> values = IntStream.range(0, RepoUtils.MAX_IN_LIST_SIZE + 10).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+        Function<Collection<Integer>, List<Integer>> findBy = numbers -> {
+            chunkSizes.add(numbers.size());
+            return numbers.stream().map(n -> n / 100).distinct().toList();
+        };
+        Set<Integer> result = RepoUtils.findSetInChunks(findBy, values);
+        assertThat(chunkSizes).containsExactly(RepoUtils.MAX_IN_LIST_SIZE, 10);
+        assertThat(result).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    public void testFindMapInChunks() {
+        List<Integer> values = IntStream.range(0, 2 * RepoUtils.MAX_IN_LIST_SIZE + 1).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+        Function<Collection<Integer>, Map<Integer, String>> findBy = numbers -> {
+            chunkSizes.add(numbers.size());
+            return numbers.stream().filter(n -> n % 500 == 0).collect(toMap(n -> n, Object::toString));
+        };
+        Map<Integer, String> result = RepoUtils.findMapInChunks(findBy, values);
+        assertThat(chunkSizes).containsExactly(RepoUtils.MAX_IN_LIST_SIZE, RepoUtils.MAX_IN_LIST_SIZE, 1);
+        assertEquals(Map.of(0, "0", 500, "500", 1000, "1000", 1500, "1500", 2000, "2000"), result);
+    }
 }
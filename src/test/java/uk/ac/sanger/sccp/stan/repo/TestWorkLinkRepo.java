@@ -0,0 +1,90 @@
+package uk.ac.sanger.sccp.stan.repo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.sanger.sccp.stan.EntityCreator;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.model.Work.SampleSlotId;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link WorkLinkRepo}
+ * @author dr6
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+@Import(EntityCreator.class)
+public class TestWorkLinkRepo {
+    private final EntityManager entityManager;
+    private final EntityCreator entityCreator;
+    private final WorkRepo workRepo;
+    private final WorkLinkRepo workLinkRepo;
+
+    @Autowired
+    public TestWorkLinkRepo(EntityManager entityManager, EntityCreator entityCreator,
+                            WorkRepo workRepo, WorkLinkRepo workLinkRepo) {
+        this.entityManager = entityManager;
+        this.entityCreator = entityCreator;
+        this.workRepo = workRepo;
+        this.workLinkRepo = workLinkRepo;
+    }
+
+    @Test
+    @Transactional
+    public void testInsertLinks() {
+        Sample sample = entityCreator.createSample(entityCreator.createTissue(entityCreator.createDonor("DONOR1"), "EXT1"), 1);
+        Labware lw1 = entityCreator.createLabware("STAN-A1", entityCreator.getTubeType(), sample);
+        OperationType opType = entityCreator.createOpType("Scrape", null);
+        User user = entityCreator.createUser("user1");
+        List<Operation> ops = IntStream.range(0, 3)
+                .mapToObj(i -> entityCreator.simpleOp(opType, user, lw1, lw1))
+                .toList();
+        Work work1 = entityCreator.createWork(null, null, null, null, null);
+        Work work2 = entityCreator.createWorkLike(work1);
+        List<Integer> workIds = List.of(work1.getId(), work2.getId());
+        List<Integer> opIds = ops.stream().map(Operation::getId).toList();
+        SampleSlotId ssId = new SampleSlotId(sample.getId(), lw1.getFirstSlot().getId());
+
+        workLinkRepo.insertWorkOps(workIds, opIds);
+        assertEquals(6, countLinks("work_op", workIds));
+        workLinkRepo.insertWorkOps(workIds, opIds.subList(0, 1));
+        assertEquals(6, countLinks("work_op", workIds));
+        workLinkRepo.insertWorkSamples(workIds, List.of(ssId));
+        workLinkRepo.insertWorkSamples(workIds, List.of(ssId));
+        assertEquals(2, countLinks("work_sample", workIds));
+
+        entityManager.flush();
+        entityManager.clear();
+        Work loaded = workRepo.findById(work2.getId()).orElseThrow();
+        assertThat(loaded.getOperationIds()).containsExactlyInAnyOrderElementsOf(opIds);
+        assertThat(loaded.getSampleSlotIds()).containsExactly(ssId);
+    }
+
+    @Test
+    @Transactional
+    public void testInsertLinkToMissingOp() {
+        Work work = entityCreator.createWork(null, null, null, null, null);
+        assertThrows(DataIntegrityViolationException.class,
+                () -> workLinkRepo.insertWorkOps(List.of(work.getId()), List.of(-404)));
+    }
+
+    private int countLinks(String table, Collection<Integer> workIds) {
+        Number count = (Number) entityManager.createNativeQuery("select count(*) from "+table+" where work_id in (?1)")
+                .setParameter(1, workIds)
+                .getSingleResult();
+        return count.intValue();
+    }
+}
@@ -0,0 +1,110 @@
+package uk.ac.sanger.sccp.stan.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import uk.ac.sanger.sccp.stan.EntityCreator;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.model.Work.Status;
+import uk.ac.sanger.sccp.stan.request.WorkPageRequest;
+import uk.ac.sanger.sccp.stan.request.WorkPageRequest.SortField;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link WorkQueryRepo}
+ * @author dr6
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "test")
+@Import(EntityCreator.class)
+public class TestWorkQueryRepo {
+    private final EntityCreator entityCreator;
+    private final WorkRepo workRepo;
+    private final WorkQueryRepo workQueryRepo;
+
+    private Work work1, work2, work3, work4;
+    private WorkType type1, type2;
+    private Program prog1;
+    private ReleaseRecipient req1;
+
+    @Autowired
+    public TestWorkQueryRepo(EntityCreator entityCreator, WorkRepo workRepo, WorkQueryRepo workQueryRepo) {
+        this.entityCreator = entityCreator;
+        this.workRepo = workRepo;
+        this.workQueryRepo = workQueryRepo;
+    }
+
+    @BeforeEach
+    void setup() {
+        Project pr = entityCreator.createProject("Stargate");
+        prog1 = entityCreator.createProgram("Hello");
+        Program prog2 = entityCreator.createProgram("Goodbye");
+        CostCode cc = entityCreator.createCostCode("S5000");
+        type1 = entityCreator.createWorkType("Drywalling");
+        type2 = entityCreator.createWorkType("Lasers");
+        req1 = entityCreator.createReleaseRecipient("req1");
+        ReleaseRecipient req2 = entityCreator.createReleaseRecipient("req2");
+        work1 = workRepo.save(new Work(null, "SGP9004", type1, req1, pr, prog1, cc, Status.active));
+        work2 = workRepo.save(new Work(null, "SGP9003", type2, req1, pr, prog2, cc, Status.paused));
+        work3 = workRepo.save(new Work(null, "SGP9002", type1, req2, pr, prog1, cc, Status.active));
+        work4 = workRepo.save(new Work(null, "SGP9001", type1, req1, pr, prog1, cc, Status.completed));
+    }
+
+    private static WorkPageRequest request(List<Status> statuses, List<String> workTypes, List<String> programs,
+                                           List<String> requesters) {
+        return new WorkPageRequest(statuses, workTypes, programs, requesters, null, false, null, null);
+    }
+
+    @Test
+    @Transactional
+    public void testFilters() {
+        List<String> allNumbers = List.of("SGP9001", "SGP9002", "SGP9003", "SGP9004");
+        WorkPageRequest request = request(null, null, null, null);
+        assertThat(workQueryRepo.findPage(request, null, 100)).filteredOn(w -> allNumbers.contains(w.getWorkNumber()))
+                .containsExactly(work1, work2, work3, work4);
+        request = request(List.of(Status.active), List.of("Drywalling"), List.of("Hello"), List.of("req1"));
+        assertThat(workQueryRepo.findPage(request, null, 100)).containsExactly(work1);
+        request = request(List.of(Status.active, Status.completed), List.of("Drywalling"), List.of("Hello"), null);
+        assertThat(workQueryRepo.findPage(request, null, 100)).containsExactly(work1, work3, work4);
+        request = request(null, List.of("Lasers"), List.of("Hello"), null);
+        assertThat(workQueryRepo.findPage(request, null, 100)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void testFindAllMatching() {
+        assertThat(workQueryRepo.findAllMatching(null, List.of(type1, type2), null, null, null))
+                .containsExactly(work1, work2, work3, work4);
+        assertThat(workQueryRepo.findAllMatching(null, List.of(type1), List.of(prog1), List.of(Status.active), List.of(req1)))
+                .containsExactly(work1);
+        assertThat(workQueryRepo.findAllMatching(null, List.of(type1), null, List.of(Status.active, Status.completed), null))
+                .containsExactly(work1, work3, work4);
+        assertThat(workQueryRepo.findAllMatching("SGP9003", null, null, List.of(Status.paused), null))
+                .containsExactly(work2);
+        assertThat(workQueryRepo.findAllMatching("SGP9003", List.of(type1), null, null, null)).isEmpty();
+        assertThat(workQueryRepo.findAllMatching(null, List.of(), null, null, null)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void testKeysetPaging() {
+        WorkPageRequest request = request(null, List.of("Drywalling", "Lasers"), null, null);
+        assertThat(workQueryRepo.findPage(request, null, 2)).containsExactly(work1, work2);
+        assertThat(workQueryRepo.findPage(request, work2.getId().toString(), 2)).containsExactly(work3, work4);
+
+        request.setDescending(true);
+        assertThat(workQueryRepo.findPage(request, work3.getId().toString(), 5)).containsExactly(work2, work1);
+
+        request.setSortBy(SortField.workNumber);
+        request.setDescending(false);
+        assertThat(workQueryRepo.findPage(request, null, 3)).containsExactly(work4, work3, work2);
+        assertThat(workQueryRepo.findPage(request, "SGP9002", 3)).containsExactly(work2, work1);
+    }
+}
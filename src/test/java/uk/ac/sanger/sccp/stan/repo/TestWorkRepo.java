@@ -324,6 +324,13 @@ public class TestWorkRepo {
         workIds = workRepo.findWorkIdsForLabwareId(labware[1].getId());
         assertThat(workIds).containsExactly(work2.getId());
 
+        Map<Integer, Set<String>> lwWorkNumbers = workRepo.findWorkNumbersForLabwareIds(
+                Arrays.stream(labware).map(Labware::getId).toList());
+        assertThat(lwWorkNumbers).hasSize(3);
+        assertThat(lwWorkNumbers.get(labware[0].getId())).containsExactlyInAnyOrder(work1.getWorkNumber(), work2.getWorkNumber());
+        assertThat(lwWorkNumbers.get(labware[1].getId())).containsExactly(work2.getWorkNumber());
+        assertThat(lwWorkNumbers.get(labware[2].getId())).isEmpty();
+
         List<Integer> slotIds = labware[0].getSlots().stream()
                 .map(Slot::getId)
                 .toList();
@@ -414,6 +421,46 @@ public class TestWorkRepo {
         assertEquals(exists && (latestIsActive || includeInactive) ? work3.getId() : null, workId);
     }
 
+    @Transactional
+    @ParameterizedTest
+    @ValueSource(booleans={false,true})
+    public void testFindLatestWorkIdsForLabwareIds(boolean includeInactive) {
+        Sample sample = entityCreator.createSample(null, null);
+        LabwareType lt = entityCreator.getTubeType();
+        Labware lw1 = entityCreator.createLabware("STAN-A1", lt, sample);
+        Labware lw2 = entityCreator.createLabware("STAN-A2", lt, sample);
+        Labware lw3 = entityCreator.createLabware("STAN-A3", lt, sample);
+        Labware lw4 = entityCreator.createLabware("STAN-A4", lt, sample);
+        Work work1 = entityCreator.createWork(null, null, null, null, null);
+        Work work2 = entityCreator.createWorkLike(work1);
+        Work work3 = entityCreator.createWorkLike(work1);
+
+        Operation op1 = saveOp(lw1, day(1));
+        Operation op2 = saveOp(lw1, day(2));
+        Operation op3 = saveOp(lw2, day(1));
+        Operation op4 = saveOp(lw3, day(3));
+        saveOp(lw3, day(4)); // no work
+        work1.setOperationIds(hashSetOf(op1.getId(), op3.getId()));
+        work2.setOperationIds(hashSetOf(op2.getId(), op4.getId()));
+        work3.setOperationIds(hashSetOf(op4.getId()));
+        work3.setStatus(Status.paused);
+        workRepo.saveAll(List.of(work1, work2, work3));
+
+        List<Integer> labwareIds = List.of(lw1.getId(), lw2.getId(), lw3.getId(), lw4.getId());
+        Map<Integer, Integer> lwWorkIds = (includeInactive ? workRepo.findLatestWorkIdsForLabwareIds(labwareIds)
+                : workRepo.findLatestActiveWorkIdsForLabwareIds(labwareIds));
+        assertThat(lwWorkIds).containsExactlyInAnyOrderEntriesOf(Map.of(
+                lw1.getId(), work2.getId(),
+                lw2.getId(), work1.getId(),
+                lw3.getId(), includeInactive ? work3.getId() : work2.getId()
+        ));
+        for (Integer lwId : labwareIds) {
+            assertEquals(lwWorkIds.get(lwId), includeInactive ? workRepo.findLatestWorkIdForLabwareId(lwId)
+                    : workRepo.findLatestActiveWorkIdForLabwareId(lwId));
+        }
+        assertThat(workRepo.findLatestWorkIdsForLabwareIds(List.of())).isEmpty();
+    }
+
     private Operation saveOp(Labware lw, LocalDateTime performed) {
         Slot slot = lw.getFirstSlot();
         Sample sample = slot.getSamples().get(0);
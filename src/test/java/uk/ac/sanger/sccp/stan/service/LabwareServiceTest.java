@@ -201,7 +201,7 @@ public class LabwareServiceTest {
                             .anyMatch(samples::contains))
                     .collect(toList());
         });
-        when(mockLabwareRepo.findAllByIdIn(any())).then(invocation -> {
+        when(mockLabwareRepo.findAllWithContentsByIdIn(any())).then(invocation -> {
             Collection<Integer> labwareIds = invocation.getArgument(0);
             return Arrays.stream(labware).filter(lw -> labwareIds.contains(lw.getId()))
                     .collect(toList());
@@ -8,13 +8,12 @@ import uk.ac.sanger.sccp.stan.EntityFactory;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
 import uk.ac.sanger.sccp.stan.request.AnalyserScanData;
+import uk.ac.sanger.sccp.utils.UCMap;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /** Test {@link AnalyserScanDataServiceImp} */
@@ -131,4 +130,89 @@ class TestAnalyserScanDataService {
 
         assertEquals(segmented, service.loadCellSegmentationRecorded(lw));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLoadForBarcodes() {
+        Labware lw1 = EntityFactory.getTube();
+        Labware lw2 = EntityFactory.makeEmptyLabware(lw1.getLabwareType());
+        when(mockLwRepo.getMapByBarcodeIn(any())).thenReturn(UCMap.from(Labware::getBarcode, lw1, lw2));
+        List<AnalyserScanData> datas = List.of(new AnalyserScanData(), new AnalyserScanData());
+        doReturn(datas).when(service).loadAll(any());
+
+        assertSame(datas, service.load(List.of(lw2.getBarcode(), lw1.getBarcode(), lw2.getBarcode().toLowerCase())));
+        verify(mockLwRepo).getMapByBarcodeIn(List.of(lw2.getBarcode(), lw1.getBarcode()));
+        verify(service).loadAll(List.of(lw2, lw1));
+    }
+
+    @Test
+    void testLoadForBarcodes_none() {
+        assertThat(service.load(List.of())).isEmpty();
+        verifyNoInteractions(mockLwRepo);
+    }
+
+    @Test
+    void testLoadAll() {
+        Labware lw1 = EntityFactory.getTube();
+        Labware lw2 = EntityFactory.makeEmptyLabware(lw1.getLabwareType());
+        Set<Integer> lwIds = Set.of(lw1.getId(), lw2.getId());
+        Map<Integer, Set<String>> workNumbers = Map.of(lw1.getId(), new LinkedHashSet<>(List.of("SGP1", "SGP2")),
+                lw2.getId(), Set.of());
+        when(mockWorkRepo.findWorkNumbersForLabwareIds(any())).thenReturn(workNumbers);
+        doReturn(Map.of(lw2.getId(), Set.of("probe1"))).when(service).loadProbesForLabwareIds(any());
+        doReturn(Set.of(lw2.getId())).when(service).loadCellSegmentedLabwareIds(any());
+
+        List<AnalyserScanData> datas = service.loadAll(List.of(lw1, lw2));
+        assertThat(datas).hasSize(2);
+        AnalyserScanData data = datas.get(0);
+        assertEquals(lw1.getBarcode(), data.getBarcode());
+        assertThat(data.getWorkNumbers()).containsExactly("SGP1", "SGP2");
+        assertThat(data.getProbes()).isEmpty();
+        assertFalse(data.isCellSegmentationRecorded());
+        data = datas.get(1);
+        assertEquals(lw2.getBarcode(), data.getBarcode());
+        assertThat(data.getWorkNumbers()).isEmpty();
+        assertThat(data.getProbes()).containsExactly("probe1");
+        assertTrue(data.isCellSegmentationRecorded());
+
+        verify(mockWorkRepo).findWorkNumbersForLabwareIds(lwIds);
+        verify(service).loadProbesForLabwareIds(lwIds);
+        verify(service).loadCellSegmentedLabwareIds(lwIds);
+    }
+
+    @Test
+    void testLoadProbesForLabwareIds() {
+        List<ProbePanel> probes = List.of(new ProbePanel(10, "Alpha"), new ProbePanel(11, "Beta"));
+        List<LabwareProbe> lwProbes = List.of(
+                new LabwareProbe(100, probes.get(0), 200, 1, "lot1", 1),
+                new LabwareProbe(101, probes.get(1), 200, 1, "lot2", 2),
+                new LabwareProbe(102, probes.get(0), 201, 1, "lot3", 3),
+                new LabwareProbe(103, probes.get(1), 201, 2, "lot4", 4)
+        );
+        when(mockProbeRepo.findAllByLabwareIdIn(List.of(1,2,3))).thenReturn(lwProbes);
+
+        var map = service.loadProbesForLabwareIds(List.of(1,2,3));
+        assertThat(map).hasSize(2);
+        assertThat(map.get(1)).containsExactly("Alpha", "Beta");
+        assertThat(map.get(2)).containsExactly("Beta");
+    }
+
+    @Test
+    void testLoadCellSegmentedLabwareIds() {
+        Sample sample = EntityFactory.getSample();
+        LabwareType lt = EntityFactory.getTubeType();
+        Labware lw1 = EntityFactory.makeLabware(lt, sample);
+        Labware lw2 = EntityFactory.makeLabware(lt, sample);
+        Labware lw3 = EntityFactory.makeLabware(lt, sample);
+        OperationType opType = EntityFactory.makeOperationType("Cell segmentation", null, OperationTypeFlag.IN_PLACE);
+        when(mockOpTypeRepo.getByName("Cell segmentation")).thenReturn(opType);
+        Slot slot1 = lw1.getFirstSlot(), slot3 = lw3.getFirstSlot();
+        Operation op = new Operation(100, opType, null, List.of(
+                new Action(1, 100, slot1, slot1, sample, sample),
+                new Action(2, 100, slot3, slot3, sample, sample)
+        ), null);
+        List<Integer> lwIds = List.of(lw1.getId(), lw2.getId());
+        when(mockOpRepo.findAllByOperationTypeAndDestinationLabwareIdIn(opType, lwIds)).thenReturn(List.of(op));
+
+        assertThat(service.loadCellSegmentedLabwareIds(lwIds)).containsExactly(lw1.getId());
+    }
+}
@@ -350,7 +350,7 @@ public class TestFindService {
 
         when(mockWorkRepo.getByWorkNumber(work.getWorkNumber())).thenReturn(work);
         when(mockSlotRepo.findAllByIdIn(List.of(lw.getSlots().getFirst().getId()))).thenReturn(List.of(lw.getSlots().getFirst()));
-        when(mockLabwareRepo.findAllByIdIn(Set.of(lw.getId()))).thenReturn(List.of(lw));
+        when(mockLabwareRepo.findAllWithContentsByIdIn(Set.of(lw.getId()))).thenReturn(List.of(lw));
         when(mockWorkRepo.findWorkForSampleIdAndSlotId(sample.getId(), lw.getFirstSlot().getId())).thenReturn(Set.of(work));
         List<LabwareSample> lss = List.of(new LabwareSample(lw, sample, Set.of(work.getWorkNumber())));
 
@@ -5,9 +5,11 @@ import org.junit.jupiter.api.Test;
 import uk.ac.sanger.sccp.stan.EntityFactory;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
+import uk.ac.sanger.sccp.stan.request.LabwarePassFails;
 import uk.ac.sanger.sccp.stan.request.OpPassFail;
 import uk.ac.sanger.sccp.stan.request.OpPassFail.SlotPassFail;
 import uk.ac.sanger.sccp.stan.service.PassFailQueryService.AddressSampleId;
+import uk.ac.sanger.sccp.utils.UCMap;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -75,6 +77,72 @@ public class TestPassFailQueryService {
         }
     }
 
+    @Test
+    public void testGetLabwarePassFails() {
+        OperationType opType = EntityFactory.makeOperationType("QC", null, OperationTypeFlag.IN_PLACE, OperationTypeFlag.RESULT);
+        Sample sample = EntityFactory.getSample();
+        LabwareType lt = EntityFactory.makeLabwareType(1, 2);
+        Labware lw1 = EntityFactory.makeLabware(lt, sample);
+        Labware lw2 = EntityFactory.makeLabware(lt, sample);
+        Labware lw3 = EntityFactory.makeLabware(lt, sample);
+        List<Labware> labware = List.of(lw1, lw2, lw3);
+        when(mockLwRepo.getMapByBarcodeIn(any())).thenReturn(UCMap.from(labware, Labware::getBarcode));
+        when(mockOpTypeRepo.getByName(opType.getName())).thenReturn(opType);
+
+        Slot slot1 = lw1.getFirstSlot(), slot2 = lw2.getFirstSlot();
+        Operation op1 = new Operation(10, opType, time(2), List.of(new Action(100, 10, slot1, slot1, sample, sample)), null);
+        Operation op2 = new Operation(11, opType, time(1), List.of(new Action(101, 11, slot1, slot1, sample, sample)), null);
+        Operation op3 = new Operation(12, opType, time(3), List.of(new Action(102, 12, slot2, slot2, sample, sample)), null);
+        when(mockOpRepo.findAllByOperationTypeAndDestinationLabwareIdIn(any(), any())).thenReturn(List.of(op1, op2, op3));
+
+        final Integer sid = sample.getId();
+        when(mockResultOpRepo.findAllByOperationIdIn(any())).thenReturn(List.of(
+                new ResultOp(1, PassFail.pass, op1.getId(), sid, slot1.getId(), null),
+                new ResultOp(2, PassFail.fail, op2.getId(), sid, slot1.getId(), null),
+                new ResultOp(3, PassFail.pass, op3.getId(), sid, slot2.getId(), null)
+        ));
+        Comment com = new Comment(1, "Alpha", "bananas");
+        when(mockOpCommentRepo.findAllByOperationIdIn(any())).thenReturn(List.of(
+                new OperationComment(1, com, op2.getId(), sid, slot1.getId(), null)
+        ));
+
+        List<String> barcodes = List.of(lw1.getBarcode(), lw2.getBarcode(), lw3.getBarcode(), lw1.getBarcode().toLowerCase());
+        List<LabwarePassFails> result = service.getLabwarePassFails(barcodes, opType.getName());
+
+        final Address A1 = new Address(1,1);
+        assertThat(result).containsExactly(
+                new LabwarePassFails(lw1.getBarcode(), List.of(
+                        new OpPassFail(op2, List.of(new SlotPassFail(A1, PassFail.fail, "Alpha", List.of(sid)))),
+                        new OpPassFail(op1, List.of(new SlotPassFail(A1, PassFail.pass, null, List.of(sid))))
+                )),
+                new LabwarePassFails(lw2.getBarcode(), List.of(
+                        new OpPassFail(op3, List.of(new SlotPassFail(A1, PassFail.pass, null, List.of(sid))))
+                )),
+                new LabwarePassFails(lw3.getBarcode(), List.of())
+        );
+
+        verify(mockLwRepo).getMapByBarcodeIn(List.of(lw1.getBarcode(), lw2.getBarcode(), lw3.getBarcode()));
+        verify(mockOpRepo).findAllByOperationTypeAndDestinationLabwareIdIn(same(opType),
+                argThat(ids -> ids.size()==3 && ids.containsAll(List.of(lw1.getId(), lw2.getId(), lw3.getId()))));
+        verify(mockResultOpRepo).findAllByOperationIdIn(Set.of(op1.getId(), op2.getId(), op3.getId()));
+        verify(mockOpCommentRepo).findAllByOperationIdIn(Set.of(op1.getId(), op2.getId(), op3.getId()));
+        verify(service, never()).getSlotPassFails(any(), any());
+    }
+
+    @Test
+    public void testGetLabwarePassFails_noOps() {
+        OperationType opType = EntityFactory.makeOperationType("QC", null, OperationTypeFlag.IN_PLACE, OperationTypeFlag.RESULT);
+        Labware lw = EntityFactory.getTube();
+        when(mockLwRepo.getMapByBarcodeIn(any())).thenReturn(UCMap.from(List.of(lw), Labware::getBarcode));
+        when(mockOpTypeRepo.getByName(opType.getName())).thenReturn(opType);
+        when(mockOpRepo.findAllByOperationTypeAndDestinationLabwareIdIn(any(), any())).thenReturn(List.of());
+
+        assertThat(service.getLabwarePassFails(List.of(lw.getBarcode()), opType.getName()))
+                .containsExactly(new LabwarePassFails(lw.getBarcode(), List.of()));
+        verifyNoInteractions(mockResultOpRepo);
+        verifyNoInteractions(mockOpCommentRepo);
+    }
+
     static LocalDateTime time(int n) {
         return LocalDateTime.of(2021, 11, 11, 12, n);
     }
@@ -13,6 +13,7 @@ import uk.ac.sanger.sccp.stan.repo.*;
 import uk.ac.sanger.sccp.stan.request.ReleaseRequest;
 import uk.ac.sanger.sccp.stan.request.ReleaseRequest.ReleaseLabware;
 import uk.ac.sanger.sccp.stan.request.ReleaseResult;
+import uk.ac.sanger.sccp.stan.service.releasefile.ReleaseFileStore;
 import uk.ac.sanger.sccp.stan.service.store.StoreService;
 import uk.ac.sanger.sccp.stan.service.work.WorkService;
 import uk.ac.sanger.sccp.utils.UCMap;
@@ -57,6 +58,7 @@ public class TestReleaseService {
     private EmailService mockEmailService;
     private WorkService mockWorkService;
 
+    private ReleaseFileStore mockReleaseFileStore;
     private ReleaseServiceImp service;
 
     @BeforeEach
@@ -77,6 +79,7 @@ public class TestReleaseService {
         when(mockRecipientRepo.getByUsername(recipient.getUsername())).thenReturn(recipient);
         mockEmailService = mock(EmailService.class);
         mockWorkService = mock(WorkService.class);
+        mockReleaseFileStore = mock(ReleaseFileStore.class);
 
         sample = EntityFactory.getSample();
         sample1 = new Sample(sample.getId()+1, 7, sample.getTissue(), EntityFactory.getBioState());
@@ -85,7 +88,7 @@ public class TestReleaseService {
 
         service = spy(new ReleaseServiceImp(mockStanConfig, mockTransactor, mockEntityManager,
                 mockDestinationRepo, mockRecipientRepo, mockLabwareRepo, mockStoreService,
-                mockReleaseRepo, mockSnapshotService, mockEmailService, mockWorkService));
+                mockReleaseRepo, mockSnapshotService, mockEmailService, mockWorkService, mockReleaseFileStore));
 
         when(mockTransactor.transact(any(), any())).then(invocation -> {
             Supplier<List<Release>> supplier = invocation.getArgument(1);
@@ -128,6 +131,7 @@ public class TestReleaseService {
             assertThat(ex).hasMessage(expectedExceptionMessage);
             verifyNoInteractions(mockStoreService);
             verify(service, never()).transactRelease(any(), any(), any(), any(), any(), any(), any());
+            verifyNoInteractions(mockReleaseFileStore);
             return;
         }
         assert labware != null;
@@ -173,6 +177,7 @@ public class TestReleaseService {
         verify(service).transactRelease(user, recipient, otherRecs, destination, labware, locations, workMap);
         verify(mockStoreService).discardStorage(same(user), sameElements(expectedBarcodes, true));
         verify(service).releaseFileLink(releases, expectedOptions);
+        verify(mockReleaseFileStore).submit(releases.stream().map(Release::getId).collect(toList()), expectedOptions);
         assertEquals(result, new ReleaseResult(releases));
     }
 
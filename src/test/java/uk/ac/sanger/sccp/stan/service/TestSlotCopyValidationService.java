@@ -105,6 +105,7 @@ public class TestSlotCopyValidationService {
             );
         }
 
+        verify(val).prefetchLabware(Set.of("STAN1"));
         verify(val).checkOpType(request.getOperationType());
         List<SlotCopyDestination> scds = request.getDestinations();
         verify(service).loadExistingDestinations(val, opType, scds);
@@ -127,6 +128,32 @@ public class TestSlotCopyValidationService {
         assertSame(data.lwTypes, lwTypes);
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans={false,true})
+    public void testPrefetchLabware(boolean loaded) {
+        SlotCopyRequest request = new SlotCopyRequest("optype", "sgp1", null, null,
+                List.of(new SlotCopyDestination("lt1", null, null, null, null,
+                                List.of(new SlotCopyContent("STAN-1", new Address(1,1), new Address(1,1)),
+                                        new SlotCopyContent("STAN-2", new Address(1,2), new Address(1,1))),
+                                null, null),
+                        new SlotCopyDestination("lt1", null, null, null, null,
+                                List.of(new SlotCopyContent("STAN-1", new Address(1,1), new Address(1,2))),
+                                null, null)));
+        request.getDestinations().get(1).setBarcode("STAN-3");
+        Data data = new Data(request);
+        if (loaded) {
+            data.destLabware = new UCMap<>(0);
+            data.sourceLabware = new UCMap<>(0);
+        }
+        ValidationHelper val = mock(ValidationHelper.class);
+        service.prefetchLabware(val, data);
+        if (loaded) {
+            verifyNoInteractions(val);
+        } else {
+            verify(val).prefetchLabware(Set.of("STAN-1", "STAN-2", "STAN-3"));
+        }
+    }
+
     @Test
     public void testValidate_noRequest() {
         final Data data = new Data(null);
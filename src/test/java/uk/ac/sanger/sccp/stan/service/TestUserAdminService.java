@@ -4,14 +4,18 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.PageRequest;
 import uk.ac.sanger.sccp.stan.EntityFactory;
 import uk.ac.sanger.sccp.stan.Matchers;
 import uk.ac.sanger.sccp.stan.model.User;
 import uk.ac.sanger.sccp.stan.repo.UserRepo;
+import uk.ac.sanger.sccp.stan.request.CursorPage;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -119,6 +123,40 @@ public class TestUserAdminService {
         );
     }
 
+    @ParameterizedTest
+    @CsvSource({"false,,,3,", "true,,2,2,bob", "false,bob,2,1,", "true,,0,,"})
+    public void testGetUsersPage(boolean includeDisabled, String afterUsername, Integer pageSize,
+                                 Integer expectedSize, String expectedNext) {
+        String after = (afterUsername==null ? null : CursorPage.encodeCursor(afterUsername));
+        if (expectedSize==null) {
+            assertException(new IllegalArgumentException("Page size must be at least 1."),
+                    () -> service.getUsersPage(includeDisabled, after, pageSize));
+            return;
+        }
+        List<User> users = Stream.of("alice", "bob", "carol")
+                .filter(name -> afterUsername==null || name.compareTo(afterUsername) > 0)
+                .map(name -> new User(null, name, User.Role.normal))
+                .toList();
+        int limit = (pageSize==null ? CursorPage.DEFAULT_PAGE_SIZE : pageSize) + 1;
+        String expectedAfter = (afterUsername==null ? "" : afterUsername);
+        PageRequest pr = PageRequest.of(0, limit);
+        List<User> found = users.subList(0, Math.min(limit, users.size()));
+        if (includeDisabled) {
+            when(mockUserRepo.findAllByUsernameGreaterThanOrderByUsername(expectedAfter, pr)).thenReturn(found);
+        } else {
+            when(mockUserRepo.findAllByUsernameGreaterThanAndRoleNotOrderByUsername(expectedAfter, User.Role.disabled, pr))
+                    .thenReturn(found);
+        }
+
+        CursorPage<User> page = service.getUsersPage(includeDisabled, after, pageSize);
+        assertThat(page.getItems()).containsExactlyElementsOf(users.subList(0, expectedSize));
+        if (expectedNext==null) {
+            assertNull(page.getNextCursor());
+        } else {
+            assertEquals(expectedNext, CursorPage.decodeCursor(page.getNextCursor()));
+        }
+    }
+
     private static void assertException(Exception exception, Executable executable) {
         assertThat(assertThrows(exception.getClass(), executable)).hasMessage(exception.getMessage());
     }
@@ -33,6 +33,7 @@ import static org.mockito.Mockito.*;
 
 public class TestWorkProgressService {
     @Mock private WorkRepo mockWorkRepo;
+    @Mock private WorkQueryRepo mockWorkQueryRepo;
     @Mock private WorkTypeRepo mockWorkTypeRepo;
     @Mock private ProgramRepo mockProgramRepo;
     @Mock private OperationRepo mockOpRepo;
@@ -48,7 +49,7 @@ public class TestWorkProgressService {
     void setup() {
         mocking = MockitoAnnotations.openMocks(this);
 
-        service = spy(new WorkProgressServiceImp(mockWorkRepo, mockWorkTypeRepo, mockProgramRepo, mockOpRepo,
+        service = spy(new WorkProgressServiceImp(mockWorkRepo, mockWorkQueryRepo, mockWorkTypeRepo, mockProgramRepo, mockOpRepo,
                 mockLwRepo, mockReleaseRepo, mockStainTypeRepo, mockRecipientRepo,
                 mockWorkEventService));
     }
@@ -59,210 +60,93 @@ public class TestWorkProgressService {
     }
 
     @ParameterizedTest
-    @MethodSource("getProgressWithWorkNumberArgs")
-    public void testGetProgressWithWorkNumber(String workNumber, Work work, String workTypeName, WorkType workType,
-                                             String programName, Program program,
-                                              String requesterName, ReleaseRecipient requester,
-                                             Status status, List<Work> works, String expectedError) {
-        if (work==null) {
-            when(mockWorkRepo.getByWorkNumber(workNumber)).thenThrow(new EntityNotFoundException("Unknown work number: "+workNumber));
-        } else {
-            when(mockWorkRepo.getByWorkNumber(workNumber)).thenReturn(work);
-        }
-        List<String> workTypeNames = (workTypeName==null ? null : workTypeName.isEmpty() ? List.of() : List.of(workTypeName));
-        List<String> programNames = (programName==null ? null : programName.isEmpty() ? List.of() : List.of(programName));
-        List<Status> statuses = (status==null ? null : List.of(status));
-        List<String> requesterNames = (requesterName==null ? null : requesterName.isEmpty() ? List.of() : List.of(requesterName));
-        mockWorkType(workTypeName, workType);
-        mockProgram(programName, program);
-        mockRequester(requesterName, requester);
-        if (expectedError!=null) {
-            assertThat(assertThrows(EntityNotFoundException.class,
-                    () -> service.getProgress(workNumber, workTypeNames, programNames, statuses, requesterNames)))
-                    .hasMessage(expectedError);
-            verify(service, never()).getProgressForWork(any(), any(), any(), any(), any(), any(), any());
-        } else {
-            List<WorkProgress> wps = service.getProgress(workNumber, workTypeNames, programNames, statuses, requesterNames);
-            verifyProgress(wps, works);
-        }
-    }
-
-    static Stream<Arguments> getProgressWithWorkNumberArgs() {
-        Work work = workWithId(6);
-        WorkType wt1 = new WorkType(2, "California");
-        String wtn = wt1.getName();
-        WorkType wt2 = new WorkType(3, "Colorado");
-        work.setWorkType(wt1);
-        work.setStatus(Status.active);
-        Program prog = new Program(10, "Hello", true);
-        String progname = prog.getName();
-        Program prog2 = new Program(11, "World", true);
-        String progname2 = prog2.getName();
-        ReleaseRecipient requester = new ReleaseRecipient(20, "jeff");
-        String reqName = requester.getUsername();
-        ReleaseRecipient requester2 = new ReleaseRecipient(21, "ford");
-        String reqName2 = requester2.getUsername();
-        String wn = "SGP1";
-        work.setWorkNumber(wn);
-        work.setProgram(prog);
-        work.setWorkRequester(requester);
-        List<Work> works = List.of(work);
-
-        return Arrays.stream(new Object[][] {
-                {wn, work, null, null, null, null, null, null, null, works, null},
-                {wn, work, null, null, null, null, null, null, Status.active, works, null},
-                {wn, work, "", null, null, null, null, null, Status.active, List.of(), null},
-                {wn, work, null, null, null, null, null, null, Status.paused, List.of(), null},
-                {wn, work, wtn, wt1, null, null, null, null, null, works, null},
-                {wn, work, wtn, wt1, null, null, null, null, Status.active, works, null},
-                {wn, work, wtn, wt1, null, null, null, null, Status.paused, List.of(), null},
-                {wn, work, "Colorado", wt2, null, null, null, null, null, List.of(), null},
-                {wn, work, "Colorado", wt2, null, null, null, null, Status.active, List.of(), null},
-                {wn, work, "Colorado", wt2, null, null, null, null, Status.paused, List.of(), null},
-                {wn, work, null, null, progname, prog, null, null, null, works, null},
-                {wn, work, null, null, "", null, null, null, null, List.of(), null},
-                {wn, work, null, null, progname2, prog2, null, null, null, List.of(), null},
-                {wn, work, null, null, null, null, reqName, requester, null, works, null},
-                {wn, work, null, null, null, null, reqName2, requester2, null, List.of(), null},
-
-                {"SGP404", null, null, null, null, null, null, null, null,  null, "Unknown work number: SGP404"},
-                {wn, work, "France", null, null, null, null, null, null, null, "Unknown work types: [France]"},
-                {wn, work, "France", null, null, null, null, null, Status.paused, null, "Unknown work types: [France]"},
-                {wn, work, null, null, "Bananas", null, null, null, null, null, "Unknown programs: [Bananas]"},
-                {wn, work, null, null, null, null, "Zarniwhoop", null, null, null, "Unknown recipients: [Zarniwhoop]"},
-        }).map(Arguments::of);
-    }
-
-    @ParameterizedTest
-    @MethodSource("getProgressWithWorkTypeNamesArgs")
-    public void testGetProgressWithWorkTypeNames(String workTypeName, WorkType workType,
-                                                 String programName, Program program,
-                                                 String requesterName, ReleaseRecipient requester,
-                                                 Status status,
-                                                 List<Work> works, List<Work> expectedWorks, String expectedError) {
+    @MethodSource("getProgressArgs")
+    public void testGetProgress(String workNumber, String workTypeName, WorkType workType,
+                                String programName, Program program,
+                                String requesterName, ReleaseRecipient requester,
+                                List<Status> statuses, List<Work> works) {
         mockWorkType(workTypeName, workType);
         mockProgram(programName, program);
         mockRequester(requesterName, requester);
-        List<String> workTypeNames = workTypeName==null ? null : workTypeName.isEmpty() ? List.of() : List.of(workTypeName);
-        List<String> programNames = programName==null ? null : programName.isEmpty() ? List.of() : List.of(programName);
-        List<String> requesterNames = requesterName==null ? null : requesterName.isEmpty() ? List.of() : List.of(requesterName);
-        List<Status> statuses = status==null ? null : List.of(status);
-        if (expectedError!=null) {
-            assertThat(assertThrows(EntityNotFoundException.class,
-                    () -> service.getProgress(null, workTypeNames, programNames, statuses, requesterNames)))
-                    .hasMessage(expectedError);
-        } else if (workType!=null) {
-            when(mockWorkRepo.findAllByWorkTypeIn(Set.of(workType))).thenReturn(works);
-            List<WorkProgress> wps = service.getProgress(null, workTypeNames, programNames, statuses, requesterNames);
-            verifyProgress(wps, expectedWorks);
-        } else {
-            List<WorkProgress> wps = service.getProgress(null, workTypeNames, programNames, statuses, requesterNames);
-            assertThat(wps).isEmpty();
-        }
+        List<String> workTypeNames = (workTypeName==null ? null : List.of(workTypeName));
+        List<String> programNames = (programName==null ? null : List.of(programName));
+        List<String> requesterNames = (requesterName==null ? null : List.of(requesterName));
+        Set<WorkType> workTypes = (workType==null ? null : Set.of(workType));
+        Set<Program> programs = (program==null ? null : Set.of(program));
+        Set<ReleaseRecipient> requesters = (requester==null ? null : Set.of(requester));
+        when(mockWorkQueryRepo.findAllMatching(any(), any(), any(), any(), any())).thenReturn(works);
+
+        List<WorkProgress> wps = service.getProgress(workNumber, workTypeNames, programNames, statuses, requesterNames);
+        verifyProgress(wps, works);
+        verify(mockWorkQueryRepo).findAllMatching(workNumber, workTypes, programs, statuses, requesters);
+        verify(mockWorkRepo, never()).findAll();
     }
 
-    static Stream<Arguments> getProgressWithWorkTypeNamesArgs() {
+    static Stream<Arguments> getProgressArgs() {
         WorkType wt = new WorkType(2, "California");
+        Program prog = new Program(10, "Hello", true);
+        ReleaseRecipient req = new ReleaseRecipient(20, "jeff");
         List<Work> works = List.of(workWithId(1), workWithId(2));
-        works.get(0).setStatus(Status.active);
-        works.get(1).setStatus(Status.paused);
-        Program prog1 = new Program(5, "Hello");
-        Program prog2 = new Program(6, "World");
-        works.get(0).setProgram(prog1);
-        works.get(1).setProgram(prog1);
-        ReleaseRecipient req1 = new ReleaseRecipient(11, "jeff");
-        ReleaseRecipient req2 = new ReleaseRecipient(12, "ford");
-        works.get(0).setWorkRequester(req1);
-        works.get(1).setWorkRequester(req1);
-
+        List<Status> statuses = List.of(Status.active, Status.unstarted);
         return Arrays.stream(new Object[][] {
-                {"California", wt, null, null, null, null, null, works, works, null},
-                {"", null, null, null, null, null, null, works, null, null},
-                {"California", wt, null, null, null, null, Status.active, works, List.of(works.get(0)), null},
-                {"France", null, null, null, null, null, null, null, null, "Unknown work types: [France]"},
-                {"California", wt, prog1.getName(), prog1, req1.getUsername(), req1, null, works, works, null},
-                {"California", wt, prog1.getName(), prog1, req2.getUsername(), req2, null, works, List.of(), null},
-                {"California", wt, prog2.getName(), prog2, null, null, null, works, List.of(), null},
+                {null, null, null, null, null, null, null, null, works},
+                {"SGP1", null, null, null, null, null, null, null, works.subList(0,1)},
+                {null, wt.getName(), wt, null, null, null, null, null, works},
+                {null, null, null, prog.getName(), prog, null, null, statuses, works},
+                {null, null, null, null, null, req.getUsername(), req, null, works},
+                {"SGP1", wt.getName(), wt, prog.getName(), prog, req.getUsername(), req, statuses, works.subList(0,1)},
+                {null, wt.getName(), wt, prog.getName(), prog, null, null, statuses, List.of()},
         }).map(Arguments::of);
     }
 
     @ParameterizedTest
-    @MethodSource("getProgressWithProgramsArgs")
-    public void testGetProgressWithPrograms(Object programArg, Status status, List<Work> works,
-                                            List<Work> expectedWorks, String expectedError) {
-        Program prog;
-        List<String> programNames;
-        if (programArg instanceof Program) {
-            prog = (Program) programArg;
-            programNames = List.of(prog.getName());
-            mockProgram(prog.getName(), prog);
-        } else {
-            prog = null;
-            String progName = (String) programArg;
-            programNames = List.of(progName);
-            mockProgram(progName, null);
-        }
-        List<Status> statuses = (status==null ? null : List.of(status));
-
-        if (expectedError!=null) {
-            assertThat(assertThrows(EntityNotFoundException.class,
-                    () -> service.getProgress(null, null, programNames, statuses, null)))
-                    .hasMessage(expectedError);
-        } else {
-            assert prog != null;
-            when(mockWorkRepo.findAllByProgramIn(Set.of(prog))).thenReturn(works);
-            List<WorkProgress> wps = service.getProgress(null, null, programNames, statuses, null);
-            verifyProgress(wps, expectedWorks);
-        }
-    }
-
-    static Stream<Arguments> getProgressWithProgramsArgs() {
-        Program prog = new Program(5, "Hello");
-        Work work1 = workWithId(11);
-        Work work2 = workWithId(12);
-        work1.setProgram(prog);
-        work2.setProgram(prog);
-        work1.setStatus(Status.active);
-        work2.setStatus(Status.paused);
-        List<Work> works = List.of(work1, work2);
-        return Arrays.stream(new Object[][] {
-                {prog, null, works, works, null},
-                {prog, Status.active, works, List.of(work1), null},
-                {"Foop", null, works, null, "Unknown programs: [Foop]"},
-        }).map(Arguments::of);
+    @CsvSource({
+            "France,,,Unknown work types: [France]",
+            ",Bananas,,Unknown programs: [Bananas]",
+            ",,Zarniwhoop,Unknown recipients: [Zarniwhoop]",
+    })
+    public void testGetProgress_unknownNames(String workTypeName, String programName, String requesterName,
+                                             String expectedError) {
+        mockWorkType(workTypeName, null);
+        mockProgram(programName, null);
+        mockRequester(requesterName, null);
+        List<String> workTypeNames = (workTypeName==null ? null : List.of(workTypeName));
+        List<String> programNames = (programName==null ? null : List.of(programName));
+        List<String> requesterNames = (requesterName==null ? null : List.of(requesterName));
+        assertThat(assertThrows(EntityNotFoundException.class,
+                () -> service.getProgress(null, workTypeNames, programNames, null, requesterNames)))
+                .hasMessage(expectedError);
+        verifyNoInteractions(mockWorkQueryRepo);
+        verify(service, never()).getProgressForWork(any(), any(), any(), any(), any(), any(), any());
     }
 
     @Test
-    public void testGetProgressWithStatuses() {
-        List<Work> works = List.of(workWithId(1), workWithId(2));
-        when(mockWorkRepo.findAllByStatusIn(List.of(Status.active, Status.unstarted))).thenReturn(works);
-        List<WorkProgress> wps = service.getProgress(null, null, null, List.of(Status.active, Status.unstarted), null);
-        verifyProgress(wps, works);
+    public void testGetProgress_unknownWorkNumber() {
+        when(mockWorkQueryRepo.findAllMatching(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(mockWorkRepo.getByWorkNumber("SGP404")).thenThrow(new EntityNotFoundException("Unknown work number: SGP404"));
+        assertThat(assertThrows(EntityNotFoundException.class,
+                () -> service.getProgress("SGP404", null, null, List.of(Status.active), null)))
+                .hasMessage("Unknown work number: SGP404");
     }
 
     @Test
-    public void testGetProgressWithEmptyListOfStatuses() {
-        List<WorkProgress> wps = service.getProgress(null, null, null, List.of(), null);
-        assertThat(wps).isEmpty();
-    }
-
-    @Test
-    public void testGetProgressWithRequesters() {
-        ReleaseRecipient req1 = new ReleaseRecipient(1, "jeff");
-        mockRequester(req1.getUsername(), req1);
-        List<Work> works = List.of(workWithId(1));
-        works.get(0).setWorkRequester(req1);
-        when(mockWorkRepo.findAllByWorkRequesterIn(Set.of(req1))).thenReturn(works);
-        List<WorkProgress> wps = service.getProgress(null, null, null, null, List.of(req1.getUsername()));
-        verifyProgress(wps, works);
+    public void testGetProgress_filteredWorkNumber() {
+        Work work = workWithId(6);
+        when(mockWorkQueryRepo.findAllMatching(any(), any(), any(), any(), any())).thenReturn(List.of());
+        when(mockWorkRepo.getByWorkNumber("SGP6")).thenReturn(work);
+        assertThat(service.getProgress("SGP6", null, null, List.of(Status.paused), null)).isEmpty();
+        verify(mockWorkRepo).getByWorkNumber("SGP6");
     }
 
-    @Test
-    public void testGetProgressWithNoFilter() {
-        List<Work> works = List.of(workWithId(1), workWithId(2));
-        when(mockWorkRepo.findAll()).thenReturn(works);
-        List<WorkProgress> wps = service.getProgress(null, null, null, null, null);
-        verifyProgress(wps, works);
+    @ParameterizedTest
+    @ValueSource(ints={0,1,2,3})
+    public void testGetProgress_emptyFilterList(int emptyIndex) {
+        List<String> workTypeNames = (emptyIndex==0 ? List.of() : null);
+        List<String> programNames = (emptyIndex==1 ? List.of() : null);
+        List<Status> statuses = (emptyIndex==2 ? List.of() : null);
+        List<String> requesterNames = (emptyIndex==3 ? List.of() : null);
+        assertThat(service.getProgress(null, workTypeNames, programNames, statuses, requesterNames)).isEmpty();
+        verifyNoInteractions(mockWorkQueryRepo);
     }
 
     private void mockWorkType(String workTypeName, WorkType workType) {
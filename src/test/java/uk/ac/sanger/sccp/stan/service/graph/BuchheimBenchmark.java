@@ -0,0 +1,63 @@
+package uk.ac.sanger.sccp.stan.service.graph;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures laying out a large random tree with {@link BuchheimAlgorithm}.
+ * The tree is rebuilt before each invocation, because the algorithm updates the nodes.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuchheimBenchmark {
+    @Param({"1000", "20000"})
+    int numNodes;
+
+    final BuchheimAlgorithm algorithm = new BuchheimAlgorithm();
+    BuchheimNode<Integer> root;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        root = makeTree(numNodes);
+    }
+
+    /**
+     * Makes a random tree where each node's parent is one of the nodes on the previous level
+     * @param numNodes the number of nodes in the tree
+     * @return the root of the tree
+     */
+    static BuchheimNode<Integer> makeTree(int numNodes) {
+        Random random = new Random(numNodes);
+        BuchheimNode<Integer> root = new BuchheimNode<>(0, 0);
+        List<BuchheimNode<Integer>> previousLevel = List.of(root);
+        List<BuchheimNode<Integer>> level = new ArrayList<>();
+        for (int i = 1; i < numNodes; ++i) {
+            BuchheimNode<Integer> parent = previousLevel.get(random.nextInt(previousLevel.size()));
+            BuchheimNode<Integer> node = new BuchheimNode<>(i, parent.getY()+1);
+            node.parent = parent;
+            parent.children.add(node);
+            level.add(node);
+            if (level.size() > 2 * previousLevel.size() + random.nextInt(4)) {
+                previousLevel = level;
+                level = new ArrayList<>();
+            }
+        }
+        return root;
+    }
+
+    @Benchmark
+    public double layout() {
+        algorithm.run(root);
+        return root.getX();
+    }
+}
@@ -0,0 +1,60 @@
+package uk.ac.sanger.sccp.stan.service.graph;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.sanger.sccp.stan.BenchmarkData;
+import uk.ac.sanger.sccp.stan.model.Sample;
+import uk.ac.sanger.sccp.stan.request.history.History;
+import uk.ac.sanger.sccp.stan.request.history.HistoryGraph.Link;
+import uk.ac.sanger.sccp.stan.service.graph.GraphServiceImp.NodeData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static uk.ac.sanger.sccp.utils.BasicUtils.inMap;
+
+/**
+ * Measures building the nodes and links of a history graph with {@link GraphServiceImp}.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphServiceBenchmark {
+    @Param({"10", "100"})
+    int numLineages;
+
+    @Param({"20"})
+    int depth;
+
+    GraphServiceImp graphService;
+    History history;
+    Map<Integer, Sample> sampleMap;
+    List<NodeData> nodeData;
+
+    @Setup
+    public void setup() {
+        graphService = new GraphServiceImp(null, null);
+        history = BenchmarkData.history(numLineages, depth);
+        sampleMap = history.getSamples().stream().collect(inMap(Sample::getId));
+        nodeData = graphService.compileNodeData(history, sampleMap);
+        nodeData.forEach(graphService::analyseActions);
+        for (int i = 0; i < nodeData.size(); ++i) {
+            nodeData.get(i).nodeId = i;
+        }
+    }
+
+    @Benchmark
+    public List<NodeData> compileNodeData() {
+        return graphService.compileNodeData(history, sampleMap);
+    }
+
+    @Benchmark
+    public List<Link> createLinks() {
+        return graphService.createLinks(nodeData);
+    }
+}
@@ -1,12 +1,11 @@
 package uk.ac.sanger.sccp.stan.service.graph;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import uk.ac.sanger.sccp.stan.request.GraphSVG;
 import uk.ac.sanger.sccp.stan.request.history.HistoryGraph;
 import uk.ac.sanger.sccp.stan.service.graph.render.*;
 
-import java.io.PrintStream;
-
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
@@ -33,6 +32,17 @@ class TestGraphRenderService {
         assertThat(service.makeCoordSpace()).isInstanceOf(CoordSpace.class);
     }
 
+    @Test
+    void makeStreamingSVGDraw() {
+        GraphRenderService service = new GraphRenderService();
+        StringBuilder sb = new StringBuilder();
+        try (StreamingSVGDraw draw = service.makeStreamingSVGDraw(sb, null)) {
+            assertEquals(16, draw.getFontHeight(Draw.FontStyle.PLAIN));
+            draw.start(0, 0, 10, 10);
+        }
+        assertThat(sb).startsWith("<svg ");
+    }
+
     @Test
     void toSVG() {
         final int fh = 18;
@@ -42,30 +52,30 @@ class TestGraphRenderService {
         GraphRenderService service = spy(GraphRenderService.class);
         CoordSpace coords = mock(CoordSpace.class);
         GraphRenderer renderer = mock(GraphRenderer.class);
-        SVGDraw draw = mock(SVGDraw.class);
+        StreamingSVGDraw draw = mock(StreamingSVGDraw.class);
         HistoryGraph graph = mock(HistoryGraph.class);
 
         //noinspection resource
-        doReturn(draw).when(service).makeSVGDraw(fh);
+        doAnswer(invocation -> {
+            StringBuilder sb = invocation.getArgument(0);
+            sb.append(svgData);
+            return draw;
+        }).when(service).makeStreamingSVGDraw(any(), eq(fh));
         doReturn(coords).when(service).makeCoordSpace();
         doReturn(renderer).when(service).makeRenderer(any(), any(), any());
         Bounds bounds = new Bounds(1,2,3,4);
         doReturn(bounds).when(renderer).getExportBounds(fh);
         doReturn(fh).when(draw).getFontHeight(Draw.FontStyle.PLAIN);
-        doAnswer(invocation -> {
-            PrintStream ps = invocation.getArgument(0);
-            ps.print(svgData);
-            return null;
-        }).when(draw).write(any(), anyInt(), anyInt(), anyInt(), anyInt());
 
         GraphSVG svg = service.toSVG(graph, zoom, fh);
         assertEquals(svgData, svg.getSvg());
 
         verify(service).makeRenderer(draw, coords, graph);
         verify(coords).setZoom(zoom);
-        verify(renderer).render();
-        verify(renderer).getExportBounds(fh);
-        verify(draw).write(any(), eq(bounds.x()), eq(bounds.y()), eq(bounds.width()), eq(bounds.height()));
-        verify(draw).close();
+        InOrder inOrder = inOrder(renderer, draw);
+        inOrder.verify(renderer).getExportBounds(fh);
+        inOrder.verify(draw).start(bounds.x(), bounds.y(), bounds.width(), bounds.height());
+        inOrder.verify(renderer).render();
+        inOrder.verify(draw).close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package uk.ac.sanger.sccp.stan.service.graph.render;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.sanger.sccp.stan.request.history.HistoryGraph;
+import uk.ac.sanger.sccp.stan.request.history.HistoryGraph.Link;
+import uk.ac.sanger.sccp.stan.request.history.HistoryGraph.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rendering a large history graph with {@link SVGDraw} and {@link StreamingSVGDraw}.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SVGDrawBenchmark {
+    @Param({"100", "2000"})
+    int numNodes;
+
+    HistoryGraph graph;
+
+    @Setup
+    public void setup() {
+        List<Node> nodes = new ArrayList<>(numNodes);
+        List<Link> links = new ArrayList<>(numNodes);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < numNodes; ++i) {
+            Node node = new Node(i, time.plusHours(i), "Section", "STAN-"+(1000+i), "user"+(i%10),
+                    "EXT"+(i/20), "Tissue");
+            // Lay out as a broad tree, each node linked to a node on the previous row
+            node.setX(i % 20);
+            node.setY(i / 20);
+            nodes.add(node);
+            if (i >= 20) {
+                links.add(new Link(i - 20 + (i % 3), i));
+            }
+        }
+        graph = new HistoryGraph(nodes, links);
+    }
+
+    @Benchmark
+    public String svgDraw() {
+        SVGDraw draw = new SVGDraw(16);
+        GraphRendererImp renderer = new GraphRendererImp(draw, new CoordSpace(), graph);
+        renderer.render();
+        Bounds bounds = renderer.getExportBounds(16);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(os);
+        draw.write(ps, bounds.x(), bounds.y(), bounds.width(), bounds.height());
+        ps.flush();
+        return os.toString();
+    }
+
+    @Benchmark
+    public String streamingSVGDraw() {
+        StringBuilder sb = new StringBuilder();
+        try (StreamingSVGDraw draw = new StreamingSVGDraw(sb, 16)) {
+            GraphRendererImp renderer = new GraphRendererImp(draw, new CoordSpace(), graph);
+            Bounds bounds = renderer.getExportBounds(16);
+            draw.start(bounds.x(), bounds.y(), bounds.width(), bounds.height());
+            renderer.render();
+        }
+        return sb.toString();
+    }
+}
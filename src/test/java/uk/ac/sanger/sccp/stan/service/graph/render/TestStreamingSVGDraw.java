@@ -0,0 +1,116 @@
+package uk.ac.sanger.sccp.stan.service.graph.render;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Test {@link StreamingSVGDraw} */
+class TestStreamingSVGDraw {
+    final int red = 0xffff0000;
+    final int blue = 0xff0000ff;
+    StringBuilder sb;
+    StreamingSVGDraw draw;
+
+    @BeforeEach
+    void setup() {
+        sb = new StringBuilder();
+        draw = new StreamingSVGDraw(sb, 16);
+        draw.start(-1000, -1000, 2000, 2000);
+    }
+
+    @Test
+    void testAddLine() {
+        draw.addLine(red, 10, 20, 30, 40);
+        draw.addLine(blue, new DrawStroke(2, 5,5), 20, 20, 40, 40);
+        draw.addLine(red, 1, 2, 3, 4);
+        assertSVG("<line x1=\"10\" y1=\"20\" x2=\"30\" y2=\"40\" class=\"s0\" />",
+                "<line x1=\"20\" y1=\"20\" x2=\"40\" y2=\"40\" class=\"s1\" />",
+                "<line x1=\"1\" y1=\"2\" x2=\"3\" y2=\"4\" class=\"s0\" />",
+                "<style>",
+                ".s0 { stroke: rgb(255,0,0); fill: none; }",
+                ".s1 { stroke: rgb(0,0,255); stroke-width: 2; stroke-dasharray: 5 5; fill: none; }",
+                "</style>");
+    }
+
+    @Test
+    void testAddRect() {
+        draw.addRect(red, blue, 10,20,30,40);
+        draw.addRect(0x40000000, 0, new DrawStroke(2, 5, 5), 60,70,80,90);
+        assertSVG("<rect x=\"10\" y=\"20\" width=\"30\" height=\"40\" class=\"s0\" />",
+                "<rect x=\"60\" y=\"70\" width=\"80\" height=\"90\" class=\"s1\" />",
+                ".s0 { stroke: rgb(0,0,255); fill: rgb(255,0,0); }",
+                ".s1 { stroke: none; fill: rgba(0,0,0,0.25); }");
+    }
+
+    @Test
+    void testAddCircle() {
+        draw.addCircle(blue, red, 100,200,50);
+        assertSVG("<circle cx=\"100\" cy=\"200\" r=\"50\" class=\"s0\" />",
+                ".s0 { stroke: rgb(255,0,0); fill: rgb(0,0,255); }");
+    }
+
+    @Test
+    void testAddString() {
+        draw.addString(blue, Draw.FontStyle.PLAIN, "Alpha", 50,100);
+        draw.addString(red, Draw.FontStyle.BOLD, "Beta & 2×3 <x>", 150, 200);
+        assertSVG("<text x=\"50\" y=\"100\" class=\"s0\">Alpha</text>",
+                "<text x=\"150\" y=\"200\" class=\"s1\">Beta &amp; 2&times;3 &lt;x&gt;</text>",
+                ".s0 { stroke: none; fill: rgb(0,0,255); font-size: 16px; }",
+                ".s1 { stroke: none; fill: rgb(255,0,0); font-size: 16px; font-weight: bold; }");
+    }
+
+    @Test
+    void testGetFontHeight() {
+        assertEquals(16, draw.getFontHeight(Draw.FontStyle.PLAIN));
+        assertEquals(16, draw.getFontHeight(Draw.FontStyle.BOLD));
+    }
+
+    @Test
+    void testWithClip() {
+        try (Draw sub = draw.withClip(100,200,300,400)) {
+            sub.addLine(blue, 10, 20, 30, 40);
+        }
+        draw.addLine(red, 5,6,7,8);
+        assertSVG("<clipPath id=\"clip0\">",
+                "<rect x=\"100\" y=\"200\" width=\"300\" height=\"400\" stroke=\"none\" fill=\"none\"/>",
+                "</clipPath>",
+                "<line x1=\"10\" y1=\"20\" x2=\"30\" y2=\"40\" class=\"s0\" clip-path=\"url(#clip0)\" />",
+                "<line x1=\"5\" y1=\"6\" x2=\"7\" y2=\"8\" class=\"s1\" />"
+        );
+    }
+
+    @Test
+    void testWrite() {
+        assertSVG("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"2004\" height=\"2004\" viewBox=\"-1002 -1002 2004 2004\" >",
+                "</svg>");
+        assertThat(sb.toString()).doesNotContain("<style>");
+    }
+
+    @Test
+    void testOutputStream() {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (StreamingSVGDraw osDraw = new StreamingSVGDraw(os, 12)) {
+            osDraw.start(0, 0, 10, 10);
+            osDraw.addString(red, Draw.FontStyle.PLAIN, "Ålpha", 1, 2);
+        }
+        assertThat(os.toString(StandardCharsets.UTF_8)).contains(">Ålpha</text>").endsWith("</svg>\n");
+    }
+
+    @Test
+    void testNotStarted() {
+        StreamingSVGDraw unstarted = new StreamingSVGDraw(new StringBuilder(), 16);
+        assertThrows(IllegalStateException.class, () -> unstarted.addLine(red, 1, 2, 3, 4));
+        assertThrows(IllegalStateException.class, () -> draw.start(0, 0, 1, 1));
+    }
+
+    void assertSVG(String... parts) {
+        draw.close();
+        assertThat(sb.toString()).containsSubsequence(parts);
+    }
+}
@@ -41,6 +41,8 @@ public class TestHistoryService {
     @Mock
     private OperationRepo mockOpRepo;
     @Mock
+    private ActionRepo mockActionRepo;
+    @Mock
     private OperationTypeRepo mockOpTypeRepo;
     @Mock
     private LabwareRepo mockLwRepo;
@@ -97,7 +99,7 @@ public class TestHistoryService {
     public void setup() {
         mocking = MockitoAnnotations.openMocks(this);
 
-        service = spy(new HistoryServiceImp(mockOpRepo, mockOpTypeRepo, mockLwRepo, mockSampleRepo, mockTissueRepo, mockDonorRepo,
+        service = spy(new HistoryServiceImp(mockOpRepo, mockActionRepo, mockOpTypeRepo, mockLwRepo, mockSampleRepo, mockTissueRepo, mockDonorRepo,
                 mockReleaseRepo, mockDestructionRepo, mockOpCommentRepo, mockRoiRepo, mockSnapshotRepo, mockWorkRepo,
                 mockMeasurementRepo, mockLwNoteRepo, mockResultOpRepo, mockStainTypeRepo, mockLwProbeRepo,
                 mockFlagRepo, mockOpSolRepo, mockSolutionRepo,
@@ -209,7 +211,7 @@ public class TestHistoryService {
         List<Labware> lws = List.of(lw1, lw2);
         Set<Integer> labwareIds = Set.of(lw1.getId(), lw2.getId());
         doReturn(labwareIds).when(service).labwareIdsFromOps(ops);
-        when(mockLwRepo.findAllByIdIn(labwareIds)).thenReturn(lws);
+        when(mockLwRepo.findAllWithContentsByIdIn(labwareIds)).thenReturn(lws);
         // use a mutable list for this because it will be sorted
         List<HistoryEntry> entries = new ArrayList<>(2);
         entries.add(new HistoryEntry(200, "Release", makeTime(1), lw1.getId(), lw2.getId(),
@@ -268,7 +270,7 @@ public class TestHistoryService {
         }
 
         List<Labware> opLw = (includeOps ? List.of(new Labware(2, "STAN-2", lt, null)) : List.of());
-        doReturn(opLw).when(mockLwRepo).findAllByIdIn(opLwIds);
+        doReturn(opLw).when(mockLwRepo).findAllWithContentsByIdIn(opLwIds);
 
         work.setReleaseIds(includeReleases ? Set.of(5,6,7) : Set.of());
         List<Release> releases;
@@ -377,19 +379,86 @@ public class TestHistoryService {
         List<String> externalNames = (externalName==null ? null : List.of(externalName));
         List<String> donorNames = (donorName==null ? null : List.of(donorName));
         if (mode.equalsIgnoreCase("by work number")) {
-            doReturn(history).when(service).getHistoryForWorkNumber(workNumber, etFilter);
+            doReturn(history).when(service).getHistoryForWorkNumber(workNumber, etFilter, null);
         } else if (mode.equalsIgnoreCase("by event type")) {
-            doReturn(history).when(service).getHistoryForEventType(eventType);
+            doReturn(history).when(service).getHistoryForEventType(eventType, null);
         } else {
             if (mode.equalsIgnoreCase("by barcode")) {
                 doReturn(samples).when(service).samplesForBarcode(barcode, externalNames, donorNames);
             } else {
                 doReturn(samples).when(service).samplesForTissues(externalNames, donorNames);
             }
-            doReturn(history).when(service).getHistoryForSamples(samples, workNumber, etFilter);
+            doReturn(history).when(service).getHistoryForSamples(samples, workNumber, etFilter, null);
         }
 
         assertSame(history, service.getHistory(workNumber, barcode, externalNames, donorNames, eventType));
+        assertEquals(HistoryCursor.START.encode(), history.getCursor());
+    }
+
+    @Test
+    public void testGetHistory_after() {
+        HistoryCursor cursor = new HistoryCursor(new HistoryCursor.Mark(10, Set.of(12)), new HistoryCursor.Mark(20, Set.of()),
+                new HistoryCursor.Mark(30, Set.of()));
+        List<Sample> samples = List.of(EntityFactory.getSample());
+        doReturn(samples).when(service).samplesForTissues(List.of("EXT1"), null);
+        EventTypeFilter etFilter = mock(EventTypeFilter.class);
+        doReturn(etFilter).when(service).eventTypeFilter(null);
+        Operation op = new Operation();
+        HistoryEntry opEntry = new HistoryEntry(15, "Stain", null, 1, 2, null, null, null);
+        opEntry.setOperation(op);
+        HistoryEntry seenOpEntry = new HistoryEntry(12, "Stain", null, 1, 2, null, null, null);
+        seenOpEntry.setOperation(op);
+        List<HistoryEntry> entries = List.of(opEntry, seenOpEntry,
+                new HistoryEntry(25, "Release", null, 1, 1, null, null, null),
+                new HistoryEntry(28, "Release", null, 1, 1, null, null, null),
+                new HistoryEntry(5, "Destruction", null, 1, 1, null, null, null));
+        History history = new History(entries, samples, List.of());
+        doReturn(history).when(service).getHistoryForSamples(samples, null, etFilter, cursor);
+
+        assertSame(history, service.getHistory(null, null, List.of("EXT1"), null, null, cursor.encode()));
+        // Entries already seen are removed
+        assertThat(history.getEntries()).containsExactly(entries.get(0), entries.get(2), entries.get(3));
+        assertEquals(new HistoryCursor(new HistoryCursor.Mark(10, Set.of(12, 15)), new HistoryCursor.Mark(20, Set.of(25, 28)),
+                new HistoryCursor.Mark(30, Set.of())), HistoryCursor.decode(history.getCursor()));
+    }
+
+    @Test
+    public void testHistoryCursor_advance() {
+        HistoryCursor.Mark mark = HistoryCursor.Mark.START.advance(List.of(5, 3));
+        assertEquals(new HistoryCursor.Mark(0, Set.of(3, 5)), mark);
+        assertSame(mark, mark.advance(List.of()));
+        // An id committed late, below the highest id seen, is still new
+        assertTrue(mark.isNew(4));
+        assertFalse(mark.isNew(5));
+        mark = mark.advance(List.of(4, HistoryCursor.MARGIN + 10));
+        assertEquals(new HistoryCursor.Mark(10, Set.of(HistoryCursor.MARGIN + 10)), mark);
+        assertFalse(mark.isNew(10));
+        assertTrue(mark.isNew(11));
+        // The floor does not go backwards
+        assertEquals(10, mark.advance(List.of(11)).floor());
+    }
+
+    @Test
+    public void testGetHistory_invalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getHistory("SGP1", null, null, null, null, "bananas"));
+        verifyNoInteractions(mockWorkRepo);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"1.2.3", "0.0.0", "400.0.12"})
+    public void testHistoryCursor_encodeDecode(String key) {
+        String[] parts = key.split("\\.");
+        HistoryCursor cursor = new HistoryCursor(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
+        assertNull(HistoryCursor.decode(null));
+    }
+
+    @Test
+    public void testHistoryCursor_encodeDecodeSeen() {
+        HistoryCursor cursor = new HistoryCursor(new HistoryCursor.Mark(10, Set.of(12, 15)), HistoryCursor.Mark.START,
+                new HistoryCursor.Mark(3, Set.of(4)));
+        assertEquals(cursor, HistoryCursor.decode(cursor.encode()));
     }
 
     @ParameterizedTest
@@ -398,16 +467,16 @@ public class TestHistoryService {
         History history = new History(null, List.of(EntityFactory.getSample()), null);
         boolean expectException = false;
         if (eventTypeName.equalsIgnoreCase("release")) {
-            doReturn(history).when(service).getHistoryOfReleases();
+            doReturn(history).when(service).getHistoryOfReleases(null);
         } else if (eventTypeName.equalsIgnoreCase("destruction")) {
-            doReturn(history).when(service).getHistoryOfDestructions();
+            doReturn(history).when(service).getHistoryOfDestructions(null);
         } else if (eventTypeName.equalsIgnoreCase("unicorn")) {
             doThrow(EntityNotFoundException.class).when(mockOpTypeRepo).getByName(eventTypeName);
             expectException = true;
         } else {
             OperationType opType = EntityFactory.makeOperationType("Baking", null);
             doReturn(opType).when(mockOpTypeRepo).getByName(eventTypeName);
-            doReturn(history).when(service).getHistoryForOpType(opType);
+            doReturn(history).when(service).getHistoryForOpType(opType, null);
         }
 
         List<String> flagBcs = List.of("alpha", "beta");
@@ -451,6 +520,21 @@ public class TestHistoryService {
         assertEquals(new History(entries, samples, labware), service.getHistoryOfReleases());
     }
 
+    @Test
+    public void testGetHistoryOfReleases_after() {
+        Labware lw = EntityFactory.getTube();
+        Release rel = new Release();
+        rel.setLabware(lw);
+        when(mockReleaseRepo.findAllByIdGreaterThan(20)).thenReturn(List.of(rel));
+        List<HistoryEntry> entries = new ArrayList<>(List.of(entryAtTime(1)));
+        doReturn(entries).when(service).createEntriesForReleases(List.of(rel), null, null, null);
+        List<Sample> samples = List.of(EntityFactory.getSample());
+        doReturn(samples).when(service).referencedSamples(entries, List.of(lw));
+        assertEquals(new History(entries, samples, List.of(lw)),
+                service.getHistoryOfReleases(new HistoryCursor(10, 20, 30)));
+        verify(mockReleaseRepo, never()).findAll();
+    }
+
     @Test
     public void testGetHistoryOfReleases_none() {
         when(mockReleaseRepo.findAll()).thenReturn(List.of());
@@ -485,7 +569,7 @@ public class TestHistoryService {
         Set<Integer> lwIds = Set.of(4,5);
         doReturn(lwIds).when(service).labwareIdsFromOps(ops);
         List<Labware> labware = List.of(EntityFactory.getTube());
-        when(mockLwRepo.findAllByIdIn(lwIds)).thenReturn(labware);
+        when(mockLwRepo.findAllWithContentsByIdIn(lwIds)).thenReturn(labware);
         List<HistoryEntry> entries = new ArrayList<>(Arrays.asList(entryAtTime(1), entryAtTime(2)));
         doReturn(entries).when(service).createEntriesForOps(ops, null, labware, null, null);
         List<Sample> samples = List.of(EntityFactory.getSample());
@@ -494,6 +578,21 @@ public class TestHistoryService {
         assertEquals(new History(entries, samples, labware), service.getHistoryForOpType(opType));
     }
 
+    @Test
+    public void testGetHistoryForOpType_after() {
+        OperationType opType = EntityFactory.makeOperationType("Baking", null);
+        when(mockOpRepo.findAllByOperationTypeAndIdGreaterThan(opType, 10)).thenReturn(List.of());
+        assertEquals(new History(), service.getHistoryForOpType(opType, new HistoryCursor(10, 20, 30)));
+        verify(mockOpRepo, never()).findAllByOperationType(any());
+    }
+
+    @Test
+    public void testGetHistoryOfDestructions_after() {
+        when(mockDestructionRepo.findAllByIdGreaterThan(30)).thenReturn(List.of());
+        assertEquals(new History(), service.getHistoryOfDestructions(new HistoryCursor(10, 20, 30)));
+        verify(mockDestructionRepo, never()).findAll();
+    }
+
     @Test
     public void testGetHistoryForOpType_none() {
         OperationType opType = EntityFactory.makeOperationType("Baking", null);
@@ -765,7 +864,7 @@ public class TestHistoryService {
         when(mockOpRepo.findAllBySampleIdIn(sampleIds)).thenReturn(ops);
         when(mockDestructionRepo.findAllByLabwareIdIn(labwareIds)).thenReturn(destructions);
         when(mockReleaseRepo.findAllByLabwareIdIn(labwareIds)).thenReturn(releases);
-        when(mockLwRepo.findAllByIdIn(labwareIds)).thenReturn(labware);
+        when(mockLwRepo.findAllWithContentsByIdIn(labwareIds)).thenReturn(labware);
         final List<String> flagBcs = List.of("Alpha", "Beta");
         final List<String> noteBcs = List.of("Gamma");
         Map<LabwareFlag.Priority, List<String>> flaggedBarcodes = Map.of(
@@ -821,7 +920,7 @@ public class TestHistoryService {
         }
         LabwareType lt = EntityFactory.getTubeType();
         List<Labware> labware = List.of(EntityFactory.getTube(), EntityFactory.makeEmptyLabware(lt));
-        when(mockLwRepo.findAllByIdIn(labwareIds)).thenReturn(labware);
+        when(mockLwRepo.findAllWithContentsByIdIn(labwareIds)).thenReturn(labware);
         Set<Integer> opIds = ops.stream().map(Operation::getId).collect(toSet());
         Map<Integer, Set<String>> opWork = Map.of(20, Set.of("SGP12"));
         when(mockWorkRepo.findWorkNumbersForOpIds(opIds)).thenReturn(opWork);
@@ -856,6 +955,72 @@ public class TestHistoryService {
                         new EventTypeFilter(includeReleases, includeDestructions, includeOps, requiredOpType)));
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            ",false",
+            "Baking,false",
+            ",true",
+    })
+    public void testGetHistoryForSamples_after(String requiredOpName, boolean noActions) {
+        HistoryCursor cursor = new HistoryCursor(10, 20, 30);
+        OperationType requiredOpType = (requiredOpName==null ? null : EntityFactory.makeOperationType(requiredOpName, null));
+        Sample s1 = EntityFactory.getSample();
+        List<Sample> samples = List.of(s1, new Sample(s1.getId()+1, null, s1.getTissue(), s1.getBioState()));
+        Set<Integer> sampleIds = Set.of(s1.getId(), samples.get(1).getId());
+        List<Operation> ops = noActions ? List.of() : List.of(new Operation(21, null, null, null, null));
+        if (requiredOpType==null) {
+            when(mockOpRepo.findAllBySampleIdInAndIdGreaterThan(sampleIds, 10)).thenReturn(ops);
+        } else {
+            when(mockOpRepo.findAllByOperationTypeAndSampleIdInAndIdGreaterThan(requiredOpType, sampleIds, 10)).thenReturn(ops);
+        }
+        // Labware 6 held the samples in an older operation, but has since been emptied
+        Set<Integer> actionLabwareIds = noActions ? Set.of() : Set.of(4, 5, 6);
+        if (requiredOpType==null) {
+            when(mockActionRepo.findLabwareIdsForSampleIds(sampleIds)).thenReturn(actionLabwareIds);
+        } else {
+            when(mockActionRepo.findLabwareIdsForOperationTypeAndSampleIds(requiredOpType.getId(), sampleIds)).thenReturn(actionLabwareIds);
+        }
+        Set<Integer> labwareIds = noActions ? Set.of(4) : actionLabwareIds;
+        if (noActions) {
+            when(mockLwRepo.findAllLabwareIdsContainingSampleIds(sampleIds)).thenReturn(labwareIds);
+        }
+        List<Labware> labware = List.of(EntityFactory.getTube());
+        when(mockLwRepo.findAllWithContentsByIdIn(labwareIds)).thenReturn(labware);
+        Release release = new Release();
+        release.setId(31);
+        List<Release> releases = List.of(release);
+        when(mockReleaseRepo.findAllByLabwareIdInAndIdGreaterThan(labwareIds, 20)).thenReturn(releases);
+        Destruction destruction = new Destruction();
+        destruction.setId(41);
+        List<Destruction> destructions = List.of(destruction);
+        when(mockDestructionRepo.findAllByLabwareIdInAndIdGreaterThan(labwareIds, 30)).thenReturn(destructions);
+        Set<Integer> opIds = ops.stream().map(Operation::getId).collect(toSet());
+        when(mockWorkRepo.findWorkNumbersForOpIds(opIds)).thenReturn(Map.of());
+        when(mockWorkRepo.findWorkNumbersForReleaseIds(List.of(31))).thenReturn(Map.of());
+
+        List<HistoryEntry> opEntries = ops.isEmpty() ? List.of() : List.of(entryAtTime(1));
+        List<HistoryEntry> relEntries = List.of(entryAtTime(2));
+        List<HistoryEntry> desEntries = List.of(entryAtTime(3));
+        doReturn(opEntries).when(service).createEntriesForOps(ops, sampleIds, labware, Map.of(), null);
+        doReturn(relEntries).when(service).createEntriesForReleases(releases, sampleIds, Map.of(), null);
+        doReturn(desEntries).when(service).createEntriesForDestructions(destructions, sampleIds);
+        doReturn(Map.of()).when(service).loadFlaggedBarcodes(labware);
+
+        List<HistoryEntry> expectedEntries = Stream.of(opEntries, relEntries, desEntries)
+                .flatMap(Collection::stream)
+                .collect(toList());
+        EventTypeFilter etFilter = (requiredOpType==null ? EventTypeFilter.NO_FILTER
+                : new EventTypeFilter(true, true, true, requiredOpType));
+        assertEquals(new History(expectedEntries, samples, labware),
+                service.getHistoryForSamples(samples, null, etFilter, cursor));
+        verify(service, never()).loadLabwareIdsForOpsAndSampleIds(any(), any());
+        if (!noActions) {
+            verify(mockLwRepo, never()).findAllLabwareIdsContainingSampleIds(any());
+        }
+        verify(mockReleaseRepo, never()).findAllByLabwareIdIn(any());
+        verify(mockDestructionRepo, never()).findAllByLabwareIdIn(any());
+    }
+
     private static Stream<Slot> streamSlots(Labware lw, Address... addresses) {
         return Arrays.stream(addresses).map(lw::getSlot);
     }
@@ -0,0 +1,220 @@
+package uk.ac.sanger.sccp.stan.service.job;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.sanger.sccp.stan.EntityFactory;
+import uk.ac.sanger.sccp.stan.Transactor;
+import uk.ac.sanger.sccp.stan.config.JobConfig;
+import uk.ac.sanger.sccp.stan.config.StanFileConfig;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.request.WorkProgress;
+import uk.ac.sanger.sccp.stan.request.history.History;
+import uk.ac.sanger.sccp.stan.request.history.HistoryEntry;
+import uk.ac.sanger.sccp.stan.service.WorkProgressService;
+import uk.ac.sanger.sccp.stan.service.history.HistoryService;
+import uk.ac.sanger.sccp.stan.service.releasefile.*;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link JobServiceImp}
+ * @author dr6
+ */
+public class TestJobService {
+    @TempDir
+    Path tempDir;
+
+    private JobConfig mockJobConfig;
+    private HistoryService mockHistoryService;
+    private WorkProgressService mockWorkProgressService;
+    private ReleaseFileService mockReleaseFileService;
+    private Map<Job.Type, Executor> executors;
+    private MutableClock clock;
+
+    private JobServiceImp service;
+
+    @BeforeEach
+    void setup() {
+        mockJobConfig = mock(JobConfig.class);
+        when(mockJobConfig.getResultTtlMinutes()).thenReturn(60);
+        StanFileConfig mockFileConfig = mock(StanFileConfig.class);
+        when(mockFileConfig.getRoot()).thenReturn(tempDir.toString());
+        when(mockFileConfig.getDir()).thenReturn("test");
+        Transactor mockTransactor = mock(Transactor.class);
+        when(mockTransactor.transact(any(), any())).then(invocation -> {
+            Supplier<?> supplier = invocation.getArgument(1);
+            return supplier.get();
+        });
+        mockHistoryService = mock(HistoryService.class);
+        mockWorkProgressService = mock(WorkProgressService.class);
+        mockReleaseFileService = mock(ReleaseFileService.class);
+        clock = new MutableClock(Instant.parse("2026-01-05T12:00:00Z"));
+        executors = new EnumMap<>(Job.Type.class);
+        for (Job.Type type : Job.Type.values()) {
+            executors.put(type, Runnable::run);
+        }
+
+        service = spy(new JobServiceImp(mockJobConfig, mockFileConfig, clock, mockTransactor,
+                mockHistoryService, mockWorkProgressService, mockReleaseFileService, executors));
+    }
+
+    /** A clock whose time can be moved forward */
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+
+    @Test
+    public void testSubmitHistory() throws IOException {
+        User user = EntityFactory.getUser();
+        Sample sample = EntityFactory.getSample();
+        Labware lw = EntityFactory.makeLabware(EntityFactory.getTubeType(), sample);
+        LocalDateTime time = LocalDateTime.of(2026, 1, 2, 3, 4);
+        History history = new History(List.of(
+                new HistoryEntry(10, "Register", time, lw.getId(), lw.getId(), sample.getId(), "dr6", "SGP1",
+                        List.of("Alpha", "Beta"))
+        ), List.of(sample), List.of(lw));
+        when(mockHistoryService.getHistory(any(), any(), any(), any(), any())).thenReturn(history);
+
+        Job job = service.submitHistory(user, "SGP1", null, null, null, "Release");
+        verify(mockHistoryService).getHistory("SGP1", null, null, null, "Release");
+        assertEquals(Job.Type.history, job.getType());
+        assertEquals(Job.Status.completed, job.getStatus());
+        assertEquals(user.getUsername(), job.getUsername());
+        assertEquals("jobs/"+job.getId()+"/result", job.getResultUrl());
+        assertSame(job, service.getJob(job.getId()));
+
+        List<String> lines = Files.readAllLines(job.getResultPath());
+        assertThat(lines).hasSize(2);
+        assertEquals("Event id\tType\tTime\tSource barcode\tDestination barcode\tExternal name\tDonor name\tSection" +
+                "\tAddress\tRegion\tUsername\tWork number\tDetails", lines.get(0));
+        Tissue tissue = sample.getTissue();
+        assertEquals(String.join("\t", "10", "Register", time.toString(), lw.getBarcode(), lw.getBarcode(),
+                tissue.getExternalName(), tissue.getDonor().getDonorName(), String.valueOf(sample.getSection()),
+                "", "", "dr6", "SGP1", "Alpha; Beta"), lines.get(1));
+        assertNotNull(service.loadResult(job));
+    }
+
+    @Test
+    public void testSubmitWorkProgress() throws IOException {
+        Work work = EntityFactory.makeWork("SGP5");
+        WorkProgress wp = new WorkProgress(work);
+        wp.addTime("Stain", LocalDateTime.of(2026, 1, 1, 10, 0));
+        wp.setMostRecentOperation("Stain");
+        when(mockWorkProgressService.getProgress(any(), any(), any(), any(), any())).thenReturn(List.of(wp));
+
+        Job job = service.submitWorkProgress(null, null, List.of("Drywalling"), null, List.of(Work.Status.active), null);
+        verify(mockWorkProgressService).getProgress(null, List.of("Drywalling"), null, List.of(Work.Status.active), null);
+        assertEquals(Job.Status.completed, job.getStatus());
+        List<String> lines = Files.readAllLines(job.getResultPath());
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("Work number\tWork type\tStatus").endsWith("\tStain");
+        assertThat(lines.get(1)).startsWith("SGP5\t").endsWith("\t2026-01-01T10:00");
+    }
+
+    @Test
+    public void testSubmitReleaseFile() throws IOException {
+        Sample sample = EntityFactory.getSample();
+        Labware lw = EntityFactory.makeLabware(EntityFactory.getTubeType(), sample);
+        ReleaseFileContent rfc = new ReleaseFileContent(EnumSet.of(ReleaseFileMode.NORMAL),
+                List.of(new ReleaseEntry(lw, lw.getFirstSlot(), sample)), Set.of());
+        when(mockReleaseFileService.getReleaseFileContent(any(), any())).thenReturn(rfc);
+        doReturn(List.of(ReleaseColumn.Released_labware_barcode)).when(mockReleaseFileService).computeColumns(rfc);
+
+        assertThrows(IllegalArgumentException.class, () -> service.submitReleaseFile(null, List.of(), Set.of()));
+        Job job = service.submitReleaseFile(null, List.of(1, 2), Set.of());
+        assertEquals(Job.Status.completed, job.getStatus());
+        assertEquals("releases.tsv", job.getFilename());
+        assertThat(Files.readAllLines(job.getResultPath())).containsExactly("Released labware barcode", lw.getBarcode());
+    }
+
+    @Test
+    public void testFailedJob() {
+        when(mockHistoryService.getHistory(any(), any(), any(), any(), any()))
+                .thenThrow(new EntityNotFoundException("Unknown work number."));
+        Job job = service.submitHistory(null, "SGP404", null, null, null, null);
+        assertEquals(Job.Status.failed, job.getStatus());
+        assertEquals("Unknown work number.", job.getError());
+        assertNull(job.getResultUrl());
+        assertFalse(Files.exists(service.resultPath(job)));
+        assertThrows(IllegalStateException.class, () -> service.loadResult(job));
+    }
+
+    @Test
+    public void testQueuedJob() {
+        List<Runnable> queue = new ArrayList<>();
+        executors.put(Job.Type.history, queue::add);
+        Job job = service.submitHistory(null, "SGP1", null, null, null, null);
+        assertEquals(Job.Status.queued, job.getStatus());
+        assertNull(job.getResultUrl());
+        assertThrows(IllegalStateException.class, () -> service.loadResult(job));
+        assertThat(queue).hasSize(1);
+        verifyNoInteractions(mockHistoryService);
+    }
+
+    @Test
+    public void testRejectedJob() {
+        executors.put(Job.Type.workProgress, r -> { throw new RejectedExecutionException(); });
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> service.submitWorkProgress(null, null, null, null, null, null));
+        assertEquals("Too many workProgress jobs are waiting. Try again later.", ex.getMessage());
+        assertThrows(EntityNotFoundException.class, () -> service.getJob(1));
+    }
+
+    @Test
+    public void testExpiredJob() {
+        when(mockHistoryService.getHistory(any(), any(), any(), any(), any())).thenReturn(new History());
+        Job job = service.submitHistory(null, "SGP1", null, null, null, null);
+        Path path = job.getResultPath();
+        assertTrue(Files.exists(path));
+        clock.advance(Duration.ofMinutes(59));
+        assertSame(job, service.getJob(job.getId()));
+        clock.advance(Duration.ofMinutes(2));
+        assertThrows(EntityNotFoundException.class, () -> service.getJob(job.getId()));
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    public void testCreateExecutors() {
+        when(mockJobConfig.getConcurrency(any())).thenReturn(1);
+        when(mockJobConfig.getMaxQueued()).thenReturn(1);
+        Map<Job.Type, Executor> created = JobServiceImp.createExecutors(mockJobConfig);
+        assertThat(created.keySet()).containsExactlyInAnyOrder(Job.Type.values());
+    }
+}
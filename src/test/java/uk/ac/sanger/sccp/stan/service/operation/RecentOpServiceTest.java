@@ -2,20 +2,24 @@ package uk.ac.sanger.sccp.stan.service.operation;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.*;
 import uk.ac.sanger.sccp.stan.EntityFactory;
 import uk.ac.sanger.sccp.stan.model.*;
 import uk.ac.sanger.sccp.stan.repo.*;
+import uk.ac.sanger.sccp.utils.UCMap;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertSame;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 /**
  * Tests {@link RecentOpServiceImp}
@@ -63,4 +67,39 @@ public class RecentOpServiceTest {
         Operation op = service.findLatestOp(lw.getBarcode(), opType.getName());
         assertSame(numOpsFound==0 ? null : ops.get(numOpsFound-1), op);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindLatestOps() {
+        Sample sample = EntityFactory.getSample();
+        LabwareType lt = EntityFactory.getTubeType();
+        Labware lw1 = EntityFactory.makeLabware(lt, sample);
+        Labware lw2 = EntityFactory.makeLabware(lt, sample);
+        Labware lw3 = EntityFactory.makeLabware(lt, sample);
+        OperationType opType = EntityFactory.makeOperationType("Fry", null);
+        when(mockLwRepo.getMapByBarcodeIn(any())).thenReturn(UCMap.from(Labware::getBarcode, lw1, lw2, lw3));
+        when(mockOpTypeRepo.getByName(opType.getName())).thenReturn(opType);
+        Slot slot1 = lw1.getFirstSlot(), slot2 = lw2.getFirstSlot();
+        Operation[] ops = IntStream.rangeClosed(1, 3)
+                .mapToObj(i -> new Operation(i, opType, LocalDateTime.of(2023,8,14,12,i), null, null))
+                .toArray(Operation[]::new);
+        ops[0].setActions(List.of(new Action(10, 1, slot1, slot1, sample, sample), new Action(11, 1, slot2, slot2, sample, sample)));
+        ops[1].setActions(List.of(new Action(12, 2, slot1, slot1, sample, sample)));
+        ops[2].setActions(List.of(new Action(13, 3, slot2, slot2, sample, sample)));
+        // latest op for lw1 is ops[1]; latest op for lw2 is ops[2]; lw3 has none
+        when(mockOpRepo.findAllByOperationTypeAndDestinationLabwareIdIn(any(), any())).thenReturn(List.of(ops[2], ops[1], ops[0]));
+
+        List<String> barcodes = List.of(lw3.getBarcode(), lw2.getBarcode(), lw1.getBarcode(), lw2.getBarcode().toLowerCase());
+        assertThat(service.findLatestOps(barcodes, opType.getName()))
+                .containsExactly(null, ops[2], ops[1], ops[2]);
+
+        verify(mockLwRepo).getMapByBarcodeIn(List.of(lw3.getBarcode(), lw2.getBarcode(), lw1.getBarcode()));
+        verify(mockOpRepo).findAllByOperationTypeAndDestinationLabwareIdIn(opType, Set.of(lw1.getId(), lw2.getId(), lw3.getId()));
+    }
+
+    @Test
+    public void testFindLatestOps_none() {
+        assertThat(service.findLatestOps(List.of(), "Fry")).isEmpty();
+        verifyNoInteractions(mockLwRepo);
+        verifyNoInteractions(mockOpRepo);
+    }
+}
@@ -116,6 +116,68 @@ class TestBlockRegisterFileReader extends BaseTestFileReader {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(booleans={false,true})
+    void testReadRows(boolean error) {
+        mockSheet();
+        mockHeadingRow();
+        mockRows(0, DATA_ROW+3);
+        Map<Column, Integer> columnIndex = columnMapOf(Column.Donor_identifier, 3);
+        doReturn(columnIndex).when(reader).indexColumns(any(), any());
+        final String problem = error ? "Problem with data" : null;
+        List<Map<Column, Object>> rowMaps = IntStream.range(0, 3)
+                .<Map<Column, Object>>mapToObj(i -> columnMapOf(Column.Donor_identifier, "Donor"+i))
+                .collect(toList());
+        for (int i = 0; i < rowMaps.size(); ++i) {
+            String rowProblem = (i==1 ? problem : null);
+            Matchers.mayAddProblem(rowProblem, rowMaps.get(i)).when(reader).readRow(any(), any(), same(rows.get(DATA_ROW+i)));
+        }
+        RegisterRequest request = new RegisterRequest();
+        if (!error) {
+            doReturn(request).when(reader).createRequest(any(), any());
+        }
+
+        if (error) {
+            assertValidationError(() -> reader.readRows(rows), problem);
+        } else {
+            assertSame(request, reader.readRows(rows));
+        }
+        verify(reader).indexColumns(any(), same(headingRow));
+        verify(reader, times(3)).readRow(any(), any(), any());
+        for (int i = 0; i < 3; ++i) {
+            verify(reader).readRow(any(), same(columnIndex), same(rows.get(DATA_ROW+i)));
+        }
+        if (error) {
+            verify(reader, never()).createRequest(any(), any());
+        } else {
+            verify(reader).createRequest(any(), eq(rowMaps));
+        }
+        verify(sheet, never()).getRow(anyInt());
+    }
+
+    @Test
+    void testReadRows_headingProblems() {
+        final String problem = "Heading problem";
+        mockSheet();
+        mockHeadingRow();
+        mockRows(0, DATA_ROW+2);
+        doAnswer(Matchers.addProblem(problem, Map.of())).when(reader).indexColumns(any(), any());
+        assertValidationError(() -> reader.readRows(rows), problem);
+        verify(reader).indexColumns(any(), same(headingRow));
+        verify(reader, never()).readRow(any(), any(), any());
+        verify(reader, never()).createRequest(any(), any());
+    }
+
+    @Test
+    void testReadRows_noHeading() {
+        mockSheet();
+        mockRows(DATA_ROW, DATA_ROW+2);
+        assertValidationError(() -> reader.readRows(rows), "Column headings not found.");
+        verify(reader, never()).indexColumns(any(), any());
+        verify(reader, never()).readRow(any(), any(), any());
+        verify(reader, never()).createRequest(any(), any());
+    }
+
     @Test
     void testIndexColumns() {
         Row row = mockRow("All information is needed",
@@ -0,0 +1,126 @@
+package uk.ac.sanger.sccp.stan.service.register.filereader;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.ac.sanger.sccp.stan.Matchers;
+import uk.ac.sanger.sccp.stan.service.ValidationException;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests {@link SheetReading}
+ * @author dr6
+ */
+public class TestSheetReading {
+    private final BlockRegisterFileReaderImp reader = new BlockRegisterFileReaderImp();
+
+    @Test
+    public void testReadXlsx() throws IOException {
+        byte[] bytes = makeWorkbook(new XSSFWorkbook());
+        List<String> values = SheetReading.read(new ByteArrayInputStream(bytes), 1,
+                sheet -> fail("Xlsx should be streamed"), this::describeRows);
+        assertThat(values).containsExactly("1: Alpha, 5, 2023-02-03", "3: Beta, 6, 2023-03-04");
+    }
+
+    @Test
+    public void testReadXls() throws IOException {
+        byte[] bytes = makeWorkbook(new HSSFWorkbook());
+        List<String> values = SheetReading.read(new ByteArrayInputStream(bytes), 1,
+                this::describeRows, rows -> fail("Xls should not be streamed"));
+        assertThat(values).containsExactly("1: Alpha, 5, 2023-02-03", "3: Beta, 6, 2023-03-04");
+    }
+
+    @Test
+    public void testReadMissingSheet() throws IOException {
+        byte[] bytes = makeWorkbook(new XSSFWorkbook());
+        Matchers.assertValidationException(() -> SheetReading.read(new ByteArrayInputStream(bytes), 2,
+                        sheet -> null, rows -> null),
+                List.of("Workbook does not have a worksheet at index 2"));
+    }
+
+    @Test
+    public void testReadRowsMatchesReadSheet() throws IOException {
+        // The same data read from a streamed xlsx and from a loaded workbook should give the same results
+        byte[] bytes = makeWorkbook(new XSSFWorkbook());
+        List<String> streamed = SheetReading.read(new ByteArrayInputStream(bytes), 1, sheet -> null, this::describeRows);
+        List<String> loaded;
+        try (Workbook wb = WorkbookFactory.create(new ByteArrayInputStream(bytes))) {
+            loaded = describeRows(wb.getSheetAt(1));
+        }
+        assertEquals(loaded, streamed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"block_reg.xlsx", "reg_empty.xlsx", "section_reg.xlsx"})
+    public void testRegistrationFilesStreamed(String filename) throws IOException {
+        // Reading a real file with the streaming reader should give the same request or problems
+        final String path = "testdata/"+filename;
+        final boolean section = filename.startsWith("section");
+        final int sheetIndex = (section ? SectionRegisterFileReader.SHEET_INDEX : BlockRegisterFileReader.SHEET_INDEX);
+        final BaseRegisterFileReader<?, ?> fileReader = (section ? new SectionRegisterFileReaderImp() : reader);
+        Object loaded;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(path);
+             Workbook wb = WorkbookFactory.create(in)) {
+            loaded = outcome(() -> fileReader.read(wb.getSheetAt(sheetIndex)));
+        }
+        Object streamed;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(path)) {
+            streamed = SheetReading.read(in, sheetIndex, sheet -> fail("Should be streamed"),
+                    rows -> outcome(() -> fileReader.readRows(rows)));
+        }
+        assertEquals(loaded, streamed);
+    }
+
+    /** Gets the result of the given supplier, or the problems if it throws a validation exception */
+    private static Object outcome(Supplier<?> supplier) {
+        try {
+            return supplier.get();
+        } catch (ValidationException e) {
+            return e.getProblems();
+        }
+    }
+
+    private List<String> describeRows(Iterable<Row> rows) {
+        List<String> values = new ArrayList<>();
+        for (Row row : rows) {
+            values.add(row.getRowNum()+": "+reader.cellValue(String.class, row.getCell(0))
+                    +", "+reader.cellValue(Integer.class, row.getCell(1))
+                    +", "+reader.cellValue(LocalDate.class, row.getCell(2)));
+        }
+        return values;
+    }
+
+    private static byte[] makeWorkbook(Workbook wb) throws IOException {
+        try (wb) {
+            wb.createSheet("First").createRow(0).createCell(0).setCellValue("Wrong sheet");
+            Sheet sheet = wb.createSheet("Second");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(" Alpha ");
+            row.createCell(1).setCellValue(5.0);
+            Cell dateCell = row.createCell(2);
+            dateCell.setCellValue(LocalDate.of(2023, 2, 3));
+            dateCell.setCellStyle(dateStyle);
+            row = sheet.createRow(3);
+            row.createCell(0).setCellValue("Beta");
+            row.createCell(1).setCellValue("6");
+            row.createCell(2).setCellValue("04/03/2023");
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.sanger.sccp.stan.BenchmarkData;
+import uk.ac.sanger.sccp.stan.service.releasefile.Ancestoriser.Ancestry;
+import uk.ac.sanger.sccp.stan.service.releasefile.Ancestoriser.SlotSample;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Ancestry#ancestors} and {@link Ancestry#getRoots} for every leaf of a deep lineage,
+ * as done when compiling a release file.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AncestryBenchmark {
+    @Param({"10", "50"})
+    int depth;
+
+    @Param({"96", "1000"})
+    int width;
+
+    Ancestry ancestry;
+    List<SlotSample> leaves;
+
+    @Setup
+    public void setup() {
+        BenchmarkData.Lineage lineage = BenchmarkData.deepLineage(depth, width);
+        ancestry = lineage.ancestry();
+        leaves = lineage.leaves();
+    }
+
+    @Benchmark
+    public void ancestors(Blackhole bh) {
+        for (SlotSample leaf : leaves) {
+            bh.consume(ancestry.ancestors(leaf));
+        }
+    }
+
+    @Benchmark
+    public void getRoots(Blackhole bh) {
+        for (SlotSample leaf : leaves) {
+            bh.consume(ancestry.getRoots(leaf));
+        }
+    }
+}
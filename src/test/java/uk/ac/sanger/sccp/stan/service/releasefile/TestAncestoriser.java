@@ -8,10 +8,11 @@ import uk.ac.sanger.sccp.stan.repo.ActionRepo;
 import uk.ac.sanger.sccp.stan.service.releasefile.Ancestoriser.SlotSample;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -131,6 +132,33 @@ public class TestAncestoriser {
                         slotSample(lw2beta, sample2), slotSample(lw, sample));
     }
 
+    @Test
+    public void testAncestry() {
+        Labware[] lws = IntStream.range(0, 5).mapToObj(i -> EntityFactory.makeEmptyLabware(lt)).toArray(Labware[]::new);
+        SlotSample[] sss = Arrays.stream(lws).map(lw -> slotSample(lw, sample)).toArray(SlotSample[]::new);
+        Ancestoriser.Ancestry ancestry = new Ancestoriser.Ancestry();
+        assertNull(ancestry.put(sss[0], new LinkedHashSet<>(List.of(sss[2], sss[1]))));
+        ancestry.put(sss[1], Set.of(sss[3]));
+        ancestry.put(sss[2], Set.of(sss[3]));
+        ancestry.put(sss[3], Set.of());
+
+        assertThat(ancestry.get(sss[0])).containsExactly(sss[2], sss[1]);
+        assertThat(ancestry.get(sss[4])).isEmpty();
+        assertThat(ancestry.keySet()).containsExactlyInAnyOrder(sss[0], sss[1], sss[2], sss[3]);
+        assertThat(ancestry.ancestors(sss[0])).containsExactly(sss[0], sss[2], sss[1], sss[3]);
+        assertThat(ancestry.ancestors(sss[4])).containsExactly(sss[4]);
+        assertThat(ancestry.getRoots(sss[0])).containsExactly(sss[3]);
+        assertThat(ancestry.getRoots(sss[4])).containsExactly(sss[4]);
+        assertTrue(ancestry.ancestors(sss[0]).contains(sss[1]));
+        assertFalse(ancestry.ancestors(sss[1]).contains(sss[2]));
+
+        // Modify after querying
+        assertThat(ancestry.put(sss[3], Set.of(sss[4]))).isEmpty();
+        assertThat(ancestry.ancestors(sss[1])).containsExactly(sss[1], sss[3], sss[4]);
+        assertThat(ancestry.getRoots(sss[0])).containsExactly(sss[4]);
+        assertEquals(Set.of(sss[3]), ancestry.get(sss[2]));
+    }
+
     private List<Action> makeActions(Object... objects) {
         int actionId = 100;
         assert objects.length%4 == 0;
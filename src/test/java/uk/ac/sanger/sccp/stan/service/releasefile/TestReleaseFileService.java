@@ -219,10 +219,10 @@ public class TestReleaseFileService {
         verify(service).toReleaseEntries(release2, sampleMap, snapshots, detail);
         verify(service).loadLastSection(entries);
         verify(service).findAncestry(entries);
-        verify(service).loadSources(entries, ancestry, modes);
+        verify(service, never()).loadSources(any(), any(), any());
         verify(service).loadMeasurements(entries, ancestry);
         verify(service).loadStains(entries, ancestry);
-        verify(service).loadReagentSources(entries);
+        verify(service, times(includeVisium ? 1 : 0)).loadReagentSources(entries);
         verify(service).loadSamplePositions(entries);
         verify(service).loadSectionComments(entries);
         verify(service, times(includeVisium ? 1 : 0)).loadVisiumBarcodes(entries, ancestry);
@@ -231,6 +231,79 @@ public class TestReleaseFileService {
         verify(service).loadFlags(entries);
     }
 
+    @Test
+    public void testGetReleaseFileContent_histologyOnly() {
+        setupReleases();
+        final Map<Integer, Snapshot> snapshots = snapMap();
+        doReturn(snapshots).when(service).loadSnapshots(any());
+        List<Release> releases = List.of(release1, release2);
+        doReturn(releases).when(service).getReleases(anyCollection());
+        Map<Integer, Sample> sampleMap = Map.of(sample.getId(), sample);
+        doReturn(sampleMap).when(service).loadSamples(anyCollection(), any());
+        List<ReleaseEntry> entries = List.of(new ReleaseEntry(lw1, lw1.getFirstSlot(), sample));
+        doReturn(entries.stream(), Stream.empty()).when(service).toReleaseEntries(any(), any(), any(), any());
+        var ancestry = makeAncestry(lw1, sample, lw1, sample);
+        doReturn(ancestry).when(service).findAncestry(any());
+        doReturn(EnumSet.of(ReleaseFileMode.NORMAL)).when(service).checkModes(any());
+        doNothing().when(service).loadLastSection(any());
+        doNothing().when(service).loadMeasurements(any(), any());
+        doNothing().when(service).loadSectionDate(any(), any());
+        doNothing().when(service).loadStains(any(), any());
+        doNothing().when(service).loadSamplePositions(any());
+        doNothing().when(service).loadSectionComments(any());
+        doNothing().when(service).loadFlags(any());
+
+        Set<ReleaseFileOption> options = EnumSet.of(ReleaseFileOption.Histology);
+        ReleaseFileContent rfc = service.getReleaseFileContent(List.of(release1.getId(), release2.getId()), options);
+        assertEquals(entries, rfc.getEntries());
+
+        verify(service).loadLastSection(entries);
+        verify(service).loadMeasurements(entries, ancestry);
+        verify(service).loadSectionDate(entries, ancestry);
+        verify(service).loadStains(entries, ancestry);
+        verify(service).loadSamplePositions(entries);
+        verify(service).loadSectionComments(entries);
+        verify(service).loadFlags(entries);
+        verify(service, never()).loadSources(any(), any(), any());
+        verify(service, never()).loadReagentSources(any());
+        verify(service, never()).loadSolutions(any());
+        verify(service, never()).loadVisiumBarcodes(any(), any());
+        verify(service, never()).loadXeniumFields(any(), any());
+    }
+
+    @ParameterizedTest
+    @MethodSource("loadingPlanArgs")
+    public void testLoadingPlan(Set<ReleaseFileMode> modes, Set<ReleaseFileOption> options,
+                                Set<ReleaseFileLoader> expectedPlan) {
+        assertThat(service.loadingPlan(modes, options)).containsExactlyInAnyOrderElementsOf(expectedPlan);
+    }
+
+    static Stream<Arguments> loadingPlanArgs() {
+        final Set<ReleaseFileMode> normal = EnumSet.of(ReleaseFileMode.NORMAL);
+        final Set<ReleaseFileMode> cdna = EnumSet.of(ReleaseFileMode.CDNA);
+        return Arrays.stream(new Object[][] {
+                {normal, EnumSet.noneOf(ReleaseFileOption.class), EnumSet.of(ReleaseFileLoader.FLAGS)},
+                {normal, EnumSet.of(ReleaseFileOption.Histology),
+                        EnumSet.of(ReleaseFileLoader.FLAGS, ReleaseFileLoader.SAMPLE_POSITIONS,
+                                ReleaseFileLoader.MEASUREMENTS, ReleaseFileLoader.SECTION_DATE,
+                                ReleaseFileLoader.SECTION_COMMENTS, ReleaseFileLoader.LAST_SECTION,
+                                ReleaseFileLoader.STAINS)},
+                {normal, EnumSet.of(ReleaseFileOption.Sample_processing),
+                        EnumSet.of(ReleaseFileLoader.FLAGS, ReleaseFileLoader.LAST_SECTION, ReleaseFileLoader.SOLUTIONS)},
+                {cdna, EnumSet.of(ReleaseFileOption.Visium),
+                        EnumSet.of(ReleaseFileLoader.FLAGS, ReleaseFileLoader.SAMPLE_POSITIONS,
+                                ReleaseFileLoader.MEASUREMENTS, ReleaseFileLoader.SECTION_DATE,
+                                ReleaseFileLoader.SECTION_COMMENTS, ReleaseFileLoader.SOURCES,
+                                ReleaseFileLoader.STAINS, ReleaseFileLoader.VISIUM_BARCODES,
+                                ReleaseFileLoader.REAGENT_SOURCES)},
+                {normal, EnumSet.of(ReleaseFileOption.Xenium),
+                        EnumSet.of(ReleaseFileLoader.FLAGS, ReleaseFileLoader.SAMPLE_POSITIONS,
+                                ReleaseFileLoader.MEASUREMENTS, ReleaseFileLoader.SECTION_DATE,
+                                ReleaseFileLoader.SECTION_COMMENTS, ReleaseFileLoader.STAINS,
+                                ReleaseFileLoader.XENIUM)},
+        }).map(Arguments::of);
+    }
+
     @ParameterizedTest
     @CsvSource(delimiter=';', value={
             "null,null;null,null;null,null;NONE",
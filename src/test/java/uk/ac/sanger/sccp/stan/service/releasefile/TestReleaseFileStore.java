@@ -0,0 +1,222 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.sanger.sccp.stan.EntityFactory;
+import uk.ac.sanger.sccp.stan.Transactor;
+import uk.ac.sanger.sccp.stan.config.StanFileConfig;
+import uk.ac.sanger.sccp.stan.config.VersionInfo;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.stan.repo.LabwareFlagRepo;
+import uk.ac.sanger.sccp.stan.repo.OperationRepo;
+import uk.ac.sanger.sccp.utils.tsv.TsvFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests {@link ReleaseFileStore}
+ * @author dr6
+ */
+public class TestReleaseFileStore {
+    @TempDir
+    Path tempDir;
+
+    private ReleaseFileService mockReleaseFileService;
+    private LabwareFlagRepo mockFlagRepo;
+    private OperationRepo mockOpRepo;
+    private Executor executor;
+    private ReleaseFileStore store;
+
+    @BeforeEach
+    void setup() {
+        StanFileConfig mockConfig = mock(StanFileConfig.class);
+        when(mockConfig.getRoot()).thenReturn(tempDir.toString());
+        when(mockConfig.getDir()).thenReturn("test");
+        Transactor mockTransactor = mock(Transactor.class);
+        when(mockTransactor.transact(any(), any())).then(invocation -> {
+            Supplier<?> supplier = invocation.getArgument(1);
+            return supplier.get();
+        });
+        mockReleaseFileService = mock(ReleaseFileService.class);
+        mockFlagRepo = mock(LabwareFlagRepo.class);
+        mockOpRepo = mock(OperationRepo.class);
+        executor = Runnable::run;
+        store = new ReleaseFileStore(mockConfig, mockTransactor, mockReleaseFileService, mockFlagRepo, mockOpRepo, "abc123", 30,
+                runnable -> executor.execute(runnable));
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals("3|abc123|1,2,3|Histology,Visium",
+                store.key(List.of(3, 1, 2, 1), EnumSet.of(ReleaseFileOption.Visium, ReleaseFileOption.Histology)));
+        assertEquals("3|abc123|4|", store.key(List.of(4), Set.of()));
+    }
+
+    @Test
+    public void testAppVersion() {
+        VersionInfo versionInfo = mock(VersionInfo.class);
+        when(versionInfo.getCommit()).thenReturn("abc123");
+        when(versionInfo.getVersion()).thenReturn("1.2");
+        assertEquals("abc123", ReleaseFileStore.appVersion(versionInfo));
+        when(versionInfo.getCommit()).thenReturn("");
+        assertEquals("1.2", ReleaseFileStore.appVersion(versionInfo));
+        when(versionInfo.getVersion()).thenReturn(null);
+        assertEquals("", ReleaseFileStore.appVersion(versionInfo));
+    }
+
+    @Test
+    public void testStoreAndLoad() {
+        Sample sample = EntityFactory.getSample();
+        Labware lw = EntityFactory.makeLabware(EntityFactory.getTubeType(), sample);
+        ReleaseEntry entry = new ReleaseEntry(lw, lw.getFirstSlot(), sample);
+        entry.setSectionComment("Hello\tworld");
+        final Set<ReleaseFileOption> options = EnumSet.of(ReleaseFileOption.Histology);
+        ReleaseFileContent rfc = new ReleaseFileContent(EnumSet.of(ReleaseFileMode.NORMAL), List.of(entry), options);
+        when(mockReleaseFileService.getReleaseFileContent(any(), any())).thenReturn(rfc);
+        doReturn(List.of(ReleaseColumn.Released_labware_barcode, ReleaseColumn.Section_comment, ReleaseColumn.Stain_type))
+                .when(mockReleaseFileService).computeColumns(rfc);
+
+        assertNull(store.load(List.of(2, 1), options));
+        store.submit(List.of(1, 2), options);
+        verify(mockReleaseFileService).getReleaseFileContent(List.of(1, 2), options);
+
+        StoredReleaseFile stored = store.load(List.of(2, 1), options);
+        assertNotNull(stored);
+        assertEquals("3|abc123|1,2|Histology", stored.getKey());
+        assertEquals(0, stored.getFlagWatermark());
+        assertEquals(0, stored.getOpWatermark());
+        assertThat(stored.getHeadings()).containsExactly("Released labware barcode", "Section comment", "Stain type");
+        assertThat(stored.getRows()).hasSize(1);
+        assertThat(stored.getRows().get(0)).containsExactly(lw.getBarcode(), "Hello\tworld", null);
+
+        TsvFile<String[]> file = stored.toTsvFile("releases.tsv");
+        assertEquals(1, file.getNumRows());
+        assertThat(file.getColumns().stream().map(Object::toString)).containsExactlyElementsOf(stored.getHeadings());
+        assertEquals(lw.getBarcode(), file.getValue(0, file.getColumns().get(0)));
+
+        assertNull(store.load(List.of(1, 2), Set.of()));
+        assertNull(store.load(List.of(1), options));
+    }
+
+    @Test
+    public void testLoadOutOfDate() throws IOException {
+        Sample sample = EntityFactory.getSample();
+        Labware lw = EntityFactory.makeLabware(EntityFactory.getTubeType(), sample);
+        ReleaseEntry entry = new ReleaseEntry(lw, lw.getFirstSlot(), sample);
+        ReleaseFileContent rfc = new ReleaseFileContent(EnumSet.of(ReleaseFileMode.NORMAL), List.of(entry), Set.of());
+        when(mockReleaseFileService.getReleaseFileContent(any(), any())).thenReturn(rfc);
+        doReturn(List.of(ReleaseColumn.Released_labware_barcode, ReleaseColumn.Flag_description))
+                .when(mockReleaseFileService).computeColumns(rfc);
+        when(mockFlagRepo.findMaxId()).thenReturn(5);
+
+        store.store(List.of(1), Set.of());
+        StoredReleaseFile stored = store.load(List.of(1), Set.of());
+        assertNotNull(stored);
+        assertEquals(5, stored.getFlagWatermark());
+        verify(mockReleaseFileService, times(1)).getReleaseFileContent(any(), any());
+
+        // A new flag makes the stored file out of date, so it is regenerated
+        when(mockFlagRepo.findMaxId()).thenReturn(6);
+        assertNull(store.load(List.of(1), Set.of()));
+        verify(mockReleaseFileService, times(2)).getReleaseFileContent(any(), any());
+        stored = store.load(List.of(1), Set.of());
+        assertNotNull(stored);
+        assertEquals(6, stored.getFlagWatermark());
+    }
+
+    @Test
+    public void testLoadOutOfDateOperations() throws IOException {
+        Sample sample = EntityFactory.getSample();
+        Labware lw = EntityFactory.makeLabware(EntityFactory.getTubeType(), sample);
+        ReleaseEntry entry = new ReleaseEntry(lw, lw.getFirstSlot(), sample);
+        ReleaseFileContent rfc = new ReleaseFileContent(EnumSet.of(ReleaseFileMode.NORMAL), List.of(entry), Set.of());
+        when(mockReleaseFileService.getReleaseFileContent(any(), any())).thenReturn(rfc);
+        doReturn(List.of(ReleaseColumn.Released_labware_barcode, ReleaseColumn.External_identifier))
+                .when(mockReleaseFileService).computeColumns(rfc);
+        when(mockOpRepo.findMaxIdForDonorsOfReleases(List.of(1))).thenReturn(10);
+
+        store.store(List.of(1), Set.of());
+        StoredReleaseFile stored = store.load(List.of(1), Set.of());
+        assertNotNull(stored);
+        assertEquals(10, stored.getOpWatermark());
+        verify(mockReleaseFileService, times(1)).getReleaseFileContent(any(), any());
+
+        // A new operation on the donor's samples (such as adding an external name) makes the stored file out of date
+        when(mockOpRepo.findMaxIdForDonorsOfReleases(List.of(1))).thenReturn(11);
+        assertNull(store.load(List.of(1), Set.of()));
+        verify(mockReleaseFileService, times(2)).getReleaseFileContent(any(), any());
+        stored = store.load(List.of(1), Set.of());
+        assertNotNull(stored);
+        assertEquals(11, stored.getOpWatermark());
+    }
+
+    @Test
+    public void testSubmitPending() {
+        List<Runnable> queue = new ArrayList<>();
+        executor = queue::add;
+        store.submit(List.of(1, 2), Set.of());
+        store.submit(List.of(2, 1), Set.of());
+        store.submit(List.of(1), Set.of());
+        assertThat(queue).hasSize(2);
+        queue.forEach(Runnable::run);
+        store.submit(List.of(1), Set.of());
+        assertThat(queue).hasSize(3);
+    }
+
+    @Test
+    public void testSubmitRejected() {
+        executor = runnable -> { throw new RejectedExecutionException(); };
+        store.submit(List.of(1), Set.of());
+        List<Runnable> queue = new ArrayList<>();
+        executor = queue::add;
+        store.submit(List.of(1), Set.of());
+        assertThat(queue).hasSize(1);
+    }
+
+    @Test
+    public void testPurgeExpired() throws IOException {
+        final Instant now = Instant.parse("2026-06-01T12:00:00Z");
+        assertEquals(0, store.purgeExpired(now));
+        Path oldPath = store.path("old");
+        Path newPath = store.path("new");
+        Files.createDirectories(oldPath.getParent());
+        Files.writeString(oldPath, "old");
+        Files.writeString(newPath, "new");
+        Files.setLastModifiedTime(oldPath, FileTime.from(now.minus(Duration.ofDays(31))));
+        Files.setLastModifiedTime(newPath, FileTime.from(now.minus(Duration.ofDays(29))));
+
+        assertEquals(1, store.purgeExpired(now));
+        assertFalse(Files.exists(oldPath));
+        assertTrue(Files.exists(newPath));
+    }
+
+    @Test
+    public void testLoadCorruptFile() throws IOException {
+        Path path = store.path(store.key(List.of(1), Set.of()));
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "nonsense");
+        assertNull(store.load(List.of(1), Set.of()));
+    }
+
+    @Test
+    public void testSubmitFailure() {
+        when(mockReleaseFileService.getReleaseFileContent(any(), any())).thenThrow(IllegalArgumentException.class);
+        store.submit(List.of(1), Set.of());
+        assertNull(store.load(List.of(1), Set.of()));
+    }
+}
@@ -0,0 +1,156 @@
+package uk.ac.sanger.sccp.stan.service.releasefile;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Measurement;
+import uk.ac.sanger.sccp.stan.EntityFactory;
+import uk.ac.sanger.sccp.stan.model.*;
+import uk.ac.sanger.sccp.utils.tsv.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing release files with {@link TsvWriter}, compared with writing them one character
+ * at a time to the output stream (as {@code TsvWriter} used to).
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TsvWriterBenchmark {
+    @Param({"1000", "20000"})
+    int numEntries;
+
+    @Param({"Histology", "Xenium"})
+    String option;
+
+    TsvFile<ReleaseEntry> releaseFile;
+
+    @Setup
+    public void setup() {
+        LabwareType lt = EntityFactory.makeLabwareType(4, 2, "Xenium slide");
+        Sample[] samples = EntityFactory.makeSamples(8);
+        LocalDateTime time = LocalDateTime.of(2024, 3, 1, 9, 30);
+        List<ReleaseEntry> entries = new ArrayList<>(numEntries);
+        Labware lw = null;
+        for (int i = 0; i < numEntries; ++i) {
+            if (i % 8 == 0) {
+                lw = EntityFactory.makeLabware(lt, samples);
+            }
+            Slot slot = lw.getSlots().get(i % 8);
+            ReleaseEntry entry = new ReleaseEntry(lw, slot, samples[i % 8], "Box "+(i/100), "Freezer 3, shelf 2");
+            entry.setSectionThickness("10");
+            entry.setSectionDate(LocalDate.of(2024, 2, 1 + i % 28));
+            entry.setSamplePosition("Top right");
+            entry.setSectionComment(i % 5 == 0 ? "Section folded; re-cut" : null);
+            entry.setStainType("H&E");
+            entry.setStainQcComment(i % 7 == 0 ? "Tissue \"patchy\"\tcheck" : "Good");
+            entry.setHybridStart(time);
+            entry.setHybridEnd(time.plusHours(20));
+            entry.setXeniumPlex("480");
+            entry.setXeniumProbe("Human multi-tissue panel");
+            entry.setXeniumProbeLot("LOT-"+i);
+            entry.setXeniumStart(time.plusDays(2));
+            entry.setXeniumEnd(time.plusDays(3));
+            entry.setXeniumRoi("ROI "+(i % 4));
+            entry.setXeniumRun("Run 2024-03-03 µ");
+            entry.setXeniumCassettePosition(i % 2 == 0 ? "left" : "right");
+            entries.add(entry);
+        }
+        List<ReleaseColumn> columns = ReleaseColumn.forModesAndOptions(List.of(ReleaseFileMode.NORMAL),
+                List.of(ReleaseFileOption.valueOf(option)));
+        releaseFile = new TsvFile<>("release.tsv", entries, columns);
+    }
+
+    @Benchmark
+    public long bufferedTsvWriter() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (TsvWriter writer = new TsvWriter(out)) {
+            writer.write(releaseFile);
+        }
+        return out.count;
+    }
+
+    @Benchmark
+    public long perCharacterWrite() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        new PerCharacterWriter(out).write(releaseFile);
+        return out.count;
+    }
+
+    /** A sink standing in for a servlet response stream */
+    static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /** The previous tsv writing algorithm, writing each character to the stream individually */
+    static class PerCharacterWriter {
+        private final OutputStream out;
+
+        PerCharacterWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        <C, V> void write(TsvData<C, V> data) throws IOException {
+            final List<? extends C> columns = data.getColumns();
+            writeLn(columns.stream().map(Object::toString).iterator());
+            final int numRows = data.getNumRows();
+            for (int i = 0; i < numRows; ++i) {
+                final int row = i;
+                writeLn(columns.stream()
+                        .map(column -> data.getValue(row, column))
+                        .map(v -> v==null ? null : v.toString()).iterator());
+            }
+        }
+
+        private void writeLn(Iterator<String> iter) throws IOException {
+            if (!iter.hasNext()) {
+                return;
+            }
+            write(iter.next());
+            while (iter.hasNext()) {
+                out.write('\t');
+                write(iter.next());
+            }
+            out.write('\n');
+        }
+
+        private void write(String value) throws IOException {
+            if (value==null) {
+                return;
+            }
+            boolean addQuotes = (value.indexOf('\t') >= 0 || value.indexOf('"') >= 0);
+            if (addQuotes) {
+                out.write('"');
+            }
+            for (int i = 0; i < value.length(); ++i) {
+                char ch = value.charAt(i);
+                if (ch=='"') {
+                    out.write('"');
+                }
+                out.write(ch);
+            }
+            if (addQuotes) {
+                out.write('"');
+            }
+        }
+    }
+}
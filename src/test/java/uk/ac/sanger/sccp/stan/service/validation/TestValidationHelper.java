@@ -14,6 +14,7 @@ import uk.ac.sanger.sccp.utils.UCMap;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -180,6 +181,34 @@ class TestValidationHelper {
         verify(mockCommentValidationService).validateCommentIds(any(), same(stream));
     }
 
+    @Test
+    public void testPrefetchLabware() {
+        Labware lw1 = EntityFactory.getTube();
+        Labware lw2 = EntityFactory.makeEmptyLabware(lw1.getLabwareType());
+        Labware lw3 = EntityFactory.makeEmptyLabware(lw1.getLabwareType());
+        when(mockLwRepo.findByBarcodeIn(any())).thenReturn(List.of(lw1, lw2), List.of(lw3));
+
+        val.prefetchLabware(List.of(lw1.getBarcode(), lw2.getBarcode().toLowerCase(), lw1.getBarcode(), "STAN-404"));
+        verify(mockLwRepo).findByBarcodeIn(List.of(lw1.getBarcode(), lw2.getBarcode().toLowerCase(), "STAN-404"));
+
+        LabwareValidator lwVal = mock(LabwareValidator.class);
+        when(mockLwValFactory.getValidator()).thenReturn(lwVal);
+        when(lwVal.getErrors()).thenReturn(List.of());
+        when(lwVal.getLabware()).thenReturn(List.of(lw1, lw2));
+        //noinspection unchecked
+        final ArgumentCaptor<Function<Collection<String>, List<Labware>>> lwLookupCaptor = ArgumentCaptor.forClass(Function.class);
+        val.checkLabware(List.of(lw1.getBarcode(), lw2.getBarcode()));
+        verify(lwVal).loadLabwareUsing(lwLookupCaptor.capture(), eq(List.of(lw1.getBarcode(), lw2.getBarcode())));
+        final Function<Collection<String>, List<Labware>> lookup = lwLookupCaptor.getValue();
+        assertThat(lookup.apply(List.of(lw2.getBarcode(), "STAN-404", lw1.getBarcode()))).containsExactly(lw2, lw1);
+        verifyNoMoreInteractions(mockLwRepo);
+
+        // Barcodes that were not prefetched are looked up when they are needed
+        assertThat(lookup.apply(List.of(lw1.getBarcode(), lw3.getBarcode()))).containsExactly(lw1, lw3);
+        verify(mockLwRepo).findByBarcodeIn(List.of(lw3.getBarcode()));
+        verifyNoMoreInteractions(mockLwRepo);
+    }
+
     @ParameterizedTest
     @CsvSource({
             ",,,3,",
@@ -18,11 +18,11 @@ import uk.ac.sanger.sccp.utils.UCMap;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +38,8 @@ public class TestWorkService {
     @Mock private ProgramRepo mockProgramRepo;
     @Mock private CostCodeRepo mockCostCodeRepo;
     @Mock private WorkRepo mockWorkRepo;
+    @Mock private WorkQueryRepo mockWorkQueryRepo;
+    @Mock private WorkLinkRepo mockWorkLinkRepo;
     @Mock private LabwareRepo mockLwRepo;
     @Mock private OmeroProjectRepo mockOmeroProjectRepo;
     @Mock private DnapStudyRepo mockDnapStudyRepo;
@@ -649,6 +651,30 @@ public class TestWorkService {
         );
     }
 
+    @Test
+    public void testLink_notLoaded() {
+        Sample sam1 = EntityFactory.getSample();
+        Sample sam2 = new Sample(sam1.getId()+1, sam1.getSection()+1, sam1.getTissue(), sam1.getBioState());
+        LabwareType lt = EntityFactory.makeLabwareType(1,2);
+        Labware lw1 = EntityFactory.makeLabware(lt, sam1, sam2);
+        Labware lw0 = EntityFactory.makeLabware(EntityFactory.getTubeType(), sam1);
+        OperationType opType = EntityFactory.makeOperationType("Section", null);
+        Operation op1 = makeOp(opType, 10, lw0, lw1);
+        Operation op2 = makeOp(opType, 11, lw0, lw1);
+        Work work = new Work(50, "SGP5000", null, null, null, null, null, Status.active);
+        doReturn(false).when(workService).isLoaded(any());
+
+        assertSame(work, workService.link(work, List.of(op1, op2)));
+
+        verify(mockWorkLinkRepo).insertWorkOps(List.of(50), Set.of(10, 11));
+        verify(mockWorkLinkRepo).insertWorkSamples(List.of(50), Set.of(
+                new SampleSlotId(sam1.getId(), lw1.getFirstSlot().getId()),
+                new SampleSlotId(sam2.getId(), lw1.getSlot(new Address(1,2)).getId())
+        ));
+        verify(mockWorkRepo, never()).save(any());
+        assertThat(work.getOperationIds()).isEmpty();
+    }
+
     @ParameterizedTest
     @ValueSource(booleans={true,false})
     public void testLinkMultiple_nothing(boolean anyOps) {
@@ -735,6 +761,24 @@ public class TestWorkService {
         verify(mockWorkRepo).saveAll(works);
     }
 
+    @Test
+    public void testLinkMultiple_notLoaded() {
+        Sample sam1 = EntityFactory.getSample();
+        Labware lw0 = EntityFactory.makeLabware(EntityFactory.getTubeType(), sam1);
+        Labware lw1 = EntityFactory.makeLabware(EntityFactory.getTubeType(), sam1);
+        OperationType opType = EntityFactory.makeOperationType("Section", null);
+        Operation op = makeOp(opType, 10, lw0, lw1);
+        List<Work> works = List.of(quickWork(51, Status.active), quickWork(52, Status.active));
+        doReturn(false).when(workService).isLoaded(any());
+
+        workService.link(works, List.of(op));
+
+        verify(mockWorkLinkRepo).insertWorkOps(List.of(51, 52), Set.of(10));
+        verify(mockWorkLinkRepo).insertWorkSamples(List.of(51, 52),
+                Set.of(new SampleSlotId(sam1.getId(), lw1.getFirstSlot().getId())));
+        verifyNoInteractions(mockWorkRepo);
+    }
+
     static Stream<SampleSlotId> opSsids(Operation op) {
         return op.getActions().stream()
                 .map(a -> new SampleSlotId(a.getSample().getId(), a.getDestination().getId()));
@@ -782,6 +826,22 @@ public class TestWorkService {
         );
     }
 
+    @Test
+    public void testLinkReleases_notLoaded() {
+        Sample sam1 = EntityFactory.getSample();
+        Labware lw1 = EntityFactory.makeLabware(EntityFactory.getTubeType(), sam1);
+        Release rel1 = quickRelease(100, lw1);
+        Work work = quickWork(Status.active);
+        doReturn(false).when(workService).isLoaded(any());
+
+        assertSame(work, workService.linkReleases(work, List.of(rel1)));
+
+        verify(mockWorkLinkRepo).insertWorkReleases(List.of(1), Set.of(100));
+        verify(mockWorkLinkRepo).insertWorkSamples(List.of(1),
+                Set.of(new SampleSlotId(sam1.getId(), lw1.getFirstSlot().getId())));
+        verifyNoInteractions(mockWorkRepo);
+    }
+
     @Test
     public void testLinkWorkOps() {
         OperationType opType = EntityFactory.makeOperationType("Bananas", null);
@@ -808,6 +868,55 @@ public class TestWorkService {
         verify(workService).link(works[2], List.of(ops[3]));
     }
 
+    @ParameterizedTest
+    @CsvSource({"id,,,2,2,", "id,1,2,3,2,3", "workNumber,SGP1,2,3,2,SGP3", "id,5,3,1,1,"})
+    public void testGetWorksPage(WorkPageRequest.SortField sortBy, String afterKey, Integer pageSize, int numFound,
+                                 int expectedSize, String expectedNext) {
+        String after = (afterKey==null ? null : CursorPage.encodeCursor(afterKey));
+        WorkPageRequest request = new WorkPageRequest(List.of(Status.active), null, null, null, sortBy,
+                false, after, pageSize);
+        List<Work> works = IntStream.range(2, 2+numFound).mapToObj(i -> quickWork(i, Status.active)).toList();
+        int limit = (pageSize==null ? CursorPage.DEFAULT_PAGE_SIZE : pageSize) + 1;
+        when(mockWorkQueryRepo.findPage(any(), any(), anyInt())).thenReturn(works);
+
+        CursorPage<Work> page = workService.getWorksPage(request);
+
+        verify(mockWorkQueryRepo).findPage(request, afterKey, limit);
+        assertThat(page.getItems()).containsExactlyElementsOf(works.subList(0, expectedSize));
+        if (expectedNext==null) {
+            assertNull(page.getNextCursor());
+        } else {
+            assertEquals(expectedNext, CursorPage.decodeCursor(page.getNextCursor()));
+        }
+    }
+
+    @Test
+    public void testGetWorksPage_invalid() {
+        WorkPageRequest request = new WorkPageRequest();
+        request.setPageSize(0);
+        assertThat(assertThrows(IllegalArgumentException.class, () -> workService.getWorksPage(request)))
+                .hasMessage("Page size must be at least 1.");
+        request.setPageSize(null);
+        request.setAfter("#");
+        assertThat(assertThrows(IllegalArgumentException.class, () -> workService.getWorksPage(request)))
+                .hasMessage("Invalid cursor: #");
+        verifyNoInteractions(mockWorkQueryRepo);
+    }
+
+    @Test
+    public void testGetWorksWithCommentsPage() {
+        WorkPageRequest request = new WorkPageRequest();
+        List<Work> works = List.of(quickWork(1, Status.active), quickWork(2, Status.paused));
+        CursorPage<Work> workPage = new CursorPage<>(works, "abc");
+        doReturn(workPage).when(workService).getWorksPage(request);
+        List<WorkWithComment> wcs = works.stream().map(WorkWithComment::new).toList();
+        doReturn(wcs).when(workService).withComments(works);
+
+        CursorPage<WorkWithComment> page = workService.getWorksWithCommentsPage(request);
+        assertSame(wcs, page.getItems());
+        assertEquals("abc", page.getNextCursor());
+    }
+
     static Work quickWork(Status status) {
         return quickWork(1, status);
     }
@@ -1090,13 +1199,13 @@ public class TestWorkService {
                     return work;
                 }).collect(toList());
 
-        Function<Integer, Integer> workRepoFn = (includeInactive ? mockWorkRepo::findLatestWorkIdForLabwareId
-                : mockWorkRepo::findLatestActiveWorkIdForLabwareId);
-
-        when(workRepoFn.apply(labwares[0].getId())).thenReturn(1);
-        when(workRepoFn.apply(labwares[1].getId())).thenReturn(null);
-        when(workRepoFn.apply(labwares[2].getId())).thenReturn(1);
-        when(workRepoFn.apply(labwares[3].getId())).thenReturn(2);
+        Set<Integer> labwareIds = Arrays.stream(labwares).map(Labware::getId).collect(toSet());
+        Map<Integer, Integer> lwWorkIds = Map.of(labwares[0].getId(), 1, labwares[2].getId(), 1, labwares[3].getId(), 2);
+        if (includeInactive) {
+            when(mockWorkRepo.findLatestWorkIdsForLabwareIds(labwareIds)).thenReturn(lwWorkIds);
+        } else {
+            when(mockWorkRepo.findLatestActiveWorkIdsForLabwareIds(labwareIds)).thenReturn(lwWorkIds);
+        }
         when(mockWorkRepo.findAllById(Set.of(1,2))).thenReturn(works);
 
         SuggestedWorkResponse response = workService.suggestWorkForLabwareBarcodes(barcodes, includeInactive);
@@ -1107,6 +1216,8 @@ public class TestWorkService {
                 new SuggestedWork("STAN-4", "SGP2")
         );
         assertThat(response.getWorks()).containsExactlyInAnyOrderElementsOf(works);
+        verify(mockWorkRepo, never()).findLatestWorkIdForLabwareId(any());
+        verify(mockWorkRepo, never()).findLatestActiveWorkIdForLabwareId(any());
     }
 
     @ParameterizedTest
@@ -0,0 +1,48 @@
+package uk.ac.sanger.sccp.utils;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@link StringTemplate#substitute} with the label templates used for printing.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringTemplateBenchmark {
+    @Param({"plate.json", "slide6.json", "xenium.json"})
+    String templateName;
+
+    StringTemplate template;
+    Map<String, String> subs;
+
+    @Setup
+    public void setup() throws IOException {
+        String templateString = Resources.toString(Resources.getResource("sprint/"+templateName), Charsets.UTF_8);
+        template = new StringTemplate(templateString, "#", "#");
+        subs = new HashMap<>();
+        Matcher matcher = Pattern.compile("#([A-Za-z0-9]+)#").matcher(templateString);
+        int n = 0;
+        while (matcher.find()) {
+            subs.put(matcher.group(1), "VALUE-"+(++n));
+        }
+    }
+
+    @Benchmark
+    public String substitute() {
+        return template.substitute(subs);
+    }
+}
@@ -2,9 +2,11 @@ package uk.ac.sanger.sccp.utils;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.Map;
+import java.util.*;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -34,6 +36,123 @@ public class TestUCMap {
         assertEquals(other, map);
     }
 
+    @Test
+    public void testNonAsciiKeys() {
+        UCMap<Integer> map = new UCMap<>();
+        map.put("café", 1);
+        map.put("straße", 2);
+        assertEquals(Set.of("CAFÉ", "STRASSE"), map.keySet());
+        assertEquals(1, map.get("CAFÉ"));
+        assertEquals(1, map.get("Café"));
+        assertEquals(2, map.get("strasse"));
+        assertNull(map.get("cafe"));
+        assertEquals(2, map.remove("Straße"));
+        assertEquals(Map.of("CAFÉ", 1), map);
+    }
+
+    @Test
+    public void testNullAndOtherKeys() {
+        UCMap<Integer> map = new UCMap<>();
+        map.put(null, 1);
+        map.put("a", 2);
+        assertEquals(1, map.get(null));
+        assertTrue(map.containsKey(null));
+        assertNull(map.get(5));
+        assertFalse(map.containsKey(5));
+        assertEquals(1, map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertEquals(Map.of("A", 2), map);
+    }
+
+    @Test
+    public void testIterationOrderMatchesHashMap() {
+        UCMap<Integer> map = new UCMap<>();
+        Map<String, Integer> hashMap = new HashMap<>();
+        for (int i = 0; i < 500; ++i) {
+            map.put("sgp"+i, i);
+            hashMap.put("SGP"+i, i);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            map.remove("Sgp"+i);
+            hashMap.remove("SGP"+i);
+        }
+        assertEquals(hashMap.size(), map.size());
+        assertEquals(new ArrayList<>(hashMap.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(new ArrayList<>(hashMap.values()), new ArrayList<>(map.values()));
+        assertEquals(hashMap, map);
+        assertEquals(hashMap.hashCode(), map.hashCode());
+        assertEquals("UCMap("+hashMap+")", map.toString());
+    }
+
+    @Test
+    public void testViews() {
+        UCMap<Integer> map = UCMap.from(List.of(1, 2, 3, 4), i -> "k"+i);
+        assertTrue(map.keySet().contains("k1"));
+        assertTrue(map.keySet().remove("k1"));
+        assertTrue(map.values().remove(2));
+        assertFalse(map.entrySet().contains(Map.entry("k3", 3)));
+        assertTrue(map.entrySet().contains(Map.entry("K3", 3)));
+        assertTrue(map.entrySet().remove(Map.entry("K3", 3)));
+        assertEquals(Map.of("K4", 4), map);
+        for (var entry : map.entrySet()) {
+            entry.setValue(5);
+        }
+        assertEquals(5, map.get("k4"));
+        Iterator<String> iter = map.keySet().iterator();
+        assertThrows(IllegalStateException.class, iter::remove);
+        iter.next();
+        iter.remove();
+        assertTrue(map.isEmpty());
+        assertThrows(NoSuchElementException.class, iter::next);
+
+        map.put("a", 1);
+        Iterator<String> iter2 = map.keySet().iterator();
+        map.put("b", 2);
+        assertThrows(ConcurrentModificationException.class, iter2::next);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsValue(1));
+    }
+
+    @Test
+    public void testDefaultMethods() {
+        UCMap<Integer> map = new UCMap<>(2);
+        assertNull(map.putIfAbsent("a", 1));
+        assertEquals(1, map.putIfAbsent("A", 2));
+        assertEquals(3, map.getOrDefault("b", 3));
+        assertEquals(4, map.computeIfAbsent("b", k -> k.equals("B") ? 4 : -1));
+        assertEquals(4, map.computeIfAbsent("B", k -> 5));
+        assertEquals(5, map.computeIfPresent("b", (k, v) -> v+1));
+        assertNull(map.computeIfPresent("c", (k, v) -> 0));
+        assertEquals(6, map.compute("c", (k, v) -> v==null ? 6 : 0));
+        assertNull(map.compute("C", (k, v) -> null));
+        assertEquals(7, map.merge("d", 7, Integer::sum));
+        assertEquals(8, map.merge("D", 1, Integer::sum));
+        assertTrue(map.replace("d", 8, 9));
+        assertFalse(map.replace("d", 8, 10));
+        assertEquals(9, map.replace("D", 11));
+        assertNull(map.replace("e", 12));
+        assertFalse(map.remove("d", 9));
+        assertTrue(map.remove("d", 11));
+        assertEquals(Map.of("A", 1, "B", 5), map);
+        map.replaceAll((k, v) -> k.length() + v);
+        assertEquals(Map.of("A", 2, "B", 6), map);
+        List<String> keys = new ArrayList<>();
+        map.forEach((k, v) -> keys.add(k));
+        assertThat(keys).containsExactlyInAnyOrder("A", "B");
+    }
+
+    @Test
+    public void testLargeMap() {
+        UCMap<Integer> map = IntStream.range(0, 10_000).boxed()
+                .collect(UCMap.toUCMap(i -> "stan-"+i));
+        assertEquals(10_000, map.size());
+        for (int i = 0; i < 10_000; ++i) {
+            assertEquals(i, map.get("STAN-"+i));
+        }
+        assertEquals(map, new UCMap<>(map));
+    }
+
     @Test
     public void testCollectToUCMap() {
         UCMap<Integer> map = Stream.of(0, 1, 2, 4)
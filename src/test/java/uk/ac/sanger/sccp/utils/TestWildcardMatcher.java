@@ -0,0 +1,59 @@
+package uk.ac.sanger.sccp.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link WildcardMatcher}
+ * @author dr6
+ */
+public class TestWildcardMatcher {
+    @ParameterizedTest
+    @CsvSource({
+            "TIS*, TIS1 TIS2 tisXYZ tis, STI tizzy",
+            "ALPHA beta GAMMA, alpha beta gamma, alphabet gamm lpha alpha|beta",
+            "ALP* *eta gamma, alpha beta gamma zeta eta, etafoo gammafoo gamm",
+            "*, alpha x, ",
+            "**, alpha x, ",
+            "*ph*, alpha ph PHONE, alpa pa",
+            "A*Z, AZ abcz a*z azz, abc bz za a",
+            "ab*ab, abab ab123ab, ab aba",
+            "a*b*c, abc aXbYc abbc, ab bc acb",
+            "*a*b, ab xaxb, ba abx",
+            "a.c* [x], A.CDE [X], abc x [",
+    })
+    public void testMatcher(String inputs, String goods, String bads) {
+        List<String> wildcardStrings = Arrays.asList(inputs.split("\\s+"));
+        WildcardMatcher matcher = WildcardMatcher.of(wildcardStrings);
+        for (String good : goods.split("\\s+")) {
+            assertTrue(matcher.test(good), good);
+        }
+        if (bads!=null) {
+            for (String bad : bads.split("\\s+")) {
+                assertFalse(matcher.test(bad), bad);
+            }
+        }
+        assertFalse(matcher.test(null));
+    }
+
+    @Test
+    public void testSingleString() {
+        WildcardMatcher matcher = WildcardMatcher.of("STAN*");
+        assertTrue(matcher.test("stan-1"));
+        assertFalse(matcher.test("xstan-1"));
+        assertSame(matcher, WildcardMatcher.of(List.of("STAN*")));
+    }
+
+    @Test
+    public void testCached() {
+        WildcardMatcher matcher = WildcardMatcher.of(List.of("Alpha*", "*beta"));
+        assertSame(matcher, WildcardMatcher.of(Arrays.asList("Alpha*", "*beta")));
+        assertNotSame(matcher, WildcardMatcher.of(List.of("*beta", "Alpha*")));
+    }
+}
@@ -0,0 +1,89 @@
+package uk.ac.sanger.sccp.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.sanger.sccp.stan.BenchmarkData;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and looking up keys in a {@link UCMap}, compared with a plain {@link HashMap}
+ * whose keys are already upper case.
+ * Run with the {@code benchmark} maven profile; add {@code -prof gc} to the benchmark options
+ * to compare the allocation rate of each lookup.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UCMapBenchmark {
+    @Param({"100", "10000"})
+    int numKeys;
+
+    List<String> keys;
+    List<String> upperKeys;
+    UCMap<Integer> ucMap;
+    Map<String, Integer> hashMap;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkData.strings("Stan-", numKeys);
+        upperKeys = keys.stream().map(String::toUpperCase).toList();
+        ucMap = new UCMap<>(numKeys);
+        hashMap = new HashMap<>(numKeys);
+        for (int i = 0; i < numKeys; ++i) {
+            ucMap.put(keys.get(i), i);
+            hashMap.put(upperKeys.get(i), i);
+        }
+    }
+
+    @Benchmark
+    public UCMap<Integer> ucMapPut() {
+        UCMap<Integer> map = new UCMap<>(numKeys);
+        for (int i = 0; i < numKeys; ++i) {
+            map.put(keys.get(i), i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Map<String, Integer> hashMapPut() {
+        Map<String, Integer> map = new HashMap<>(numKeys);
+        for (int i = 0; i < numKeys; ++i) {
+            map.put(upperKeys.get(i), i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public void ucMapGet(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(ucMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void ucMapGetUpper(Blackhole bh) {
+        for (String key : upperKeys) {
+            bh.consume(ucMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void ucMapContainsKey(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(ucMap.containsKey(key));
+        }
+    }
+
+    @Benchmark
+    public void hashMapGet(Blackhole bh) {
+        for (String key : upperKeys) {
+            bh.consume(hashMap.get(key));
+        }
+    }
+}
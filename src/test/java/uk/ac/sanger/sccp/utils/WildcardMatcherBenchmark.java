@@ -0,0 +1,57 @@
+package uk.ac.sanger.sccp.utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares matching a large list of candidate strings with {@link WildcardMatcher}
+ * against compiling and matching a regex from {@link BasicUtils#makeWildcardPattern(Collection)}.
+ * Run with the {@code benchmark} maven profile.
+ * @author dr6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WildcardMatcherBenchmark {
+    @Param({"TISSUE-1*", "*-12*", "tissue-123", "TISSUE-1*5"})
+    String wildcardString;
+
+    @Param({"100000"})
+    int numCandidates;
+
+    List<String> candidates;
+    List<String> wildcardStrings;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        candidates = new ArrayList<>(numCandidates);
+        for (int i = 0; i < numCandidates; ++i) {
+            candidates.add("Tissue-"+random.nextInt(numCandidates));
+        }
+        wildcardStrings = List.of(wildcardString);
+    }
+
+    @Benchmark
+    public void regexPattern(Blackhole bh) {
+        Pattern pattern = BasicUtils.makeWildcardPattern(wildcardStrings);
+        for (String candidate : candidates) {
+            bh.consume(pattern.matcher(candidate).matches());
+        }
+    }
+
+    @Benchmark
+    public void wildcardMatcher(Blackhole bh) {
+        WildcardMatcher matcher = WildcardMatcher.of(wildcardStrings);
+        for (String candidate : candidates) {
+            bh.consume(matcher.test(candidate));
+        }
+    }
+}
@@ -4,8 +4,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -26,7 +28,7 @@ public class TestTsvWriter {
     }
 
     private String getOutput() {
-        return outputStream.toString();
+        return outputStream.toString(StandardCharsets.UTF_8);
     }
 
     @Test
@@ -51,6 +53,42 @@ public class TestTsvWriter {
         assertEquals(expectedOutput, getOutput());
     }
 
+    @Test
+    public void testWriteNonAscii() throws IOException {
+        final String COL = "Naïve";
+        List<Map<String, String>> entries = List.of(
+                Map.of(COL, "µm"),
+                Map.of(COL, "2×3 → \"α\""),
+                Map.of(COL, "Smile \uD83D\uDE00"),
+                Map.of(COL, "Bad \uD83D")
+        );
+        tsvWriter.write(new TsvFile<>("file.tsv", entries, List.of(new Column(COL))));
+
+        String expectedOutput = "Naïve\n" +
+                "µm\n" +
+                "\"2×3 → \"\"α\"\"\"\n" +
+                "Smile \uD83D\uDE00\n" +
+                "Bad ?\n";
+        assertEquals(expectedOutput, getOutput());
+    }
+
+    @Test
+    public void testWriteSmallBuffer() throws IOException {
+        final String COL1 = "Alpha", COL2 = "Beta";
+        List<Map<String, String>> entries = IntStream.range(0, 20)
+                .mapToObj(i -> Map.of(COL1, "Value\t"+i, COL2, "Ünïcödé \uD83D\uDE00 \"" + i + "\""))
+                .toList();
+        TsvData<?, ?> tsvData = new TsvFile<>("file.tsv", entries, List.of(new Column(COL1), new Column(COL2)));
+        ByteArrayOutputStream expectedStream = new ByteArrayOutputStream();
+        new TsvWriter(expectedStream).write(tsvData);
+
+        ByteArrayOutputStream smallOut = new ByteArrayOutputStream();
+        try (TsvWriter t = new TsvWriter(smallOut, '\t', '"', '"', '\n', 5)) {
+            t.write(tsvData);
+        }
+        assertEquals(expectedStream.toString(StandardCharsets.UTF_8), smallOut.toString(StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testClose() throws IOException {
         OutputStream mockOut = mock(OutputStream.class);